@@ -0,0 +1,234 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.GameListener;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+
+/**
+ * One seat's knowledge of the hidden cards, kept up to date from {@link GameListener} events.
+ *
+ * The tracker keeps the mask of unseen cards (the opponent's hand plus the deck), the opponent's hand
+ * size, and a weight per card for how likely it is to be in the opponent's hand rather than the deck.
+ * Weights start equal at each deal. When the opponent drops a card instead of capturing, the unseen
+ * cards that could have captured on that table are made less likely, since most players take a
+ * capture when they have one.
+ *
+ * {@link #sampleOpponentHand()} draws a hand consistent with everything seen, weighted as above, for
+ * determinized search. Updates and samples allocate nothing. Not thread-safe: one tracker per seat
+ * per game, driven on the game's thread.
+ */
+public final class BeliefTracker implements GameListener {
+    /** Weight multiplier applied to cards the opponent would have captured with but did not play. */
+    static final double PASSED_CAPTURE_DECAY = 0.5;
+
+    private static final long ALL = (1L << Card.DECK_SIZE) - 1;
+    /** Cards of each value 1..10. */
+    private static final long[] VALUE_MASK = new long[Rank.values().length + 1];
+
+    static {
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            VALUE_MASK[Card.of(i).value()] |= 1L << i;
+        }
+    }
+
+    private final int seat;
+    private final double[] weight = new double[Card.DECK_SIZE];
+    private long unseen = ALL;
+    private long ownHand;
+    private long table;
+    private int opponentHandSize;
+    private int deckSize = Card.DECK_SIZE;
+    private long rng;
+
+    /**
+     * @param seat the seat (0 or 1) whose point of view is tracked
+     */
+    public BeliefTracker(int seat, long seed) {
+        if (seat != 0 && seat != 1) {
+            throw new IllegalArgumentException("Invalid seat: " + seat);
+        }
+        this.seat = seat;
+        this.rng = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    @Override
+    public void roundStarted(ScopaGame game, long tableMask) {
+        table = tableMask;
+        unseen = ALL & ~tableMask;
+        ownHand = 0;
+        opponentHandSize = 0;
+        deckSize = Card.DECK_SIZE - Long.bitCount(tableMask);
+    }
+
+    @Override
+    public void handDealt(ScopaGame game, int player, long handMask) {
+        int count = Long.bitCount(handMask);
+        deckSize -= count;
+        if (player == seat) {
+            ownHand |= handMask;
+            unseen &= ~handMask;
+        } else {
+            opponentHandSize += count;
+            // A fresh hand: earlier inferences were about cards the opponent has since played.
+            for (long m = unseen; m != 0; m &= m - 1) {
+                weight[Long.numberOfTrailingZeros(m)] = 1.0;
+            }
+        }
+    }
+
+    @Override
+    public void cardPlayed(ScopaGame game, int player, Card card, long tableBefore, long capturedMask) {
+        long bit = 1L << card.index();
+        if (player == seat) {
+            ownHand &= ~bit;
+        } else {
+            unseen &= ~bit;
+            opponentHandSize--;
+            if (capturedMask == 0) {
+                decayCapturers(tableBefore);
+            }
+        }
+        table = capturedMask == 0 ? tableBefore | bit : tableBefore & ~capturedMask;
+    }
+
+    /**
+     * Make unseen cards that had a capture on {@code tableBefore} less likely to be in the opponent's hand.
+     * A card of value v can capture iff some non-empty subset of the table sums to v, so one subset-sum
+     * bitset over the table values answers it for every value at once.
+     */
+    private void decayCapturers(long tableBefore) {
+        long sums = 1;
+        for (long m = tableBefore; m != 0; m &= m - 1) {
+            sums |= sums << Card.of(Long.numberOfTrailingZeros(m)).value();
+        }
+        long capturers = 0;
+        for (int v = 1; v < VALUE_MASK.length; v++) {
+            if ((sums & (1L << v)) != 0) {
+                capturers |= VALUE_MASK[v];
+            }
+        }
+        for (long m = unseen & capturers; m != 0; m &= m - 1) {
+            weight[Long.numberOfTrailingZeros(m)] *= PASSED_CAPTURE_DECAY;
+        }
+    }
+
+    /** Cards in the opponent's hand or the deck. */
+    public long unseen() {
+        return unseen;
+    }
+
+    public long ownHand() {
+        return ownHand;
+    }
+
+    public long table() {
+        return table;
+    }
+
+    public int opponentHandSize() {
+        return opponentHandSize;
+    }
+
+    public int deckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Probability that {@code card} is in the opponent's hand. Approximates the weighted draw of
+     * {@link #sampleOpponentHand()} by each card's share of the total weight, capped at 1.
+     */
+    public double probability(Card card) {
+        long bit = 1L << card.index();
+        if ((unseen & bit) == 0 || opponentHandSize == 0) {
+            return 0;
+        }
+        double total = 0;
+        for (long m = unseen; m != 0; m &= m - 1) {
+            total += weight[Long.numberOfTrailingZeros(m)];
+        }
+        return Math.min(1.0, opponentHandSize * weight[card.index()] / total);
+    }
+
+    /**
+     * Draw an opponent hand from the unseen cards, without replacement and in proportion to the
+     * weights. The rest of {@link #unseen()} is then the deck.
+     */
+    public long sampleOpponentHand() {
+        long hand = 0;
+        long pool = unseen;
+        for (int k = 0; k < opponentHandSize && pool != 0; k++) {
+            double total = 0;
+            for (long m = pool; m != 0; m &= m - 1) {
+                total += weight[Long.numberOfTrailingZeros(m)];
+            }
+            double r = nextDouble() * total;
+            long pick = Long.highestOneBit(pool);
+            for (long m = pool; m != 0; m &= m - 1) {
+                int i = Long.numberOfTrailingZeros(m);
+                r -= weight[i];
+                if (r < 0) {
+                    pick = 1L << i;
+                    break;
+                }
+            }
+            hand |= pick;
+            pool &= ~pick;
+        }
+        return hand;
+    }
+
+    /**
+     * Copy {@code root} into {@code out}, replacing what this seat cannot see (the opponent's hand and
+     * the deck order) with a sample: a weighted opponent hand and the other unseen cards shuffled.
+     */
+    public void determinize(SimState root, SimState out) {
+        out.copyFrom(root);
+        long opponent = sampleOpponentHand();
+        out.hand[1 - seat] = opponent;
+        int n = 0;
+        for (long m = unseen & ~opponent; m != 0; m &= m - 1) {
+            int j = (int) (nextDouble() * (n + 1));
+            out.deck[n] = out.deck[j];
+            out.deck[j] = (byte) Long.numberOfTrailingZeros(m);
+            n++;
+        }
+        out.deckSize = n;
+    }
+
+    /**
+     * Independent copy, e.g. to hand a snapshot of this seat's beliefs to another thread.
+     */
+    public BeliefTracker copy() {
+        return copy(rng + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Independent copy sampling from its own {@code seed}, so several copies searched in parallel
+     * draw different guesses.
+     */
+    public BeliefTracker copy(long seed) {
+        BeliefTracker c = new BeliefTracker(seat, seed);
+        System.arraycopy(weight, 0, c.weight, 0, weight.length);
+        c.unseen = unseen;
+        c.ownHand = ownHand;
+        c.table = table;
+        c.opponentHandSize = opponentHandSize;
+        c.deckSize = deckSize;
+        return c;
+    }
+
+    public int seat() {
+        return seat;
+    }
+
+    /**
+     * Uniform double in [0, 1) from an xorshift64* generator kept in a field, so sampling never allocates.
+     */
+    private double nextDouble() {
+        rng ^= rng >>> 12;
+        rng ^= rng << 25;
+        rng ^= rng >>> 27;
+        return ((rng * 0x2545F4914F6CDD1DL) >>> 11) * 0x1.0p-53;
+    }
+}
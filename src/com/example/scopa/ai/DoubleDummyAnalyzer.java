@@ -0,0 +1,459 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optimal play of a round with every card visible, deck order included ("double dummy"), for
+ * post-game analysis.
+ *
+ * {@link #solve(SimState)} runs an alpha-beta search to the end of the round with Lazy SMP: every
+ * thread searches the same root by iterative deepening, the helpers starting one ply deeper in turn
+ * and trying moves in a rotated order, and all share one lock-free {@link TranspositionTable}. The
+ * helpers' results only reach the answer through the table, where they spare the others work. The
+ * first thread to finish the full-depth iteration gives the answer and stops the rest. Shallow
+ * iterations score their leaves with an {@link Evaluator}, kept up to date along the search path; the
+ * final one reaches the end of the round everywhere, so its value is exact.
+ *
+ * Table entries are keyed by {@link PositionKey}, so lines that reach the same cards in play with
+ * equivalent piles share one entry, and store values net of scopas already scored. The key does not
+ * cover the deck order, so entries are only valid within one deal: {@link #solve} starts from an
+ * empty table, and {@link #analyze} clears it once and keeps it across the positions of its line.
+ *
+ * Usage: {@code DoubleDummyAnalyzer [seed] [maxThreads] [fromPly]} deals a round from {@code seed},
+ * plays it with the rollout policy, analyzes it from {@code fromPly} with 1 to {@code maxThreads}
+ * threads, and reports nodes per second and scaling efficiency.
+ */
+public final class DoubleDummyAnalyzer implements AutoCloseable {
+    /** Plies in a round: 36 cards are played from the hands. */
+    private static final int MAX_PLY = 40;
+    private static final int INFINITY = 1 << 24;
+    private static final int NO_MOVE = -1;
+
+    private final int threads;
+    private final TranspositionTable table;
+    private final EvalWeights weights;
+    private final ExecutorService helpers;
+    private final Worker[] workers;
+
+    private volatile boolean stop;
+    private final AtomicLong answer = new AtomicLong();
+
+    /**
+     * @param threads   search threads, including the caller's
+     * @param tableBits log2 of the transposition table entries (16 bytes each)
+     */
+    public DoubleDummyAnalyzer(int threads, int tableBits) {
+        this(threads, tableBits, EvalWeights.defaults());
+    }
+
+    public DoubleDummyAnalyzer(int threads, int tableBits, EvalWeights weights) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.threads = threads;
+        this.table = new TranspositionTable(tableBits);
+        this.weights = weights;
+        AtomicInteger n = new AtomicInteger();
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "double-dummy-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    /**
+     * Optimal value of {@code s} for the player to move, searched from an empty table.
+     */
+    public Solution solve(SimState s) {
+        table.clear();
+        return search(s);
+    }
+
+    /**
+     * Optimal value of {@code s} for the player to move, with the table left from earlier calls; those
+     * must have searched positions of the same deal.
+     */
+    private Solution search(SimState s) {
+        if (s.isRoundOver()) {
+            SimState end = s.copy();
+            end.finish();
+            int diff = end.pointDifference();
+            return new Solution(s.current() == 0 ? diff : -diff, NO_MOVE, 0);
+        }
+        stop = false;
+        answer.set(0);
+        long before = nodes();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Worker w = workers[i];
+            running.add(helpers.submit(() -> w.run(s)));
+        }
+        workers[0].run(s);
+        stop = true;
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+        long packed = answer.get();
+        return new Solution((int) packed / Evaluator.SCALE, (int) (packed >>> 32) & 0xFFFF, nodes() - before);
+    }
+
+    /**
+     * Solve every position of a played line from {@code start}.
+     * @param moves the packed moves actually played, in order
+     */
+    public Analysis analyze(SimState start, int[] moves) {
+        table.clear();
+        long t0 = System.nanoTime();
+        long nodes = nodes();
+        SimState s = start.copy();
+        int[] seats = new int[moves.length];
+        int[] best = new int[moves.length + 1];
+        int[] values = new int[moves.length + 1];
+        for (int i = 0; i <= moves.length; i++) {
+            Solution solution = search(s);
+            values[i] = s.current() == 0 ? solution.value() : -solution.value();
+            best[i] = solution.bestMove();
+            if (i < moves.length) {
+                seats[i] = s.current();
+                if (!s.play(moves[i])) {
+                    throw new IllegalArgumentException("Illegal move " + Move.toString(moves[i]) + " at ply " + i);
+                }
+            }
+        }
+        return new Analysis(moves.clone(), seats, values, best, nodes() - nodes, System.nanoTime() - t0);
+    }
+
+    /**
+     * Analyze the round dealt by {@link ScopaGame#startNewRound(long, int)} with {@code seed} and
+     * {@code firstPlayer}, as played with {@code moves}.
+     */
+    public Analysis analyze(long seed, int firstPlayer, int[] moves) {
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(seed, firstPlayer);
+        return analyze(SimState.of(game), moves);
+    }
+
+    /** Positions searched by all threads since this analyzer was created. */
+    public long nodes() {
+        long n = 0;
+        for (Worker w : workers) {
+            n += w.nodes;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /** One search thread's stacks; only the thread running it touches them. */
+    private final class Worker {
+        private final int id;
+        private final SimState[] stack = new SimState[MAX_PLY + 1];
+        private final Evaluator[] evals = new Evaluator[MAX_PLY + 1];
+        private final int[][] moves = new int[MAX_PLY][64];
+        private final SimState end = new SimState();
+        private volatile long nodes;
+        private long count;
+        private int rootBest;
+
+        Worker(int id) {
+            this.id = id;
+            for (int i = 0; i <= MAX_PLY; i++) {
+                stack[i] = new SimState();
+                evals[i] = new Evaluator(weights);
+            }
+        }
+
+        void run(SimState root) {
+            count = nodes;
+            try {
+                stack[0].copyFrom(root);
+                evals[0].reset(root);
+                int plies = pliesLeft(root);
+                for (int depth = 1 + (id & 1); depth <= plies && !stop; depth++) {
+                    int value = search(0, depth, -INFINITY, INFINITY);
+                    if (depth == plies && !stop && answer.compareAndSet(0, pack(value, rootBest))) {
+                        stop = true;
+                    }
+                }
+            } finally {
+                nodes = count;
+            }
+        }
+
+        /** Negamax value of {@code stack[ply]} for its player to move, in evaluator units. */
+        private int search(int ply, int depth, int alpha, int beta) {
+            SimState s = stack[ply];
+            count++;
+            if (s.isRoundOver()) {
+                end.copyFrom(s);
+                end.finish();
+                int diff = end.pointDifference() * Evaluator.SCALE;
+                return s.current() == 0 ? diff : -diff;
+            }
+            depth = Math.min(depth, pliesLeft(s));
+            if (depth == 0) {
+                return evals[ply].evaluate(s.current());
+            }
+            int scopas = (s.scopas(s.current()) - s.scopas(1 - s.current())) * Evaluator.SCALE;
+            long key = PositionKey.of(s, false);
+            long entry = table.probe(key);
+            int hashMove = NO_MOVE;
+            if (entry != 0) {
+                hashMove = TranspositionTable.move(entry);
+                hashMove = hashMove == 0xFFFF ? NO_MOVE : hashMove;
+                if (TranspositionTable.depth(entry) >= depth && ply > 0) {
+                    int v = TranspositionTable.value(entry) + scopas;
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && v >= beta)
+                            || (bound == TranspositionTable.UPPER && v <= alpha)) {
+                        return v;
+                    }
+                }
+            }
+
+            int n = order(s, ply, hashMove);
+            int[] options = moves[ply];
+            int alpha0 = alpha;
+            int best = -INFINITY;
+            int bestMove = NO_MOVE;
+            SimState child = stack[ply + 1];
+            for (int i = 0; i < n; i++) {
+                child.copyFrom(s);
+                child.play(options[i]);
+                evals[ply + 1].copyFrom(evals[ply]);
+                evals[ply + 1].update(child);
+                int v = -search(ply + 1, depth - 1, -beta, -alpha);
+                if (stop) {
+                    return 0;
+                }
+                if (v > best) {
+                    best = v;
+                    bestMove = options[i];
+                    if (v > alpha) {
+                        alpha = v;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            int bound = best <= alpha0 ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, best - scopas, depth, bound, bestMove);
+            if (ply == 0) {
+                rootBest = bestMove;
+            }
+            return best;
+        }
+
+        /**
+         * Fill {@code moves[ply]} in search order: the table's move, then captures, then drops; helper
+         * threads rotate the rest so that they explore differently.
+         * @return the number of moves
+         */
+        private int order(SimState s, int ply, int hashMove) {
+            int[] options = moves[ply];
+            int n = s.legalMoves(options);
+            if (n > options.length) {
+                options = moves[ply] = new int[n];
+                s.legalMoves(options);
+            }
+            int front = 0;
+            for (int i = 0; i < n; i++) {
+                if (options[i] == hashMove) {
+                    swap(options, i, front++);
+                    break;
+                }
+            }
+            int start = front;
+            for (int i = front; i < n; i++) {
+                if (Move.isCapture(options[i])) {
+                    swap(options, i, front++);
+                }
+            }
+            if (id > 0 && front - start > 1) {
+                rotate(options, start, front, id);
+            }
+            if (id > 0 && n - front > 1) {
+                rotate(options, front, n, id);
+            }
+            return n;
+        }
+    }
+
+    private static int pliesLeft(SimState s) {
+        return Long.bitCount(s.hand(0) | s.hand(1)) + s.deckSize();
+    }
+
+    /** A non-zero packing of a root value and move for {@link #answer}. */
+    private static long pack(int value, int move) {
+        return (long) move << 32 | (value & 0xFFFFFFFFL) | (value == 0 && move == 0 ? 1L << 63 : 0);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static void rotate(int[] a, int from, int to, int by) {
+        int len = to - from;
+        by %= len;
+        for (int k = 0; k < by; k++) {
+            int first = a[from];
+            System.arraycopy(a, from + 1, a, from, len - 1);
+            a[to - 1] = first;
+        }
+    }
+
+    /**
+     * Result of {@link #solve}.
+     * @param value round points for the player to move minus the other's, under optimal play
+     * @param bestMove a packed move achieving it, or -1 if the round is over
+     * @param nodes positions searched
+     */
+    public record Solution(int value, int bestMove, long nodes) {}
+
+    /**
+     * Result of {@link #analyze}: the solved value of every position along the played line.
+     */
+    public static final class Analysis {
+        private final int[] moves;
+        private final int[] seats;
+        private final int[] values;
+        private final int[] best;
+        private final long nodes;
+        private final long nanos;
+
+        Analysis(int[] moves, int[] seats, int[] values, int[] best, long nodes, long nanos) {
+            this.moves = moves;
+            this.seats = seats;
+            this.values = values;
+            this.best = best;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        /** Round points of player 0 minus player 1 with optimal play from the start. */
+        public int optimalValue() {
+            return values[0];
+        }
+
+        /** Round points of player 0 minus player 1 as the round was played. */
+        public int actualValue() {
+            return values[moves.length];
+        }
+
+        public int moveCount() {
+            return moves.length;
+        }
+
+        /** Seat that made move {@code i}. */
+        public int seat(int i) {
+            return seats[i];
+        }
+
+        public int move(int i) {
+            return moves[i];
+        }
+
+        /** An optimal move where move {@code i} was made. */
+        public int bestMove(int i) {
+            return best[i];
+        }
+
+        /** Round points the mover gave away with move {@code i} compared with optimal play; 0 or more. */
+        public int pointsLost(int i) {
+            int lost = values[i] - values[i + 1];
+            return seats[i] == 0 ? lost : -lost;
+        }
+
+        public long nodes() {
+            return nodes;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int fromPly = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(seed, 0);
+        SimState s = SimState.of(game);
+        List<Integer> line = new ArrayList<>();
+        int[] legal = new int[256];
+        long rng = seed;
+        while (!s.isRoundOver()) {
+            int n = Math.min(s.legalMoves(legal), legal.length);
+            rng = rng * 6364136223846793005L + 1442695040888963407L;
+            int pick = (int) Long.remainderUnsigned(rng >>> 33, n);
+            for (int i = 0; i < n; i++) {
+                if (Move.isCapture(legal[(pick + i) % n])) {
+                    pick = (pick + i) % n;
+                    break;
+                }
+            }
+            line.add(legal[pick]);
+            s.play(legal[pick]);
+        }
+        SimState start = SimState.of(game);
+        for (int i = 0; i < fromPly; i++) {
+            start.play(line.get(i));
+        }
+        int[] moves = line.subList(fromPly, line.size()).stream().mapToInt(Integer::intValue).toArray();
+
+        double baseline = 0;
+        for (int t = 1; t <= maxThreads; t++) {
+            try (DoubleDummyAnalyzer analyzer = new DoubleDummyAnalyzer(t, 22)) {
+                Analysis a = analyzer.analyze(start, moves);
+                double seconds = a.nanos() / 1e9;
+                if (t == 1) {
+                    baseline = seconds;
+                    int lost0 = 0;
+                    int lost1 = 0;
+                    for (int i = 0; i < a.moveCount(); i++) {
+                        if (a.seat(i) == 0) lost0 += a.pointsLost(i); else lost1 += a.pointsLost(i);
+                    }
+                    System.out.printf("Seed %d from ply %d: optimal %+d, played %+d, points lost %d / %d%n",
+                        seed, fromPly, a.optimalValue(), a.actualValue(), lost0, lost1);
+                }
+                System.out.printf("%2d threads: %.2f s, %,d nodes, %.2f M nodes/s, speedup %.2f, efficiency %.0f%%%n",
+                    t, seconds, a.nodes(), a.nodes() / seconds / 1e6, baseline / seconds,
+                    100 * baseline / seconds / t);
+            }
+        }
+    }
+}
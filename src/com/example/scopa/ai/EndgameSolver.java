@@ -0,0 +1,95 @@
+package com.example.scopa.ai;
+
+/**
+ * Exact minimax over an endgame: once the deck is empty both hands are known, so the rest of the
+ * round can be searched to the end. Player 0 maximizes the round point difference, player 1
+ * minimizes it. Positions are memoized by {@link PositionKey}; given a {@link Tablebase}, positions
+ * it stores are looked up instead of searched.
+ *
+ * Reuses its buffers between calls; one instance per thread.
+ */
+public final class EndgameSolver {
+    /** Two hands of three cards: the longest endgame. */
+    private static final int MAX_PLIES = 6;
+
+    private final SimState[] stack = new SimState[MAX_PLIES + 1];
+    private final SimState end = new SimState();
+    private final int[][] moves = new int[MAX_PLIES][64];
+    private final Tablebase.Builder memo = new Tablebase.Builder();
+    private final Tablebase table;
+    private long nodes;
+
+    public EndgameSolver() {
+        this(null);
+    }
+
+    /**
+     * @param table solved endgames to cut the search with, or null
+     */
+    public EndgameSolver(Tablebase table) {
+        this.table = table;
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new SimState();
+        }
+    }
+
+    /**
+     * Value of {@code s} under optimal play: round points of player 0 minus player 1, scopas included.
+     *
+     * @throws IllegalArgumentException if cards are still to be dealt
+     */
+    public int solve(SimState s) {
+        if (s.deckSize() != 0) {
+            throw new IllegalArgumentException("Not an endgame: " + s.deckSize() + " cards to deal");
+        }
+        if (Long.bitCount(s.hand(0) | s.hand(1)) > MAX_PLIES) {
+            throw new IllegalArgumentException("Hands hold more than " + MAX_PLIES + " cards");
+        }
+        stack[0].copyFrom(s);
+        return search(0) + s.scopas(0) - s.scopas(1);
+    }
+
+    /** Positions searched so far, memo and table hits excluded. */
+    public long nodes() {
+        return nodes;
+    }
+
+    /** Value of {@code stack[ply]}, scopas excluded. */
+    private int search(int ply) {
+        SimState s = stack[ply];
+        if (s.isRoundOver()) {
+            end.copyFrom(s);
+            end.finish();
+            return end.pointDifference() - end.scopas(0) + end.scopas(1);
+        }
+        if (table != null) {
+            int stored = table.probe(s);
+            if (stored != Tablebase.NOT_FOUND) {
+                return stored - s.scopas(0) + s.scopas(1);
+            }
+        }
+        long key = Tablebase.entryKey(PositionKey.of(s, true));
+        int known = memo.get(key);
+        if (known != Tablebase.NOT_FOUND) {
+            return known;
+        }
+        nodes++;
+        int[] options = moves[ply];
+        int n = s.legalMoves(options);
+        if (n > options.length) {
+            options = moves[ply] = new int[n];
+            s.legalMoves(options);
+        }
+        boolean maximize = s.current() == 0;
+        int best = maximize ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        SimState child = stack[ply + 1];
+        for (int i = 0; i < n; i++) {
+            child.copyFrom(s);
+            child.play(options[i]);
+            int value = search(ply + 1);
+            best = maximize ? Math.max(best, value) : Math.min(best, value);
+        }
+        memo.put(key, best);
+        return best;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Integer weights for {@link Evaluator}, in thousandths of a round point.
+ *
+ * Per-card tables give the value of a card in a player's hand, in a player's capture pile, and on the
+ * table for the player to move. Lead tables give the value of being ahead in cards, coins and primiera
+ * total, indexed by the clamped lead plus its bound. {@code scopaRisk} is the value to the player to
+ * move of a table whose cards sum to the index (1..10, so one card can sweep it) while the deck still
+ * has cards.
+ *
+ * The file format is plain text so that offline training code can write it directly: one section per
+ * line, its name followed by all its values separated by whitespace. Blank lines and lines starting
+ * with {@code #} are ignored; every section must be present with exactly its length.
+ */
+public final class EvalWeights {
+    public static final int MAX_CARD_LEAD = 20;
+    public static final int MAX_COIN_LEAD = 10;
+    /** Largest primiera total difference: four sevens against nothing. */
+    public static final int MAX_PRIMIERA_LEAD = 84;
+
+    final int[] hand = new int[Card.DECK_SIZE];
+    final int[] pile = new int[Card.DECK_SIZE];
+    final int[] table = new int[Card.DECK_SIZE];
+    final int[] cardLead = new int[2 * MAX_CARD_LEAD + 1];
+    final int[] coinLead = new int[2 * MAX_COIN_LEAD + 1];
+    final int[] primieraLead = new int[2 * MAX_PRIMIERA_LEAD + 1];
+    final int[] scopaRisk = new int[Rank.values().length + 1];
+
+    private EvalWeights() {}
+
+    /**
+     * Hand-set weights: a round point for the settebello, smooth curves for the three leads, extra value
+     * for good primiera cards, and most of a point for leaving a sweepable table.
+     */
+    public static EvalWeights defaults() {
+        EvalWeights w = new EvalWeights();
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            Card card = Card.of(i);
+            int primiera = ScoringKernel.bestPrimiera(1L << i, card.getSuit().ordinal());
+            boolean settebello = card.getSuit() == Suit.COINS && card.getRank() == Rank.SEVEN;
+            w.pile[i] = settebello ? 1000 : 4 * primiera;
+            w.hand[i] = settebello ? 300 : primiera;
+            w.table[i] = settebello ? 300 : primiera;
+        }
+        curve(w.cardLead, MAX_CARD_LEAD, 5.0);
+        curve(w.coinLead, MAX_COIN_LEAD, 2.5);
+        curve(w.primieraLead, MAX_PRIMIERA_LEAD, 15.0);
+        Arrays.fill(w.scopaRisk, 1, w.scopaRisk.length, 600);
+        return w;
+    }
+
+    /** {@code 1000 * tanh(lead / scale)} for each lead. */
+    private static void curve(int[] out, int bound, double scale) {
+        for (int lead = -bound; lead <= bound; lead++) {
+            out[lead + bound] = (int) Math.round(1000 * Math.tanh(lead / scale));
+        }
+    }
+
+    public static EvalWeights load(Path file) throws IOException {
+        EvalWeights w = new EvalWeights();
+        Map<String, int[]> sections = w.sections();
+        Set<String> seen = new HashSet<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                int[] target = sections.get(fields[0]);
+                if (target == null) {
+                    throw new IOException("Line " + lineNumber + ": unknown section " + fields[0]);
+                }
+                if (fields.length - 1 != target.length) {
+                    throw new IOException("Line " + lineNumber + ": " + fields[0] + " needs " + target.length
+                        + " values, got " + (fields.length - 1));
+                }
+                try {
+                    for (int i = 0; i < target.length; i++) {
+                        target[i] = Integer.parseInt(fields[i + 1]);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException("Line " + lineNumber + ": " + e.getMessage());
+                }
+                seen.add(fields[0]);
+            }
+        }
+        for (String name : sections.keySet()) {
+            if (!seen.contains(name)) {
+                throw new IOException("Missing section " + name);
+            }
+        }
+        return w;
+    }
+
+    public void write(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# Scopa evaluator weights, thousandths of a round point\n");
+            for (Map.Entry<String, int[]> e : sections().entrySet()) {
+                out.write(e.getKey());
+                for (int v : e.getValue()) {
+                    out.write(' ');
+                    out.write(Integer.toString(v));
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    private Map<String, int[]> sections() {
+        Map<String, int[]> m = new LinkedHashMap<>();
+        m.put("hand", hand);
+        m.put("pile", pile);
+        m.put("table", table);
+        m.put("cardLead", cardLead);
+        m.put("coinLead", coinLead);
+        m.put("primieraLead", primieraLead);
+        m.put("scopaRisk", scopaRisk);
+        return m;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof EvalWeights)) {
+            return false;
+        }
+        EvalWeights w = (EvalWeights) o;
+        return Arrays.equals(hand, w.hand) && Arrays.equals(pile, w.pile) && Arrays.equals(table, w.table)
+            && Arrays.equals(cardLead, w.cardLead) && Arrays.equals(coinLead, w.coinLead)
+            && Arrays.equals(primieraLead, w.primieraLead) && Arrays.equals(scopaRisk, w.scopaRisk);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(pile) * 31 + Arrays.hashCode(cardLead);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Suit;
+import com.example.scopa.rules.ScoringKernel;
+
+/**
+ * Static evaluation of a {@link SimState} with {@link EvalWeights}, for bots that cannot afford to
+ * play every position out: round points of player 0 minus player 1, in thousandths of a point,
+ * scopas already scored included.
+ *
+ * The features are sums over card masks, which the evaluator keeps in accumulators: the per-card
+ * weights of hands, piles and table, the table's value sum, the card and coin leads, and each player's
+ * best primiera card per suit. {@link #update(SimState)} compares the state's masks with the ones it
+ * last saw and adjusts the accumulators for the cards that moved, which after one capture or drop is
+ * a few cards. {@link #evaluate()} then only adds up table lookups.
+ *
+ * Not thread-safe; keep one per search thread, like the {@link SimState} it follows.
+ */
+public final class Evaluator {
+    /** Evaluation units per round point. */
+    public static final int SCALE = 1000;
+
+    private static final long COINS = (1L << 10) - 1;
+    private static final int[] VALUE = new int[Card.DECK_SIZE];
+
+    static {
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            VALUE[i] = Card.of(i).value();
+        }
+    }
+
+    private final EvalWeights w;
+
+    // The masks the accumulators describe.
+    private long hand0;
+    private long hand1;
+    private long table;
+    private long pile0;
+    private long pile1;
+    private int current;
+    private int deckSize;
+    private int scopaDiff;
+
+    /** Hand and pile weights, player 0's minus player 1's. */
+    private int material;
+    /** Table weights, for the player to move. */
+    private int tableWeight;
+    private int tableSum;
+    private int cardLead;
+    private int coinLead;
+    /** Best primiera value per suit, player 0's then player 1's. */
+    private final int[] best = new int[8];
+    private int primieraLead;
+
+    public Evaluator(EvalWeights weights) {
+        this.w = weights;
+    }
+
+    /**
+     * Recompute every accumulator from {@code s}.
+     */
+    public void reset(SimState s) {
+        hand0 = hand1 = table = pile0 = pile1 = 0;
+        material = tableWeight = tableSum = cardLead = coinLead = primieraLead = 0;
+        for (int i = 0; i < best.length; i++) {
+            best[i] = 0;
+        }
+        update(s);
+    }
+
+    /**
+     * Catch up with {@code s}, which must have been reached by playing on from the state last passed
+     * to {@link #reset} or {@link #update}; only the cards that moved since are visited. Falls back to
+     * {@link #reset} if a capture pile lost cards, i.e. {@code s} is from another line of play.
+     */
+    public void update(SimState s) {
+        long h0 = s.hand(0);
+        long h1 = s.hand(1);
+        long t = s.table();
+        long p0 = s.captured(0);
+        long p1 = s.captured(1);
+        if ((pile0 & ~p0) != 0 || (pile1 & ~p1) != 0) {
+            reset(s);
+            return;
+        }
+        material += delta(w.hand, hand0, h0) - delta(w.hand, hand1, h1);
+        tableWeight += delta(w.table, table, t);
+        tableSum += sum(t & ~table) - sum(table & ~t);
+        long gained0 = p0 & ~pile0;
+        long gained1 = p1 & ~pile1;
+        if ((gained0 | gained1) != 0) {
+            material += delta(w.pile, pile0, p0) - delta(w.pile, pile1, p1);
+            cardLead += Long.bitCount(gained0) - Long.bitCount(gained1);
+            coinLead += Long.bitCount(gained0 & COINS) - Long.bitCount(gained1 & COINS);
+            primieraLead += improve(0, p0, gained0) - improve(4, p1, gained1);
+        }
+        hand0 = h0;
+        hand1 = h1;
+        table = t;
+        pile0 = p0;
+        pile1 = p1;
+        current = s.current();
+        deckSize = s.deckSize();
+        scopaDiff = s.scopas(0) - s.scopas(1);
+    }
+
+    /**
+     * Play {@code move} on {@code s} and update to the result.
+     * @return false if the move was illegal and nothing changed
+     */
+    public boolean play(SimState s, int move) {
+        if (!s.play(move)) {
+            return false;
+        }
+        update(s);
+        return true;
+    }
+
+    /**
+     * Evaluation of the last state seen, player 0's view.
+     */
+    public int evaluate() {
+        int sign = current == 0 ? 1 : -1;
+        int v = scopaDiff * SCALE + material + sign * tableWeight
+            + w.cardLead[clamp(cardLead, EvalWeights.MAX_CARD_LEAD)]
+            + w.coinLead[clamp(coinLead, EvalWeights.MAX_COIN_LEAD)]
+            + w.primieraLead[clamp(primieraLead, EvalWeights.MAX_PRIMIERA_LEAD)];
+        if (deckSize > 0 && tableSum < w.scopaRisk.length) {
+            v += sign * w.scopaRisk[tableSum];
+        }
+        return v;
+    }
+
+    /** Evaluation of the last state seen for {@code seat}. */
+    public int evaluate(int seat) {
+        int v = evaluate();
+        return seat == 0 ? v : -v;
+    }
+
+    public void copyFrom(Evaluator o) {
+        hand0 = o.hand0;
+        hand1 = o.hand1;
+        table = o.table;
+        pile0 = o.pile0;
+        pile1 = o.pile1;
+        current = o.current;
+        deckSize = o.deckSize;
+        scopaDiff = o.scopaDiff;
+        material = o.material;
+        tableWeight = o.tableWeight;
+        tableSum = o.tableSum;
+        cardLead = o.cardLead;
+        coinLead = o.coinLead;
+        System.arraycopy(o.best, 0, best, 0, best.length);
+        primieraLead = o.primieraLead;
+    }
+
+    /** Weight of the cards in {@code after} but not {@code before}, minus those that left. */
+    private static int delta(int[] weights, long before, long after) {
+        int d = 0;
+        for (long m = after & ~before; m != 0; m &= m - 1) {
+            d += weights[Long.numberOfTrailingZeros(m)];
+        }
+        for (long m = before & ~after; m != 0; m &= m - 1) {
+            d -= weights[Long.numberOfTrailingZeros(m)];
+        }
+        return d;
+    }
+
+    private static int sum(long cards) {
+        int s = 0;
+        for (long m = cards; m != 0; m &= m - 1) {
+            s += VALUE[Long.numberOfTrailingZeros(m)];
+        }
+        return s;
+    }
+
+    /**
+     * Raise the bests at {@code best[base..base + 3]} for the suits of {@code gained}.
+     * @return how much their total rose
+     */
+    private int improve(int base, long pile, long gained) {
+        int rise = 0;
+        for (int suit = 0; suit < Suit.values().length; suit++) {
+            if (((gained >>> (suit * 10)) & COINS) != 0) {
+                int b = ScoringKernel.bestPrimiera(pile, suit);
+                rise += b - best[base + suit];
+                best[base + suit] = b;
+            }
+        }
+        return rise;
+    }
+
+    /** {@code v} clamped to {@code [-bound, bound]}, as an index into a lead table. */
+    private static int clamp(int v, int bound) {
+        return Math.max(-bound, Math.min(bound, v)) + bound;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.GameListener;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.Bot;
+
+/**
+ * Bot that picks moves by {@link MonteCarloSearch} over its own {@link BeliefTracker}.
+ *
+ * The bot must be registered as a listener on the game it plays in ({@code game.addListener(bot)})
+ * before the round is dealt, so its tracker sees every deal and play. The bot works out its seat from
+ * the game at the start of each round.
+ */
+public class MonteCarloBot extends Bot implements GameListener {
+    public static final int DEFAULT_ITERATIONS = 200;
+
+    private final long seed;
+    private final MonteCarloSearch search;
+    private final int iterations;
+    private BeliefTracker belief;
+
+    public MonteCarloBot(String name, long seed) {
+        this(name, seed, DEFAULT_ITERATIONS);
+    }
+
+    public MonteCarloBot(String name, long seed, int iterations) {
+        super(name);
+        this.seed = seed;
+        this.search = new MonteCarloSearch(seed ^ 0x5DEECE66DL);
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return this bot's view of the hidden cards, or null before its first round
+     */
+    public BeliefTracker getBelief() {
+        return belief;
+    }
+
+    @Override
+    public int chooseMove(ScopaGame game, int[] moves, int count) {
+        return search.search(SimState.of(game), belief, SearchBudget.iterations(iterations)).bestMove();
+    }
+
+    @Override
+    public void roundStarted(ScopaGame game, long tableMask) {
+        int seat = game.getPlayer1() == this ? 0 : 1;
+        if (belief == null || belief.seat() != seat) {
+            belief = new BeliefTracker(seat, seed);
+        }
+        belief.roundStarted(game, tableMask);
+    }
+
+    @Override
+    public void handDealt(ScopaGame game, int player, long handMask) {
+        belief.handDealt(game, player, handMask);
+    }
+
+    @Override
+    public void cardPlayed(ScopaGame game, int player, Card card, long tableBefore, long capturedMask) {
+        belief.cardPlayed(game, player, card, tableBefore, capturedMask);
+    }
+}
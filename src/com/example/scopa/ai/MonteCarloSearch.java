@@ -0,0 +1,239 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+
+import java.util.Arrays;
+
+/**
+ * Flat Monte Carlo move evaluation with determinization.
+ *
+ * Each iteration draws one consistent guess of the hidden cards from a {@link BeliefTracker} (or uses
+ * the position as is when no tracker is given), then plays every root move on that guess and finishes
+ * the round with a fast rollout policy. A move's value is the mean round point difference from the
+ * searching seat's side. Evaluating all moves on the same guesses keeps their comparison fair.
+ * With a {@link Tablebase}, a root after the last deal is not sampled at all: the hidden cards are
+ * then exactly the opponent's hand, so each move's value is looked up in the table, or solved by an
+ * {@link EndgameSolver} that looks up the smaller endgames it reaches, and reported as exact.
+ *
+ * Reuses its buffers between searches; one instance per thread.
+ */
+public final class MonteCarloSearch {
+    private final SimState guess = new SimState();
+    private final SimState sim = new SimState();
+    private final Tablebase tablebase;
+    private final EndgameSolver solver;
+    private int[] rootMoves = new int[64];
+    private int[] moves = new int[64];
+    private long rng;
+
+    public MonteCarloSearch(long seed) {
+        this(seed, null);
+    }
+
+    /**
+     * @param tablebase solved endgames to value endgame roots with, or null to sample them too
+     */
+    public MonteCarloSearch(long seed, Tablebase tablebase) {
+        this.rng = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        this.tablebase = tablebase;
+        this.solver = tablebase == null ? null : new EndgameSolver(tablebase);
+    }
+
+    /**
+     * Evaluate the moves of the player to move in {@code root}.
+     *
+     * @param belief that player's beliefs about hidden cards, or null to search {@code root} as given
+     */
+    public Result search(SimState root, BeliefTracker belief, SearchBudget budget) {
+        return search(root, belief, budget, -1);
+    }
+
+    /**
+     * Evaluate the moves of the player to move in {@code root} that play hand card {@code handIndex},
+     * or all moves if it is -1. Only {@code belief} is advanced; {@code root} is only read, so several
+     * searches may share it.
+     */
+    public Result search(SimState root, BeliefTracker belief, SearchBudget budget, int handIndex) {
+        int n = root.legalMoves(rootMoves);
+        if (n > rootMoves.length) {
+            rootMoves = new int[n];
+            root.legalMoves(rootMoves);
+        }
+        if (handIndex >= 0) {
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (Move.handIndex(rootMoves[i]) == handIndex) {
+                    rootMoves[kept++] = rootMoves[i];
+                }
+            }
+            n = kept;
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("No legal moves for hand index " + handIndex);
+        }
+        int seat = root.current();
+        double[] sum = new double[n];
+        double[] sumSquares = new double[n];
+        int[] result = new int[n];
+        System.arraycopy(rootMoves, 0, result, 0, n);
+        if (tablebase != null && root.deckSize() == 0) {
+            return solve(root, belief, result, seat);
+        }
+        int iterations = 0;
+        budget.start();
+        // A single legal move needs no evaluation, but a few samples keep the reported value meaningful.
+        while (!budget.exhausted(iterations) && !(n == 1 && iterations >= SearchBudget.CHECK_INTERVAL)) {
+            if (belief != null) {
+                belief.determinize(root, guess);
+            } else {
+                guess.copyFrom(root);
+            }
+            for (int i = 0; i < n; i++) {
+                sim.copyFrom(guess);
+                sim.play(rootMoves[i]);
+                rollout(sim);
+                int diff = sim.pointDifference();
+                double value = seat == 0 ? diff : -diff;
+                sum[i] += value;
+                sumSquares[i] += value * value;
+            }
+            iterations++;
+        }
+        return new Result(result, sum, sumSquares, iterations, false);
+    }
+
+    /**
+     * Exact values of {@code moves} from an endgame root, from the tablebase or the solver.
+     */
+    private Result solve(SimState root, BeliefTracker belief, int[] moves, int seat) {
+        if (belief != null) {
+            belief.determinize(root, guess);
+        } else {
+            guess.copyFrom(root);
+        }
+        double[] value = new double[moves.length];
+        double[] squares = new double[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            sim.copyFrom(guess);
+            sim.play(moves[i]);
+            int diff = tablebase.probe(sim);
+            if (diff == Tablebase.NOT_FOUND) {
+                diff = solver.solve(sim);
+            }
+            value[i] = seat == 0 ? diff : -diff;
+            squares[i] = value[i] * value[i];
+        }
+        return new Result(moves, value, squares, 1, true);
+    }
+
+    /**
+     * Play out to the end of the round: a random capture when there is one, otherwise a random drop.
+     */
+    private void rollout(SimState s) {
+        while (!s.isRoundOver()) {
+            int n = s.legalMoves(moves);
+            if (n > moves.length) {
+                moves = new int[n];
+                s.legalMoves(moves);
+            }
+            int captures = 0;
+            for (int i = 0; i < n; i++) {
+                if (Move.isCapture(moves[i])) {
+                    moves[captures++] = moves[i];
+                }
+            }
+            s.play(moves[nextInt(captures > 0 ? captures : n)]);
+        }
+        s.finish();
+    }
+
+    private int nextInt(int bound) {
+        rng ^= rng >>> 12;
+        rng ^= rng << 25;
+        rng ^= rng >>> 27;
+        return (int) ((((rng * 0x2545F4914F6CDD1DL) >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * Per-move statistics of one search.
+     */
+    public static final class Result {
+        private final int[] moves;
+        private final double[] sum;
+        private final double[] sumSquares;
+        private final int iterations;
+        private final boolean exact;
+
+        Result(int[] moves, double[] sum, double[] sumSquares, int iterations, boolean exact) {
+            this.moves = moves;
+            this.sum = sum;
+            this.sumSquares = sumSquares;
+            this.iterations = iterations;
+            this.exact = exact;
+        }
+
+        /** Samples taken per move. */
+        public int iterations() {
+            return iterations;
+        }
+
+        public int moveCount() {
+            return moves.length;
+        }
+
+        /** Packed move (see {@link Move}) evaluated at {@code i}. */
+        public int move(int i) {
+            return moves[i];
+        }
+
+        /** Mean round point difference for the searching seat after move {@code i}. */
+        public double mean(int i) {
+            return iterations == 0 ? 0 : sum[i] / iterations;
+        }
+
+        /** True if the means are solved values rather than estimates. */
+        public boolean isExact() {
+            return exact;
+        }
+
+        /** Half-width of the normal 95% confidence interval around {@link #mean(int)}; 0 if exact. */
+        public double halfWidth(int i) {
+            if (exact) {
+                return 0;
+            }
+            if (iterations < 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double mean = mean(i);
+            double variance = Math.max(0, (sumSquares[i] - iterations * mean * mean) / (iterations - 1));
+            return 1.96 * Math.sqrt(variance / iterations);
+        }
+
+        /**
+         * Pool the samples of two searches of the same position and moves, e.g. run on different threads.
+         */
+        public Result merge(Result other) {
+            if (!Arrays.equals(moves, other.moves)) {
+                throw new IllegalArgumentException("Results are for different moves");
+            }
+            double[] s = sum.clone();
+            double[] sq = sumSquares.clone();
+            for (int i = 0; i < s.length; i++) {
+                s[i] += other.sum[i];
+                sq[i] += other.sumSquares[i];
+            }
+            return new Result(moves, s, sq, iterations + other.iterations, exact && other.exact);
+        }
+
+        /** Move with the highest mean; the first such on ties. */
+        public int bestMove() {
+            int best = 0;
+            for (int i = 1; i < moves.length; i++) {
+                if (mean(i) > mean(best)) {
+                    best = i;
+                }
+            }
+            return moves[best];
+        }
+    }
+}
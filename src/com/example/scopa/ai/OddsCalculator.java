@@ -0,0 +1,321 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongPredicate;
+
+/**
+ * Exact odds about the opponent's hidden hand, for analytics and the UI.
+ *
+ * Every opponent hand consistent with a {@link Position} (any {@code handSize} of its unseen cards) is
+ * taken as equally likely, and a question is answered by enumerating all of them and counting those
+ * for which it holds. The enumeration is a fork-join task over card masks: hands are split by their
+ * lowest card, and branches smaller than {@link #SPLIT_THRESHOLD} hands run sequentially.
+ *
+ * The built-in questions reduce to "does the hand contain one of these cards", so each hand is checked
+ * with a single mask test. The cards are found once per position by running
+ * {@link ScopaRules#captureMasks} for each of the ten card values against the table. Answers are
+ * memoized per position (the last {@value #CACHE_SIZE}), so repeated questions about a position, e.g.
+ * from every client watching it, cost one enumeration each. Thread-safe.
+ */
+public final class OddsCalculator {
+    /** Hands below which a branch is enumerated on the current thread instead of forked. */
+    static final long SPLIT_THRESHOLD = 1024;
+    static final int CACHE_SIZE = 256;
+    private static final int SWEEP = 0;
+    private static final int CAPTURE = 1;
+    private static final int HOLD = 1 + Card.DECK_SIZE;
+    private static final int QUESTIONS = 1 + 2 * Card.DECK_SIZE;
+
+    private final ForkJoinPool pool;
+    private final Map<Position, double[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Position, double[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public OddsCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public OddsCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Probability that the opponent holds a card that captures the whole table, scoring a scopa.
+     */
+    public double sweepChance(Position position) {
+        return memoized(position, SWEEP);
+    }
+
+    /**
+     * Probability that the opponent can capture {@code target} from the table with one of their cards.
+     * @throws IllegalArgumentException if {@code target} is not on the table
+     */
+    public double captureChance(Position position, Card target) {
+        if ((position.table & bit(target)) == 0) {
+            throw new IllegalArgumentException(target + " is not on the table");
+        }
+        return memoized(position, CAPTURE + target.index());
+    }
+
+    /**
+     * Probability that {@code card} is in the opponent's hand.
+     */
+    public double holdChance(Position position, Card card) {
+        return memoized(position, HOLD + card.index());
+    }
+
+    /**
+     * Probability that {@code card} is still in the deck: unseen and not in the opponent's hand.
+     */
+    public double deckChance(Position position, Card card) {
+        return (position.unseen & bit(card)) == 0 ? 0 : 1 - holdChance(position, card);
+    }
+
+    /**
+     * Exact probability that the opponent's hand satisfies {@code hand}, a test on the hand's card mask.
+     * Not memoized, as arbitrary predicates cannot be compared.
+     */
+    public double probability(Position position, LongPredicate hand) {
+        return count(position, hand) / (double) binomial(Long.bitCount(position.unseen), position.handSize);
+    }
+
+    /**
+     * Look up {@code question} on the canonical form of {@code position} (see {@link SuitSymmetry}), so
+     * positions that differ only in plain suit names share answers.
+     */
+    private double memoized(Position original, int question) {
+        int r = SuitSymmetry.canonical(original.unseen, original.table, 0, 0, 0, 0);
+        Position position = original;
+        if (r != SuitSymmetry.IDENTITY) {
+            position = new Position(SuitSymmetry.apply(original.unseen, r), SuitSymmetry.apply(original.table, r),
+                original.handSize);
+            if (question >= HOLD) {
+                question = HOLD + SuitSymmetry.card(question - HOLD, r);
+            } else if (question >= CAPTURE) {
+                question = CAPTURE + SuitSymmetry.card(question - CAPTURE, r);
+            }
+        }
+        double[] answers;
+        double answer;
+        synchronized (cache) {
+            answers = cache.computeIfAbsent(position, p -> newAnswers());
+            answer = answers[question];
+        }
+        if (Double.isNaN(answer)) {
+            // Enumerate outside the lock; threads racing on the same question store the same value.
+            long cards = position.unseen & cardsFor(position, question);
+            answer = probability(position, h -> (h & cards) != 0);
+            synchronized (cache) {
+                answers[question] = answer;
+            }
+        }
+        return answer;
+    }
+
+    private static double[] newAnswers() {
+        double[] answers = new double[QUESTIONS];
+        Arrays.fill(answers, Double.NaN);
+        return answers;
+    }
+
+    /**
+     * Cards whose presence in the hand makes {@code question} true.
+     */
+    private static long cardsFor(Position position, int question) {
+        if (question >= HOLD) {
+            return 1L << (question - HOLD);
+        }
+        int[] values = new int[Long.bitCount(position.table)];
+        int[] cards = new int[values.length];
+        int n = 0;
+        for (long m = position.table; m != 0; m &= m - 1, n++) {
+            cards[n] = Long.numberOfTrailingZeros(m);
+            values[n] = Card.of(cards[n]).value();
+        }
+        long all = n == 0 ? 0 : (1L << n) - 1;
+        // Options only list subsets summing to at most 10, far fewer than 2^n on real tables.
+        long[] options = new long[1 << Math.min(n, 12)];
+        long result = 0;
+        for (int value = 1; value <= 10; value++) {
+            int count = Math.min(ScopaRules.captureMasks(value, values, n, options), options.length);
+            boolean yes = false;
+            for (int i = 0; i < count && !yes; i++) {
+                yes = question == SWEEP
+                    ? options[i] == all
+                    : (tableCard(options[i], cards) & (1L << (question - CAPTURE))) != 0;
+            }
+            if (yes) {
+                result |= valueMask(value);
+            }
+        }
+        return result;
+    }
+
+    /** Card mask of the table positions in {@code positions}. */
+    private static long tableCard(long positions, int[] cards) {
+        long mask = 0;
+        for (long m = positions; m != 0; m &= m - 1) {
+            mask |= 1L << cards[Long.numberOfTrailingZeros(m)];
+        }
+        return mask;
+    }
+
+    private static long valueMask(int value) {
+        long mask = 0;
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            if (Card.of(i).value() == value) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private long count(Position position, LongPredicate hand) {
+        int n = Long.bitCount(position.unseen);
+        int[] cards = new int[n];
+        int i = 0;
+        for (long m = position.unseen; m != 0; m &= m - 1) {
+            cards[i++] = Long.numberOfTrailingZeros(m);
+        }
+        Enumeration task = new Enumeration(cards, 0, 0L, position.handSize, hand);
+        return binomial(n, position.handSize) < SPLIT_THRESHOLD ? task.compute() : pool.invoke(task);
+    }
+
+    /**
+     * Counts the hands made of {@code prefix} plus {@code remaining} more cards from {@code cards[from..]}
+     * that satisfy the predicate.
+     */
+    private static final class Enumeration extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] cards;
+        private final int from;
+        private final long prefix;
+        private final int remaining;
+        private final LongPredicate hand;
+
+        Enumeration(int[] cards, int from, long prefix, int remaining, LongPredicate hand) {
+            this.cards = cards;
+            this.from = from;
+            this.prefix = prefix;
+            this.remaining = remaining;
+            this.hand = hand;
+        }
+
+        @Override
+        protected Long compute() {
+            if (remaining == 0) {
+                return hand.test(prefix) ? 1L : 0L;
+            }
+            long total = 0;
+            Enumeration[] forked = new Enumeration[cards.length];
+            int forks = 0;
+            for (int i = from; i <= cards.length - remaining; i++) {
+                long next = prefix | 1L << cards[i];
+                if (binomial(cards.length - i - 1, remaining - 1) >= SPLIT_THRESHOLD) {
+                    Enumeration branch = new Enumeration(cards, i + 1, next, remaining - 1, hand);
+                    branch.fork();
+                    forked[forks++] = branch;
+                } else {
+                    total += walk(i + 1, next, remaining - 1);
+                }
+            }
+            while (forks > 0) {
+                total += forked[--forks].join();
+            }
+            return total;
+        }
+
+        private long walk(int start, long mask, int left) {
+            if (left == 0) {
+                return hand.test(mask) ? 1 : 0;
+            }
+            long total = 0;
+            for (int i = start; i <= cards.length - left; i++) {
+                total += walk(i + 1, mask | 1L << cards[i], left - 1);
+            }
+            return total;
+        }
+    }
+
+    static long binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        long c = 1;
+        for (int i = 1; i <= k; i++) {
+            c = c * (n - k + i) / i;
+        }
+        return c;
+    }
+
+    private static long bit(Card card) {
+        return 1L << card.index();
+    }
+
+    /**
+     * What one seat knows: the unseen cards, the table and how many of the unseen cards the opponent
+     * holds. Immutable; equal positions share memoized answers.
+     */
+    public static final class Position {
+        private final long unseen;
+        private final long table;
+        private final int handSize;
+
+        public Position(long unseen, long table, int handSize) {
+            if ((unseen & table) != 0) {
+                throw new IllegalArgumentException("Table cards cannot be unseen");
+            }
+            if (handSize < 0 || handSize > Long.bitCount(unseen)) {
+                throw new IllegalArgumentException("Invalid hand size: " + handSize);
+            }
+            this.unseen = unseen;
+            this.table = table;
+            this.handSize = handSize;
+        }
+
+        /**
+         * The position as seen by {@code belief}'s seat.
+         */
+        public static Position of(BeliefTracker belief) {
+            return new Position(belief.unseen(), belief.table(), belief.opponentHandSize());
+        }
+
+        public long getUnseen() {
+            return unseen;
+        }
+
+        public long getTable() {
+            return table;
+        }
+
+        public int getHandSize() {
+            return handSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Position)) {
+                return false;
+            }
+            Position p = (Position) o;
+            return unseen == p.unseen && table == p.table && handSize == p.handSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(unseen * 31 + table) * 31 + handSize;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.model.Zobrist;
+import com.example.scopa.rules.ScoringKernel;
+
+/**
+ * 64-bit key of a position for tables of solved values, coarser than {@link SimState#canonicalHash()}.
+ *
+ * Round points depend on the whole capture piles, but only through what they mean for the cards still
+ * to be played (hands, table and deck): the card and coin leads, clamped to what the remaining cards
+ * can still swing; who holds the settebello; and for primiera, each player's best card of every suit
+ * still in play plus the clamped total of the settled suits (or that primiera can no longer be won by
+ * anyone). The key hashes the hands, table, deck size, player to move and last capturer together with
+ * that summary, so positions with equal keys have the same future: the same points still to come from
+ * here under the same play. Scopas already scored are left out; callers store values net of them.
+ *
+ * The deck's order is not part of the key, so a table keyed on it must only hold positions from one
+ * deal, or from endgames where the deck is empty.
+ */
+final class PositionKey {
+    private static final long COINS = (1L << Rank.values().length) - 1;
+    private static final long SETTEBELLO = 1L << Card.of(Suit.COINS, Rank.SEVEN).index();
+
+    private PositionKey() {}
+
+    /**
+     * Key of {@code s}.
+     * @param canonical fold relabellings of the plain suits together (see {@link SuitSymmetry}); only
+     *                  valid when the deck is empty, since the deck's suits are not relabelled
+     */
+    static long of(SimState s, boolean canonical) {
+        long hand0 = s.hand(0);
+        long hand1 = s.hand(1);
+        long table = s.table();
+        long pile0 = s.captured(0);
+        long pile1 = s.captured(1);
+        long left = ~(pile0 | pile1) & ((1L << Card.DECK_SIZE) - 1);
+
+        int n = Long.bitCount(left);
+        int cards = clamp(Long.bitCount(pile0) - Long.bitCount(pile1), n + 1);
+        int coinsLeft = Long.bitCount(left & COINS);
+        int coins = clamp(Long.bitCount(pile0 & COINS) - Long.bitCount(pile1 & COINS), coinsLeft + 1);
+        int settebello = (left & SETTEBELLO) != 0 ? 0 : (pile0 & SETTEBELLO) != 0 ? 1 : 2;
+
+        // Suits with no card left in play are settled and only their total difference matters; for
+        // the others, each player's best card so far. A player missing a settled suit cannot win
+        // primiera, and then neither can the other.
+        boolean dead = false;
+        int settled = 0;
+        int open = 0;
+        long bests = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            int best0 = ScoringKernel.bestPrimiera(pile0, suit);
+            int best1 = ScoringKernel.bestPrimiera(pile1, suit);
+            if (SuitSymmetry.slice(left, suit) == 0) {
+                dead |= best0 == 0 || best1 == 0;
+                settled += best0 - best1;
+            } else {
+                open++;
+                bests |= (long) (best0 << 5 | best1) << (10 * suit);
+            }
+        }
+        if (dead) {
+            settled = 0;
+            bests = 0;
+        } else {
+            settled = clamp(settled, 21 * open + 1);
+        }
+
+        int r = SuitSymmetry.IDENTITY;
+        long relabelled = bests;
+        if (canonical) {
+            r = SuitSymmetry.canonical(
+                SuitSymmetry.key(1, hand0, hand1, table, 0, 0, 0) | ((bests >>> 10) & 0x3FF),
+                SuitSymmetry.key(2, hand0, hand1, table, 0, 0, 0) | ((bests >>> 20) & 0x3FF),
+                SuitSymmetry.key(3, hand0, hand1, table, 0, 0, 0) | ((bests >>> 30) & 0x3FF));
+            relabelled = bests & 0x3FF;
+            for (int suit = 1; suit < 4; suit++) {
+                relabelled |= ((bests >>> (10 * suit)) & 0x3FF) << (10 * SuitSymmetry.suit(suit, r));
+            }
+        }
+
+        long summary = (long) s.current()
+            | (long) (s.lastCapturer() + 1) << 1
+            | (long) settebello << 3
+            | (dead ? 1L : 0L) << 5
+            | (long) cards << 6
+            | (long) coins << 13
+            | (long) (settled + 128) << 18
+            | (long) s.deckSize() << 26;
+        return Zobrist.mask(0, SuitSymmetry.apply(hand0, r))
+            ^ Zobrist.mask(1, SuitSymmetry.apply(hand1, r))
+            ^ Zobrist.mask(2, SuitSymmetry.apply(table, r))
+            ^ mix(summary)
+            ^ mix(relabelled + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Key of an endgame for {@link Tablebase}, on the canonical {@link SuitSymmetry} form: the cards in
+     * play, the player to move, the last capturer, and the card and coin leads from {@link #lead}.
+     * Nothing else about the piles is included, so it is only valid where nothing else can change
+     * the points still to come.
+     */
+    static long endgame(long hand0, long hand1, long table, int current, int lastCapturer, int cards, int coins) {
+        int r = SuitSymmetry.canonical(
+            SuitSymmetry.key(1, hand0, hand1, table, 0, 0, 0),
+            SuitSymmetry.key(2, hand0, hand1, table, 0, 0, 0),
+            SuitSymmetry.key(3, hand0, hand1, table, 0, 0, 0));
+        long summary = (long) current
+            | (long) (lastCapturer + 1) << 1
+            | (long) cards << 3
+            | (long) coins << 8;
+        return Zobrist.mask(0, SuitSymmetry.apply(hand0, r))
+            ^ Zobrist.mask(1, SuitSymmetry.apply(hand1, r))
+            ^ Zobrist.mask(2, SuitSymmetry.apply(table, r))
+            ^ mix(~summary);
+    }
+
+    /**
+     * A lead of {@code diff} with {@code left} cards still to be captured: 0 once the remaining cards
+     * cannot change who is ahead, otherwise {@code diff + left + 1}.
+     */
+    static int lead(int diff, int left) {
+        return Math.abs(diff) > left ? 0 : diff + left + 1;
+    }
+
+    /** {@code v} clamped to {@code [-bound, bound]}, shifted to be non-negative. */
+    private static int clamp(int v, int bound) {
+        return Math.max(-bound, Math.min(bound, v)) + bound;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.scopa.ai;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Limits on one search: an iteration cap, a wall-clock deadline and a CPU-time budget for the thread
+ * doing the search. The search stops at whichever comes first, but always completes at least one
+ * iteration so it has a move to return.
+ *
+ * Wall and CPU time are only read every {@link #CHECK_INTERVAL} iterations, as the clocks cost more
+ * than an iteration of a small search.
+ */
+public final class SearchBudget {
+    static final int CHECK_INTERVAL = 16;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int maxIterations;
+    private final long deadlineNanos;
+    private final long cpuNanos;
+    private long cpuStart;
+
+    /**
+     * @param deadlineNanos absolute {@link System#nanoTime()} deadline, or {@code Long.MAX_VALUE} for none
+     * @param cpuNanos      CPU time the search may use once started, or {@code Long.MAX_VALUE} for none
+     */
+    public SearchBudget(int maxIterations, long deadlineNanos, long cpuNanos) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Invalid iteration cap: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        this.deadlineNanos = deadlineNanos;
+        this.cpuNanos = cpuNanos;
+    }
+
+    public static SearchBudget iterations(int maxIterations) {
+        return new SearchBudget(maxIterations, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Called by the search on its own thread before the first iteration.
+     */
+    void start() {
+        cpuStart = cpuNanos == Long.MAX_VALUE ? 0 : threadCpuTime();
+    }
+
+    boolean exhausted(int iterations) {
+        if (iterations >= maxIterations) {
+            return true;
+        }
+        if (iterations == 0 || iterations % CHECK_INTERVAL != 0) {
+            return false;
+        }
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+            return true;
+        }
+        return cpuNanos != Long.MAX_VALUE && threadCpuTime() - cpuStart >= cpuNanos;
+    }
+
+    private static long threadCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.model.Zobrist;
+import com.example.scopa.player.Player;
+import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.util.List;
+
+/**
+ * Mask-based copy of one round of {@link ScopaGame}, for search and simulation.
+ *
+ * Hands, table and capture piles are card masks and the deck is a byte array of card indices, so a
+ * copy is a handful of array writes and playing a move allocates nothing. Moves use the same packed
+ * encoding and the same order as {@link ScopaGame#legalMoves(int[])}, and play follows
+ * {@link ScopaGame#playCard(int, int)} exactly: capture precedence from {@link ScopaRules}, scopa
+ * only while the deck is not empty, three-card redeals led by the player to move, and
+ * {@link #finish()} sweeping the table to the last capturer like {@link ScopaGame#finalizeRound()}.
+ * Hand and table positions count cards in index order, as the list views of {@code Player} and
+ * {@code Table} do.
+ *
+ * Not thread-safe; searches keep one instance per thread and {@link #copyFrom} into it.
+ */
+public final class SimState {
+    private static final int HAND_SIZE = 3;
+    /** First {@link Zobrist} slot for deck positions; 0-4 are hands, table and piles. */
+    private static final int DECK_SLOT = 8;
+
+    final long[] hand = new long[2];
+    final long[] captured = new long[2];
+    final int[] scopas = new int[2];
+    long table;
+    /** Remaining deck, bottom first; the top card is {@code deck[deckSize - 1]}. */
+    final byte[] deck = new byte[Card.DECK_SIZE];
+    int deckSize;
+    int current;
+    int lastCapturer = -1;
+
+    private final int[] tableValues = new int[Card.DECK_SIZE];
+    private final int[] tableCards = new int[Card.DECK_SIZE];
+    private long[] options = new long[16];
+    private final long[] deckDigest = new long[4];
+
+    /**
+     * Full-information copy of the round currently in {@code game}, deck order included.
+     */
+    public static SimState of(ScopaGame game) {
+        SimState s = new SimState();
+        Player p1 = game.getPlayer1();
+        Player p2 = game.getPlayer2();
+        s.hand[0] = p1.getHandMask();
+        s.hand[1] = p2.getHandMask();
+        s.captured[0] = p1.getCapturedMask();
+        s.captured[1] = p2.getCapturedMask();
+        s.scopas[0] = p1.getScopaCount();
+        s.scopas[1] = p2.getScopaCount();
+        s.table = game.getTable().getMask();
+        List<Card> cards = game.getDeck().getCards();
+        for (int i = 0; i < cards.size(); i++) {
+            s.deck[i] = (byte) cards.get(i).index();
+        }
+        s.deckSize = cards.size();
+        s.current = game.getCurrentPlayer() == p1 ? 0 : 1;
+        Player last = game.getLastCapturePlayer();
+        s.lastCapturer = last == null ? -1 : last == p1 ? 0 : 1;
+        return s;
+    }
+
+    public void copyFrom(SimState o) {
+        hand[0] = o.hand[0];
+        hand[1] = o.hand[1];
+        captured[0] = o.captured[0];
+        captured[1] = o.captured[1];
+        scopas[0] = o.scopas[0];
+        scopas[1] = o.scopas[1];
+        table = o.table;
+        System.arraycopy(o.deck, 0, deck, 0, o.deckSize);
+        deckSize = o.deckSize;
+        current = o.current;
+        lastCapturer = o.lastCapturer;
+    }
+
+    public SimState copy() {
+        SimState s = new SimState();
+        s.copyFrom(this);
+        return s;
+    }
+
+    public long hand(int player) {
+        return hand[player];
+    }
+
+    public long captured(int player) {
+        return captured[player];
+    }
+
+    public int scopas(int player) {
+        return scopas[player];
+    }
+
+    public long table() {
+        return table;
+    }
+
+    public int deckSize() {
+        return deckSize;
+    }
+
+    /** Card index at {@code position} in the deck, 0 being the bottom. */
+    public int deckCard(int position) {
+        return deck[position];
+    }
+
+    public int current() {
+        return current;
+    }
+
+    /** @return 0 or 1, or -1 if nobody has captured this round */
+    public int lastCapturer() {
+        return lastCapturer;
+    }
+
+    public boolean isRoundOver() {
+        return deckSize == 0 && hand[0] == 0 && hand[1] == 0;
+    }
+
+    /**
+     * Same contract as {@link ScopaGame#legalMoves(int[])}.
+     */
+    public int legalMoves(int[] out) {
+        int n = 0;
+        int h = 0;
+        for (long m = hand[current]; m != 0; m &= m - 1, h++) {
+            int options = Math.min(captureOptions(Card.of(Long.numberOfTrailingZeros(m)).value()),
+                Move.MAX_CAPTURE_OPTIONS);
+            for (int c = 0; c <= options; c++) {
+                if (n < out.length) {
+                    out[n] = Move.of(h, c < options ? c : -1);
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Same contract as {@link ScopaGame#playMove(int)}: a capture index past the last option drops the card.
+     */
+    public boolean play(int move) {
+        long cards = hand[current];
+        int h = Move.handIndex(move);
+        if (h >= Long.bitCount(cards)) {
+            return false;
+        }
+        for (int i = 0; i < h; i++) {
+            cards &= cards - 1;
+        }
+        long bit = Long.lowestOneBit(cards);
+        int card = Long.numberOfTrailingZeros(bit);
+        hand[current] &= ~bit;
+
+        int count = captureOptions(Card.of(card).value());
+        int c = Move.captureIndex(move);
+        if (c >= 0 && c < count) {
+            long taken = 0;
+            for (long m = options[c]; m != 0; m &= m - 1) {
+                taken |= 1L << tableCards[Long.numberOfTrailingZeros(m)];
+            }
+            table &= ~taken;
+            captured[current] |= taken | bit;
+            lastCapturer = current;
+            if (table == 0 && deckSize > 0) {
+                scopas[current]++;
+            }
+        } else {
+            table |= bit;
+        }
+
+        current = 1 - current;
+        if (hand[0] == 0 && hand[1] == 0 && deckSize > 0) {
+            dealHand(current);
+            dealHand(1 - current);
+        }
+        return true;
+    }
+
+    private void dealHand(int player) {
+        for (int i = 0; i < HAND_SIZE && deckSize > 0; i++) {
+            hand[player] |= 1L << deck[--deckSize];
+        }
+    }
+
+    /**
+     * Give the remaining table cards to the last capturer, as {@link ScopaGame#finalizeRound()} does.
+     */
+    public void finish() {
+        if (table != 0 && lastCapturer >= 0) {
+            captured[lastCapturer] |= table;
+            table = 0;
+        }
+    }
+
+    /**
+     * 64-bit {@link Zobrist} hash of this state's canonical form under {@link SuitSymmetry}: states that
+     * differ only by a relabelling of Cups, Swords and Clubs hash alike, so tables keyed on it need up
+     * to six times fewer entries. Covers hands, table, piles, deck order, scopas, the player to move
+     * and the last capturer.
+     *
+     * Plain suits are ordered by where their cards are; suits alike in that are ordered by a 10-bit
+     * digest of their deck positions. If two digests collide, equivalent states may hash apart, which
+     * only costs a cache hit.
+     */
+    public long canonicalHash() {
+        long[] digest = deckDigest;
+        digest[0] = digest[1] = digest[2] = digest[3] = 0;
+        for (int p = 0; p < deckSize; p++) {
+            int card = deck[p];
+            digest[card / 10] ^= Zobrist.card(DECK_SLOT + p, card % 10);
+        }
+        int r = SuitSymmetry.canonical(suitKey(1, digest[1]), suitKey(2, digest[2]), suitKey(3, digest[3]));
+        long h = Zobrist.mask(0, SuitSymmetry.apply(hand[0], r))
+            ^ Zobrist.mask(1, SuitSymmetry.apply(hand[1], r))
+            ^ Zobrist.mask(2, SuitSymmetry.apply(table, r))
+            ^ Zobrist.mask(3, SuitSymmetry.apply(captured[0], r))
+            ^ Zobrist.mask(4, SuitSymmetry.apply(captured[1], r));
+        for (int p = 0; p < deckSize; p++) {
+            h ^= Zobrist.card(DECK_SLOT + p, SuitSymmetry.card(deck[p], r));
+        }
+        return h ^ Zobrist.counter(0, current) ^ Zobrist.counter(1, scopas[0]) ^ Zobrist.counter(2, scopas[1])
+            ^ Zobrist.counter(3, lastCapturer + 1);
+    }
+
+    private long suitKey(int suit, long deckDigest) {
+        return SuitSymmetry.key(suit, hand[0], hand[1], table, captured[0], captured[1], 0) | (deckDigest & 0x3FF);
+    }
+
+    /**
+     * Round points for player 0 minus player 1, scopas included, from the current capture piles.
+     */
+    public int pointDifference() {
+        int packed = ScoringKernel.points(captured[0], captured[1]);
+        return (packed & 0xFFFF) + scopas[0] - (packed >>> 16) - scopas[1];
+    }
+
+    public ScopaRules.Score score() {
+        return ScoringKernel.score(captured[0], scopas[0], captured[1], scopas[1]);
+    }
+
+    /**
+     * Fill {@link #options} with capture masks over table positions; {@link #tableCards} maps them back.
+     * @return the number of capture options
+     */
+    private int captureOptions(int value) {
+        int n = 0;
+        for (long m = table; m != 0; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            tableCards[n] = card;
+            tableValues[n++] = Card.of(card).value();
+        }
+        int count = ScopaRules.captureMasks(value, tableValues, n, options);
+        if (count > options.length) {
+            options = new long[count];
+            ScopaRules.captureMasks(value, tableValues, n, options);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Solved endgames in a memory-mapped file, looked up in O(1).
+ *
+ * An endgame is a position after the last deal: the deck is empty, so both hands are known and the
+ * rest of the round is a perfect-information game of at most six moves. Its value is the round point
+ * difference (player 0 minus player 1) under optimal play.
+ *
+ * A table holds every endgame of a bounded class, enumerated by {@link TablebaseGenerator}: at most
+ * {@link #maxHand()} cards in each hand and {@link #maxCards()} cards in play, hands and table together.
+ * Only what the piles mean for the cards in play is keyed, and only when that is little: the card
+ * and coin leads, and only while the cards in play can still change them (see
+ * {@link PositionKey#endgame}). Points that play can no longer change (scopas, a decided lead, the
+ * settebello once captured, and primiera once every player's best card of each suit is beyond reach)
+ * are added back on lookup, and endgames where primiera is still open are not stored.
+ *
+ * The file is an open-addressing table of longs (key in the high 56 bits, value in the low 8) after a
+ * 32-byte header that ends with the class bounds. It is mapped read-only, so any number of threads and
+ * processes share one copy through the page cache.
+ */
+public final class Tablebase implements Closeable {
+    /** Returned by {@link #probe(SimState)} for positions not in the table. */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    static final long NO_KEY = 0;
+    private static final int MAGIC = 0x42544353; // "SCTB" read little-endian
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final long VALUE_BITS = 0xFF;
+    private static final long ALL = (1L << Card.DECK_SIZE) - 1;
+    private static final long COINS = (1L << Rank.values().length) - 1;
+    private static final long SETTEBELLO = 1L << Card.of(Suit.COINS, Rank.SEVEN).index();
+
+    private final FileChannel channel;
+    private final LongBuffer slots;
+    private final int mask;
+    private final long entries;
+    private final int maxHand;
+    private final int maxCards;
+
+    private Tablebase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a tablebase file");
+        }
+        long capacity = header.getLong(8);
+        this.entries = header.getLong(16);
+        this.maxHand = header.getInt(24);
+        this.maxCards = header.getInt(28);
+        if (Long.bitCount(capacity) != 1 || HEADER_BYTES + capacity * Long.BYTES != channel.size()
+                || capacity * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt tablebase: capacity " + capacity);
+        }
+        this.mask = (int) capacity - 1;
+        this.slots = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, capacity * Long.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    public static Tablebase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Tablebase(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Value of {@code s} under optimal play: round points of player 0 minus player 1, scopas included.
+     * Safe to call from any thread.
+     * @return the value, or {@link #NOT_FOUND} if {@code s} is not a stored endgame
+     */
+    public int probe(SimState s) {
+        long hand0 = s.hand(0);
+        long hand1 = s.hand(1);
+        if (Long.bitCount(hand0) > maxHand || Long.bitCount(hand1) > maxHand
+                || Long.bitCount(hand0 | hand1 | s.table()) > maxCards) {
+            return NOT_FOUND;
+        }
+        long key = key(s);
+        if (key == NO_KEY) {
+            return NOT_FOUND;
+        }
+        int value = find(key);
+        return value == NOT_FOUND ? NOT_FOUND : value + settled(s);
+    }
+
+    private int find(long key) {
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long entry = slots.get(i);
+            if (entry == 0) {
+                return NOT_FOUND;
+            }
+            if ((entry & ~VALUE_BITS) == key) {
+                return (byte) entry;
+            }
+        }
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    /** The most cards in either hand of a stored endgame. */
+    public int maxHand() {
+        return maxHand;
+    }
+
+    /** The most cards in play, hands and table together, of a stored endgame. */
+    public int maxCards() {
+        return maxCards;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) (key >>> 8) & mask;
+    }
+
+    /**
+     * Table key of {@code s} (see the class comment), or {@link #NO_KEY} if {@code s} is not an endgame
+     * or its primiera is still open.
+     */
+    static long key(SimState s) {
+        if (s.deckSize() != 0 || s.isRoundOver()) {
+            return NO_KEY;
+        }
+        long pile0 = s.captured(0);
+        long pile1 = s.captured(1);
+        long left = ~(pile0 | pile1) & ALL;
+        if (!primieraSettled(pile0, pile1, left)) {
+            return NO_KEY;
+        }
+        int cards = PositionKey.lead(Long.bitCount(pile0) - Long.bitCount(pile1), Long.bitCount(left));
+        int coins = PositionKey.lead(Long.bitCount(pile0 & COINS) - Long.bitCount(pile1 & COINS),
+            Long.bitCount(left & COINS));
+        return entryKey(PositionKey.endgame(s.hand(0), s.hand(1), s.table(), s.current(), s.lastCapturer(),
+            cards, coins));
+    }
+
+    /** {@code key} with the low 8 bits clear for the value, and never {@link #NO_KEY}. */
+    static long entryKey(long key) {
+        key &= ~VALUE_BITS;
+        return key == NO_KEY ? 1L << 8 : key;
+    }
+
+    /**
+     * Points of endgame {@code s} that the cards in play can no longer change, player 0 minus player 1:
+     * scopas, decided card and coin leads, the captured settebello and a settled primiera.
+     */
+    static int settled(SimState s) {
+        long pile0 = s.captured(0);
+        long pile1 = s.captured(1);
+        long left = ~(pile0 | pile1) & ALL;
+        int points = s.scopas(0) - s.scopas(1);
+        int cards = Long.bitCount(pile0) - Long.bitCount(pile1);
+        if (Math.abs(cards) > Long.bitCount(left)) {
+            points += Integer.signum(cards);
+        }
+        int coins = Long.bitCount(pile0 & COINS) - Long.bitCount(pile1 & COINS);
+        if (Math.abs(coins) > Long.bitCount(left & COINS)) {
+            points += Integer.signum(coins);
+        }
+        if ((left & SETTEBELLO) == 0) {
+            points += (pile0 & SETTEBELLO) != 0 ? 1 : -1;
+        }
+        int primiera0 = ScoringKernel.primiera(pile0);
+        int primiera1 = ScoringKernel.primiera(pile1);
+        if (primiera0 >= 0 && primiera1 >= 0) {
+            points += Integer.signum(primiera0 - primiera1);
+        }
+        return points;
+    }
+
+    /**
+     * Whether the cards in {@code left} can no longer change primiera: a suit is gone and some player
+     * has none of it, or each player's best card of every suit beats all of that suit still in play.
+     */
+    private static boolean primieraSettled(long pile0, long pile1, long left) {
+        boolean settled = true;
+        for (int suit = 0; suit < 4; suit++) {
+            int best = ScoringKernel.bestPrimiera(left, suit);
+            int best0 = ScoringKernel.bestPrimiera(pile0, suit);
+            int best1 = ScoringKernel.bestPrimiera(pile1, suit);
+            if (best == 0) {
+                if (best0 == 0 || best1 == 0) {
+                    return true;
+                }
+            } else if (best0 < best || best1 < best) {
+                settled = false;
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * In-memory table from keys to small values, used as the solver's memo and by the generator to be
+     * written out in the mapped format. Grows up to a fixed number of slots and then keeps what it has,
+     * dropping further entries. Not thread-safe.
+     */
+    static final class Builder {
+        private final int maxSlots;
+        private long[] slots;
+        private int size;
+
+        /** A memo of at most {@code 1 << 16} slots, for solving a few endgames at a time. */
+        Builder() {
+            this(1 << 16);
+        }
+
+        /**
+         * @param maxSlots the most slots to grow to, a power of two; the table holds half as many entries
+         */
+        Builder(int maxSlots) {
+            if (Integer.bitCount(maxSlots) != 1 || maxSlots < 2) {
+                throw new IllegalArgumentException("Slots must be a power of two: " + maxSlots);
+            }
+            this.maxSlots = maxSlots;
+            this.slots = new long[Math.min(maxSlots, 1 << 16)];
+        }
+
+        int get(long key) {
+            int m = slots.length - 1;
+            for (int i = slot(key, m); ; i = (i + 1) & m) {
+                long entry = slots[i];
+                if (entry == 0) {
+                    return NOT_FOUND;
+                }
+                if ((entry & ~VALUE_BITS) == key) {
+                    return (byte) entry;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > slots.length) {
+                if (slots.length == maxSlots) {
+                    return;
+                }
+                grow();
+            }
+            if (insert(slots, key, value)) {
+                size++;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return slots.length == maxSlots && 2 * (size + 1) > slots.length;
+        }
+
+        private static boolean insert(long[] slots, long key, int value) {
+            int m = slots.length - 1;
+            for (int i = slot(key, m); ; i = (i + 1) & m) {
+                long entry = slots[i];
+                if (entry == 0 || (entry & ~VALUE_BITS) == key) {
+                    slots[i] = key | (value & VALUE_BITS);
+                    return entry == 0;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] larger = new long[slots.length * 2];
+            for (long entry : slots) {
+                if (entry != 0) {
+                    insert(larger, entry & ~VALUE_BITS, (byte) entry);
+                }
+            }
+            slots = larger;
+        }
+
+        /**
+         * Write the table, at most half full, to {@code file}.
+         * @param maxHand  the most cards in either hand of the endgames it holds
+         * @param maxCards the most cards in play of the endgames it holds
+         */
+        void write(Path file, int maxHand, int maxCards) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(slots.length).putLong(size)
+                .putInt(maxHand).putInt(maxCards).flip();
+            ByteBuffer body = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (int i = 0; i < slots.length; ) {
+                    body.clear();
+                    while (body.hasRemaining() && i < slots.length) {
+                        body.putLong(slots[i++]);
+                    }
+                    body.flip();
+                    while (body.hasRemaining()) {
+                        out.write(body);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.player.HumanPlayer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds a {@link Tablebase} file offline.
+ *
+ * The generator enumerates every endgame of a bounded class: at most {@code maxHand} cards in either
+ * hand and {@code maxCards} cards in play, each placement of them once up to {@link SuitSymmetry},
+ * with every player to move the hand sizes allow, every last capturer, and every card and coin lead
+ * that the cards in play can still change. Each is solved by minimax over the points still open, so
+ * any endgame of the class with a settled primiera is found. The class grows quickly with its bounds:
+ * three cards in play take 2.5 million entries (a 64 MB file), and each further card about forty
+ * times as many.
+ *
+ * Usage: {@code TablebaseGenerator <file> [maxHand] [maxCards] [megabytes]}, by default 2, 3 and 128.
+ * Generation fails if the class does not fit in the size limit. After writing, the file is mapped and
+ * probed at every endgame position of rounds played with the rollout policy of {@link MonteCarloSearch},
+ * and the hit rate is reported by the number of cards in play.
+ */
+public final class TablebaseGenerator {
+    private static final long ALL = (1L << Card.DECK_SIZE) - 1;
+    private static final long COINS = (1L << Rank.values().length) - 1;
+    private static final long SETTEBELLO = 1L << Card.of(Suit.COINS, Rank.SEVEN).index();
+    /** A lead the cards in play can no longer change. */
+    private static final int DECIDED = Integer.MIN_VALUE;
+    private static final int REPORT_ROUNDS = 20_000;
+
+    private final int maxHand;
+    private final int maxCards;
+    private final SimState[] stack;
+    private final int[][] moves;
+    private final SimState end = new SimState();
+    private int cardsLead;
+    private int coinsLead;
+    private boolean settebelloInPlay;
+
+    /**
+     * @param maxHand  the most cards in either hand, 1 to 3
+     * @param maxCards the most cards in play, hands and table together
+     */
+    public TablebaseGenerator(int maxHand, int maxCards) {
+        if (maxHand < 1 || maxHand > 3 || maxCards < 1) {
+            throw new IllegalArgumentException("Bad class bounds: " + maxHand + " per hand, " + maxCards + " in play");
+        }
+        this.maxHand = maxHand;
+        this.maxCards = maxCards;
+        this.stack = new SimState[2 * maxHand + 1];
+        this.moves = new int[2 * maxHand][64];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new SimState();
+        }
+    }
+
+    /**
+     * Solve every endgame of the class into {@code memo}.
+     * @return false if {@code memo} filled up first
+     */
+    boolean generate(Tablebase.Builder memo) {
+        // The player to move holds as many cards as the other, or one more.
+        for (int mover = 1; mover <= maxHand; mover++) {
+            for (int other = mover - 1; other <= mover; other++) {
+                for (int tableCards = 0; mover + other + tableCards <= maxCards; tableCards++) {
+                    if (!placements(mover, other, tableCards, memo)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean placements(int mover, int other, int tableCards, Tablebase.Builder memo) {
+        for (long moverHand : subsets(ALL, mover)) {
+            for (long otherHand : subsets(ALL & ~moverHand, other)) {
+                for (long table : subsets(ALL & ~moverHand & ~otherHand, tableCards)) {
+                    for (int current = 0; current < 2; current++) {
+                        long hand0 = current == 0 ? moverHand : otherHand;
+                        long hand1 = current == 0 ? otherHand : moverHand;
+                        if (isCanonical(hand0, hand1, table) && !solve(hand0, hand1, table, current, memo)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Solve one placement for every last capturer and open lead. */
+    private boolean solve(long hand0, long hand1, long table, int current, Tablebase.Builder memo) {
+        SimState root = stack[0];
+        root.hand[0] = hand0;
+        root.hand[1] = hand1;
+        root.table = table;
+        root.current = current;
+        long inPlay = hand0 | hand1 | table;
+        int left = Long.bitCount(inPlay);
+        int coinsLeft = Long.bitCount(inPlay & COINS);
+        settebelloInPlay = (inPlay & SETTEBELLO) != 0;
+        // Leads have the parity of the cards still to be captured; 0 encodes a decided one.
+        for (int last = -1; last < 2; last++) {
+            root.lastCapturer = last;
+            for (int cards = 0; cards <= 2 * left + 1; cards += cards == 0 ? 1 : 2) {
+                cardsLead = cards == 0 ? DECIDED : cards - left - 1;
+                for (int coins = 0; coins <= 2 * coinsLeft + 1; coins += coins == 0 ? 1 : 2) {
+                    coinsLead = coins == 0 ? DECIDED : coins - coinsLeft - 1;
+                    if (memo.isFull()) {
+                        return false;
+                    }
+                    long key = PositionKey.endgame(hand0, hand1, table, current, last, cards, coins);
+                    memo.put(Tablebase.entryKey(key), search(0));
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Value of {@code stack[ply]} in points still open. */
+    private int search(int ply) {
+        SimState s = stack[ply];
+        if (s.isRoundOver()) {
+            return openPoints(s);
+        }
+        int[] options = moves[ply];
+        int n = s.legalMoves(options);
+        if (n > options.length) {
+            options = moves[ply] = new int[n];
+            s.legalMoves(options);
+        }
+        boolean maximize = s.current() == 0;
+        int best = maximize ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        SimState child = stack[ply + 1];
+        for (int i = 0; i < n; i++) {
+            child.copyFrom(s);
+            child.play(options[i]);
+            int value = search(ply + 1);
+            best = maximize ? Math.max(best, value) : Math.min(best, value);
+        }
+        return best;
+    }
+
+    /**
+     * Points of a finished endgame that the class leaves open: the leads not yet decided and the
+     * settebello if it was in play. The piles start empty, so they hold what was won since.
+     */
+    private int openPoints(SimState s) {
+        end.copyFrom(s);
+        end.finish();
+        long won0 = end.captured(0);
+        long won1 = end.captured(1);
+        int points = 0;
+        if (cardsLead != DECIDED) {
+            points += Integer.signum(cardsLead + Long.bitCount(won0) - Long.bitCount(won1));
+        }
+        if (coinsLead != DECIDED) {
+            points += Integer.signum(coinsLead + Long.bitCount(won0 & COINS) - Long.bitCount(won1 & COINS));
+        }
+        if (settebelloInPlay) {
+            points += (won0 & SETTEBELLO) != 0 ? 1 : (won1 & SETTEBELLO) != 0 ? -1 : 0;
+        }
+        return points;
+    }
+
+    /** Whether a placement is its own canonical form under {@link SuitSymmetry}, so each is solved once. */
+    private static boolean isCanonical(long hand0, long hand1, long table) {
+        long cups = SuitSymmetry.key(1, hand0, hand1, table, 0, 0, 0);
+        long swords = SuitSymmetry.key(2, hand0, hand1, table, 0, 0, 0);
+        long clubs = SuitSymmetry.key(3, hand0, hand1, table, 0, 0, 0);
+        return Long.compareUnsigned(cups, swords) >= 0 && Long.compareUnsigned(swords, clubs) >= 0;
+    }
+
+    /** Every {@code k}-card subset of {@code from}. */
+    private static long[] subsets(long from, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count = count * (Long.bitCount(from) - i) / (i + 1);
+        }
+        long[] out = new long[(int) count];
+        fill(out, 0, from, k, 0);
+        return out;
+    }
+
+    private static int fill(long[] out, int n, long from, int k, long chosen) {
+        if (k == 0) {
+            out[n] = chosen;
+            return n + 1;
+        }
+        for (long m = from; Long.bitCount(m) >= k; m &= m - 1) {
+            long bit = Long.lowestOneBit(m);
+            n = fill(out, n, m & ~bit, k - 1, chosen | bit);
+        }
+        return n;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TablebaseGenerator <file> [maxHand] [maxCards] [megabytes]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        int maxHand = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxCards = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int megabytes = args.length > 3 ? Integer.parseInt(args[3]) : 128;
+
+        long start = System.nanoTime();
+        Tablebase.Builder memo = new Tablebase.Builder(Integer.highestOneBit((int) Math.min(1 << 30, (long) megabytes << 17)));
+        if (!new TablebaseGenerator(maxHand, maxCards).generate(memo)) {
+            System.err.printf("The class does not fit in %d MB: allow more, or fewer cards%n", megabytes);
+            System.exit(1);
+        }
+        memo.write(file, maxHand, maxCards);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Solved %,d endgames with at most %d cards per hand and %d in play in %.2f s: %,d bytes%n",
+            memo.size(), maxHand, maxCards, seconds, file.toFile().length());
+
+        // Probe the positions a search would: every endgame position of rounds played by rollouts.
+        Rounds rounds = new Rounds(1);
+        long[] probes = new long[maxCards + 1];
+        long[] hits = new long[maxCards + 1];
+        long total = 0;
+        long probeNanos = 0;
+        try (Tablebase table = Tablebase.open(file)) {
+            for (long r = 0; r < REPORT_ROUNDS; r++) {
+                SimState s = rounds.deal(r);
+                if (!rounds.toEndgame(s)) {
+                    continue;
+                }
+                while (!s.isRoundOver()) {
+                    long t = System.nanoTime();
+                    boolean hit = table.probe(s) != Tablebase.NOT_FOUND;
+                    probeNanos += System.nanoTime() - t;
+                    total++;
+                    int cards = Long.bitCount(s.hand(0) | s.hand(1) | s.table());
+                    if (cards <= maxCards && Long.bitCount(s.hand(0)) <= maxHand && Long.bitCount(s.hand(1)) <= maxHand) {
+                        probes[cards]++;
+                        hits[cards] += hit ? 1 : 0;
+                    }
+                    s.play(rounds.choose(s));
+                }
+            }
+        }
+        long inClass = 0;
+        long totalHits = 0;
+        for (int cards = maxCards; cards > 0; cards--) {
+            System.out.printf("  %d cards in play: hit %,d of %,d (%.1f%%)%n",
+                cards, hits[cards], probes[cards], 100.0 * hits[cards] / probes[cards]);
+            inClass += probes[cards];
+            totalHits += hits[cards];
+        }
+        System.out.printf("%,d of %,d endgame probes were in the class; hit %,d, the rest had primiera open. %.0f ns per probe%n",
+            inClass, total, totalHits, probeNanos / (double) total);
+    }
+
+    /** Rounds played to their last deal with the rollout policy of {@link MonteCarloSearch}. */
+    private static final class Rounds {
+        private final ScopaGame dealer = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        private int[] moves = new int[64];
+        private long rng;
+
+        Rounds(long seed) {
+            this.rng = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        }
+
+        SimState deal(long round) {
+            dealer.startNewRound(rng + round, (int) (round & 1));
+            return SimState.of(dealer);
+        }
+
+        /** Play {@code s} on until the deck is empty; false if the round ended first. */
+        boolean toEndgame(SimState s) {
+            while (s.deckSize() > 0 && !s.isRoundOver()) {
+                s.play(choose(s));
+            }
+            return !s.isRoundOver();
+        }
+
+        int choose(SimState s) {
+            int n = s.legalMoves(moves);
+            if (n > moves.length) {
+                moves = new int[n];
+                s.legalMoves(moves);
+            }
+            int captures = 0;
+            for (int i = 0; i < n; i++) {
+                if (Move.isCapture(moves[i])) {
+                    moves[captures++] = moves[i];
+                }
+            }
+            return moves[nextInt(captures > 0 ? captures : n)];
+        }
+
+        private int nextInt(int bound) {
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            return (int) ((((rng * 0x2545F4914F6CDD1DL) >>> 33) * bound) >>> 31);
+        }
+    }
+}
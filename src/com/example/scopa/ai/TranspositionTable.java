@@ -0,0 +1,84 @@
+package com.example.scopa.ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results shared by all threads of a {@link DoubleDummyAnalyzer}
+ * without locks.
+ *
+ * Each entry is two longs: the key XOR the data, and the data. Threads read and write them with plain
+ * accesses, so another thread's store can land between the two halves; an entry is only trusted when
+ * its first half XOR its second gives back the probed key, which a mixed pair fails. A lost or
+ * overwritten entry only costs search effort, never correctness.
+ *
+ * Data packs the value (an int, in {@link Evaluator} units) in the low 32 bits, then the depth it was
+ * searched to (8 bits), the bound type (2 bits) and the best move (16 bits, see
+ * {@link com.example.scopa.game.Move}).
+ */
+final class TranspositionTable {
+    static final int EXACT = 0;
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+
+    private final long[] slots;
+    private final int mask;
+
+    /**
+     * @param bits log2 of the number of entries; each takes 16 bytes
+     */
+    TranspositionTable(int bits) {
+        this.slots = new long[2 << bits];
+        this.mask = (1 << bits) - 1;
+    }
+
+    /** The data stored for {@code key}, or 0 if there is none (data is never 0, see {@link #pack}). */
+    long probe(long key) {
+        int i = index(key);
+        long data = slots[i + 1];
+        return (slots[i] ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Store a result, replacing whatever the slot holds unless it has the same position searched
+     * deeper.
+     */
+    void store(long key, int value, int depth, int bound, int move) {
+        int i = index(key);
+        long old = slots[i + 1];
+        if ((slots[i] ^ old) == key && depth(old) > depth) {
+            return;
+        }
+        long data = pack(value, depth, bound, move);
+        slots[i] = key ^ data;
+        slots[i + 1] = data;
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    static int value(long data) {
+        return (int) data;
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 40) & 3;
+    }
+
+    static int move(long data) {
+        return (int) (data >>> 48) & 0xFFFF;
+    }
+
+    /** The bit at 42 keeps packed data from ever being 0. */
+    private static long pack(int value, int depth, int bound, int move) {
+        return (value & 0xFFFFFFFFL) | (long) depth << 32 | (long) bound << 40 | 1L << 42 | (long) (move & 0xFFFF) << 48;
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) << 1;
+    }
+}
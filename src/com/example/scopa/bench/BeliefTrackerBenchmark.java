@@ -0,0 +1,176 @@
+package com.example.scopa.bench;
+
+import com.example.scopa.ai.BeliefTracker;
+import com.example.scopa.game.GameListener;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.Bot;
+import com.example.scopa.player.RandomBot;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link BeliefTracker} update and sampling throughput, and the bytes allocated per call.
+ *
+ * Game events are recorded once from random self-play and then replayed straight into a tracker, so
+ * the update timing excludes the game engine itself. Sampling draws opponent hands at a mid-round
+ * position. Allocation figures come from the HotSpot per-thread allocation counter; a few hundred bytes
+ * per pass are JIT bookkeeping rather than the tracker, hence the per-call average.
+ *
+ * Usage: {@code BeliefTrackerBenchmark [rounds] [samples]}
+ */
+public class BeliefTrackerBenchmark {
+    private static final int PASSES = 5;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long samples = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+
+        Recorder events = record(rounds);
+        System.out.printf("Recorded %d events from %d rounds%n", events.size(), rounds);
+
+        BeliefTracker tracker = new BeliefTracker(0, 42);
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            events.replay(tracker);
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = allocatedBytes() - bytes;
+        }
+        System.out.printf("Updates: %.1f ns/event, %.1f M events/s, %.4f bytes/event allocated%n",
+            (double) best / events.size(), events.size() * 1e3 / best, (double) allocated / events.size());
+
+        // Rewind to a position with a full opponent hand and most of the deck unseen.
+        events.replay(tracker, 40);
+        long checksum = 0;
+        best = Long.MAX_VALUE;
+        for (int pass = 0; pass < PASSES; pass++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (long i = 0; i < samples; i++) {
+                checksum += tracker.sampleOpponentHand();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = allocatedBytes() - bytes;
+        }
+        System.out.printf("Samples: %.1f ns/sample, %.1f M samples/s, %.4f bytes/sample allocated (checksum %d)%n",
+            (double) best / samples, samples * 1e3 / best, (double) allocated / samples, checksum & 0xFFFF);
+    }
+
+    /** What one {@link #allocatedBytes()} query allocates by itself, subtracted from each reading. */
+    private static final long QUERY_OVERHEAD = calibrate();
+
+    private static long calibrate() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long before = rawAllocatedBytes();
+            overhead = Math.min(overhead, rawAllocatedBytes() - before);
+        }
+        return overhead;
+    }
+
+    /**
+     * Bytes allocated by this thread so far, net of the cost of asking.
+     */
+    private static long allocatedBytes() {
+        return rawAllocatedBytes() - QUERY_OVERHEAD;
+    }
+
+    private static long rawAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static Recorder record(int rounds) {
+        RandomBot a = new RandomBot("A", 1);
+        RandomBot b = new RandomBot("B", 2);
+        ScopaGame game = ScopaGame.twoPlayer(a, b);
+        Recorder recorder = new Recorder();
+        game.addListener(recorder);
+        int[] moves = new int[256];
+        for (int r = 0; r < rounds; r++) {
+            game.startNewRound(r, r % 2);
+            while (!game.isRoundOver()) {
+                int n = game.legalMoves(moves);
+                Bot current = (Bot) game.getCurrentPlayer();
+                game.playMove(current.chooseMove(game, moves, n));
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Stores events as parallel primitive arrays so replay itself does not allocate.
+     */
+    private static final class Recorder implements GameListener {
+        private static final int START = 0;
+        private static final int DEAL = 1;
+        private static final int PLAY = 2;
+
+        private final List<long[]> log = new ArrayList<>();
+        private int[] type;
+        private int[] player;
+        private long[] a;
+        private long[] b;
+
+        @Override
+        public void roundStarted(ScopaGame game, long tableMask) {
+            log.add(new long[] {START, 0, tableMask, 0});
+        }
+
+        @Override
+        public void handDealt(ScopaGame game, int p, long handMask) {
+            log.add(new long[] {DEAL, p, handMask, 0});
+        }
+
+        @Override
+        public void cardPlayed(ScopaGame game, int p, Card card, long tableBefore, long capturedMask) {
+            log.add(new long[] {PLAY, p, card.index() | tableBefore << 6, capturedMask});
+        }
+
+        int size() {
+            return log.size();
+        }
+
+        void replay(BeliefTracker tracker) {
+            replay(tracker, size());
+        }
+
+        void replay(BeliefTracker tracker, int count) {
+            if (type == null) {
+                int n = log.size();
+                type = new int[n];
+                player = new int[n];
+                a = new long[n];
+                b = new long[n];
+                for (int i = 0; i < n; i++) {
+                    long[] e = log.get(i);
+                    type[i] = (int) e[0];
+                    player[i] = (int) e[1];
+                    a[i] = e[2];
+                    b[i] = e[3];
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                switch (type[i]) {
+                    case START:
+                        tracker.roundStarted(null, a[i]);
+                        break;
+                    case DEAL:
+                        tracker.handDealt(null, player[i], a[i]);
+                        break;
+                    default:
+                        tracker.cardPlayed(null, player[i], Card.of((int) (a[i] & 63)), a[i] >>> 6, b[i]);
+                        break;
+                }
+            }
+        }
+    }
+}
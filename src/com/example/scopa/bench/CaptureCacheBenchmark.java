@@ -0,0 +1,123 @@
+package com.example.scopa.bench;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.player.Player;
+import com.example.scopa.rules.CaptureCache;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays capture queries recorded from random self-play through {@link ScopaRules#possibleCaptures}
+ * and through a {@link CaptureCache}, and reports the cache hit rate and per-query cost. Timings are
+ * wall-clock for all threads together, divided by the total number of queries.
+ *
+ * Usage: {@code CaptureCacheBenchmark [threads] [gamesPerThread] [maxEntries]}
+ */
+public class CaptureCacheBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int maxEntries = args.length > 2 ? Integer.parseInt(args[2]) : CaptureCache.DEFAULT_MAX_ENTRIES;
+
+        System.out.printf("Recording self-play traces: %d threads x %d games%n", threads, games);
+        List<List<Query>> traces = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            traces.add(recordTrace(games, 31L * t + 7));
+        }
+        long queries = traces.stream().mapToLong(List::size).sum();
+        System.out.printf("Recorded %d capture queries%n", queries);
+
+        // Alternate the two paths a few times so JIT and GC effects even out; report the best run.
+        long uncached = Long.MAX_VALUE;
+        long cached = Long.MAX_VALUE;
+        long cold = 0;
+        CaptureCache cache = new CaptureCache(maxEntries, CaptureCache.DEFAULT_STRIPES);
+        for (int round = 0; round < ROUNDS; round++) {
+            uncached = Math.min(uncached, runAll(traces, null));
+            long t = runAll(traces, cache);
+            if (round == 0) {
+                cold = t;
+                System.out.println("After first replay: " + cache);
+            } else {
+                cached = Math.min(cached, t);
+            }
+        }
+
+        System.out.printf("Uncached: %.1f ms total, %.1f ns/query%n", uncached / 1e6, (double) uncached / queries);
+        System.out.printf("Cached:   %.1f ms total, %.1f ns/query (cold), %.1f ns/query (warm)%n",
+            cold / 1e6, (double) cold / queries, (double) cached / queries);
+        System.out.println(cache);
+    }
+
+    private static long runAll(List<List<Query>> traces, CaptureCache cache) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(traces.size());
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Query> trace : traces) {
+                futures.add(pool.submit(() -> replay(trace, cache)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long replay(List<Query> trace, CaptureCache cache) {
+        long options = 0;
+        for (Query q : trace) {
+            List<List<Card>> captures = cache == null
+                ? ScopaRules.possibleCaptures(q.played, q.table)
+                : cache.possibleCaptures(q.played, q.table);
+            options += captures.size();
+        }
+        return options;
+    }
+
+    /**
+     * Play random games and record every (card, table) pair a bot would evaluate on its turn.
+     */
+    private static List<Query> recordTrace(int games, long seed) {
+        Random rnd = new Random(seed);
+        List<Query> trace = new ArrayList<>();
+        for (int g = 0; g < games; g++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound();
+            while (!game.isRoundOver()) {
+                Player current = game.getCurrentPlayer();
+                List<Card> table = List.copyOf(game.getTable().getOnTable());
+                List<Card> hand = current.getHand();
+                for (Card c : hand) {
+                    trace.add(new Query(c, table));
+                }
+                int handIndex = rnd.nextInt(hand.size());
+                int options = ScopaRules.possibleCaptures(hand.get(handIndex), table).size();
+                game.playCard(handIndex, options == 0 ? -1 : rnd.nextInt(options));
+            }
+        }
+        return trace;
+    }
+
+    private static final class Query {
+        final Card played;
+        final List<Card> table;
+
+        Query(Card played, List<Card> table) {
+            this.played = played;
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.scopa.bench;
+
+import com.example.scopa.ai.EvalWeights;
+import com.example.scopa.ai.Evaluator;
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replays the same recorded rounds three ways: moves only, moves with an incrementally updated
+ * {@link Evaluator} called after each one, and moves with the evaluator recomputed from scratch each
+ * time. The cost of an evaluation is the difference to the moves-only pass; the best of several passes
+ * is reported.
+ *
+ * Usage: {@code EvaluatorBenchmark [rounds] [passes] [weightsFile]}
+ */
+public class EvaluatorBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        EvalWeights weights = args.length > 2 ? EvalWeights.load(Paths.get(args[2])) : EvalWeights.defaults();
+
+        Random rnd = new Random(1);
+        SimState[] starts = new SimState[rounds];
+        int[][] lines = new int[rounds][];
+        int[] moves = new int[256];
+        long positions = 0;
+        for (int r = 0; r < rounds; r++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(rnd.nextLong(), r % 2);
+            starts[r] = SimState.of(game);
+            SimState s = starts[r].copy();
+            int[] line = new int[40];
+            int n = 0;
+            while (!s.isRoundOver()) {
+                int count = Math.min(s.legalMoves(moves), moves.length);
+                line[n] = moves[rnd.nextInt(count)];
+                s.play(line[n++]);
+            }
+            lines[r] = Arrays.copyOf(line, n);
+            positions += n;
+        }
+
+        SimState s = new SimState();
+        Evaluator eval = new Evaluator(weights);
+        long plain = Long.MAX_VALUE;
+        long incremental = Long.MAX_VALUE;
+        long full = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                s.copyFrom(starts[r]);
+                for (int move : lines[r]) {
+                    s.play(move);
+                }
+                checksum += s.table();
+            }
+            plain = Math.min(plain, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                s.copyFrom(starts[r]);
+                eval.reset(s);
+                for (int move : lines[r]) {
+                    eval.play(s, move);
+                    checksum += eval.evaluate();
+                }
+            }
+            incremental = Math.min(incremental, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                s.copyFrom(starts[r]);
+                for (int move : lines[r]) {
+                    s.play(move);
+                    eval.reset(s);
+                    checksum -= eval.evaluate();
+                }
+            }
+            full = Math.min(full, System.nanoTime() - start);
+        }
+
+        System.out.printf("%d rounds, %d positions, best of %d passes (checksum %d)%n", rounds, positions, passes, checksum);
+        System.out.printf("Moves only:             %.1f ns/move%n", (double) plain / positions);
+        System.out.printf("Incremental evaluation: %.1f ns/position extra, %.1f M evaluations/s%n",
+            (double) (incremental - plain) / positions, positions * 1e3 / incremental);
+        System.out.printf("Full recomputation:     %.1f ns/position extra, %.1f M evaluations/s%n",
+            (double) (full - plain) / positions, positions * 1e3 / full);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.scopa.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for {@code GameServer}. Each session opens its own TCP connection and plays complete
+ * games through START, CAPTURES, PLAY, FINALIZE and SCORE, always playing the first card in hand and
+ * taking the first capture option when there is one.
+ *
+ * Two modes are supported:
+ * - closed: a fixed number of sessions each play games back to back (with think time between commands)
+ *   until the duration elapses. Throughput is whatever the server can sustain at that concurrency.
+ * - open: new games arrive at a fixed rate regardless of how fast earlier ones finish, each on a new
+ *   connection. START latency is measured from the scheduled arrival time, so client-side queueing
+ *   behind a saturated server shows up in the numbers instead of being hidden.
+ *
+ * Usage: {@code LoadGenerator [--host H] [--port P] [--mode closed|open] [--sessions N] [--rate gamesPerSec]
+ * [--duration seconds] [--think millis]}
+ */
+public class LoadGenerator {
+
+    private static final String[] COMMANDS = {"START", "CAPTURES", "PLAY", "FINALIZE", "SCORE"};
+
+    private final String host;
+    private final int port;
+    private final long thinkMillis;
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final LongAdder gamesCompleted = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    LoadGenerator(String host, int port, long thinkMillis) {
+        this.host = host;
+        this.port = port;
+        this.thinkMillis = thinkMillis;
+        for (String c : COMMANDS) {
+            latencies.put(c, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        String host = opts.getOrDefault("host", "127.0.0.1");
+        int port = Integer.parseInt(opts.getOrDefault("port", "5000"));
+        String mode = opts.getOrDefault("mode", "closed");
+        int sessions = Integer.parseInt(opts.getOrDefault("sessions", "100"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "50"));
+        long durationSec = Long.parseLong(opts.getOrDefault("duration", "30"));
+        long think = Long.parseLong(opts.getOrDefault("think", "0"));
+
+        LoadGenerator gen = new LoadGenerator(host, port, think);
+        long start = System.nanoTime();
+        if ("open".equalsIgnoreCase(mode)) {
+            System.out.printf("Open loop: %.1f games/s for %ds against %s:%d, think %dms%n",
+                rate, durationSec, host, port, think);
+            gen.runOpenLoop(rate, TimeUnit.SECONDS.toNanos(durationSec));
+        } else {
+            System.out.printf("Closed loop: %d sessions for %ds against %s:%d, think %dms%n",
+                sessions, durationSec, host, port, think);
+            gen.runClosedLoop(sessions, TimeUnit.SECONDS.toNanos(durationSec));
+        }
+        gen.report(System.nanoTime() - start);
+    }
+
+    /**
+     * Run {@code sessions} concurrent connections, each playing games until the deadline.
+     */
+    void runClosedLoop(int sessions, long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        CountDownLatch done = new CountDownLatch(sessions);
+        ThreadFactory factory = sessionThreads();
+        for (int i = 0; i < sessions; i++) {
+            factory.newThread(() -> {
+                try (Session session = new Session()) {
+                    while (System.nanoTime() < deadline) {
+                        session.playGame(System.nanoTime());
+                    }
+                } catch (IOException e) {
+                    errors.increment();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+    }
+
+    /**
+     * Start a new game (on a new connection) every {@code 1/rate} seconds until the deadline, then wait
+     * for games in flight to finish.
+     */
+    void runOpenLoop(double gamesPerSecond, long durationNanos) throws InterruptedException {
+        long interval = (long) (1e9 / gamesPerSecond);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newCachedThreadPool(sessionThreads());
+        for (long scheduled = start; scheduled < start + durationNanos; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            final long arrival = scheduled;
+            pool.execute(() -> {
+                try (Session session = new Session()) {
+                    session.playGame(arrival);
+                } catch (IOException e) {
+                    errors.increment();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long ops = 0;
+        for (LatencyHistogram h : latencies.values()) {
+            ops += h.count();
+        }
+        System.out.printf("Elapsed %.1fs: %d games (%.1f games/s), %d commands (%.0f cmd/s), %d errors%n",
+            seconds, gamesCompleted.sum(), gamesCompleted.sum() / seconds, ops, ops / seconds, errors.sum());
+        for (Map.Entry<String, LatencyHistogram> e : latencies.entrySet()) {
+            System.out.printf("  %-9s %s%n", e.getKey(), e.getValue());
+        }
+    }
+
+    private static ThreadFactory sessionThreads() {
+        AtomicInteger ids = new AtomicInteger();
+        // Small stacks: thousands of session threads only ever block on a socket read.
+        return r -> {
+            Thread t = new Thread(null, r, "load-session-" + ids.incrementAndGet(), 256 * 1024);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            opts.put(args[i].substring(2), args[i + 1]);
+        }
+        return opts;
+    }
+
+    /**
+     * One client connection driving games with the line protocol.
+     */
+    private final class Session implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Session() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port));
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        /**
+         * Play one full round. {@code intendedStart} is when START should have been sent; think time is
+         * added after every reply.
+         */
+        void playGame(long intendedStart) throws IOException {
+            String state = call("START", "START", intendedStart);
+            while (!state.contains("\"roundOver\":true")) {
+                String captures = call("CAPTURES", "CAPTURES 0", System.nanoTime());
+                boolean canCapture = captures.contains("\"captures\":[[");
+                state = call("PLAY", canCapture ? "PLAY 0 0" : "PLAY 0 -1", System.nanoTime());
+                if (!state.contains("\"status\":\"ok\"")) {
+                    errors.increment();
+                    return;
+                }
+            }
+            call("FINALIZE", "FINALIZE", System.nanoTime());
+            call("SCORE", "SCORE", System.nanoTime());
+            gamesCompleted.increment();
+        }
+
+        private String call(String command, String line, long intendedStart) throws IOException {
+            out.println(line);
+            String reply = in.readLine();
+            if (reply == null) {
+                throw new IOException("Server closed the connection");
+            }
+            latencies.get(command).recordNanos(System.nanoTime() - intendedStart);
+            if (reply.contains("\"status\":\"error\"")) {
+                errors.increment();
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+            return reply;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.println("QUIT");
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.scopa.bench;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scores the same batch of random end-of-round capture piles with {@link ScopaRules#scoreRound} and with
+ * {@link ScoringKernel#scoreRounds}, and reports the cost per round. The best of several passes is
+ * reported so JIT and GC effects even out.
+ *
+ * Usage: {@code ScoringBenchmark [rounds] [passes]}
+ */
+public class ScoringBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random rnd = new Random(1);
+        List<Card> deck = new ArrayList<>();
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            deck.add(Card.of(i));
+        }
+        List<List<Card>> p1Lists = new ArrayList<>(rounds);
+        List<List<Card>> p2Lists = new ArrayList<>(rounds);
+        long[] p1 = new long[rounds];
+        long[] p2 = new long[rounds];
+        int[] s1 = new int[rounds];
+        int[] s2 = new int[rounds];
+        for (int i = 0; i < rounds; i++) {
+            Collections.shuffle(deck, rnd);
+            int split = 12 + rnd.nextInt(17);
+            p1Lists.add(List.copyOf(deck.subList(0, split)));
+            p2Lists.add(List.copyOf(deck.subList(split, Card.DECK_SIZE)));
+            p1[i] = ScoringKernel.mask(p1Lists.get(i));
+            p2[i] = ScoringKernel.mask(p2Lists.get(i));
+            s1[i] = rnd.nextInt(2);
+            s2[i] = rnd.nextInt(2);
+        }
+        int[] out1 = new int[rounds];
+        int[] out2 = new int[rounds];
+
+        long lists = Long.MAX_VALUE;
+        long masks = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                ScopaRules.Score s = ScopaRules.scoreRound(p1Lists.get(i), s1[i], p2Lists.get(i), s2[i]);
+                checksum += s.getPlayer1Points() - s.getPlayer2Points();
+            }
+            lists = Math.min(lists, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            ScoringKernel.scoreRounds(p1, s1, p2, s2, 0, rounds, out1, out2);
+            masks = Math.min(masks, System.nanoTime() - start);
+            checksum -= out1[pass] - out2[pass];
+        }
+
+        System.out.printf("%d rounds, best of %d passes (checksum %d)%n", rounds, passes, checksum);
+        System.out.printf("ScopaRules.scoreRound:     %.1f ns/round%n", (double) lists / rounds);
+        System.out.printf("ScoringKernel.scoreRounds: %.1f ns/round (%.1fx)%n",
+            (double) masks / rounds, (double) lists / masks);
+    }
+}
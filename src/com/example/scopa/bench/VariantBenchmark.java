@@ -0,0 +1,86 @@
+package com.example.scopa.bench;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.variant.Variant;
+import com.example.scopa.variant.VariantState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays seeded rounds with uniformly random moves through {@link SimState} and through
+ * {@link VariantState} for every {@link Variant}, and reports the cost of listing the legal moves
+ * and playing one, per move. Plain Scopa on both engines plays the same rounds, so the first two
+ * lines compare the generic engine with the two-player one directly. The best of several passes is
+ * reported so JIT and GC effects even out.
+ *
+ * Usage: {@code VariantBenchmark [rounds] [passes]}
+ */
+public class VariantBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        SimState[] deals = new SimState[rounds];
+        for (int i = 0; i < rounds; i++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(i, i & 1);
+            deals[i] = SimState.of(game);
+        }
+
+        long checksum = 0;
+        long best = Long.MAX_VALUE;
+        long moves = 0;
+        int[] buffer = new int[256];
+        SimState sim = new SimState();
+        for (int pass = 0; pass < passes; pass++) {
+            SplittableRandom rnd = new SplittableRandom(pass);
+            moves = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                sim.copyFrom(deals[i]);
+                while (!sim.isRoundOver()) {
+                    int n = sim.legalMoves(buffer);
+                    sim.play(buffer[rnd.nextInt(Math.min(n, buffer.length))]);
+                    moves++;
+                }
+                checksum += sim.pointDifference();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-16s %8.1f ns/move%n", "SimState", (double) best / moves);
+
+        for (Variant variant : Variant.values()) {
+            VariantState[] starts = new VariantState[rounds];
+            for (int i = 0; i < rounds; i++) {
+                starts[i] = new VariantState(variant);
+                starts[i].deal(i, i % variant.players());
+            }
+            VariantState s = new VariantState(variant);
+            best = Long.MAX_VALUE;
+            int widest = 0;
+            for (int pass = 0; pass < passes; pass++) {
+                SplittableRandom rnd = new SplittableRandom(pass);
+                moves = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    s.copyFrom(starts[i]);
+                    while (!s.isRoundOver()) {
+                        int n = s.legalMoves(buffer);
+                        widest = Math.max(widest, n);
+                        s.play(buffer[rnd.nextInt(Math.min(n, buffer.length))]);
+                        moves++;
+                    }
+                    s.finish();
+                    checksum += s.pointDifference();
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-16s %8.1f ns/move  (most legal moves in a position: %d)%n",
+                variant, (double) best / moves, widest);
+        }
+        System.out.println("checksum " + checksum);
+    }
+}
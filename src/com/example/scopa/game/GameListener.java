@@ -0,0 +1,29 @@
+package com.example.scopa.game;
+
+import com.example.scopa.model.Card;
+
+/**
+ * Observer of a {@link ScopaGame}'s moves and deals, called synchronously on the thread driving the
+ * game. Card sets are passed as masks over {@link Card#index()} so notifications do not allocate.
+ *
+ * Listeners see every card dealt, including the other player's hand. A listener modelling one seat's
+ * knowledge (such as a bot's belief about the opponent) must only use the size of hands it cannot see.
+ */
+public interface GameListener {
+
+    /**
+     * A new round was dealt with {@code tableMask} face up; {@link #handDealt} follows for each player.
+     */
+    default void roundStarted(ScopaGame game, long tableMask) {}
+
+    /**
+     * {@code player} (0 or 1) received the cards in {@code handMask}.
+     */
+    default void handDealt(ScopaGame game, int player, long handMask) {}
+
+    /**
+     * {@code player} (0 or 1) played {@code card} onto a table holding {@code tableBefore} and took the
+     * cards in {@code capturedMask}, or dropped it if the mask is 0.
+     */
+    default void cardPlayed(ScopaGame game, int player, Card card, long tableBefore, long capturedMask) {}
+}
@@ -0,0 +1,122 @@
+package com.example.scopa.game;
+
+import com.example.scopa.model.Card;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, compact view of a {@link ScopaGame} at one point in time.
+ *
+ * The game publishes a new snapshot through a volatile field after every mutation, so any thread can
+ * read a consistent state (table, hands, counters) without locks and without racing the game's owner.
+ * Cards are stored as their {@link Card#index()} in a single byte array: table first, then player 1's
+ * hand, then player 2's hand, each in the same order as the live lists.
+ */
+public final class GameSnapshot {
+    private final long version;
+    private final byte[] cards;
+    private final int tableSize;
+    private final int hand1Size;
+    private final int hand2Size;
+    private final String[] names;
+    private final int[] captured;
+    private final int[] scopas;
+    private final int deckSize;
+    private final int currentPlayer;
+    private final boolean roundOver;
+
+    GameSnapshot(long version, List<Card> table, List<Card> hand1, List<Card> hand2,
+                 String name1, String name2, int captured1, int captured2, int scopas1, int scopas2,
+                 int deckSize, int currentPlayer, boolean roundOver) {
+        this.version = version;
+        this.tableSize = table.size();
+        this.hand1Size = hand1.size();
+        this.hand2Size = hand2.size();
+        this.cards = new byte[tableSize + hand1Size + hand2Size];
+        int n = 0;
+        for (Card c : table) cards[n++] = (byte) c.index();
+        for (Card c : hand1) cards[n++] = (byte) c.index();
+        for (Card c : hand2) cards[n++] = (byte) c.index();
+        this.names = new String[] {name1, name2};
+        this.captured = new int[] {captured1, captured2};
+        this.scopas = new int[] {scopas1, scopas2};
+        this.deckSize = deckSize;
+        this.currentPlayer = currentPlayer;
+        this.roundOver = roundOver;
+    }
+
+    /**
+     * Monotonically increasing per game; a changed version means the state may have changed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Card> getTable() {
+        return new CardRange(0, tableSize);
+    }
+
+    /**
+     * @param player 0 for player 1, 1 for player 2
+     */
+    public List<Card> getHand(int player) {
+        return player == 0
+            ? new CardRange(tableSize, hand1Size)
+            : new CardRange(tableSize + hand1Size, hand2Size);
+    }
+
+    public String getPlayerName(int player) {
+        return names[player];
+    }
+
+    public int getCapturedCount(int player) {
+        return captured[player];
+    }
+
+    public int getScopaCount(int player) {
+        return scopas[player];
+    }
+
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    /**
+     * @return 0 if it is player 1's turn, 1 for player 2
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean isRoundOver() {
+        return roundOver;
+    }
+
+    /**
+     * Read-only list over a slice of the packed card array.
+     */
+    private final class CardRange extends AbstractList<Card> implements RandomAccess {
+        private final int offset;
+        private final int size;
+
+        CardRange(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public Card get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return Card.of(cards[offset + index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.scopa.game;
+
+/**
+ * Packed int encoding of a move, as produced by {@link ScopaGame#legalMoves(int[])} and consumed by
+ * {@link ScopaGame#playMove(int)}.
+ *
+ * Layout: bits 0-7 hold the hand index, bits 8-15 hold the capture option index plus one (so 0 means
+ * the card is dropped on the table without capturing). Option indexes refer to the order returned by
+ * {@code ScopaRules.possibleCaptures} for that card and the current table.
+ */
+public final class Move {
+    /** Capture options per card the encoding can address (indexes 0-254). */
+    public static final int MAX_CAPTURE_OPTIONS = 0xFF;
+
+    private Move() {}
+
+    /**
+     * @param captureIndex capture option index, or -1 to drop the card
+     * @throws IllegalArgumentException if either index does not fit its 8 bits
+     */
+    public static int of(int handIndex, int captureIndex) {
+        if ((handIndex & ~0xFF) != 0 || captureIndex < -1 || captureIndex >= MAX_CAPTURE_OPTIONS) {
+            throw new IllegalArgumentException("Move out of range: hand " + handIndex + ", capture " + captureIndex);
+        }
+        return handIndex | (captureIndex + 1) << 8;
+    }
+
+    public static int handIndex(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * @return the capture option index, or -1 for a move that captures nothing
+     */
+    public static int captureIndex(int move) {
+        return ((move >>> 8) & 0xFF) - 1;
+    }
+
+    public static boolean isCapture(int move) {
+        return captureIndex(move) >= 0;
+    }
+
+    public static String toString(int move) {
+        return "Move[hand=" + handIndex(move) + ", capture=" + captureIndex(move) + "]";
+    }
+}
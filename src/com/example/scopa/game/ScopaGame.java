@@ -5,7 +5,9 @@ import com.example.scopa.model.Deck;
 import com.example.scopa.model.Table;
 import com.example.scopa.player.Player;
 import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,10 +20,19 @@ public class ScopaGame {
     private final Table table = new Table();
     private int currentPlayerIndex = 0;  // 0 for p1, 1 for p2
     private Player lastCapturePlayer = null;
+    private long version = 0;
+    private volatile GameSnapshot snapshot;
+
+    // Scratch buffers for mask-based capture search; a game is driven by one thread at a time.
+    private final int[] tableValues = new int[40];
+    private long[] captureOptions = new long[16];
+    private final Card[] capturedTemp = new Card[Card.DECK_SIZE];
+    private GameListener[] listeners = new GameListener[0];
 
     private ScopaGame(Player p1, Player p2) {
         this.p1 = p1;
         this.p2 = p2;
+        publish();
     }
 
     public static ScopaGame twoPlayer(Player p1, Player p2) {
@@ -40,6 +51,13 @@ public class ScopaGame {
         return currentPlayerIndex == 0 ? p1 : p2;
     }
 
+    /**
+     * @return the player who made the most recent capture this round, or null if nobody has captured yet
+     */
+    public Player getLastCapturePlayer() {
+        return lastCapturePlayer;
+    }
+
     public Table getTable() {
         return table;
     }
@@ -48,27 +66,75 @@ public class ScopaGame {
         return deck;
     }
 
+    /**
+     * Register a listener for moves and deals. Listeners run on the game's thread, in registration order.
+     */
+    public void addListener(GameListener listener) {
+        GameListener[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+        grown[listeners.length] = listener;
+        listeners = grown;
+    }
+
+    public void removeListener(GameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] shrunk = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, shrunk, 0, i);
+                System.arraycopy(listeners, i + 1, shrunk, i, listeners.length - i - 1);
+                listeners = shrunk;
+                return;
+            }
+        }
+    }
+
     /**
      * Start a new round by resetting deck, clearing hands, dealing 3 to each player and 4 to the table.
      */
     public void startNewRound() {
-        // Reset deck and hands
         deck.reset();
+        deal(0);
+    }
+
+    /**
+     * Start a new round with the deal determined by {@code seed}: equal seeds give both seats the same
+     * cards, which lets simulations replay a deal or mirror it with the players swapped.
+     */
+    public void startNewRound(long seed) {
+        startNewRound(seed, 0);
+    }
+
+    /**
+     * Start a seeded round led by {@code firstPlayer} (0 or 1): that player is dealt first and moves
+     * first, as the player to the dealer's right would. Used by {@link ScopaMatch} to rotate the deal.
+     */
+    public void startNewRound(long seed, int firstPlayer) {
+        if (firstPlayer != 0 && firstPlayer != 1) {
+            throw new IllegalArgumentException("Invalid first player: " + firstPlayer);
+        }
+        deck.reset(seed);
+        deal(firstPlayer);
+    }
+
+    private void deal(int firstPlayer) {
+        // Clear hands and table
         p1.clearHand();
         p2.clearHand();
         p1.clearCaptured();
         p2.clearCaptured();
         table.clearAll();
-        currentPlayerIndex = 0;
+        currentPlayerIndex = firstPlayer;
         lastCapturePlayer = null;
 
         // Initial deal: 3 to each player, 4 to table
-        p1.giveCards(deck.deal(3));
-        p2.giveCards(deck.deal(3));
-        List<Card> tableCards = deck.deal(4);
-        for (Card c : tableCards) {
-            table.addToTable(c);
+        dealHands();
+        for (int i = 0; i < 4; i++) {
+            table.addToTable(deck.draw());
         }
+        for (GameListener l : listeners) {
+            l.roundStarted(this, table.getMask());
+        }
+        fireHandsDealt();
+        publish();
     }
 
     /**
@@ -85,16 +151,23 @@ public class ScopaGame {
         }
 
         Card playedCard = current.removeFromHand(handIndex);
-        List<List<Card>> captures = ScopaRules.possibleCaptures(playedCard, table.getOnTable());
+        long tableBefore = table.getMask();
+        List<Card> onTable = table.getOnTable();
+        int options = captureOptions(playedCard.value(), onTable);
 
-        if (captureIndex >= 0 && captureIndex < captures.size()) {
+        if (captureIndex >= 0 && captureIndex < options) {
             // Player makes a capture
-            List<Card> capturedCards = captures.get(captureIndex);
-            table.removeFromTable(capturedCards);
-            
+            // Option masks index the table view, so resolve every card before removing any.
+            int capturedCount = 0;
+            for (long m = captureOptions[captureIndex]; m != 0; m &= m - 1) {
+                capturedTemp[capturedCount++] = onTable.get(Long.numberOfTrailingZeros(m));
+            }
             // Add played card and captured cards to player's pile
-            current.addCapturedCards(List.of(playedCard));
-            current.addCapturedCards(capturedCards);
+            current.addCapturedCard(playedCard);
+            for (int i = 0; i < capturedCount; i++) {
+                table.removeFromTable(capturedTemp[i]);
+                current.addCapturedCard(capturedTemp[i]);
+            }
             
             lastCapturePlayer = current;
             
@@ -104,13 +177,18 @@ public class ScopaGame {
                 table.logEvent(current.getName() + " scored a SCOPA!");
             }
             
-            table.logEvent(current.getName() + " played " + playedCard + " and captured " + capturedCards.size() + " card(s)");
+            table.logEvent(current.getName() + " played " + playedCard + " and captured " + capturedCount + " card(s)");
         } else {
             // No capture, card goes to table
             table.addToTable(playedCard);
             table.logEvent(current.getName() + " played " + playedCard + " (no capture)");
         }
 
+        long captured = tableBefore & ~table.getMask();
+        for (GameListener l : listeners) {
+            l.cardPlayed(this, currentPlayerIndex, playedCard, tableBefore, captured);
+        }
+
         // Switch to next player
         currentPlayerIndex = 1 - currentPlayerIndex;
         
@@ -119,16 +197,91 @@ public class ScopaGame {
             dealNextRound();
         }
 
+        publish();
         return true;
     }
 
+    /**
+     * Write every legal move for the current player into {@code out} as packed ints (see {@link Move}).
+     *
+     * For each card in hand, in hand order, every capture option is listed in possibleCaptures order,
+     * followed by dropping the card without capturing. Dropping is listed even when captures exist
+     * because {@link #playCard(int, int)} accepts it. Only the first {@link Move#MAX_CAPTURE_OPTIONS}
+     * options of a card are listed; a table built up by aimless play can offer thousands.
+     *
+     * @return the total number of legal moves; if this exceeds {@code out.length} only the first
+     *         {@code out.length} moves are written
+     */
+    public int legalMoves(int[] out) {
+        List<Card> hand = getCurrentPlayer().getHand();
+        List<Card> onTable = table.getOnTable();
+        int n = 0;
+        for (int h = 0; h < hand.size(); h++) {
+            int options = Math.min(captureOptions(hand.get(h).value(), onTable), Move.MAX_CAPTURE_OPTIONS);
+            for (int c = 0; c <= options; c++) {
+                if (n < out.length) {
+                    out[n] = Move.of(h, c < options ? c : -1);
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Apply a packed move produced by {@link #legalMoves(int[])}.
+     * @return true if the play was successful
+     */
+    public boolean playMove(int move) {
+        return playCard(Move.handIndex(move), Move.captureIndex(move));
+    }
+
+    /**
+     * Fill {@link #captureOptions} with the capture masks for a card of the given value.
+     * @return the number of capture options
+     */
+    private int captureOptions(int value, List<Card> onTable) {
+        int size = Math.min(onTable.size(), tableValues.length);
+        for (int i = 0; i < size; i++) {
+            tableValues[i] = onTable.get(i).value();
+        }
+        int n = ScopaRules.captureMasks(value, tableValues, size, captureOptions);
+        if (n > captureOptions.length) {
+            captureOptions = new long[n];
+            ScopaRules.captureMasks(value, tableValues, size, captureOptions);
+        }
+        return n;
+    }
+
     /**
      * Deal 3 cards to each player.
      */
     private void dealNextRound() {
         if (!deck.isEmpty()) {
-            p1.giveCards(deck.deal(3));
-            p2.giveCards(deck.deal(3));
+            dealHands();
+            fireHandsDealt();
+        }
+    }
+
+    private void fireHandsDealt() {
+        int first = currentPlayerIndex;
+        for (GameListener l : listeners) {
+            l.handDealt(this, first, (first == 0 ? p1 : p2).getHandMask());
+            l.handDealt(this, 1 - first, (first == 0 ? p2 : p1).getHandMask());
+        }
+    }
+
+    /**
+     * Deal 3 cards to each player, starting with the player who moves first.
+     */
+    private void dealHands() {
+        Player first = getCurrentPlayer();
+        Player second = first == p1 ? p2 : p1;
+        for (int i = 0; i < 3; i++) {
+            first.giveCard(deck.draw());
+        }
+        for (int i = 0; i < 3; i++) {
+            second.giveCard(deck.draw());
         }
     }
 
@@ -146,18 +299,35 @@ public class ScopaGame {
         if (!table.isEmpty() && lastCapturePlayer != null) {
             List<Card> remaining = List.copyOf(table.getOnTable());
             lastCapturePlayer.addCapturedCards(remaining);
-            table.getOnTable().forEach(c -> table.removeFromTable(c));
+            table.removeFromTable(remaining);
             table.logEvent("Remaining cards go to " + lastCapturePlayer.getName());
+            publish();
         }
     }
 
+    /**
+     * Latest published state. Safe to call from any thread; the returned snapshot never changes.
+     *
+     * A new snapshot is published after startNewRound, each successful playCard and finalizeRound.
+     * Changes made directly through players or the table are not visible until the next of those.
+     */
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = new GameSnapshot(++version, table.getOnTable(), p1.getHand(), p2.getHand(),
+            p1.getName(), p2.getName(), p1.getCapturedCards().size(), p2.getCapturedCards().size(),
+            p1.getScopaCount(), p2.getScopaCount(), deck.size(), currentPlayerIndex, isRoundOver());
+    }
+
     /**
      * Calculate and return the score for this round.
      */
     public ScopaRules.Score calculateScore() {
-        return ScopaRules.scoreRound(
-            p1.getCapturedCards(), p1.getScopaCount(),
-            p2.getCapturedCards(), p2.getScopaCount()
+        return ScoringKernel.score(
+            p1.getCapturedMask(), p1.getScopaCount(),
+            p2.getCapturedMask(), p2.getScopaCount()
         );
     }
 
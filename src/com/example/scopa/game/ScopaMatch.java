@@ -0,0 +1,126 @@
+package com.example.scopa.game;
+
+import com.example.scopa.player.Player;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.Random;
+
+/**
+ * A match: rounds of {@link ScopaGame} played until one player reaches the target score.
+ *
+ * The match owns a single game, so the same {@code Deck}, {@code Table} and {@code Player} instances
+ * are reused for every round. The lead alternates each round, as the deal passes to the other
+ * player. Round scores are added up here because {@link ScopaGame#startNewRound()} clears the
+ * captured piles and scopa counts. A match ends once a player has at least the target and strictly
+ * more points than the other; level scores at or past the target play on.
+ *
+ * Typical use: {@link #startRound()}, drive the round through {@link #getGame()}, then
+ * {@link #finishRound()}; repeat until {@link #isOver()}.
+ */
+public class ScopaMatch {
+    public static final int DEFAULT_TARGET = 11;
+
+    private final ScopaGame game;
+    private final int target;
+    private final Random seeds;
+    private int player1Total;
+    private int player2Total;
+    private int rounds;
+    private int leader;
+
+    public ScopaMatch(Player p1, Player p2) {
+        this(p1, p2, DEFAULT_TARGET, new Random().nextLong());
+    }
+
+    /**
+     * @param seed derives every round's deal, so equal seeds replay the same match
+     */
+    public ScopaMatch(Player p1, Player p2, int target, long seed) {
+        if (target < 1) {
+            throw new IllegalArgumentException("Invalid target: " + target);
+        }
+        this.game = ScopaGame.twoPlayer(p1, p2);
+        this.target = target;
+        this.seeds = new Random(seed);
+    }
+
+    public ScopaGame getGame() {
+        return game;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Deal the next round with a seed drawn from the match seed.
+     */
+    public void startRound() {
+        startRound(seeds.nextLong());
+    }
+
+    /**
+     * Deal the next round with the given seed; the leader alternates from round to round.
+     */
+    public void startRound(long seed) {
+        if (isOver()) {
+            throw new IllegalStateException("Match is over");
+        }
+        game.startNewRound(seed, leader);
+    }
+
+    /**
+     * Sweep the table to the last capturer, score the round and add it to the totals.
+     * @return the score of this round alone
+     * @throws IllegalStateException if the current round is still being played
+     */
+    public ScopaRules.Score finishRound() {
+        if (!game.isRoundOver()) {
+            throw new IllegalStateException("Round not over yet");
+        }
+        game.finalizeRound();
+        ScopaRules.Score score = game.calculateScore();
+        player1Total += score.getPlayer1Points();
+        player2Total += score.getPlayer2Points();
+        rounds++;
+        leader = 1 - leader;
+        return score;
+    }
+
+    public boolean isOver() {
+        return Math.max(player1Total, player2Total) >= target && player1Total != player2Total;
+    }
+
+    /**
+     * @return the match winner, or null while the match is in progress
+     */
+    public Player getWinner() {
+        if (!isOver()) {
+            return null;
+        }
+        return player1Total > player2Total ? game.getPlayer1() : game.getPlayer2();
+    }
+
+    public ScopaRules.Score getTotals() {
+        return new ScopaRules.Score(player1Total, player2Total);
+    }
+
+    public int getPlayer1Total() {
+        return player1Total;
+    }
+
+    public int getPlayer2Total() {
+        return player2Total;
+    }
+
+    public int getRoundsPlayed() {
+        return rounds;
+    }
+
+    /**
+     * @return 0 if player 1 leads the next (or current) round, 1 for player 2
+     */
+    public int getLeader() {
+        return leader;
+    }
+}
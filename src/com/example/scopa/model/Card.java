@@ -6,6 +6,20 @@ import java.util.Objects;
  * A single card from an Italian 40-card deck used in Scopa.
  */
 public final class Card {
+    /** Number of distinct cards in the deck; {@link #index()} ranges over 0..DECK_SIZE-1. */
+    public static final int DECK_SIZE = 40;
+
+    private static final Card[] CANONICAL = new Card[DECK_SIZE];
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                Card c = new Card(suit, rank);
+                CANONICAL[c.index()] = c;
+            }
+        }
+    }
+
     private final Suit suit;
     private final Rank rank;
 
@@ -26,6 +40,40 @@ public final class Card {
         return rank.getValue();
     }
 
+    /**
+     * Dense index of this card in 0..39: suit ordinal * 10 + rank ordinal. Used for compact encodings.
+     */
+    public int index() {
+        return suit.ordinal() * 10 + rank.ordinal();
+    }
+
+    /**
+     * Shared instance for the card with the given {@link #index()}.
+     */
+    public static Card of(int index) {
+        return CANONICAL[index];
+    }
+
+    /**
+     * Shared instance for the given suit and rank.
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return CANONICAL[suit.ordinal() * 10 + rank.ordinal()];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Card)) return false;
+        Card other = (Card) o;
+        return suit == other.suit && rank == other.rank;
+    }
+
+    @Override
+    public int hashCode() {
+        return index();
+    }
+
     @Override
     public String toString() {
         // Example: Ace of Coins (1)
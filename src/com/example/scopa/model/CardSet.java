@@ -0,0 +1,128 @@
+package com.example.scopa.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Set of cards from the 40-card deck stored as a bit mask over {@link Card#index()}.
+ *
+ * Add, remove and contains are O(1) and the size is a popcount. {@link #asList()} returns a read-only
+ * view ordered by card index; it is materialised lazily after a change and reused until the next one,
+ * so repeated reads between mutations do not allocate. Not thread-safe.
+ */
+public final class CardSet {
+    private long mask;
+    private final Card[] cached = new Card[Card.DECK_SIZE];
+    private long cachedMask = -1L;
+    private final List<Card> view = new View();
+
+    public long mask() {
+        return mask;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public boolean contains(Card card) {
+        return (mask & bit(card)) != 0;
+    }
+
+    /**
+     * @return true if the card was not already present
+     */
+    public boolean add(Card card) {
+        long before = mask;
+        mask |= bit(card);
+        return mask != before;
+    }
+
+    public void addAll(List<Card> cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= bit(cards.get(i));
+        }
+    }
+
+    /**
+     * @return true if the card was present
+     */
+    public boolean remove(Card card) {
+        long before = mask;
+        mask &= ~bit(card);
+        return mask != before;
+    }
+
+    public void removeAll(List<Card> cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            mask &= ~bit(cards.get(i));
+        }
+    }
+
+    public void clear() {
+        mask = 0;
+    }
+
+    /**
+     * Card at {@code position} in index order, as in {@link #asList()}.
+     */
+    public Card get(int position) {
+        return view.get(position);
+    }
+
+    /**
+     * Read-only view of the current contents in card index order. Reflects later changes.
+     */
+    public List<Card> asList() {
+        return view;
+    }
+
+    private static long bit(Card card) {
+        return 1L << card.index();
+    }
+
+    private final class View extends AbstractList<Card> implements RandomAccess {
+        @Override
+        public Card get(int position) {
+            int size = Long.bitCount(mask);
+            if (position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", size: " + size);
+            }
+            if (cachedMask != mask) {
+                int n = 0;
+                for (long m = mask; m != 0; m &= m - 1) {
+                    cached[n++] = Card.of(Long.numberOfTrailingZeros(m));
+                }
+                cachedMask = mask;
+            }
+            return cached[position];
+        }
+
+        @Override
+        public int size() {
+            return Long.bitCount(mask);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Card && CardSet.this.contains((Card) o);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            if (!(o instanceof Card) || !CardSet.this.contains((Card) o)) {
+                return -1;
+            }
+            return Long.bitCount(mask & ((1L << ((Card) o).index()) - 1));
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+    }
+}
@@ -3,32 +3,59 @@ package com.example.scopa.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * A standard Italian 40-card deck for Scopa.
+ *
+ * Shuffles draw from the deck's own {@link Random}, so a deck built or reset with a seed deals the
+ * same cards in the same order every time. Simulations rely on this to replay and mirror deals.
  */
 public class Deck {
-    private final List<Card> cards = new ArrayList<>();
+    private final List<Card> cards = new ArrayList<>(Card.DECK_SIZE);
+    private final Random random;
 
     public Deck() {
+        this.random = new Random();
+        reset();
+    }
+
+    public Deck(long seed) {
+        this.random = new Random(seed);
         reset();
     }
 
     /**
-     * Recreate a full 40-card deck in a canonical order and shuffle it.
+     * Recreate a full 40-card deck in a canonical order and shuffle it. Cards are the shared
+     * {@link Card#of} instances, so resetting does not allocate new cards.
      */
     public final void reset() {
         cards.clear();
         for (Suit suit : Suit.values()) {
             for (Rank rank : Rank.values()) {
-                cards.add(new Card(suit, rank));
+                cards.add(Card.of(suit, rank));
             }
         }
         shuffle();
     }
 
+    /**
+     * Reseed the deck's random source and reset, giving the deal determined by {@code seed}.
+     */
+    public void reset(long seed) {
+        random.setSeed(seed);
+        reset();
+    }
+
     public void shuffle() {
-        Collections.shuffle(cards);
+        Collections.shuffle(cards, random);
+    }
+
+    /**
+     * Read-only view of the remaining cards; the last element is the next one {@link #draw()} returns.
+     */
+    public List<Card> getCards() {
+        return Collections.unmodifiableList(cards);
     }
 
     public boolean isEmpty() {
@@ -39,6 +66,17 @@ public class Deck {
         return cards.size();
     }
 
+    /**
+     * Take the top card without allocating.
+     * @throws IllegalStateException if the deck is empty
+     */
+    public Card draw() {
+        if (cards.isEmpty()) {
+            throw new IllegalStateException("Deck is empty");
+        }
+        return cards.remove(cards.size() - 1);
+    }
+
     /**
      * Deal up to n cards. Returns a new list with the dealt cards.
      */
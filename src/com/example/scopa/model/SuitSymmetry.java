@@ -0,0 +1,125 @@
+package com.example.scopa.model;
+
+/**
+ * Relabelling of the three plain suits, used to fold equivalent positions together.
+ *
+ * Only {@link Suit#COINS} matters to the rules (coin count and settebello). Cups, Swords and Clubs can
+ * be swapped freely without changing any capture or score, primiera included since it sums the best
+ * card of each suit whatever its name. A position therefore has up to six equivalent forms, one per
+ * ordering of the plain suits. The canonical form orders the plain suits by a key that callers derive
+ * from where each suit's cards are, largest key first; suits with equal keys are interchangeable, so
+ * ties do not matter.
+ *
+ * A relabelling is packed in an int: two bits per plain suit giving the suit it becomes. Card masks use
+ * {@link Card#index()} bits, so each suit is a 10-bit slice.
+ */
+public final class SuitSymmetry {
+    /** The relabelling that leaves every suit alone. */
+    public static final int IDENTITY = 1 | 2 << 2 | 3 << 4;
+
+    private static final int SUIT_BITS = 10;
+    private static final long SLICE = (1L << SUIT_BITS) - 1;
+
+    /** {@link #card(int, int)} by relabelling code and card index. */
+    private static final byte[] CARDS = new byte[64 * Card.DECK_SIZE];
+
+    static {
+        for (int r = 0; r < 64; r++) {
+            for (int i = 0; i < Card.DECK_SIZE; i++) {
+                CARDS[r * Card.DECK_SIZE + i] = (byte) (suit(i / SUIT_BITS, r) * SUIT_BITS + i % SUIT_BITS);
+            }
+        }
+    }
+
+    private SuitSymmetry() {}
+
+    /**
+     * The 10 bits of {@code mask} for {@code suit}'s cards, rank ordinal 0 lowest.
+     */
+    public static long slice(long mask, int suit) {
+        return (mask >>> (suit * SUIT_BITS)) & SLICE;
+    }
+
+    /**
+     * Key of {@code suit} for up to six location masks (hands, table, piles, ...): its slices of each,
+     * concatenated in order. Equal keys mean the suits' cards sit in exactly the same places.
+     */
+    public static long key(int suit, long m0, long m1, long m2, long m3, long m4, long m5) {
+        return slice(m0, suit) << 50 | slice(m1, suit) << 40 | slice(m2, suit) << 30
+            | slice(m3, suit) << 20 | slice(m4, suit) << 10 | slice(m5, suit);
+    }
+
+    /**
+     * The relabelling that sorts the plain suits by key, largest (unsigned) first, into Cups, Swords,
+     * Clubs.
+     */
+    public static int canonical(long cups, long swords, long clubs) {
+        int a = 1;
+        int b = 2;
+        int c = 3;
+        long ka = cups;
+        long kb = swords;
+        long kc = clubs;
+        // Three-element sorting network, descending.
+        if (Long.compareUnsigned(ka, kb) < 0) {
+            int t = a;
+            a = b;
+            b = t;
+            long k = ka;
+            ka = kb;
+            kb = k;
+        }
+        if (Long.compareUnsigned(kb, kc) < 0) {
+            int t = b;
+            b = c;
+            c = t;
+            kb = kc;
+            if (Long.compareUnsigned(ka, kb) < 0) {
+                t = a;
+                a = b;
+                b = t;
+            }
+        }
+        // Suit a becomes Cups, b Swords, c Clubs.
+        return 1 << (2 * (a - 1)) | 2 << (2 * (b - 1)) | 3 << (2 * (c - 1));
+    }
+
+    /**
+     * Canonical relabelling for a position described by up to six location masks (pass 0 for unused).
+     */
+    public static int canonical(long m0, long m1, long m2, long m3, long m4, long m5) {
+        return canonical(key(1, m0, m1, m2, m3, m4, m5), key(2, m0, m1, m2, m3, m4, m5),
+            key(3, m0, m1, m2, m3, m4, m5));
+    }
+
+    /** Suit that {@code suit} (an ordinal) becomes under {@code relabelling}. */
+    public static int suit(int suit, int relabelling) {
+        return suit == 0 ? 0 : (relabelling >>> (2 * (suit - 1))) & 3;
+    }
+
+    /** Card index that {@code index} becomes under {@code relabelling}. */
+    public static int card(int index, int relabelling) {
+        return CARDS[relabelling * Card.DECK_SIZE + index];
+    }
+
+    /** {@code mask} with its suits relabelled. */
+    public static long apply(long mask, int relabelling) {
+        if (relabelling == IDENTITY) {
+            return mask;
+        }
+        long out = mask & SLICE;
+        for (int s = 1; s <= 3; s++) {
+            out |= slice(mask, s) << (suit(s, relabelling) * SUIT_BITS);
+        }
+        return out;
+    }
+
+    /** The relabelling that undoes {@code relabelling}. */
+    public static int inverse(int relabelling) {
+        int out = 0;
+        for (int s = 1; s <= 3; s++) {
+            out |= s << (2 * (suit(s, relabelling) - 1));
+        }
+        return out;
+    }
+}
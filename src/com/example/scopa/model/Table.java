@@ -6,14 +6,33 @@ import java.util.List;
 
 /**
  * Representation of the table state in Scopa: cards on the table and a simple log of captures.
- * This is intentionally lightweight as a starting point.
+ * Cards are kept in a {@link CardSet}, so adds and removes are constant time and the table lists
+ * them in card index order.
  */
 public class Table {
-    private final List<Card> onTable = new ArrayList<>();
+    private final CardSet onTable = new CardSet();
     private final List<String> events = new ArrayList<>();
 
+    /**
+     * Read-only view of the cards on the table in card index order. Reflects later changes.
+     */
     public List<Card> getOnTable() {
-        return Collections.unmodifiableList(onTable);
+        return onTable.asList();
+    }
+
+    /**
+     * Cards on the table as a bit mask over {@link Card#index()}.
+     */
+    public long getMask() {
+        return onTable.mask();
+    }
+
+    public boolean contains(Card card) {
+        return onTable.contains(card);
+    }
+
+    public int size() {
+        return onTable.size();
     }
 
     public void addToTable(List<Card> cards) {
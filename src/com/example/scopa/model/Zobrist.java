@@ -0,0 +1,61 @@
+package com.example.scopa.model;
+
+/**
+ * Zobrist keys for hashing positions built from card masks.
+ *
+ * Every (slot, card) pair has a fixed random 64-bit key, where a slot is one place a card can be (a
+ * hand, the table, a capture pile, a deck position, ...). A position's hash is the XOR of the keys of
+ * its cards in their slots, plus keys for small counters such as the side to move, so moving a card
+ * updates the hash with two XORs. Keys come from a fixed-seed generator and are the same in every
+ * run, so hashes can be stored in files.
+ */
+public final class Zobrist {
+    /** Slots available to {@link #card(int, int)}; enough for hands, table, piles and 40 deck positions. */
+    public static final int SLOTS = 48;
+    /** Counters available to {@link #counter(int, int)}, each with values 0..63. */
+    public static final int COUNTERS = 8;
+
+    private static final long[] CARD_KEYS = new long[SLOTS * Card.DECK_SIZE];
+    private static final long[] COUNTER_KEYS = new long[COUNTERS * 64];
+
+    static {
+        long state = 0x5C0BA5C0BA5C0BAL;
+        for (int i = 0; i < CARD_KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            CARD_KEYS[i] = mix(state);
+        }
+        for (int i = 0; i < COUNTER_KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            COUNTER_KEYS[i] = mix(state);
+        }
+    }
+
+    private Zobrist() {}
+
+    /** Key for card {@code index} in {@code slot}. */
+    public static long card(int slot, int index) {
+        return CARD_KEYS[slot * Card.DECK_SIZE + index];
+    }
+
+    /** Key for {@code counter} having {@code value}; XOR it in for any value, including 0. */
+    public static long counter(int counter, int value) {
+        return COUNTER_KEYS[counter * 64 + value];
+    }
+
+    /** XOR of the keys of every card of {@code mask} in {@code slot}. */
+    public static long mask(int slot, long mask) {
+        long h = 0;
+        int base = slot * Card.DECK_SIZE;
+        for (long m = mask; m != 0; m &= m - 1) {
+            h ^= CARD_KEYS[base + Long.numberOfTrailingZeros(m)];
+        }
+        return h;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
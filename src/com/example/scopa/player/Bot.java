@@ -0,0 +1,23 @@
+package com.example.scopa.player;
+
+import com.example.scopa.game.ScopaGame;
+
+/**
+ * A player that picks its own moves.
+ *
+ * Bots are asked for a move only when it is their turn, with the legal moves already generated by
+ * {@link ScopaGame#legalMoves(int[])}. A bot holds per-game state (its hand), so simulations create one
+ * instance per seat per game rather than sharing bots across threads.
+ */
+public abstract class Bot extends Player {
+
+    protected Bot(String name) {
+        super(name);
+    }
+
+    /**
+     * Choose one of {@code moves[0..count)}; {@code count} is at least 1.
+     * @return the chosen packed move (see {@link com.example.scopa.game.Move})
+     */
+    public abstract int chooseMove(ScopaGame game, int[] moves, int count);
+}
@@ -0,0 +1,70 @@
+package com.example.scopa.player;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.List;
+
+/**
+ * One-ply heuristic player: takes the capture worth the most (sweeps, the settebello, coins and
+ * sevens first) and otherwise drops the least valuable card. Deterministic; ties go to the first move.
+ */
+public class GreedyBot extends Bot {
+
+    public GreedyBot(String name) {
+        super(name);
+    }
+
+    @Override
+    public int chooseMove(ScopaGame game, int[] moves, int count) {
+        List<Card> hand = getHand();
+        List<Card> table = game.getTable().getOnTable();
+        int best = moves[0];
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            Card played = hand.get(Move.handIndex(move));
+            int score;
+            if (Move.isCapture(move)) {
+                List<Card> taken = ScopaRules.possibleCaptures(played, table).get(Move.captureIndex(move));
+                score = 100 + worth(played);
+                for (Card c : taken) {
+                    score += worth(c);
+                }
+                if (taken.size() == table.size() && game.getDeck().size() > 0) {
+                    score += 50;
+                }
+            } else {
+                score = -worth(played);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Rough value of owning a card at the end of the round.
+     */
+    private static int worth(Card c) {
+        int w = 2;
+        if (c.getSuit() == Suit.COINS) {
+            w += 3;
+            if (c.getRank() == Rank.SEVEN) {
+                w += 20;
+            }
+        }
+        if (c.getRank() == Rank.SEVEN) {
+            w += 4;
+        } else if (c.getRank() == Rank.SIX || c.getRank() == Rank.ACE) {
+            w += 2;
+        }
+        return w;
+    }
+}
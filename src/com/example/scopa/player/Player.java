@@ -1,19 +1,21 @@
 package com.example.scopa.player;
 
 import com.example.scopa.model.Card;
+import com.example.scopa.model.CardSet;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Base player with a name and a hand of cards.
+ *
+ * Hand and captured pile are {@link CardSet}s: the list accessors return cached views in card index
+ * order, and hand indices refer to that order.
  */
 public abstract class Player {
     private final String name;
-    private final List<Card> hand = new ArrayList<>();
-    private final List<Card> capturedCards = new ArrayList<>();
+    private final CardSet hand = new CardSet();
+    private final CardSet capturedCards = new CardSet();
     private int scopaCount = 0;
 
     protected Player(String name) {
@@ -25,26 +27,50 @@ public abstract class Player {
     }
 
     public List<Card> getHand() {
-        return Collections.unmodifiableList(hand);
+        return hand.asList();
+    }
+
+    /**
+     * Hand as a bit mask over {@link Card#index()}.
+     */
+    public long getHandMask() {
+        return hand.mask();
     }
 
     public void giveCards(List<Card> cards) {
         hand.addAll(cards);
     }
 
+    public void giveCard(Card card) {
+        hand.add(card);
+    }
+
     public Card removeFromHand(int index) {
         if (index < 0 || index >= hand.size()) {
             throw new IllegalArgumentException("Invalid hand index: " + index);
         }
-        return hand.remove(index);
+        Card card = hand.get(index);
+        hand.remove(card);
+        return card;
     }
 
     public void addCapturedCards(List<Card> cards) {
         capturedCards.addAll(cards);
     }
 
+    public void addCapturedCard(Card card) {
+        capturedCards.add(card);
+    }
+
     public List<Card> getCapturedCards() {
-        return Collections.unmodifiableList(capturedCards);
+        return capturedCards.asList();
+    }
+
+    /**
+     * Captured pile as a bit mask over {@link Card#index()}.
+     */
+    public long getCapturedMask() {
+        return capturedCards.mask();
     }
 
     public void incrementScopa() {
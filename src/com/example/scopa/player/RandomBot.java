@@ -0,0 +1,22 @@
+package com.example.scopa.player;
+
+import com.example.scopa.game.ScopaGame;
+
+import java.util.Random;
+
+/**
+ * Plays a uniformly random legal move. Seeded, so its games can be replayed.
+ */
+public class RandomBot extends Bot {
+    private final Random random;
+
+    public RandomBot(String name, long seed) {
+        super(name);
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int chooseMove(ScopaGame game, int[] moves, int count) {
+        return moves[random.nextInt(count)];
+    }
+}
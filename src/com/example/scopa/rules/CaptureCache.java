@@ -0,0 +1,393 @@
+package com.example.scopa.rules;
+
+import com.example.scopa.model.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded, thread-safe cache in front of {@link ScopaRules#possibleCaptures(Card, List)}.
+ *
+ * Capture options only depend on the played value and the multiset of table values, so the cache key
+ * is a canonical signature: the count of each value 1..10 on the table plus the target value. Results are
+ * stored as index masks over the table sorted by value (stable), and mapped back onto the caller's table
+ * positions on every lookup. Returned options therefore have exactly the same content and order as an
+ * uncached {@code possibleCaptures} call.
+ *
+ * The cache is split into lock stripes, each a small open-addressed table with optimistic reads, so
+ * concurrent games and simulation workers only ever take a lock to insert. Hit, miss and eviction
+ * counters are kept for monitoring and benchmarking.
+ */
+public final class CaptureCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 16;
+    public static final int DEFAULT_STRIPES = 32;
+
+    private static final CaptureCache SHARED = new CaptureCache(DEFAULT_MAX_ENTRIES, DEFAULT_STRIPES);
+
+    /** Tables larger than this (or with more than 15 copies of one value) bypass the cache. */
+    private static final int MAX_TABLE = 64;
+    private static final long[] NO_CAPTURES = new long[0];
+
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * @param maxEntries upper bound on cached signatures across all stripes; each stripe gets a
+     *                   power-of-two share of it (rounded down, at least 8 slots)
+     * @param stripes    number of independently locked segments (rounded up to a power of two)
+     */
+    public CaptureCache(int maxEntries, int stripes) {
+        if (maxEntries < 1 || stripes < 1) {
+            throw new IllegalArgumentException("maxEntries and stripes must be positive");
+        }
+        int n = 1;
+        while (n < stripes) {
+            n <<= 1;
+        }
+        int perStripe = Math.max(1, maxEntries / n);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Process-wide cache, used by the server for CAPTURES and HINT replies. {@code ScopaGame} and the
+     * search states keep the allocation-free {@link ScopaRules#captureMasks(int, int[], int, long[])}.
+     */
+    public static CaptureCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Drop-in replacement for {@link ScopaRules#possibleCaptures(Card, List)}.
+     */
+    public List<List<Card>> possibleCaptures(Card playedCard, List<Card> tableCards) {
+        if (playedCard == null || tableCards == null || tableCards.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Scratch s = scratch.get();
+        int n = captureMasks(playedCard.value(), tableCards, s.options);
+        if (n > s.options.length) {
+            s.options = new long[n];
+            n = captureMasks(playedCard.value(), tableCards, s.options);
+        }
+        List<List<Card>> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long mask = s.options[i];
+            List<Card> option = new ArrayList<>(Long.bitCount(mask));
+            while (mask != 0) {
+                option.add(tableCards.get(Long.numberOfTrailingZeros(mask)));
+                mask &= mask - 1;
+            }
+            results.add(option);
+        }
+        return results;
+    }
+
+    /**
+     * Write the legal captures for {@code target} as masks over positions in {@code tableCards}, in the
+     * same order as {@link ScopaRules#captureMasks(int, int[], int, long[])}.
+     *
+     * @return the total number of options; if this exceeds {@code out.length} the buffer contents are
+     *         incomplete and the caller should retry with a larger buffer
+     */
+    public int captureMasks(int target, List<Card> tableCards, long[] out) {
+        int size = tableCards.size();
+        if (size == 0) {
+            return 0;
+        }
+        Scratch s = scratch.get();
+        if (size > MAX_TABLE) {
+            return bypass(target, tableCards, out, s);
+        }
+
+        // Canonical signature: 4-bit count per value, target in the top bits.
+        int[] counts = s.counts;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < size; i++) {
+            int v = tableCards.get(i).value();
+            if (++counts[v] > 15) {
+                return bypass(target, tableCards, out, s);
+            }
+        }
+        long key = (long) target << 40;
+        for (int v = 1; v <= 10; v++) {
+            key |= (long) counts[v] << ((v - 1) << 2);
+        }
+
+        long[] canonical = lookup(key, target, counts, s);
+        int n = canonical.length;
+        if (n == 0) {
+            return 0;
+        }
+
+        // Map canonical (value-sorted, stable) positions back to table positions.
+        int[] offsets = s.offsets;
+        int running = 0;
+        for (int v = 1; v <= 10; v++) {
+            offsets[v] = running;
+            running += counts[v];
+        }
+        int[] perm = s.perm;
+        for (int i = 0; i < size; i++) {
+            int v = tableCards.get(i).value();
+            perm[offsets[v]++] = i;
+        }
+
+        int written = Math.min(n, out.length);
+        for (int i = 0; i < written; i++) {
+            long cm = canonical[i];
+            long mask = 0L;
+            while (cm != 0) {
+                mask |= 1L << perm[Long.numberOfTrailingZeros(cm)];
+                cm &= cm - 1;
+            }
+            // Insertion sort into possibleCaptures order: the option holding the lowest differing
+            // position comes first.
+            int j = i - 1;
+            while (j >= 0 && precedes(mask, out[j])) {
+                out[j + 1] = out[j];
+                j--;
+            }
+            out[j + 1] = mask;
+        }
+        return n;
+    }
+
+    private long[] lookup(long key, int target, int[] counts, Scratch s) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+        long[] cached = stripe.get(key, (int) hash);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        int[] values = s.values;
+        int size = 0;
+        for (int v = 1; v <= 10; v++) {
+            for (int c = 0; c < counts[v]; c++) {
+                values[size++] = v;
+            }
+        }
+        int n = ScopaRules.captureMasks(target, values, size, s.canonical);
+        if (n > s.canonical.length) {
+            s.canonical = new long[n];
+            ScopaRules.captureMasks(target, values, size, s.canonical);
+        }
+        long[] computed = n == 0 ? NO_CAPTURES : Arrays.copyOf(s.canonical, n);
+        if (stripe.put(key, (int) hash, computed)) {
+            evictions.increment();
+        }
+        return computed;
+    }
+
+    private int bypass(int target, List<Card> tableCards, long[] out, Scratch s) {
+        bypasses.increment();
+        int size = Math.min(tableCards.size(), MAX_TABLE);
+        int[] values = s.values.length >= size ? s.values : new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = tableCards.get(i).value();
+        }
+        return ScopaRules.captureMasks(target, values, size, out);
+    }
+
+    /**
+     * True when option {@code a} is listed before option {@code b} by possibleCaptures.
+     */
+    private static boolean precedes(long a, long b) {
+        long diff = a ^ b;
+        return (a & diff & -diff) != 0;
+    }
+
+    /**
+     * 64-bit finalizer (MurmurHash3 fmix64): the high half selects the stripe, the low half the slot.
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long bypasses() {
+        return bypasses.sum();
+    }
+
+    /**
+     * Fraction of lookups answered from the cache, or 0 if nothing has been looked up yet.
+     */
+    public double hitRate() {
+        long h = hits();
+        long total = h + misses();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Number of signatures currently cached.
+     */
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    /**
+     * Remove all entries and reset the counters.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        bypasses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CaptureCache[size=%d, hits=%d, misses=%d, evictions=%d, bypasses=%d, hitRate=%.4f]",
+            size(), hits(), misses(), evictions(), bypasses(), hitRate());
+    }
+
+    /**
+     * One lock stripe: a fixed-size open-addressed table. Reads are optimistic and never block; writers
+     * take the stripe's write lock. A key may only live within {@link #PROBE} slots of its home slot, and
+     * when that window is full a victim is picked round-robin, which bounds both size and probe length.
+     */
+    private static final class Stripe {
+        private static final int PROBE = 8;
+
+        private final StampedLock lock = new StampedLock();
+        private final long[] keys;
+        private final long[][] values;
+        private final int mask;
+        private int size;
+        private int hand;
+
+        Stripe(int capacity) {
+            int slots = Math.max(PROBE, Integer.highestOneBit(capacity));
+            this.keys = new long[slots];
+            this.values = new long[slots][];
+            this.mask = slots - 1;
+        }
+
+        long[] get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            long[] found = find(key, hash);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long[] find(long key, int hash) {
+            for (int i = 0; i < PROBE; i++) {
+                int slot = (hash + i) & mask;
+                long k = keys[slot];
+                if (k == key) {
+                    return values[slot];
+                }
+                if (k == 0L) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Insert a value, returning true if another entry had to be evicted to make room.
+         */
+        boolean put(long key, int hash, long[] value) {
+            long stamp = lock.writeLock();
+            try {
+                for (int i = 0; i < PROBE; i++) {
+                    int slot = (hash + i) & mask;
+                    long k = keys[slot];
+                    if (k == key) {
+                        return false;
+                    }
+                    if (k == 0L) {
+                        values[slot] = value;
+                        keys[slot] = key;
+                        size++;
+                        return false;
+                    }
+                }
+                int victim = (hash + (hand++ & (PROBE - 1))) & mask;
+                values[victim] = value;
+                keys[victim] = key;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(keys, 0L);
+                Arrays.fill(values, null);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Per-thread working buffers so lookups do not allocate.
+     */
+    private static final class Scratch {
+        final int[] counts = new int[11];
+        final int[] offsets = new int[11];
+        final int[] perm = new int[MAX_TABLE];
+        final int[] values = new int[MAX_TABLE];
+        long[] options = new long[64];
+        long[] canonical = new long[64];
+    }
+}
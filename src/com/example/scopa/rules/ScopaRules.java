@@ -62,6 +62,37 @@ public final class ScopaRules {
         return results;
     }
 
+    /**
+     * Mask-based counterpart of {@link #possibleCaptures(Card, List)} for callers that want to avoid
+     * building card lists.
+     *
+     * Each legal capture is written to {@code out} as a bit mask over table positions (bit i set means
+     * {@code values[i]} is taken). The same rules and the same ordering as {@code possibleCaptures}
+     * apply: exact single-card matches take precedence, otherwise sum combinations are listed in
+     * lexicographic index order.
+     *
+     * @param target the value of the played card
+     * @param values table card values by position
+     * @param count  number of table cards to consider (at most 64)
+     * @param out    destination for capture masks; options beyond its length are counted but not written
+     * @return the total number of legal capture options
+     */
+    public static int captureMasks(int target, int[] values, int count, long[] out) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] == target) {
+                if (n < out.length) {
+                    out[n] = 1L << i;
+                }
+                n++;
+            }
+        }
+        if (n > 0) {
+            return n;
+        }
+        return collectSumMasks(values, count, 0, target, 0L, out, 0);
+    }
+
     /**
      * Calculate scores for a round based on Scopa scoring rules.
      * 
@@ -197,7 +228,13 @@ public final class ScopaRules {
     }
 
     private static int getPrimieraValue(Card card) {
-        int rank = card.value();
+        return primieraValue(card.value());
+    }
+
+    /**
+     * Primiera points for a card of the given rank value.
+     */
+    static int primieraValue(int rank) {
         switch (rank) {
             case 7: return 21;
             case 6: return 18;
@@ -256,6 +293,31 @@ public final class ScopaRules {
     // Internal helper methods
     // -------------------------
 
+    /**
+     * Allocation-free variant of {@link #backtrackSums} that records combinations as index masks.
+     * Visits combinations in the same order, so option indexes line up with possibleCaptures.
+     */
+    private static int collectSumMasks(int[] values,
+                                       int count,
+                                       int startIdx,
+                                       int remaining,
+                                       long mask,
+                                       long[] out,
+                                       int n) {
+        for (int i = startIdx; i < count; i++) {
+            int left = remaining - values[i];
+            if (left == 0) {
+                if (n < out.length) {
+                    out[n] = mask | (1L << i);
+                }
+                n++;
+            } else if (left > 0) {
+                n = collectSumMasks(values, count, i + 1, left, mask | (1L << i), out, n);
+            }
+        }
+        return n;
+    }
+
     /**
      * Backtracking helper to generate all combinations of table cards that sum to the target.
      *
@@ -0,0 +1,113 @@
+package com.example.scopa.rules;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+
+import java.util.List;
+
+/**
+ * Table-driven round scoring over 40-bit capture masks (bit {@link Card#index()} set means the card
+ * was captured). Produces the same points as {@link ScopaRules#scoreRound} without walking card lists.
+ *
+ * Each suit occupies ten consecutive bits, so the best primiera card of a suit is a lookup in a
+ * 1024-entry table indexed by that suit's bits; the table only depends on ranks, so the four suits
+ * share it. Cards and coins are popcounts and the settebello is a single bit test.
+ */
+public final class ScoringKernel {
+    private static final int RANKS = Rank.values().length;
+    private static final long SUIT_BITS = (1L << RANKS) - 1;
+    private static final long COINS = SUIT_BITS << (Suit.COINS.ordinal() * RANKS);
+    private static final long SETTEBELLO = 1L << Card.of(Suit.COINS, Rank.SEVEN).index();
+
+    /** Best primiera value among the ranks set in a 10-bit suit mask; 0 for an empty suit. */
+    private static final byte[] BEST_PRIMIERA = new byte[1 << RANKS];
+
+    static {
+        for (int m = 1; m < BEST_PRIMIERA.length; m++) {
+            int best = 0;
+            for (Rank r : Rank.values()) {
+                if ((m & (1 << r.ordinal())) != 0) {
+                    best = Math.max(best, ScopaRules.primieraValue(r.getValue()));
+                }
+            }
+            BEST_PRIMIERA[m] = (byte) best;
+        }
+    }
+
+    private ScoringKernel() {}
+
+    /**
+     * Mask of the given cards.
+     */
+    public static long mask(List<Card> cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= 1L << cards.get(i).index();
+        }
+        return mask;
+    }
+
+    /**
+     * Primiera total of a capture pile, or -1 if it lacks a card of some suit.
+     */
+    public static int primiera(long captured) {
+        int total = 0;
+        for (int s = 0; s < 4; s++) {
+            int best = BEST_PRIMIERA[(int) ((captured >>> (s * RANKS)) & SUIT_BITS)];
+            if (best == 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Best primiera value among {@code captured}'s cards of suit {@code suit} (an ordinal), 0 if it has none.
+     */
+    public static int bestPrimiera(long captured, int suit) {
+        return BEST_PRIMIERA[(int) ((captured >>> (suit * RANKS)) & SUIT_BITS)];
+    }
+
+    public static ScopaRules.Score score(long p1Captured, int p1Scopas, long p2Captured, int p2Scopas) {
+        int packed = points(p1Captured, p2Captured);
+        return new ScopaRules.Score((packed & 0xFFFF) + p1Scopas, (packed >>> 16) + p2Scopas);
+    }
+
+    /**
+     * Score {@code count} rounds starting at {@code from}. Points for round i, scopas included, are
+     * written to {@code p1Points[i]} and {@code p2Points[i]}.
+     */
+    public static void scoreRounds(long[] p1Captured, int[] p1Scopas, long[] p2Captured, int[] p2Scopas,
+                                   int from, int count, int[] p1Points, int[] p2Points) {
+        for (int i = from, end = from + count; i < end; i++) {
+            int packed = points(p1Captured[i], p2Captured[i]);
+            p1Points[i] = (packed & 0xFFFF) + p1Scopas[i];
+            p2Points[i] = (packed >>> 16) + p2Scopas[i];
+        }
+    }
+
+    /**
+     * Points from cards, coins, settebello and primiera, scopas excluded: player 1 in the low 16 bits,
+     * player 2 above. For hot loops that cannot afford a {@link ScopaRules.Score} per round.
+     */
+    public static int points(long p1, long p2) {
+        int p1Points = 0;
+        int p2Points = 0;
+
+        int cards = Integer.compare(Long.bitCount(p1), Long.bitCount(p2));
+        int coins = Integer.compare(Long.bitCount(p1 & COINS), Long.bitCount(p2 & COINS));
+        if (cards > 0) p1Points++; else if (cards < 0) p2Points++;
+        if (coins > 0) p1Points++; else if (coins < 0) p2Points++;
+
+        if ((p1 & SETTEBELLO) != 0) p1Points++; else if ((p2 & SETTEBELLO) != 0) p2Points++;
+
+        int p1Primiera = primiera(p1);
+        int p2Primiera = primiera(p2);
+        if (p1Primiera >= 0 && p2Primiera >= 0) {
+            if (p1Primiera > p2Primiera) p1Points++; else if (p2Primiera > p1Primiera) p2Points++;
+        }
+        return p1Points | (p2Points << 16);
+    }
+}
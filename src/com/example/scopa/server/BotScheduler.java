@@ -0,0 +1,199 @@
+package com.example.scopa.server;
+
+import com.example.scopa.ai.BeliefTracker;
+import com.example.scopa.ai.MonteCarloSearch;
+import com.example.scopa.ai.SearchBudget;
+import com.example.scopa.ai.SimState;
+import com.example.scopa.ai.Tablebase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs server-side bot thinking off the I/O, actor and fan-out threads.
+ *
+ * Each bot move is a search on a bounded work-stealing pool of low-priority daemon threads, so bots
+ * can only use the cores the pool is sized for and never delay command handling. Every move gets a
+ * wall-clock deadline counted from when it was requested (time spent queued eats into it), a CPU-time
+ * budget and an iteration cap. When moves queue up faster than the pool clears them, each move's
+ * iteration cap and CPU budget shrink in proportion to the backlog it saw when it started, so bots
+ * play weaker instead of slower under load.
+ *
+ * The same pool evaluates HINT requests, but hints only get a share of it: at most half the threads
+ * (at least one) search for hints at any time. A hint is split into one search per free hint slot,
+ * each on its own copy of the asking seat's beliefs and all reading the same position, and their
+ * samples are pooled when the last one reaches the client's deadline. A hint that finds no free slot
+ * is refused rather than queued. Hint searches waiting for a thread count towards the backlog, so bot
+ * moves shrink their budgets while hints hold threads instead of running into their deadlines.
+ *
+ * Given a {@link Tablebase}, all searches share its mapping, but only a search whose root comes after
+ * the last deal uses it: each move is then looked up, or solved exactly with the table cutting the
+ * solver's search. Rollouts from earlier roots never probe it.
+ */
+final class BotScheduler {
+    static final long DEFAULT_DEADLINE_MILLIS = 500;
+    static final long DEFAULT_CPU_MILLIS = 150;
+    static final int DEFAULT_MAX_ITERATIONS = 2000;
+    /** Floor for degraded searches, enough to avoid obvious blunders. */
+    static final int MIN_ITERATIONS = 32;
+    /** Iteration cap for one hint, so that a long deadline on an easy position ends early. */
+    static final int HINT_MAX_ITERATIONS = 100_000;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final long deadlineNanos;
+    private final long cpuNanos;
+    private final int maxIterations;
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final int hintSlots;
+    private final AtomicInteger hintsInUse = new AtomicInteger();
+    private final ThreadLocal<MonteCarloSearch> searches;
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder degraded = new LongAdder();
+    private final LongAdder iterations = new LongAdder();
+
+    BotScheduler(int threads) {
+        this(threads, null);
+    }
+
+    BotScheduler(int threads, Tablebase tablebase) {
+        this(threads, DEFAULT_DEADLINE_MILLIS, DEFAULT_CPU_MILLIS, DEFAULT_MAX_ITERATIONS, tablebase);
+    }
+
+    BotScheduler(int threads, long deadlineMillis, long cpuMillis, int maxIterations) {
+        this(threads, deadlineMillis, cpuMillis, maxIterations, null);
+    }
+
+    BotScheduler(int threads, long deadlineMillis, long cpuMillis, int maxIterations, Tablebase tablebase) {
+        this.threads = threads;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.cpuNanos = TimeUnit.MILLISECONDS.toNanos(cpuMillis);
+        this.maxIterations = maxIterations;
+        this.hintSlots = Math.max(1, threads / 2);
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("bot-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }, null, true);
+        this.searches = ThreadLocal.withInitial(() -> new MonteCarloSearch(System.nanoTime(), tablebase));
+    }
+
+    /**
+     * Search {@code root} for the player to move on the bot pool.
+     * @param belief the bot's beliefs, owned by the search from now on (pass a copy)
+     * @return the chosen packed move; fails if the search throws or the pool has shut down
+     */
+    CompletableFuture<Integer> think(SimState root, BeliefTracker belief) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        backlog.incrementAndGet();
+        try {
+            pool.execute(() -> {
+                int waiting = backlog.decrementAndGet();
+                try {
+                    MonteCarloSearch.Result r = searches.get().search(root, belief, budgetFor(waiting, deadline));
+                    moves.increment();
+                    iterations.add(r.iterations());
+                    result.complete(r.bestMove());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The pool has shut down.
+            backlog.decrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate moves of the player to move in {@code root} on the free hint slots until {@code deadline}.
+     * @param belief    the asking seat's beliefs; only copies are searched
+     * @param handIndex evaluate only this hand card's moves, or -1 for all
+     * @return the pooled statistics of all parts, or null if every hint slot is in use
+     */
+    CompletableFuture<MonteCarloSearch.Result> evaluate(SimState root, BeliefTracker belief, int handIndex,
+                                                        long deadline) {
+        int parts = reserveHintSlots();
+        if (parts == 0) {
+            return null;
+        }
+        int cap = Math.max(1, HINT_MAX_ITERATIONS / parts);
+        CompletableFuture<MonteCarloSearch.Result> pooled = null;
+        for (int i = 0; i < parts; i++) {
+            BeliefTracker part = belief.copy(System.nanoTime() + i);
+            backlog.incrementAndGet();
+            CompletableFuture<MonteCarloSearch.Result> r = CompletableFuture.supplyAsync(() -> {
+                backlog.decrementAndGet();
+                try {
+                    return searches.get().search(root, part, new SearchBudget(cap, deadline, Long.MAX_VALUE), handIndex);
+                } finally {
+                    hintsInUse.decrementAndGet();
+                }
+            }, pool);
+            pooled = pooled == null ? r : pooled.thenCombine(r, MonteCarloSearch.Result::merge);
+        }
+        return pooled;
+    }
+
+    /**
+     * Take every free hint slot.
+     * @return the number taken, 0 if none was free
+     */
+    private int reserveHintSlots() {
+        while (true) {
+            int used = hintsInUse.get();
+            if (used >= hintSlots) {
+                return 0;
+            }
+            if (hintsInUse.compareAndSet(used, hintSlots)) {
+                return hintSlots - used;
+            }
+        }
+    }
+
+    /**
+     * Full budget with an idle pool; with {@code waiting} moves queued behind this one, a
+     * {@code threads / (threads + waiting)} share of it.
+     */
+    SearchBudget budgetFor(int waiting, long deadline) {
+        double share = threads / (double) (threads + waiting);
+        if (waiting > 0) {
+            degraded.increment();
+        }
+        int cap = Math.max(MIN_ITERATIONS, (int) (maxIterations * share));
+        return new SearchBudget(cap, deadline, (long) (cpuNanos * share));
+    }
+
+    /** Moves and hint searches waiting for a thread. */
+    int backlog() {
+        return backlog.get();
+    }
+
+    long movesPlayed() {
+        return moves.sum();
+    }
+
+    /** Moves searched with a reduced budget because others were queued. */
+    long degradedMoves() {
+        return degraded.sum();
+    }
+
+    double meanIterations() {
+        long n = moves.sum();
+        return n == 0 ? 0 : iterations.sum() / (double) n;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
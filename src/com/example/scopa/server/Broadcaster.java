@@ -0,0 +1,103 @@
+package com.example.scopa.server;
+
+import com.example.scopa.game.GameSnapshot;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans state changes for one game out to its seats and spectators.
+ *
+ * {@link #publish} only parks the immutable snapshot and schedules a flush, so the game's actor pays
+ * O(1) per state change no matter how many subscribers there are, and never encodes JSON. The flush runs
+ * on the fan-out executor, encodes the snapshot once and offers the same frame instance to every
+ * subscriber's bounded queue (see {@link Connection#push}), skipping the connection whose command caused
+ * the change since it gets the state as its reply. Flushes of one broadcaster never overlap, so
+ * subscribers see frames in order; if the game produces states faster than a flush can walk the
+ * subscriber list, intermediate states are superseded here before they are ever encoded.
+ */
+final class Broadcaster {
+    private final Executor fanout;
+    private final List<Connection> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Frame> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder offered = new LongAdder();
+
+    Broadcaster(Executor fanout) {
+        this.fanout = fanout;
+    }
+
+    void subscribe(Connection c) {
+        subscribers.add(c);
+    }
+
+    void unsubscribe(Connection c) {
+        subscribers.remove(c);
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Hand a state to all current subscribers except {@code origin}. Never blocks.
+     */
+    void publish(GameSnapshot snapshot, Connection origin) {
+        published.increment();
+        if (pending.getAndSet(new Frame(snapshot, origin)) != null) {
+            superseded.increment();
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            fanout.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        Frame frame;
+        while ((frame = pending.getAndSet(null)) != null) {
+            String json = GameJson.event("state", GameJson.state(frame.snapshot));
+            for (Connection c : subscribers) {
+                if (c.isClosed()) {
+                    subscribers.remove(c);
+                } else if (c != frame.origin) {
+                    c.push(json);
+                    offered.increment();
+                }
+            }
+        }
+        scheduled.set(false);
+        if (pending.get() != null && scheduled.compareAndSet(false, true)) {
+            fanout.execute(this::flush);
+        }
+    }
+
+    long publishedFrames() {
+        return published.sum();
+    }
+
+    /** Frames replaced by a newer one before any subscriber saw them. */
+    long supersededFrames() {
+        return superseded.sum();
+    }
+
+    /** Total frame offers made to subscriber queues. */
+    long offeredFrames() {
+        return offered.sum();
+    }
+
+    private static final class Frame {
+        final GameSnapshot snapshot;
+        final Connection origin;
+
+        Frame(GameSnapshot snapshot, Connection origin) {
+            this.snapshot = snapshot;
+            this.origin = origin;
+        }
+    }
+}
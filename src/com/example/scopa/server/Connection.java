@@ -0,0 +1,239 @@
+package com.example.scopa.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound side of a client connection. Replies and pushed events from any thread are queued and
+ * written by one writer thread, so game actors never block on socket I/O and lines never interleave.
+ * Queued lines are flushed in batches whenever the queue runs dry.
+ *
+ * Replies and seat events ({@link #send}) are always queued and never coalesced: the reader thread
+ * waits for each reply before reading the next command, so there is never more than one reply
+ * outstanding, and seat events are rare. Pushed frames ({@link #push}) are state updates from other
+ * participants and are bounded to {@code maxPending} per connection. Once that many are waiting the
+ * {@link Overflow} policy applies: either later frames are coalesced into the most recent one (pushed
+ * frames are full states, so skipping intermediate ones is safe), or the client is cut off.
+ */
+class Connection {
+    /** What to do with pushed frames once a connection already has {@code maxPending} waiting. */
+    enum Overflow {
+        /** Keep only the newest frame and deliver it once the backlog has been written. */
+        COALESCE,
+        /** Close the connection. */
+        DISCONNECT
+    }
+
+    static final int DEFAULT_MAX_PENDING = 16;
+
+    private static final Object CLOSE = new Object();
+    private static final Object LATEST = new Object();
+
+    /** Writer threads only ever block in write/take, so a small stack keeps thousands of them cheap. */
+    private static final long WRITER_STACK = 256 * 1024;
+
+    private final String name;
+    private final OutputStream stream;
+    private final Writer out;
+    private final int maxPending;
+    private volatile Overflow overflow;
+    // Holds Line wrappers, raw pushed frames (shared by all subscribers), and the markers above.
+    private final BlockingQueue<Object> outbound = new LinkedBlockingQueue<>();
+    private final AtomicInteger pendingPushes = new AtomicInteger();
+    private final AtomicReference<String> latest = new AtomicReference<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    Connection(String name, OutputStream stream) {
+        this(name, stream, DEFAULT_MAX_PENDING, Overflow.COALESCE);
+    }
+
+    Connection(String name, OutputStream stream, int maxPending, Overflow overflow) {
+        this.name = name;
+        this.stream = stream;
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        this.maxPending = maxPending;
+        this.overflow = overflow;
+        this.writer = new Thread(null, this::writeLoop, "writer-" + name, WRITER_STACK);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private Connection(String name) {
+        this.name = name;
+        this.stream = null;
+        this.out = null;
+        this.maxPending = 0;
+        this.overflow = Overflow.COALESCE;
+        this.writer = null;
+        this.closed = true;
+    }
+
+    /**
+     * A participant with no socket, for clients that poll rather than hold a connection (see
+     * {@link HttpGateway}). It can hold seats, but it reports itself closed from the start, so nothing
+     * is ever queued for it and broadcasters drop it on their next flush.
+     */
+    static Connection detached(String name) {
+        return new Connection(name);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Change how pushed frames are handled once the backlog is full, e.g. when a client starts watching.
+     */
+    void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * Number of pushed frames that were replaced by a newer one before they could be written.
+     */
+    long coalescedFrames() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Queue a reply or seat event for delivery. Lines sent after {@link #close()} are dropped.
+     */
+    void send(String line) {
+        if (!closed) {
+            outbound.offer(new Line(line));
+        }
+    }
+
+    /**
+     * Offer a pushed state frame without ever blocking the caller. Safe to call from several threads,
+     * e.g. broadcasters of different games the client watches; frames pushed concurrently are written
+     * in no particular order relative to each other. Anything that must not be coalesced away goes
+     * through {@link #send} instead.
+     */
+    void push(String frame) {
+        if (closed) {
+            return;
+        }
+        if (latest.get() == null && reservePush()) {
+            outbound.offer(frame);
+            return;
+        }
+        if (overflow == Overflow.DISCONNECT) {
+            abort();
+            return;
+        }
+        // Backlogged: park the frame as the newest state; the marker tells the writer to pick it up
+        // after everything already queued.
+        if (latest.getAndSet(frame) == null) {
+            outbound.offer(LATEST);
+        } else {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Take one of the {@code maxPending} push slots, unless they are all in use.
+     */
+    private boolean reservePush() {
+        for (int n = pendingPushes.get(); n < maxPending; n = pendingPushes.get()) {
+            if (pendingPushes.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop accepting lines; anything already queued is still written before the writer exits.
+     */
+    void close() {
+        if (!closed) {
+            closed = true;
+            outbound.offer(CLOSE);
+        }
+    }
+
+    /**
+     * Drop everything queued and close the underlying stream, which also ends the client's reader.
+     */
+    void abort() {
+        closed = true;
+        outbound.clear();
+        outbound.offer(CLOSE);
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Wait for the writer thread to drain and exit.
+     */
+    void awaitClosed(long millis) throws InterruptedException {
+        if (writer != null) {
+            writer.join(millis);
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                Object item = outbound.take();
+                if (item == CLOSE) {
+                    break;
+                }
+                String line;
+                if (item == LATEST) {
+                    line = latest.getAndSet(null);
+                } else if (item instanceof Line) {
+                    line = ((Line) item).text;
+                } else {
+                    pendingPushes.decrementAndGet();
+                    line = (String) item;
+                }
+                out.write(line);
+                out.write('\n');
+                if (outbound.isEmpty()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            closed = true;
+            outbound.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /** A {@link #send sent} line, told apart from pushed frames so the writer does not count it as one. */
+    private static final class Line {
+        final String text;
+
+        Line(String text) {
+            this.text = text;
+        }
+    }
+}
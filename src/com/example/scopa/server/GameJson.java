@@ -0,0 +1,152 @@
+package com.example.scopa.server;
+
+import com.example.scopa.ai.MonteCarloSearch;
+import com.example.scopa.game.GameSnapshot;
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.rules.CaptureCache;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JSON encoding for the line protocol. Hand-rolled to keep the server free of dependencies.
+ */
+final class GameJson {
+
+    private GameJson() {}
+
+    static String ok(String message) {
+        return "{\"status\":\"ok\",\"message\":\"" + escape(message) + "\"}";
+    }
+
+    static String error(String message) {
+        return "{\"status\":\"error\",\"message\":\"" + escape(message) + "\"}";
+    }
+
+    /**
+     * Wrap a payload object as a server-initiated event, e.g. {@code {"event":"state","data":{...}}}.
+     */
+    static String event(String name, String payload) {
+        return "{\"event\":\"" + escape(name) + "\",\"data\":" + payload + "}";
+    }
+
+    static String state(ScopaGame game) {
+        return state(game.snapshot());
+    }
+
+    static String state(GameSnapshot snapshot) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"status\":\"ok\",");
+
+        // Table cards
+        json.append("\"table\":");
+        appendCards(json, snapshot.getTable());
+        json.append(",");
+
+        appendPlayer(json, "player1", snapshot, 0);
+        json.append(",");
+        appendPlayer(json, "player2", snapshot, 1);
+        json.append(",");
+
+        // Current player and game state
+        json.append("\"currentPlayer\":\"").append(escape(snapshot.getPlayerName(snapshot.getCurrentPlayer()))).append("\",");
+        json.append("\"deckSize\":").append(snapshot.getDeckSize()).append(",");
+        json.append("\"roundOver\":").append(snapshot.isRoundOver());
+
+        json.append("}");
+        return json.toString();
+    }
+
+    static String captures(List<List<Card>> captures) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"status\":\"ok\",\"captures\":[");
+        for (int i = 0; i < captures.size(); i++) {
+            if (i > 0) json.append(",");
+            appendCards(json, captures.get(i));
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * Hint reply: per evaluated move, the card, the capture option (-1 and empty for a drop), the
+     * expected round point difference for the mover and the half-width of its 95% confidence interval.
+     * {@code best} is the position in {@code moves} of the highest expectation, and {@code exact} tells
+     * whether the values were solved from an endgame rather than sampled.
+     */
+    static String hint(GameSnapshot state, MonteCarloSearch.Result result) {
+        List<Card> hand = state.getHand(state.getCurrentPlayer());
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"status\":\"ok\",\"samples\":").append(result.iterations())
+            .append(",\"exact\":").append(result.isExact()).append(",\"moves\":[");
+        int best = 0;
+        for (int i = 0; i < result.moveCount(); i++) {
+            int move = result.move(i);
+            Card card = hand.get(Move.handIndex(move));
+            int option = Move.captureIndex(move);
+            if (i > 0) json.append(",");
+            json.append("{\"handIndex\":").append(Move.handIndex(move))
+                .append(",\"captureIndex\":").append(option)
+                .append(",\"card\":");
+            appendCard(json, card);
+            json.append(",\"capture\":");
+            appendCards(json, option < 0 ? List.of() : CaptureCache.shared().possibleCaptures(card, state.getTable()).get(option));
+            json.append(",\"expected\":").append(round(result.mean(i)))
+                .append(",\"bound\":").append(round(result.halfWidth(i)))
+                .append("}");
+            if (result.mean(i) > result.mean(best)) {
+                best = i;
+            }
+        }
+        json.append("],\"best\":").append(best).append("}");
+        return json.toString();
+    }
+
+    /** Three decimals; an undefined bound (fewer than two samples) is reported as null. */
+    private static String round(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "null";
+    }
+
+    static String score(ScopaRules.Score score) {
+        return String.format("{\"status\":\"ok\",\"player1Score\":%d,\"player2Score\":%d}",
+            score.getPlayer1Points(), score.getPlayer2Points());
+    }
+
+    private static void appendPlayer(StringBuilder json, String key, GameSnapshot snapshot, int player) {
+        json.append("\"").append(key).append("\":{");
+        json.append("\"name\":\"").append(escape(snapshot.getPlayerName(player))).append("\",");
+        json.append("\"hand\":");
+        appendCards(json, snapshot.getHand(player));
+        json.append(",");
+        json.append("\"captured\":").append(snapshot.getCapturedCount(player)).append(",");
+        json.append("\"scopas\":").append(snapshot.getScopaCount(player));
+        json.append("}");
+    }
+
+    private static void appendCards(StringBuilder json, List<Card> cards) {
+        json.append("[");
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) json.append(",");
+            appendCard(json, cards.get(i));
+        }
+        json.append("]");
+    }
+
+    static void appendCard(StringBuilder json, Card card) {
+        json.append("{\"suit\":\"").append(escape(card.getSuit().getDisplayName()))
+            .append("\",\"rank\":\"").append(escape(card.getRank().getDisplayName()))
+            .append("\",\"value\":").append(card.value()).append("}");
+    }
+
+    static String escape(String s) {
+        if (s == null) return "";
+        return s.replace("\\", "\\\\")
+               .replace("\"", "\\\"")
+               .replace("\n", "\\n")
+               .replace("\r", "\\r")
+               .replace("\t", "\\t");
+    }
+}
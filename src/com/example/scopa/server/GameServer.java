@@ -1,58 +1,100 @@
 package com.example.scopa.server;
 
-import com.example.scopa.game.ScopaGame;
-import com.example.scopa.model.Card;
-import com.example.scopa.player.HumanPlayer;
-import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.ai.Tablebase;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Paths;
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GameServer that handles Scopa game logic and communicates with the frontend via JSON over TCP.
+ *
+ * Each connection gets a reader thread (GameHandler) and a writer thread (Connection). Games live in
+ * {@link GameSession}s whose commands run on a shared actor pool, so several connections can play or
+ * watch the same game without locking it.
+ *
+ * With {@code -Dscopa.hibernate.dir=<dir>}, sessions that get no commands for
+ * {@code scopa.hibernate.idleSeconds} (default 300) are written to that directory as seed plus moves and
+ * dropped from the heap until their next command.
+ *
+ * With {@code -Dscopa.http.port=<port>}, an {@link HttpGateway} serves the same games over HTTP/JSON.
+ * Games nobody has requested for {@code scopa.http.abandonSeconds} (default 1800) are discarded.
  */
 public class GameServer {
     private static final int PORT = 5000;
-    
+
     public static void main(String[] args) throws Exception {
-        System.out.println("Scopa GameServer: listening on port " + PORT);
-        try (ServerSocket server = new ServerSocket(PORT)) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        String tablebase = System.getProperty("scopa.tablebase");
+        String hibernateDir = System.getProperty("scopa.hibernate.dir");
+        long idleMillis = TimeUnit.SECONDS.toMillis(Long.getLong("scopa.hibernate.idleSeconds", 300));
+        int cpus = Runtime.getRuntime().availableProcessors();
+        BotScheduler bots = new BotScheduler(Math.max(1, cpus / 2),
+            tablebase == null ? null : Tablebase.open(Paths.get(tablebase)));
+        SessionStore store = hibernateDir == null ? null : new SessionStore(Paths.get(hibernateDir));
+        SessionRegistry registry = new SessionRegistry(cpus, bots, store, idleMillis);
+        Integer httpPort = Integer.getInteger("scopa.http.port");
+        if (httpPort != null) {
+            // Without it every HTTP reply waits about 40 ms for a delayed ACK; see HttpGateway.
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            long abandonMillis = TimeUnit.SECONDS.toMillis(Long.getLong("scopa.http.abandonSeconds", 1800));
+            HttpGateway http = new HttpGateway(registry, new InetSocketAddress(httpPort), 4 * cpus, abandonMillis);
+            http.start();
+            System.out.println("Scopa GameServer: HTTP gateway on port " + http.port());
+        }
+        System.out.println("Scopa GameServer: listening on port " + port);
+        try (ServerSocket server = new ServerSocket(port)) {
             while (true) {
                 Socket client = server.accept();
-                new Thread(new GameHandler(client)).start();
+                new Thread(new GameHandler(client, registry)).start();
             }
         }
     }
 
     static class GameHandler implements Runnable {
         private final Socket socket;
-        private ScopaGame game;
+        private final SessionRegistry registry;
+        private Connection connection;
+        private GameSession session;
 
-        GameHandler(Socket socket) {
+        GameHandler(Socket socket, SessionRegistry registry) {
             this.socket = socket;
+            this.registry = registry;
         }
 
         @Override
         public void run() {
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                connection = new Connection(String.valueOf(socket.getRemoteSocketAddress()), socket.getOutputStream());
 
                 String line;
                 while ((line = in.readLine()) != null) {
                     System.out.println("Received: " + line);
                     line = line.trim();
-                    
+
                     String response = handleCommand(line);
-                    out.println(response);
+                    connection.send(response);
                 }
             } catch (IOException e) {
                 System.err.println("Client handler error: " + e.getMessage());
             } finally {
+                leaveSession();
+                try {
+                    if (connection != null) {
+                        connection.close();
+                        connection.awaitClosed(1000);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
                 try {
                     socket.close();
                 } catch (IOException ignored) {}
@@ -62,206 +104,111 @@ public class GameServer {
         private String handleCommand(String cmd) {
             String[] parts = cmd.split(" ", 2);
             String action = parts[0].toUpperCase();
+            String args = parts.length > 1 ? parts[1] : null;
 
             try {
                 switch (action) {
                     case "HELLO":
                         return "{\"status\":\"ok\",\"message\":\"Scopa Game Server Ready\"}";
-                    
+
                     case "START":
-                        return handleStart();
-                    
+                        if (args != null && args.trim().equalsIgnoreCase("bot")) {
+                            return openBotGame();
+                        }
+                        return open(false);
+
+                    case "HOST":
+                        return open(true);
+
+                    case "JOIN":
+                        if (args == null) {
+                            return GameJson.error("JOIN requires parameter: gameId");
+                        }
+                        return attach(args.trim(), false);
+
+                    case "WATCH":
+                        if (args == null) {
+                            return GameJson.error("WATCH requires parameters: gameId [coalesce|disconnect]");
+                        }
+                        String[] watchArgs = args.trim().split(" ");
+                        connection.setOverflow(watchArgs.length > 1 && watchArgs[1].equalsIgnoreCase("disconnect")
+                            ? Connection.Overflow.DISCONNECT : Connection.Overflow.COALESCE);
+                        return attach(watchArgs[0], true);
+
                     case "STATE":
-                        return handleGetState();
-                    
                     case "PLAY":
-                        if (parts.length < 2) {
-                            return "{\"status\":\"error\",\"message\":\"PLAY requires parameters: handIndex captureIndex\"}";
-                        }
-                        return handlePlay(parts[1]);
-                    
                     case "CAPTURES":
-                        if (parts.length < 2) {
-                            return "{\"status\":\"error\",\"message\":\"CAPTURES requires parameter: handIndex\"}";
-                        }
-                        return handleGetCaptures(parts[1]);
-                    
                     case "FINALIZE":
-                        return handleFinalize();
-                    
                     case "SCORE":
-                        return handleScore();
-                    
+                        if (session == null) {
+                            return GameJson.error("Game not started. Use START command first.");
+                        }
+                        GameSession s = session;
+                        String answer = s.query(action, args);
+                        if (answer != null) {
+                            return answer;
+                        }
+                        return s.submit(() -> s.handle(connection, action, args)).join().encode();
+
+                    case "HINT":
+                        if (session == null) {
+                            return GameJson.error("Game not started. Use START command first.");
+                        }
+                        GameSession h = session;
+                        return h.submit(() -> h.hint(connection, args)).thenCompose(hint -> hint).join();
+
                     case "QUIT":
                         return "{\"status\":\"bye\"}";
-                    
+
                     default:
-                        return "{\"status\":\"error\",\"message\":\"Unknown command: " + escape(action) + "\"}";
+                        return GameJson.error("Unknown command: " + action);
                 }
+            } catch (CompletionException e) {
+                return GameJson.error(e.getCause().getMessage());
             } catch (Exception e) {
-                return "{\"status\":\"error\",\"message\":\"" + escape(e.getMessage()) + "\"}";
+                return GameJson.error(e.getMessage());
             }
         }
 
-        private String handleStart() {
-            game = ScopaGame.twoPlayer(
-                new HumanPlayer("Player 1"),
-                new HumanPlayer("Player 2")
-            );
-            game.startNewRound();
-            return buildStateJson();
+        /**
+         * Leave the current session and open a new one: private for START, joinable for HOST.
+         */
+        private String open(boolean shared) {
+            leaveSession();
+            GameSession s = registry.create(shared);
+            session = s;
+            return s.submit(() -> s.open(connection)).join();
         }
 
-        private String handleGetState() {
-            if (game == null) {
-                return "{\"status\":\"error\",\"message\":\"Game not started. Use START command first.\"}";
-            }
-            return buildStateJson();
+        private String openBotGame() {
+            leaveSession();
+            GameSession s = registry.createBotGame();
+            session = s;
+            return s.submit(() -> s.open(connection)).join();
         }
 
-        private String handlePlay(String params) {
-            if (game == null) {
-                return "{\"status\":\"error\",\"message\":\"Game not started\"}";
+        private String attach(String gameId, boolean spectator) {
+            GameSession target = registry.get(gameId);
+            if (target == null || !target.isShared()) {
+                return GameJson.error("No such game: " + gameId);
             }
-
-            try {
-                String[] parts = params.split(" ");
-                int handIndex = Integer.parseInt(parts[0]);
-                int captureIndex = parts.length > 1 ? Integer.parseInt(parts[1]) : -1;
-
-                boolean success = game.playCard(handIndex, captureIndex);
-                if (!success) {
-                    return "{\"status\":\"error\",\"message\":\"Invalid play\"}";
-                }
-
-                return buildStateJson();
-            } catch (NumberFormatException e) {
-                return "{\"status\":\"error\",\"message\":\"Invalid parameters\"}";
-            }
-        }
-
-        private String handleGetCaptures(String handIndexStr) {
-            if (game == null) {
-                return "{\"status\":\"error\",\"message\":\"Game not started\"}";
-            }
-
-            try {
-                int handIndex = Integer.parseInt(handIndexStr.trim());
-                List<Card> hand = game.getCurrentPlayer().getHand();
-                
-                if (handIndex < 0 || handIndex >= hand.size()) {
-                    return "{\"status\":\"error\",\"message\":\"Invalid hand index\"}";
-                }
-
-                Card card = hand.get(handIndex);
-                List<List<Card>> captures = ScopaRules.possibleCaptures(card, game.getTable().getOnTable());
-                
-                StringBuilder json = new StringBuilder();
-                json.append("{\"status\":\"ok\",\"captures\":[");
-                for (int i = 0; i < captures.size(); i++) {
-                    if (i > 0) json.append(",");
-                    json.append("[");
-                    List<Card> capture = captures.get(i);
-                    for (int j = 0; j < capture.size(); j++) {
-                        if (j > 0) json.append(",");
-                        json.append(cardToJson(capture.get(j)));
-                    }
-                    json.append("]");
-                }
-                json.append("]}");
-                return json.toString();
-            } catch (NumberFormatException e) {
-                return "{\"status\":\"error\",\"message\":\"Invalid hand index\"}";
-            }
-        }
-
-        private String handleFinalize() {
-            if (game == null) {
-                return "{\"status\":\"error\",\"message\":\"Game not started\"}";
+            leaveSession();
+            String reply = target.submit(() -> spectator ? target.watch(connection) : target.join(connection)).join();
+            if (reply.startsWith("{\"status\":\"ok\"")) {
+                session = target;
             }
-            
-            if (!game.isRoundOver()) {
-                return "{\"status\":\"error\",\"message\":\"Round not over yet\"}";
-            }
-
-            game.finalizeRound();
-            return buildStateJson();
+            return reply;
         }
 
-        private String handleScore() {
-            if (game == null) {
-                return "{\"status\":\"error\",\"message\":\"Game not started\"}";
+        private void leaveSession() {
+            GameSession s = session;
+            if (s == null) {
+                return;
             }
-
-            ScopaRules.Score score = game.calculateScore();
-            return String.format("{\"status\":\"ok\",\"player1Score\":%d,\"player2Score\":%d}",
-                score.getPlayer1Points(), score.getPlayer2Points());
-        }
-
-        private String buildStateJson() {
-            StringBuilder json = new StringBuilder();
-            json.append("{\"status\":\"ok\",");
-            
-            // Table cards
-            json.append("\"table\":[");
-            List<Card> tableCards = game.getTable().getOnTable();
-            for (int i = 0; i < tableCards.size(); i++) {
-                if (i > 0) json.append(",");
-                json.append(cardToJson(tableCards.get(i)));
+            session = null;
+            if (s.submit(() -> s.leave(connection)).join()) {
+                registry.remove(s);
             }
-            json.append("],");
-            
-            // Player 1
-            json.append("\"player1\":{");
-            json.append("\"name\":\"").append(escape(game.getPlayer1().getName())).append("\",");
-            json.append("\"hand\":[");
-            List<Card> p1Hand = game.getPlayer1().getHand();
-            for (int i = 0; i < p1Hand.size(); i++) {
-                if (i > 0) json.append(",");
-                json.append(cardToJson(p1Hand.get(i)));
-            }
-            json.append("],");
-            json.append("\"captured\":").append(game.getPlayer1().getCapturedCards().size()).append(",");
-            json.append("\"scopas\":").append(game.getPlayer1().getScopaCount());
-            json.append("},");
-            
-            // Player 2
-            json.append("\"player2\":{");
-            json.append("\"name\":\"").append(escape(game.getPlayer2().getName())).append("\",");
-            json.append("\"hand\":[");
-            List<Card> p2Hand = game.getPlayer2().getHand();
-            for (int i = 0; i < p2Hand.size(); i++) {
-                if (i > 0) json.append(",");
-                json.append(cardToJson(p2Hand.get(i)));
-            }
-            json.append("],");
-            json.append("\"captured\":").append(game.getPlayer2().getCapturedCards().size()).append(",");
-            json.append("\"scopas\":").append(game.getPlayer2().getScopaCount());
-            json.append("},");
-            
-            // Current player and game state
-            json.append("\"currentPlayer\":\"").append(escape(game.getCurrentPlayer().getName())).append("\",");
-            json.append("\"deckSize\":").append(game.getDeck().size()).append(",");
-            json.append("\"roundOver\":").append(game.isRoundOver());
-            
-            json.append("}");
-            return json.toString();
-        }
-
-        private String cardToJson(Card card) {
-            return String.format("{\"suit\":\"%s\",\"rank\":\"%s\",\"value\":%d}",
-                escape(card.getSuit().getDisplayName()),
-                escape(card.getRank().getDisplayName()),
-                card.value());
-        }
-
-        private String escape(String s) {
-            if (s == null) return "";
-            return s.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
         }
     }
 }
@@ -0,0 +1,536 @@
+package com.example.scopa.server;
+
+import com.example.scopa.ai.BeliefTracker;
+import com.example.scopa.ai.MonteCarloBot;
+import com.example.scopa.ai.MonteCarloSearch;
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.GameSnapshot;
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.rules.CaptureCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * One live game and the connections attached to it.
+ *
+ * {@link ScopaGame} is not thread-safe, so every access goes through this session's mailbox: commands
+ * from any connection are enqueued lock-free and run one at a time, in arrival order, on the shared
+ * actor executor. At most one task per session is scheduled at a time, so a session never occupies
+ * more than one executor thread and independent games proceed in parallel. Results are handed to the
+ * participants' {@link Connection} queues, so the actor never blocks on I/O.
+ *
+ * A private session (from START) has both seats held by one connection, as in the original protocol.
+ * A shared session (from HOST) has one connection per seat plus any number of spectators; state changes
+ * are pushed to everyone except the connection that caused them, which gets the normal reply. The actor
+ * only hands the game's immutable {@link GameSnapshot} to a {@link Broadcaster}, which encodes it once
+ * off the actor, so the actor's cost does not grow with the audience. Read-only queries (STATE,
+ * CAPTURES) are answered from the latest snapshot on the caller's thread and never enter the mailbox.
+ *
+ * A bot session (from START BOT) seats a {@link MonteCarloBot} opposite the connection. When it is the
+ * bot's turn the actor hands a copy of the position to the {@link BotScheduler} and carries on; the
+ * chosen move comes back through the mailbox, is applied if the game has not moved on meanwhile, and
+ * is pushed to the player like any other state change.
+ *
+ * Every session keeps a {@link BeliefTracker} per seat so HINT can search from what the asking seat
+ * has seen. The actor only copies the position and those beliefs; the rollouts run on the
+ * {@link BotScheduler} pool and the reply is completed there when the client's deadline is reached.
+ *
+ * Given a {@link SessionStore}, a session nobody has sent a command to for a while can hibernate: the
+ * round's seed and moves ({@link MoveLog}) go to a file, and the game, its players, the bot and the
+ * belief trackers are dropped, leaving only the connections and the last snapshot, which still answers
+ * STATE and CAPTURES. The next command through the mailbox reads the file and replays the round into
+ * a new game before it runs, so clients never see the difference except in that command's latency.
+ */
+final class GameSession {
+    /** Commands run per scheduling turn before yielding the executor thread to other sessions. */
+    private static final int BATCH = 64;
+    static final long DEFAULT_HINT_MILLIS = 250;
+    static final long MAX_HINT_MILLIS = 2000;
+    /** Failed bot searches in a row after which the bot plays its first legal move instead. */
+    static final int MAX_BOT_FAILURES = 3;
+
+    private final String id;
+    private final boolean shared;
+    private final boolean withBot;
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Broadcaster subscribers;
+    private final BotScheduler bots;
+    /** Where the session hibernates, or null to keep it in memory for its whole life. */
+    private final SessionStore store;
+
+    // Null while hibernated. Written only by the actor; read from any thread by snapshot().
+    private volatile ScopaGame game;
+    /** The state at hibernation, answering read-only queries until the game is rebuilt. */
+    private volatile GameSnapshot parked;
+    private volatile long lastActive = System.nanoTime();
+
+    // Confined to the actor: only touched from tasks running through the mailbox.
+    private final Connection[] seats = new Connection[2];
+    private MonteCarloBot bot;
+    private BeliefTracker[] beliefs;
+    /** Seed and moves of the round; null before the first deal and while hibernated. */
+    private MoveLog log;
+    private boolean closed;
+    private boolean botThinking;
+    private int botFailures;
+
+    /**
+     * A private or shared session between connections; {@code bots} evaluates their hints.
+     */
+    GameSession(String id, boolean shared, Executor executor, Executor fanout, BotScheduler bots,
+                SessionStore store) {
+        this.id = id;
+        this.shared = shared;
+        this.withBot = false;
+        this.executor = executor;
+        this.subscribers = new Broadcaster(fanout);
+        this.bots = bots;
+        this.store = store;
+        this.game = newGame();
+    }
+
+    /**
+     * A private session against a bot in seat 1 whose moves are searched on {@code bots}.
+     */
+    GameSession(String id, Executor executor, Executor fanout, BotScheduler bots, SessionStore store) {
+        this.id = id;
+        this.shared = false;
+        this.withBot = true;
+        this.executor = executor;
+        this.subscribers = new Broadcaster(fanout);
+        this.bots = bots;
+        this.store = store;
+        this.game = newGame();
+    }
+
+    /**
+     * A game with this session's players and listeners, not yet dealt. Also replaces the bot and
+     * belief trackers with ones listening to the new game.
+     */
+    private ScopaGame newGame() {
+        bot = withBot ? new MonteCarloBot("Bot", System.nanoTime()) : null;
+        ScopaGame g = ScopaGame.twoPlayer(new HumanPlayer("Player 1"), withBot ? bot : new HumanPlayer("Player 2"));
+        if (bot != null) {
+            g.addListener(bot);
+        }
+        beliefs = new BeliefTracker[2];
+        for (int seat = 0; seat < beliefs.length; seat++) {
+            beliefs[seat] = new BeliefTracker(seat, System.nanoTime() + seat);
+            g.addListener(beliefs[seat]);
+        }
+        return g;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    boolean hasBot() {
+        return withBot;
+    }
+
+    /**
+     * Latest published state of the game. Safe to call from any thread, hibernated or not.
+     */
+    GameSnapshot snapshot() {
+        // parked is written before game is cleared, so a null game always comes with a parked state.
+        ScopaGame g = game;
+        return g != null ? g.snapshot() : parked;
+    }
+
+    boolean isHibernated() {
+        return game == null;
+    }
+
+    /**
+     * Whether no command has reached the actor for {@code idleNanos} and the game is still in memory.
+     * Safe to call from any thread; {@link #hibernate} decides for certain.
+     */
+    boolean isIdle(long idleNanos) {
+        return game != null && System.nanoTime() - lastActive >= idleNanos;
+    }
+
+    /**
+     * Answer a read-only query from the latest snapshot, without going through the mailbox.
+     * @return the reply, or null if {@code action} is not a read-only query
+     */
+    String query(String action, String args) {
+        switch (action) {
+            case "STATE":
+                return GameJson.state(snapshot());
+            case "CAPTURES":
+                return captures(snapshot(), args);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Run {@code command} on the session's actor and complete the future with its result.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                result.complete(command.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void enqueue(Runnable task) {
+        mailbox.offer(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable task = mailbox.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Only internal tasks get here; submit() hands its own failures to the caller.
+                    System.err.println("Game " + id + ": task failed: " + e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            // A producer may have enqueued after our last poll but before the flag was cleared.
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    // -------------------------
+    // Actor-confined operations; call only through submit()
+    // -------------------------
+
+    /**
+     * Deal a new round and seat {@code owner}. Private sessions give the owner both seats.
+     */
+    String open(Connection owner) {
+        wake();
+        seats[0] = owner;
+        if (shared || withBot) {
+            subscribers.subscribe(owner);
+        } else {
+            seats[1] = owner;
+        }
+        log = new MoveLog(ThreadLocalRandom.current().nextLong());
+        game.startNewRound(log.seed());
+        scheduleBot();
+        return shared ? joinedJson(0) : GameJson.state(game);
+    }
+
+    String join(Connection who) {
+        if (closed) {
+            return GameJson.error("Game " + id + " has ended");
+        }
+        if (seats[1] != null) {
+            return GameJson.error("Game " + id + " is full");
+        }
+        wake();
+        seats[1] = who;
+        broadcast(who, GameJson.event("joined", "{\"seat\":1}"));
+        subscribers.subscribe(who);
+        return joinedJson(1);
+    }
+
+    String watch(Connection who) {
+        if (closed) {
+            return GameJson.error("Game " + id + " has ended");
+        }
+        subscribers.subscribe(who);
+        return GameJson.state(snapshot());
+    }
+
+    /**
+     * Detach a connection.
+     * @return true if no seated player is left and the session can be discarded
+     */
+    boolean leave(Connection who) {
+        subscribers.unsubscribe(who);
+        for (int seat = 0; seat < seats.length; seat++) {
+            if (seats[seat] == who) {
+                seats[seat] = null;
+                broadcast(who, GameJson.event("left", "{\"seat\":" + seat + "}"));
+            }
+        }
+        closed = seats[0] == null && seats[1] == null;
+        return closed;
+    }
+
+    /**
+     * Apply a game command from {@code from} and return the reply for that connection. State replies
+     * are returned unencoded so the caller's thread does the JSON work.
+     */
+    Reply handle(Connection from, String action, String args) {
+        String answer = query(action, args);
+        if (answer != null) {
+            return Reply.json(answer);
+        }
+        wake();
+        switch (action) {
+            case "PLAY":
+                return play(from, args);
+            case "FINALIZE":
+                return finalizeRound(from);
+            case "SCORE":
+                return Reply.json(GameJson.score(game.calculateScore()));
+            default:
+                return Reply.json(GameJson.error("Unknown command: " + action));
+        }
+    }
+
+    /**
+     * Start evaluating the moves of the asking player's hand card, or of every card for {@code *},
+     * within the requested deadline. Only the player to move may ask, and the search sees only what
+     * that seat has seen.
+     * @return the reply, completed on the search pool
+     */
+    CompletableFuture<String> hint(Connection from, String args) {
+        if (args == null) {
+            return CompletableFuture.completedFuture(
+                GameJson.error("HINT requires parameters: handIndex|* [deadlineMillis]"));
+        }
+        wake();
+        if (game.isRoundOver()) {
+            return CompletableFuture.completedFuture(GameJson.error("Round is over"));
+        }
+        int seat = currentSeat();
+        if (seats[seat] != from) {
+            return CompletableFuture.completedFuture(GameJson.error("Not your turn"));
+        }
+        GameSnapshot state = game.snapshot();
+        int handIndex;
+        long millis;
+        try {
+            String[] parts = args.trim().split(" ");
+            handIndex = parts[0].equals("*") ? -1 : Integer.parseInt(parts[0]);
+            millis = parts.length > 1 ? Long.parseLong(parts[1]) : DEFAULT_HINT_MILLIS;
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(GameJson.error("Invalid parameters"));
+        }
+        if (handIndex < -1 || handIndex >= state.getHand(seat).size()) {
+            return CompletableFuture.completedFuture(GameJson.error("Invalid hand index"));
+        }
+        if (millis <= 0 || millis > MAX_HINT_MILLIS) {
+            return CompletableFuture.completedFuture(
+                GameJson.error("Deadline must be between 1 and " + MAX_HINT_MILLIS + " ms"));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        CompletableFuture<MonteCarloSearch.Result> search = bots.evaluate(SimState.of(game), beliefs[seat], handIndex, deadline);
+        if (search == null) {
+            return CompletableFuture.completedFuture(GameJson.error("Too many hints in progress; try again shortly"));
+        }
+        return search.thenApply(result -> GameJson.hint(state, result));
+    }
+
+    private static String captures(GameSnapshot state, String args) {
+        if (args == null) {
+            return GameJson.error("CAPTURES requires parameter: handIndex");
+        }
+        try {
+            int handIndex = Integer.parseInt(args.trim());
+            List<Card> hand = state.getHand(state.getCurrentPlayer());
+            if (handIndex < 0 || handIndex >= hand.size()) {
+                return GameJson.error("Invalid hand index");
+            }
+            return GameJson.captures(CaptureCache.shared().possibleCaptures(hand.get(handIndex), state.getTable()));
+        } catch (NumberFormatException e) {
+            return GameJson.error("Invalid hand index");
+        }
+    }
+
+    private Reply play(Connection from, String args) {
+        if (args == null) {
+            return Reply.json(GameJson.error("PLAY requires parameters: handIndex captureIndex"));
+        }
+        if (seats[currentSeat()] != from) {
+            return Reply.json(GameJson.error("Not your turn"));
+        }
+        try {
+            String[] parts = args.trim().split(" ");
+            int handIndex = Integer.parseInt(parts[0]);
+            int captureIndex = parts.length > 1 ? Integer.parseInt(parts[1]) : -1;
+            if (!game.playCard(handIndex, captureIndex)) {
+                return Reply.json(GameJson.error("Invalid play"));
+            }
+            log.played(handIndex, captureIndex);
+        } catch (NumberFormatException e) {
+            return Reply.json(GameJson.error("Invalid parameters"));
+        }
+        return changed(from);
+    }
+
+    private Reply finalizeRound(Connection from) {
+        if (seats[0] != from && seats[1] != from) {
+            return Reply.json(GameJson.error("Only seated players can finalize"));
+        }
+        if (!game.isRoundOver()) {
+            return Reply.json(GameJson.error("Round not over yet"));
+        }
+        game.finalizeRound();
+        log.finalized();
+        return changed(from);
+    }
+
+    /**
+     * Publish the new state to everyone but {@code from} and hand it back as {@code from}'s reply.
+     */
+    private Reply changed(Connection from) {
+        GameSnapshot state = game.snapshot();
+        if (shared || withBot) {
+            subscribers.publish(state, from);
+        }
+        scheduleBot();
+        return Reply.state(state);
+    }
+
+    /**
+     * If the bot is to move, start its search; the move is applied later by {@link #botMoved}.
+     */
+    private void scheduleBot() {
+        if (bot == null || botThinking || closed || game.isRoundOver() || currentSeat() != 1) {
+            return;
+        }
+        botThinking = true;
+        long version = game.snapshot().getVersion();
+        bots.think(SimState.of(game), bot.getBelief().copy())
+            .whenComplete((move, error) -> enqueue(() -> botMoved(version, move, error)));
+    }
+
+    /**
+     * Apply the bot's searched move. A stale search thinks again from the current position; a failed
+     * one is retried up to {@link #MAX_BOT_FAILURES} times in a row, after which the bot plays its first
+     * legal move so the game goes on.
+     */
+    private void botMoved(long version, Integer move, Throwable error) {
+        botThinking = false;
+        if (closed) {
+            return;
+        }
+        if (game.snapshot().getVersion() != version) {
+            scheduleBot();
+            return;
+        }
+        if (error != null || !game.playMove(move)) {
+            if (++botFailures < MAX_BOT_FAILURES) {
+                scheduleBot();
+                return;
+            }
+            System.err.println("Game " + id + ": bot search failed " + botFailures
+                + " times, playing its first legal move: " + (error != null ? error : "illegal " + Move.toString(move)));
+            int[] first = new int[1];
+            game.legalMoves(first);
+            move = first[0];
+            game.playMove(move);
+        }
+        botFailures = 0;
+        log.played(Move.handIndex(move), Move.captureIndex(move));
+        changed(null);
+    }
+
+    /**
+     * Note activity and, if hibernated, rebuild the game by replaying its log from the store.
+     * @throws UncheckedIOException if the stored log cannot be read; the session stays hibernated
+     */
+    void wake() {
+        lastActive = System.nanoTime();
+        if (game != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        MoveLog restored;
+        try {
+            restored = store.load(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore game " + id, e);
+        }
+        ScopaGame g = newGame();
+        restored.replay(g);
+        log = restored;
+        game = g;
+        store.restored(id, System.nanoTime() - start);
+        scheduleBot();
+    }
+
+    /**
+     * Write the round to the store and drop the game, if the session has been idle for
+     * {@code idleNanos}, has been dealt, and has nothing in flight: no queued command and no bot search.
+     * @return true if the session is now hibernated
+     */
+    boolean hibernate(long idleNanos) {
+        if (store == null || game == null || log == null || closed || botThinking || !mailbox.isEmpty()
+                || System.nanoTime() - lastActive < idleNanos) {
+            return false;
+        }
+        GameSnapshot last = game.snapshot();
+        try {
+            store.save(id, log, last.getVersion());
+        } catch (IOException e) {
+            System.err.println("Could not hibernate game " + id + ": " + e.getMessage());
+            return false;
+        }
+        parked = last;
+        game = null;
+        bot = null;
+        beliefs = null;
+        log = null;
+        return true;
+    }
+
+    private int currentSeat() {
+        return game.getCurrentPlayer() == game.getPlayer1() ? 0 : 1;
+    }
+
+    private String joinedJson(int seat) {
+        String state = GameJson.state(snapshot());
+        return "{\"status\":\"ok\",\"gameId\":\"" + GameJson.escape(id) + "\",\"seat\":" + seat
+            + ",\"state\":" + state + "}";
+    }
+
+    /**
+     * Send a seat event to the other seated player. Never blocks. Events go through the reply path
+     * rather than {@link Connection#push}, where a backlogged client would have them coalesced away.
+     */
+    private void broadcast(Connection origin, String frame) {
+        for (Connection seat : seats) {
+            if (seat != null && seat != origin) {
+                seat.send(frame);
+            }
+        }
+    }
+
+    Broadcaster subscribers() {
+        return subscribers;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.scopa.server;
+
+import com.example.scopa.game.GameSnapshot;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP/JSON front end to the same {@link SessionRegistry} as the line protocol, for clients that cannot
+ * speak it (browsers, mobile apps). It runs on the JDK's {@link HttpServer}, which keeps HTTP/1.1
+ * connections alive between requests. Requests are handled on a fixed pool of threads that wait for
+ * the session's actor the same way a {@code GameHandler} does, so the pool should be a few times larger
+ * than the core count.
+ *
+ * Routes; every body is the same JSON the line protocol replies with:
+ * <pre>
+ *   POST   /games[?bot=true]                    START (START BOT): 201, {"gameId":..., "state":...}
+ *   GET    /games/{id}                          STATE, with an ETag
+ *   GET    /games/{id}/captures?hand=i          CAPTURES i
+ *   POST   /games/{id}/play?hand=i[&amp;capture=j]  PLAY i j
+ *   POST   /games/{id}/finalize                 FINALIZE
+ *   GET    /games/{id}/score                    SCORE
+ *   DELETE /games/{id}                          leave the game and discard it
+ * </pre>
+ * Error replies are 400, unknown games 404 and unsupported methods 405.
+ *
+ * HTTP requests share no connection that could own a private game, so each game gets a random id when
+ * it is created, and a {@linkplain Connection#detached detached} connection holds both of its seats.
+ *
+ * STATE's ETag is the snapshot version. When If-None-Match names the current version the reply is a
+ * bodiless 304, decided from the version alone: the snapshot is not serialized and the actor never sees
+ * the request, so polling an unchanged game costs almost nothing.
+ *
+ * HTTP clients can walk away without a DELETE, so a sweeper discards games that get no requests for
+ * the abandon window, and forgets games whose session has left the registry some other way.
+ *
+ * The JDK server writes headers and body separately, so with Nagle's algorithm on every reply waits
+ * for the client's delayed ACK, about 40 ms. Launch with {@code -Dsun.net.httpserver.nodelay=true}
+ * ({@link GameServer} sets it when the flag is absent); the JDK reads it once, when the first server
+ * is created.
+ */
+final class HttpGateway {
+    private static final String GAMES = "/games";
+    static final long DEFAULT_ABANDON_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final SessionRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ConcurrentMap<String, Game> games = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder notModified = new LongAdder();
+    private final ScheduledExecutorService sweeper;
+
+    HttpGateway(SessionRegistry registry, InetSocketAddress address, int threads) throws IOException {
+        this(registry, address, threads, DEFAULT_ABANDON_MILLIS);
+    }
+
+    /**
+     * @param abandonMillis how long a game may go without requests before it is discarded
+     */
+    HttpGateway(SessionRegistry registry, InetSocketAddress address, int threads, long abandonMillis)
+            throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(address, 1024);
+        AtomicInteger n = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(handlers);
+        server.createContext(GAMES, this::handle);
+        long abandonNanos = TimeUnit.MILLISECONDS.toNanos(abandonMillis);
+        long period = Math.max(1, abandonMillis / 4);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(() -> sweep(abandonNanos), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Games reachable over HTTP. */
+    int size() {
+        return games.size();
+    }
+
+    /** STATE requests answered 304 Not Modified. */
+    long notModifiedReplies() {
+        return notModified.sum();
+    }
+
+    /**
+     * Close the listener and all connections and stop the handler pool; replies still being written
+     * are cut off. Games stay in the registry.
+     */
+    void stop() {
+        // JDK 17's stop(n) always sleeps the whole n seconds, so there is no graceful variant to use.
+        server.stop(0);
+        handlers.shutdown();
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Forget games whose session has been removed from the registry, and discard those idle for
+     * {@code abandonNanos} as a DELETE would.
+     */
+    private void sweep(long abandonNanos) {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Game> e : games.entrySet()) {
+            Game game = e.getValue();
+            if (registry.get(game.session.getId()) != game.session) {
+                games.remove(e.getKey(), game);
+            } else if (now - game.lastUsed >= abandonNanos) {
+                discard(e.getKey(), game);
+            }
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            try {
+                route(ex);
+            } catch (CompletionException e) {
+                send(ex, 500, GameJson.error(e.getCause().getMessage()));
+            } catch (RuntimeException e) {
+                send(ex, 500, GameJson.error(String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    private void route(HttpExchange ex) throws IOException {
+        String method = ex.getRequestMethod();
+        String rest = ex.getRequestURI().getPath().substring(GAMES.length());
+        Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+        // "/games" splits to [""], "/games/{id}" to ["", id], "/games/{id}/{op}" to ["", id, op]
+        String[] path = rest.split("/");
+        if (!rest.isEmpty() && !rest.startsWith("/") || path.length > 3) {
+            send(ex, 404, GameJson.error("Not found: " + ex.getRequestURI().getPath()));
+            return;
+        }
+        if (path.length <= 1) {
+            if (!method.equals("POST")) {
+                notAllowed(ex, "POST");
+                return;
+            }
+            create(ex, "true".equalsIgnoreCase(query.get("bot")));
+            return;
+        }
+        Game game = games.get(path[1]);
+        if (game == null) {
+            send(ex, 404, GameJson.error("No such game: " + path[1]));
+            return;
+        }
+        game.lastUsed = System.nanoTime();
+        String op = path.length == 3 ? path[2] : "";
+        switch (op) {
+            case "":
+                if (method.equals("GET")) {
+                    state(ex, game);
+                } else if (method.equals("DELETE")) {
+                    delete(ex, path[1], game);
+                } else {
+                    notAllowed(ex, "GET, DELETE");
+                }
+                break;
+            case "captures":
+                command(ex, game, "GET", "CAPTURES", query.get("hand"));
+                break;
+            case "play":
+                String hand = query.get("hand");
+                String capture = query.get("capture");
+                command(ex, game, "POST", "PLAY", hand == null ? null : capture == null ? hand : hand + " " + capture);
+                break;
+            case "finalize":
+                command(ex, game, "POST", "FINALIZE", null);
+                break;
+            case "score":
+                command(ex, game, "GET", "SCORE", null);
+                break;
+            default:
+                send(ex, 404, GameJson.error("Unknown command: " + op));
+        }
+    }
+
+    private void create(HttpExchange ex, boolean bot) throws IOException {
+        String id = newId();
+        GameSession s = bot ? registry.createBotGame() : registry.create(false);
+        Connection seat = Connection.detached("http-" + id);
+        String state = s.submit(() -> s.open(seat)).join();
+        games.put(id, new Game(s, seat));
+        ex.getResponseHeaders().set("Location", GAMES + "/" + id);
+        send(ex, 201, "{\"status\":\"ok\",\"gameId\":\"" + id + "\",\"state\":" + state + "}");
+    }
+
+    private void state(HttpExchange ex, Game game) throws IOException {
+        GameSnapshot snapshot = game.session.snapshot();
+        String tag = "\"" + snapshot.getVersion() + "\"";
+        ex.getResponseHeaders().set("ETag", tag);
+        if (matches(ex.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+            notModified.increment();
+            // A bodiless reply ends the exchange right here, and the JDK server drops the connection
+            // unless the request body has been read to the end by then.
+            ex.getRequestBody().close();
+            ex.sendResponseHeaders(304, -1);
+            return;
+        }
+        send(ex, 200, GameJson.state(snapshot));
+    }
+
+    /**
+     * Run a line-protocol command for {@code game}'s seat, as {@code GameHandler} does.
+     */
+    private void command(HttpExchange ex, Game game, String method, String action, String args) throws IOException {
+        if (!ex.getRequestMethod().equals(method)) {
+            notAllowed(ex, method);
+            return;
+        }
+        GameSession s = game.session;
+        String reply = s.query(action, args);
+        if (reply == null) {
+            reply = s.submit(() -> s.handle(game.seat, action, args)).join().encode();
+        }
+        send(ex, reply.startsWith("{\"status\":\"error\"") ? 400 : 200, reply);
+    }
+
+    private void delete(HttpExchange ex, String id, Game game) throws IOException {
+        discard(id, game).join();
+        send(ex, 200, "{\"status\":\"bye\"}");
+    }
+
+    /**
+     * Drop {@code game}, leave its seats and, once nobody is seated, remove its session from the registry.
+     * @return completes when the session has been left; at once if another caller got there first
+     */
+    private CompletableFuture<Void> discard(String id, Game game) {
+        if (!games.remove(id, game)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GameSession s = game.session;
+        return s.submit(() -> s.leave(game.seat)).thenAccept(empty -> {
+            if (empty) {
+                registry.remove(s);
+            }
+        });
+    }
+
+    /** 24 random hex digits, so one client cannot guess another's game. */
+    private String newId() {
+        byte[] bytes = new byte[12];
+        random.nextBytes(bytes);
+        StringBuilder id = new StringBuilder(24);
+        for (byte b : bytes) {
+            id.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return id.toString();
+    }
+
+    /**
+     * Whether an If-None-Match header names {@code tag}; weak tags compare equal to strong ones.
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(tag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            } else if (!pair.isEmpty()) {
+                params.put(decode(pair), "");
+            }
+        }
+        return params;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    private static void notAllowed(HttpExchange ex, String allowed) throws IOException {
+        ex.getResponseHeaders().set("Allow", allowed);
+        send(ex, 405, GameJson.error("Method not allowed; use " + allowed));
+    }
+
+    /**
+     * Reply with a fixed-length body, which lets the connection be reused for the next request.
+     */
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final class Game {
+        final GameSession session;
+        final Connection seat;
+        volatile long lastUsed = System.nanoTime();
+
+        Game(GameSession session, Connection seat) {
+            this.session = session;
+            this.seat = seat;
+        }
+    }
+}
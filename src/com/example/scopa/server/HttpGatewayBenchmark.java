@@ -0,0 +1,252 @@
+package com.example.scopa.server;
+
+import com.example.scopa.bench.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of the HTTP gateway against the line protocol, both served in this process from one
+ * {@link SessionRegistry} over loopback. Each phase runs N client threads for a fixed time:
+ *
+ * - games: START, PLAY until the round is over, FINALIZE, SCORE, back to back. TCP clients keep one
+ *   socket; HTTP clients use {@link HttpURLConnection}, which reuses kept-alive connections.
+ * - polls: STATE on one game per client that never changes. TCP, HTTP without a validator (200 with
+ *   the full state) and HTTP with If-None-Match (304 without a body).
+ *
+ * Usage: {@code HttpGatewayBenchmark [clients] [secondsPerPhase]}
+ */
+public class HttpGatewayBenchmark {
+    private final int clients;
+    private final long phaseNanos;
+    private final int tcpPort;
+    private final int httpPort;
+
+    HttpGatewayBenchmark(int clients, long phaseNanos, int tcpPort, int httpPort) {
+        this.clients = clients;
+        this.phaseNanos = phaseNanos;
+        this.tcpPort = tcpPort;
+        this.httpPort = httpPort;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        // Keep one idle connection per client thread instead of the default five.
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(5, clients)));
+        // As GameServer does; see HttpGateway.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        SessionRegistry registry = new SessionRegistry(cpus);
+        ServerSocket tcp = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (true) {
+                try {
+                    new Thread(new GameServer.GameHandler(tcp.accept(), registry)).start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }, "tcp-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        HttpGateway http = new HttpGateway(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4 * cpus);
+        http.start();
+
+        // GameHandler logs every line it receives; keep that out of the numbers and the output.
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        HttpGatewayBenchmark bench = new HttpGatewayBenchmark(clients, TimeUnit.SECONDS.toNanos(seconds),
+            tcp.getLocalPort(), http.port());
+        console.printf("%d clients, %ds per phase, %d cpus%n", clients, seconds, cpus);
+        for (String phase : new String[] {"tcp games", "http games", "tcp polls", "http polls 200", "http polls 304"}) {
+            bench.run(phase, console);
+        }
+        console.printf("%d of the HTTP polls answered 304%n", http.notModifiedReplies());
+        http.stop();
+        tcp.close();
+        registry.shutdown();
+    }
+
+    void run(String phase, PrintStream console) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder games = new LongAdder();
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long deadline = start + phaseNanos;
+        for (int i = 0; i < clients; i++) {
+            Thread t = new Thread(() -> {
+                try (Client client = phase.startsWith("tcp") ? new TcpClient() : new WebClient()) {
+                    if (phase.endsWith("games")) {
+                        while (System.nanoTime() < deadline) {
+                            client.playGame(latency);
+                            games.increment();
+                        }
+                    } else {
+                        client.start(latency);
+                        boolean revalidate = phase.endsWith("304");
+                        while (System.nanoTime() < deadline) {
+                            client.poll(latency, revalidate);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    errors.increment();
+                } finally {
+                    done.countDown();
+                }
+            }, "client-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        console.printf("%-15s %8.0f requests/s %s%s%n", phase, latency.count() / seconds,
+            phase.endsWith("games") ? String.format("(%.1f games/s) ", games.sum() / seconds) : "",
+            errors.sum() > 0 ? errors.sum() + " errors" : "");
+        console.printf("                %s%n", latency);
+    }
+
+    /**
+     * One client playing through either protocol. Each call records its round trip.
+     */
+    private abstract static class Client implements AutoCloseable {
+        /** Open a game and return its state. */
+        abstract String start(LatencyHistogram latency) throws IOException;
+
+        abstract String play(LatencyHistogram latency) throws IOException;
+
+        abstract void finish(LatencyHistogram latency) throws IOException;
+
+        abstract void poll(LatencyHistogram latency, boolean revalidate) throws IOException;
+
+        void playGame(LatencyHistogram latency) throws IOException {
+            String state = start(latency);
+            while (!state.contains("\"roundOver\":true")) {
+                state = play(latency);
+                if (!state.startsWith("{\"status\":\"ok\"")) {
+                    throw new IOException("PLAY failed: " + state);
+                }
+            }
+            finish(latency);
+        }
+
+        @Override
+        public void close() throws IOException {}
+    }
+
+    private final class TcpClient extends Client {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        TcpClient() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), tcpPort));
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        private String call(String line, LatencyHistogram latency) throws IOException {
+            long t = System.nanoTime();
+            out.println(line);
+            String reply = in.readLine();
+            latency.recordNanos(System.nanoTime() - t);
+            if (reply == null) {
+                throw new IOException("Server closed the connection");
+            }
+            return reply;
+        }
+
+        @Override
+        String start(LatencyHistogram latency) throws IOException {
+            return call("START", latency);
+        }
+
+        @Override
+        String play(LatencyHistogram latency) throws IOException {
+            return call("PLAY 0 0", latency);
+        }
+
+        @Override
+        void finish(LatencyHistogram latency) throws IOException {
+            call("FINALIZE", latency);
+            call("SCORE", latency);
+        }
+
+        @Override
+        void poll(LatencyHistogram latency, boolean revalidate) throws IOException {
+            call("STATE", latency);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private final class WebClient extends Client {
+        private String game;
+        private String etag;
+
+        private String call(String method, String path, String ifNoneMatch, LatencyHistogram latency) throws IOException {
+            long t = System.nanoTime();
+            HttpURLConnection c = (HttpURLConnection) new URL("http", "127.0.0.1", httpPort, path).openConnection();
+            c.setRequestMethod(method);
+            if (ifNoneMatch != null) {
+                c.setRequestProperty("If-None-Match", ifNoneMatch);
+            }
+            int status = c.getResponseCode();
+            String body;
+            // Read to the end, even an empty 304, so the connection goes back to the keep-alive cache.
+            try (InputStream in = status < 400 ? c.getInputStream() : c.getErrorStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            etag = c.getHeaderField("ETag");
+            latency.recordNanos(System.nanoTime() - t);
+            return body;
+        }
+
+        @Override
+        String start(LatencyHistogram latency) throws IOException {
+            String reply = call("POST", "/games", null, latency);
+            int at = reply.indexOf("\"gameId\":\"") + 10;
+            game = "/games/" + reply.substring(at, reply.indexOf('"', at));
+            return reply;
+        }
+
+        @Override
+        String play(LatencyHistogram latency) throws IOException {
+            return call("POST", game + "/play?hand=0&capture=0", null, latency);
+        }
+
+        @Override
+        void finish(LatencyHistogram latency) throws IOException {
+            call("POST", game + "/finalize", null, latency);
+            call("GET", game + "/score", null, latency);
+            call("DELETE", game, null, latency);
+        }
+
+        @Override
+        void poll(LatencyHistogram latency, boolean revalidate) throws IOException {
+            call("GET", game, revalidate ? etag : null, latency);
+        }
+    }
+}
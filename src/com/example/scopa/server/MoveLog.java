@@ -0,0 +1,110 @@
+package com.example.scopa.server;
+
+import com.example.scopa.game.ScopaGame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Everything needed to rebuild a session's round: the seed it was dealt from and every accepted move
+ * since, in order. Replaying them into a fresh {@link ScopaGame} with the same kind of players gives
+ * the same position, snapshot version included, so a hibernated session keeps only this.
+ *
+ * Stored form ({@link #write}): a format byte, the seed, the snapshot version the replay must reach,
+ * whether the round was finalized, the move count, then per move one byte of hand index and two of
+ * capture index plus one. A whole round is under 130 bytes.
+ */
+final class MoveLog {
+    private static final int FORMAT = 1;
+
+    private final long seed;
+    /** Hand index in the high 16 bits, capture index plus one (0 for a drop) in the low 16. */
+    private int[] moves = new int[40];
+    private int count;
+    private boolean finalized;
+    /** Version the replay must reach; only known for a log read back from storage. */
+    private long version = -1;
+
+    MoveLog(long seed) {
+        this.seed = seed;
+    }
+
+    long seed() {
+        return seed;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Record a move the game accepted. A capture index past every possible option is stored as a
+     * drop, which is how {@link ScopaGame#playCard} plays it.
+     */
+    void played(int handIndex, int captureIndex) {
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, count * 2);
+        }
+        int capture = captureIndex < 0 || captureIndex >= 0xFFFF ? 0 : captureIndex + 1;
+        moves[count++] = handIndex << 16 | capture;
+    }
+
+    void finalized() {
+        finalized = true;
+    }
+
+    /**
+     * Deal {@code game} from the seed and play the logged moves.
+     * @throws IllegalStateException if a move is rejected or the replay does not end at the stored
+     *                               version, i.e. the game is not the one this log was written for
+     */
+    void replay(ScopaGame game) {
+        game.startNewRound(seed);
+        for (int i = 0; i < count; i++) {
+            if (!game.playCard(moves[i] >>> 16, (moves[i] & 0xFFFF) - 1)) {
+                throw new IllegalStateException("Move " + i + " of the log was rejected");
+            }
+        }
+        if (finalized) {
+            game.finalizeRound();
+        }
+        if (version >= 0 && game.snapshot().getVersion() != version) {
+            throw new IllegalStateException("Replay reached version " + game.snapshot().getVersion()
+                + ", expected " + version);
+        }
+    }
+
+    /**
+     * @param version the game's snapshot version, checked when the log is replayed
+     */
+    void write(DataOutput out, long version) throws IOException {
+        out.writeByte(FORMAT);
+        out.writeLong(seed);
+        out.writeLong(version);
+        out.writeBoolean(finalized);
+        out.writeShort(count);
+        for (int i = 0; i < count; i++) {
+            out.writeByte(moves[i] >>> 16);
+            out.writeShort(moves[i] & 0xFFFF);
+        }
+    }
+
+    static MoveLog read(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format != FORMAT) {
+            throw new IOException("Unknown move log format: " + format);
+        }
+        MoveLog log = new MoveLog(in.readLong());
+        log.version = in.readLong();
+        log.finalized = in.readBoolean();
+        int count = in.readUnsignedShort();
+        log.moves = new int[Math.max(count, 40)];
+        for (int i = 0; i < count; i++) {
+            log.moves[i] = in.readUnsignedByte() << 16 | in.readUnsignedShort();
+        }
+        log.count = count;
+        return log;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.scopa.server;
+
+import com.example.scopa.game.GameSnapshot;
+
+/**
+ * Result of a game command. State replies carry the snapshot rather than its JSON so that encoding
+ * happens on the connection's thread instead of the game's actor.
+ */
+final class Reply {
+    private final String json;
+    private final GameSnapshot state;
+
+    private Reply(String json, GameSnapshot state) {
+        this.json = json;
+        this.state = state;
+    }
+
+    static Reply json(String json) {
+        return new Reply(json, null);
+    }
+
+    static Reply state(GameSnapshot state) {
+        return new Reply(null, state);
+    }
+
+    String encode() {
+        return json != null ? json : GameJson.state(state);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.scopa.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live game sessions by id, plus the executors their mailboxes and spectator fan-out run on. Both are
+ * sized to the machine and shared by all sessions; socket reads and writes happen on separate
+ * connection threads. Bot thinking and hints run on a {@link BotScheduler} of its own, limited to half
+ * the cores so searches cannot starve command handling.
+ *
+ * Given a {@link SessionStore}, a sweeper checks sessions at a quarter of the idle window and asks
+ * those idle for the whole window to hibernate (see {@link GameSession#hibernate}), so heap use follows
+ * the games being played rather than the games open.
+ */
+final class SessionRegistry {
+    private final ConcurrentMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ExecutorService actors;
+    private final ExecutorService fanout;
+    private final BotScheduler bots;
+    private final SessionStore store;
+    private final ScheduledExecutorService sweeper;
+
+    SessionRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    SessionRegistry(int actorThreads) {
+        this(actorThreads, new BotScheduler(Math.max(1, actorThreads / 2)));
+    }
+
+    SessionRegistry(int actorThreads, BotScheduler bots) {
+        this(actorThreads, bots, null, 0);
+    }
+
+    /**
+     * @param store     where idle sessions hibernate, or null to keep every session in memory
+     * @param idleMillis how long a session must go without commands before it hibernates
+     */
+    SessionRegistry(int actorThreads, BotScheduler bots, SessionStore store, long idleMillis) {
+        this.actors = Executors.newFixedThreadPool(actorThreads, daemonThreads("game-actor-"));
+        this.fanout = Executors.newFixedThreadPool(actorThreads, daemonThreads("game-fanout-"));
+        this.bots = bots;
+        this.store = store;
+        if (store == null) {
+            this.sweeper = null;
+        } else {
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+            long period = Math.max(1, idleMillis / 4);
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(daemonThreads("session-sweeper-"));
+            sweeper.scheduleWithFixedDelay(() -> sweep(idleNanos), period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Create and register a new session. Shared sessions get a short id other clients can JOIN or WATCH.
+     */
+    GameSession create(boolean shared) {
+        String id = Long.toString(ids.incrementAndGet(), 36);
+        GameSession session = new GameSession(id, shared, actors, fanout, bots, store);
+        sessions.put(id, session);
+        return session;
+    }
+
+    /**
+     * Create and register a private session against a server-side bot.
+     */
+    GameSession createBotGame() {
+        String id = Long.toString(ids.incrementAndGet(), 36);
+        GameSession session = new GameSession(id, actors, fanout, bots, store);
+        sessions.put(id, session);
+        return session;
+    }
+
+    BotScheduler bots() {
+        return bots;
+    }
+
+    /** The hibernation store, or null if sessions never hibernate. */
+    SessionStore store() {
+        return store;
+    }
+
+    /**
+     * Ask every session idle for {@code idleNanos} to hibernate. The decision is the actor's, so a
+     * command that arrives in the meantime keeps the session awake.
+     */
+    private void sweep(long idleNanos) {
+        for (GameSession s : sessions.values()) {
+            if (s.isIdle(idleNanos)) {
+                s.submit(() -> s.hibernate(idleNanos));
+            }
+        }
+    }
+
+    GameSession get(String id) {
+        return sessions.get(id);
+    }
+
+    void remove(GameSession session) {
+        if (sessions.remove(session.getId(), session) && store != null) {
+            store.delete(session.getId());
+        }
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    /** Sessions whose game is in memory. */
+    int awake() {
+        int n = 0;
+        for (GameSession s : sessions.values()) {
+            if (!s.isHibernated()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        actors.shutdown();
+        fanout.shutdown();
+        bots.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.scopa.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Directory of hibernated sessions: one file per session id holding its {@link MoveLog}, present only
+ * while the session sleeps. Also counts hibernations and restores and how long restores took, from
+ * reading the file to the replayed game.
+ *
+ * Files left by an earlier server run are deleted on open; their sessions ended with that run.
+ */
+final class SessionStore {
+    private static final String SUFFIX = ".session";
+
+    private final Path dir;
+    private final LongAdder hibernated = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder restoreNanos = new LongAdder();
+    private final AtomicLong maxRestoreNanos = new AtomicLong();
+
+    SessionStore(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : stale) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Write {@code log} for session {@code id}, replacing any earlier file in one step.
+     */
+    void save(String id, MoveLog log, long version) throws IOException {
+        Path tmp = dir.resolve(id + SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 256))) {
+            log.write(out, version);
+        }
+        Files.move(tmp, file(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        hibernated.increment();
+    }
+
+    MoveLog load(String id) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(id)), 256))) {
+            return MoveLog.read(in);
+        }
+    }
+
+    /**
+     * Session {@code id} is awake again after {@code nanos}; its file is no longer needed.
+     */
+    void restored(String id, long nanos) {
+        restored.increment();
+        restoreNanos.add(nanos);
+        maxRestoreNanos.accumulateAndGet(nanos, Math::max);
+        delete(id);
+    }
+
+    void delete(String id) {
+        try {
+            Files.deleteIfExists(file(id));
+        } catch (IOException e) {
+            System.err.println("Could not delete hibernated session " + id + ": " + e.getMessage());
+        }
+    }
+
+    boolean contains(String id) {
+        return Files.exists(file(id));
+    }
+
+    private Path file(String id) {
+        return dir.resolve(id + SUFFIX);
+    }
+
+    long hibernations() {
+        return hibernated.sum();
+    }
+
+    long restores() {
+        return restored.sum();
+    }
+
+    double meanRestoreMicros() {
+        long n = restored.sum();
+        return n == 0 ? 0 : restoreNanos.sum() / 1000.0 / n;
+    }
+
+    long maxRestoreNanos() {
+        return maxRestoreNanos.get();
+    }
+}
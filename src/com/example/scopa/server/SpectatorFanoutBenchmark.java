@@ -0,0 +1,126 @@
+package com.example.scopa.server;
+
+import com.example.scopa.bench.LatencyHistogram;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One hot game watched by many spectators on a single node. Two seats play as fast as the actor allows
+ * while every state change is fanned out to N spectator connections, a fraction of which are slow.
+ * Reports PLAY latency as seen by the players, plus how many frames were published, superseded,
+ * offered, coalesced and delivered.
+ *
+ * Spectators write into in-memory sinks rather than sockets, so the numbers isolate the server-side
+ * encode and fan-out cost from the kernel's loopback path.
+ *
+ * Usage: {@code SpectatorFanoutBenchmark [spectators] [seconds] [slowPercent] [coalesce|disconnect]}
+ */
+public class SpectatorFanoutBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int spectatorCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int slowPercent = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        Connection.Overflow policy = args.length > 3 && args[3].equalsIgnoreCase("disconnect")
+            ? Connection.Overflow.DISCONNECT : Connection.Overflow.COALESCE;
+
+        SessionRegistry registry = new SessionRegistry();
+        GameSession session = registry.create(true);
+        Connection host = new Connection("host", new CountingSink(0));
+        Connection guest = new Connection("guest", new CountingSink(0));
+        session.submit(() -> session.open(host)).join();
+        session.submit(() -> session.join(guest)).join();
+
+        List<CountingSink> sinks = new ArrayList<>();
+        List<Connection> spectators = new ArrayList<>();
+        for (int i = 0; i < spectatorCount; i++) {
+            boolean slow = i * 100L / spectatorCount < slowPercent;
+            CountingSink sink = new CountingSink(slow ? 20 : 0);
+            Connection c = new Connection("spectator-" + i, sink, Connection.DEFAULT_MAX_PENDING, policy);
+            sinks.add(sink);
+            spectators.add(c);
+            session.submit(() -> session.watch(c)).join();
+        }
+        System.out.printf("%d spectators attached (%d%% slow, policy %s)%n", spectatorCount, slowPercent, policy);
+
+        LatencyHistogram playLatency = new LatencyHistogram();
+        Connection[] seats = {host, guest};
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long plays = 0;
+        int turn = 0;
+        while (System.nanoTime() < deadline) {
+            Connection mover = seats[turn];
+            long start = System.nanoTime();
+            String reply = session.submit(() -> session.handle(mover, "PLAY", "0 0")).join().encode();
+            playLatency.recordNanos(System.nanoTime() - start);
+            plays++;
+            turn = 1 - turn;
+            if (reply.contains("\"roundOver\":true")) {
+                session.submit(() -> session.handle(host, "FINALIZE", null)).join();
+                session.submit(() -> session.open(host)).join();
+                turn = 0;
+            }
+        }
+        // Let the fan-out catch up before counting deliveries.
+        Thread.sleep(500);
+
+        Broadcaster b = session.subscribers();
+        long delivered = 0;
+        long coalesced = 0;
+        int disconnected = 0;
+        for (int i = 0; i < spectatorCount; i++) {
+            delivered += sinks.get(i).lines.sum();
+            coalesced += spectators.get(i).coalescedFrames();
+            if (spectators.get(i).isClosed()) {
+                disconnected++;
+            }
+        }
+        System.out.printf("%d plays in %ds (%.0f plays/s)%n", plays, seconds, plays / (double) seconds);
+        System.out.println("PLAY latency: " + playLatency);
+        System.out.printf("Frames: published=%d superseded=%d offered=%d coalesced=%d delivered=%d (%.0f/s)%n",
+            b.publishedFrames(), b.supersededFrames(), b.offeredFrames(), coalesced, delivered,
+            delivered / (double) seconds);
+        System.out.printf("Disconnected spectators: %d%n", disconnected);
+        registry.shutdown();
+        System.exit(0);
+    }
+
+    /**
+     * Discards bytes, counting lines; optionally sleeps per write to mimic a slow client.
+     */
+    private static final class CountingSink extends OutputStream {
+        final LongAdder lines = new LongAdder();
+        private final long delayMillis;
+
+        CountingSink(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines.increment();
+            }
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (buf[i] == '\n') {
+                    lines.increment();
+                }
+            }
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.scopa.tournament;
+
+import com.example.scopa.player.Bot;
+
+/**
+ * Creates a fresh bot for one seat of one match. Matches run in parallel, so each gets its own bots.
+ */
+@FunctionalInterface
+public interface BotFactory {
+    /**
+     * @param name seat name for the new bot
+     * @param seed per-match seed for bots that use randomness
+     */
+    Bot create(String name, long seed);
+}
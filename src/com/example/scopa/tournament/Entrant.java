@@ -0,0 +1,29 @@
+package com.example.scopa.tournament;
+
+import java.util.Objects;
+
+/**
+ * A named strategy taking part in a tournament.
+ */
+public final class Entrant {
+    private final String name;
+    private final BotFactory factory;
+
+    public Entrant(String name, BotFactory factory) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.factory = Objects.requireNonNull(factory, "factory");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BotFactory getFactory() {
+        return factory;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.scopa.tournament;
+
+/**
+ * Outcome of one match between two entrants, identified by their index in the tournament.
+ */
+public final class MatchResult {
+    private final int first;
+    private final int second;
+    private final int firstPoints;
+    private final int secondPoints;
+    private final int rounds;
+
+    MatchResult(int first, int second, int firstPoints, int secondPoints, int rounds) {
+        this.first = first;
+        this.second = second;
+        this.firstPoints = firstPoints;
+        this.secondPoints = secondPoints;
+        this.rounds = rounds;
+    }
+
+    /** Entrant that led off the match (played first in round one). */
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public int getFirstPoints() {
+        return firstPoints;
+    }
+
+    public int getSecondPoints() {
+        return secondPoints;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * 1 if the first entrant won, 0 if it lost, 0.5 for a match abandoned level.
+     */
+    public double firstScore() {
+        return firstPoints > secondPoints ? 1.0 : firstPoints < secondPoints ? 0.0 : 0.5;
+    }
+
+    @Override
+    public String toString() {
+        return first + " vs " + second + ": " + firstPoints + "-" + secondPoints + " in " + rounds + " rounds";
+    }
+}
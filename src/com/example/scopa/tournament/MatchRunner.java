@@ -0,0 +1,68 @@
+package com.example.scopa.tournament;
+
+import com.example.scopa.game.GameListener;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.game.ScopaMatch;
+import com.example.scopa.player.Bot;
+
+/**
+ * Plays bot-vs-bot matches to a target score through {@link ScopaMatch}.
+ *
+ * The lead alternates between rounds, and each round's deal comes from the match seed, so playing
+ * the same seed with the bots swapped gives each bot the other's cards (a mirrored pair).
+ */
+final class MatchRunner {
+    /** Safety stop for matches that keep ending level; never reached in practice. */
+    static final int MAX_ROUNDS = 100;
+
+    private int[] moves = new int[64];
+
+    /**
+     * Play a match between {@code a} (leads round one) and {@code b}.
+     * @return points as {@code {a, b, rounds}}
+     */
+    int[] play(Bot a, Bot b, long seed, int target) {
+        ScopaMatch match = new ScopaMatch(a, b, target, seed);
+        for (Bot bot : new Bot[] {a, b}) {
+            if (bot instanceof GameListener) {
+                match.getGame().addListener((GameListener) bot);
+            }
+        }
+        while (!match.isOver() && match.getRoundsPlayed() < MAX_ROUNDS) {
+            match.startRound(roundSeed(seed, match.getRoundsPlayed()));
+            playOut(match.getGame());
+            match.finishRound();
+        }
+        return new int[] {match.getPlayer1Total(), match.getPlayer2Total(), match.getRoundsPlayed()};
+    }
+
+    /**
+     * Play the current round to its end; both players must be bots.
+     */
+    void playOut(ScopaGame game) {
+        while (!game.isRoundOver()) {
+            int n = game.legalMoves(moves);
+            if (n > moves.length) {
+                moves = new int[n];
+                game.legalMoves(moves);
+            }
+            Bot current = (Bot) game.getCurrentPlayer();
+            if (!game.playMove(current.chooseMove(game, moves, n))) {
+                throw new IllegalStateException(current.getName() + " chose an illegal move");
+            }
+        }
+    }
+
+    static long roundSeed(long matchSeed, int round) {
+        return mix(matchSeed + 0x9E3779B97F4A7C15L * (round + 1));
+    }
+
+    /**
+     * SplitMix64 finaliser, used to derive independent seeds.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
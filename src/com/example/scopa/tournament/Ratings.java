@@ -0,0 +1,97 @@
+package com.example.scopa.tournament;
+
+import java.util.Arrays;
+
+/**
+ * Elo and Glicko ratings for a fixed set of entrants, updated one match at a time.
+ *
+ * Each match is treated as its own Glicko rating period, so RD shrinks as evidence accumulates and
+ * {@link #interval(int)} gives a 95% confidence half-width. Elo is kept alongside for comparison with
+ * older reports. Not thread-safe; the tournament feeds results from a single sequencer.
+ */
+public final class Ratings {
+    public static final double INITIAL_RATING = 1500;
+    public static final double INITIAL_RD = 350;
+    private static final double ELO_K = 16;
+    private static final double Q = Math.log(10) / 400;
+
+    private final double[] elo;
+    private final double[] rating;
+    private final double[] rd;
+    private final int[] games;
+    private final double[] score;
+
+    public Ratings(int entrants) {
+        elo = new double[entrants];
+        rating = new double[entrants];
+        rd = new double[entrants];
+        games = new int[entrants];
+        score = new double[entrants];
+        Arrays.fill(elo, INITIAL_RATING);
+        Arrays.fill(rating, INITIAL_RATING);
+        Arrays.fill(rd, INITIAL_RD);
+    }
+
+    /**
+     * Record a match between {@code a} and {@code b}.
+     * @param aScore 1 if {@code a} won, 0 if it lost, 0.5 for a draw
+     */
+    public void record(int a, int b, double aScore) {
+        double expected = 1 / (1 + Math.pow(10, (elo[b] - elo[a]) / 400));
+        elo[a] += ELO_K * (aScore - expected);
+        elo[b] -= ELO_K * (aScore - expected);
+
+        double ra = rating[a];
+        double rda = rd[a];
+        double rb = rating[b];
+        double rdb = rd[b];
+        glicko(a, ra, rda, rb, rdb, aScore);
+        glicko(b, rb, rdb, ra, rda, 1 - aScore);
+
+        games[a]++;
+        games[b]++;
+        score[a] += aScore;
+        score[b] += 1 - aScore;
+    }
+
+    private void glicko(int i, double r, double rdSelf, double rOpp, double rdOpp, double s) {
+        double g = 1 / Math.sqrt(1 + 3 * Q * Q * rdOpp * rdOpp / (Math.PI * Math.PI));
+        double e = 1 / (1 + Math.pow(10, -g * (r - rOpp) / 400));
+        double dSquaredInv = Q * Q * g * g * e * (1 - e);
+        double denominator = 1 / (rdSelf * rdSelf) + dSquaredInv;
+        rating[i] = r + Q / denominator * g * (s - e);
+        rd[i] = Math.sqrt(1 / denominator);
+    }
+
+    public double elo(int i) {
+        return elo[i];
+    }
+
+    public double rating(int i) {
+        return rating[i];
+    }
+
+    public double deviation(int i) {
+        return rd[i];
+    }
+
+    /**
+     * Half-width of the 95% confidence interval around {@link #rating(int)}.
+     */
+    public double interval(int i) {
+        return 1.96 * rd[i];
+    }
+
+    public int games(int i) {
+        return games[i];
+    }
+
+    /** Match points: 1 per win, 0.5 per draw. */
+    public double score(int i) {
+        return score[i];
+    }
+
+    public int size() {
+        return rating.length;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.scopa.tournament;
+
+/**
+ * Totals over a set of single rounds between two bots, A and B. Every field is an integer sum, so
+ * merging the totals of seed ranges gives the same result in any order and on any number of
+ * workers; the derived figures are computed from the sums only at the end.
+ */
+public final class RoundStats {
+    private long rounds;
+    private long pointsA;
+    private long pointsB;
+    private long winsA;
+    private long winsB;
+    private long scopasA;
+    private long scopasB;
+    /** Sum of squared point differences, for the standard error. */
+    private long squares;
+
+    void record(int a, int b, int scopaA, int scopaB) {
+        rounds++;
+        pointsA += a;
+        pointsB += b;
+        if (a > b) {
+            winsA++;
+        } else if (b > a) {
+            winsB++;
+        }
+        scopasA += scopaA;
+        scopasB += scopaB;
+        squares += (long) (a - b) * (a - b);
+    }
+
+    public void add(RoundStats o) {
+        rounds += o.rounds;
+        pointsA += o.pointsA;
+        pointsB += o.pointsB;
+        winsA += o.winsA;
+        winsB += o.winsB;
+        scopasA += o.scopasA;
+        scopasB += o.scopasB;
+        squares += o.squares;
+    }
+
+    public long rounds() {
+        return rounds;
+    }
+
+    public long pointsA() {
+        return pointsA;
+    }
+
+    public long pointsB() {
+        return pointsB;
+    }
+
+    public long winsA() {
+        return winsA;
+    }
+
+    public long winsB() {
+        return winsB;
+    }
+
+    public long scopasA() {
+        return scopasA;
+    }
+
+    public long scopasB() {
+        return scopasB;
+    }
+
+    /** Mean of A's points minus B's per round. */
+    public double meanDifference() {
+        return rounds == 0 ? 0 : (double) (pointsA - pointsB) / rounds;
+    }
+
+    /** Standard error of {@link #meanDifference()}. */
+    public double standardError() {
+        if (rounds < 2) {
+            return 0;
+        }
+        double mean = meanDifference();
+        double variance = (squares - rounds * mean * mean) / (rounds - 1);
+        return Math.sqrt(Math.max(variance, 0) / rounds);
+    }
+
+    /** The fields as space-separated numbers, the form workers send them in. */
+    String toLine() {
+        return rounds + " " + pointsA + " " + pointsB + " " + winsA + " " + winsB + " "
+            + scopasA + " " + scopasB + " " + squares;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code line} is not eight numbers
+     */
+    static RoundStats parse(String line) {
+        String[] f = line.trim().split(" ");
+        if (f.length != 8) {
+            throw new IllegalArgumentException("Expected 8 fields: " + line);
+        }
+        RoundStats s = new RoundStats();
+        s.rounds = Long.parseLong(f[0]);
+        s.pointsA = Long.parseLong(f[1]);
+        s.pointsB = Long.parseLong(f[2]);
+        s.winsA = Long.parseLong(f[3]);
+        s.winsB = Long.parseLong(f[4]);
+        s.scopasA = Long.parseLong(f[5]);
+        s.scopasB = Long.parseLong(f[6]);
+        s.squares = Long.parseLong(f[7]);
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RoundStats && toLine().equals(((RoundStats) o).toLine());
+    }
+
+    @Override
+    public int hashCode() {
+        return toLine().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rounds: A %d - B %d points (%.3f +/- %.3f per round), wins %d-%d, scopas %d-%d",
+            rounds, pointsA, pointsB, meanDifference(), standardError(), winsA, winsB, scopasA, scopasB);
+    }
+}
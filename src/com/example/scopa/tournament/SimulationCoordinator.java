@@ -0,0 +1,350 @@
+package com.example.scopa.tournament;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Spreads a {@link SimulationJob} over worker processes ({@link SimulationWorker}) connected through
+ * local sockets, so simulation throughput is not bounded by one JVM's heap and collector.
+ *
+ * The job's rounds are cut into fixed ranges of seeds. Each connected worker is served by its own
+ * thread, which hands it one range at a time and waits for that range's {@link RoundStats}. A worker
+ * that disconnects, dies or takes longer than the range timeout is dropped and its range goes back
+ * to the front of the queue for another worker; partial work is never counted. Totals are merged
+ * per range and summed in range order, so the result is the same for any number of workers, any
+ * failures and {@link SimulationJob#play} run in a single process.
+ *
+ * Protocol, one line each: the worker sends {@code HELLO <pid>}; the coordinator sends
+ * {@code JOB <botA> <botB> <seed>} before a worker's first range of a job, then
+ * {@code RANGE <id> <from> <to>}, answered by {@code DONE <id> <stats>}; {@code QUIT} ends the worker.
+ */
+public final class SimulationCoordinator implements Closeable {
+    public static final int DEFAULT_RANGE_SIZE = 500;
+    public static final int DEFAULT_RANGE_TIMEOUT_MILLIS = 120_000;
+    /** How long a run waits with no worker connected before giving up. */
+    private static final long NO_WORKER_MILLIS = 30_000;
+
+    private final ServerSocket server;
+    private final int rangeSize;
+    private final int rangeTimeoutMillis;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final List<Process> launched = new CopyOnWriteArrayList<>();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final LongAdder redispatched = new LongAdder();
+    private final Object lock = new Object();
+    private Run run;
+    private volatile boolean closed;
+
+    /**
+     * Listen on a free port of the loopback interface.
+     */
+    public SimulationCoordinator(int rangeSize, int rangeTimeoutMillis) throws IOException {
+        if (rangeSize <= 0) {
+            throw new IllegalArgumentException("Range size must be positive: " + rangeSize);
+        }
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.rangeSize = rangeSize;
+        this.rangeTimeoutMillis = rangeTimeoutMillis;
+        Thread acceptor = new Thread(this::accept, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Workers currently connected. */
+    public int workers() {
+        return workers.get();
+    }
+
+    /** Ranges handed out again after their worker failed, since this coordinator started. */
+    public long redispatched() {
+        return redispatched.sum();
+    }
+
+    /**
+     * Start a worker JVM on this machine, with this JVM's class path, that connects back to this
+     * coordinator. It is stopped by {@link #close()} if still running.
+     */
+    public Process launchWorker() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            SimulationWorker.class.getName(), InetAddress.getLoopbackAddress().getHostAddress(),
+            String.valueOf(port()));
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        Process p = pb.start();
+        launched.add(p);
+        return p;
+    }
+
+    public RoundStats run(SimulationJob job, long rounds) throws IOException, InterruptedException {
+        return run(job, rounds, total -> {});
+    }
+
+    /**
+     * Play rounds 0 to {@code rounds - 1} of {@code job} on the connected workers.
+     *
+     * @param progress called with the running total each time a range completes, on a worker
+     *                 thread; the running total depends on completion order, the result does not
+     * @throws IOException if no worker is connected for 30 seconds while ranges are left
+     */
+    public RoundStats run(SimulationJob job, long rounds, Consumer<RoundStats> progress)
+            throws IOException, InterruptedException {
+        Run r = new Run(job, rounds, rangeSize, progress);
+        synchronized (lock) {
+            if (run != null) {
+                throw new IllegalStateException("A run is already in progress");
+            }
+            run = r;
+            lock.notifyAll();
+        }
+        try {
+            long idleSince = System.nanoTime();
+            while (!r.await(100)) {
+                if (closed) {
+                    throw new IOException("Coordinator closed");
+                }
+                if (workers.get() > 0) {
+                    idleSince = System.nanoTime();
+                } else if (System.nanoTime() - idleSince > TimeUnit.MILLISECONDS.toNanos(NO_WORKER_MILLIS)) {
+                    throw new IOException("No workers connected; " + r.remaining() + " ranges left");
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                run = null;
+            }
+        }
+        return r.total();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                sockets.add(socket);
+                Thread t = new Thread(() -> serve(socket), "coordinator-" + socket.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Coordinator accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Feed one worker ranges until the coordinator closes or the worker fails.
+     */
+    private void serve(Socket socket) {
+        workers.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            socket.setSoTimeout(rangeTimeoutMillis);
+            String hello = in.readLine();
+            if (hello == null || !hello.startsWith("HELLO")) {
+                return;
+            }
+            Run sent = null;
+            while (!closed) {
+                Run r = awaitRun();
+                if (r == null) {
+                    continue;
+                }
+                Integer id = r.pending.poll(100, TimeUnit.MILLISECONDS);
+                if (id == null) {
+                    continue;
+                }
+                try {
+                    if (r != sent) {
+                        out.write("JOB " + r.job.toLine() + "\n");
+                        sent = r;
+                    }
+                    long from = (long) id * r.rangeSize;
+                    long to = Math.min(from + r.rangeSize, r.rounds);
+                    out.write("RANGE " + id + " " + from + " " + to + "\n");
+                    out.flush();
+                    String reply = in.readLine();
+                    if (reply == null) {
+                        throw new EOFException("Worker disconnected");
+                    }
+                    String prefix = "DONE " + id + " ";
+                    if (!reply.startsWith(prefix)) {
+                        throw new IOException("Unexpected reply: " + reply);
+                    }
+                    r.complete(id, RoundStats.parse(reply.substring(prefix.length())));
+                } catch (IOException | RuntimeException e) {
+                    r.pending.addFirst(id);
+                    redispatched.increment();
+                    throw e;
+                }
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            if (!closed) {
+                System.err.println("Dropped worker " + socket.getRemoteSocketAddress() + ": " + e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+            workers.decrementAndGet();
+        }
+    }
+
+    private Run awaitRun() throws InterruptedException {
+        synchronized (lock) {
+            if (run == null && !closed) {
+                lock.wait(100);
+            }
+            return run;
+        }
+    }
+
+    /**
+     * Stop serving: workers get {@code QUIT} or are disconnected, and launched worker processes that
+     * have not exited within a second are killed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        server.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        for (Process p : launched) {
+            try {
+                if (!p.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    p.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                p.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Socket s : sockets) {
+            s.close();
+        }
+    }
+
+    /**
+     * One job's ranges: those not yet handed out and the totals of those completed.
+     */
+    private static final class Run {
+        final SimulationJob job;
+        final long rounds;
+        final int rangeSize;
+        final BlockingDeque<Integer> pending = new LinkedBlockingDeque<>();
+        private final RoundStats[] done;
+        private final RoundStats running = new RoundStats();
+        private final Consumer<RoundStats> progress;
+        private int remaining;
+
+        Run(SimulationJob job, long rounds, int rangeSize, Consumer<RoundStats> progress) {
+            long ranges = (rounds + rangeSize - 1) / rangeSize;
+            if (ranges > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many ranges; use a larger range size");
+            }
+            this.job = job;
+            this.rounds = rounds;
+            this.rangeSize = rangeSize;
+            this.progress = progress;
+            this.done = new RoundStats[(int) ranges];
+            this.remaining = done.length;
+            for (int i = 0; i < done.length; i++) {
+                pending.add(i);
+            }
+        }
+
+        synchronized void complete(int id, RoundStats stats) {
+            if (done[id] != null) {
+                return;
+            }
+            done[id] = stats;
+            remaining--;
+            running.add(stats);
+            progress.accept(running);
+            notifyAll();
+        }
+
+        synchronized int remaining() {
+            return remaining;
+        }
+
+        synchronized boolean await(long millis) throws InterruptedException {
+            if (remaining > 0) {
+                wait(millis);
+            }
+            return remaining == 0;
+        }
+
+        /** Sum of the ranges in range order. */
+        synchronized RoundStats total() {
+            RoundStats total = new RoundStats();
+            for (RoundStats s : done) {
+                total.add(s);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Usage: {@code SimulationCoordinator [workers] [rounds] [botA] [botB] [seed] [rangeSize]}
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long rounds = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        String botA = args.length > 2 ? args[2] : "greedy";
+        String botB = args.length > 3 ? args[3] : "random";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+        int rangeSize = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_RANGE_SIZE;
+
+        SimulationJob job = new SimulationJob(botA, botB, seed);
+        try (SimulationCoordinator c = new SimulationCoordinator(rangeSize, DEFAULT_RANGE_TIMEOUT_MILLIS)) {
+            for (int i = 0; i < count; i++) {
+                c.launchWorker();
+            }
+            long step = Math.max(rounds / 10, 1);
+            long[] nextReport = {step};
+            long start = System.nanoTime();
+            RoundStats stats = c.run(job, rounds, total -> {
+                if (total.rounds() >= nextReport[0]) {
+                    nextReport[0] += step;
+                    System.out.printf("  %d/%d rounds, %.3f points per round so far%n",
+                        total.rounds(), rounds, total.meanDifference());
+                }
+            });
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(job + " on " + count + " workers: " + stats);
+            System.out.printf("%.2fs, %.0f rounds/s, %d ranges re-dispatched%n",
+                seconds, stats.rounds() / seconds, c.redispatched());
+        }
+    }
+}
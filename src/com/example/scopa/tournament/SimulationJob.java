@@ -0,0 +1,102 @@
+package com.example.scopa.tournament;
+
+import com.example.scopa.ai.MonteCarloBot;
+import com.example.scopa.game.GameListener;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.Bot;
+import com.example.scopa.player.GreedyBot;
+import com.example.scopa.player.Player;
+import com.example.scopa.player.RandomBot;
+import com.example.scopa.rules.ScopaRules;
+
+/**
+ * Single rounds between two bots, numbered from 0, that any process can play a slice of.
+ *
+ * Round i is dealt by {@code ScopaGame.startNewRound} from a seed derived from the job seed and i,
+ * with A leading even rounds and B odd ones, and both bots are created fresh with seeds derived the
+ * same way. So a round's outcome depends only on the job and i, never on which process plays it or
+ * what it played before.
+ *
+ * Bots are named by spec: {@code random}, {@code greedy}, or {@code mc<iterations>} (e.g.
+ * {@code mc50}) for {@link MonteCarloBot}.
+ */
+public final class SimulationJob {
+    private final String botA;
+    private final String botB;
+    private final long seed;
+    private final BotFactory factoryA;
+    private final BotFactory factoryB;
+
+    /**
+     * @throws IllegalArgumentException if a bot spec is not recognised
+     */
+    public SimulationJob(String botA, String botB, long seed) {
+        this.botA = botA;
+        this.botB = botB;
+        this.seed = seed;
+        this.factoryA = factory(botA);
+        this.factoryB = factory(botB);
+    }
+
+    static BotFactory factory(String spec) {
+        if (spec.equals("random")) {
+            return RandomBot::new;
+        }
+        if (spec.equals("greedy")) {
+            return (name, s) -> new GreedyBot(name);
+        }
+        if (spec.matches("mc[0-9]+")) {
+            int iterations = Integer.parseInt(spec.substring(2));
+            return (name, s) -> new MonteCarloBot(name, s, iterations);
+        }
+        throw new IllegalArgumentException("Unknown bot: " + spec + " (random, greedy or mc<iterations>)");
+    }
+
+    /**
+     * Play rounds {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    public RoundStats play(long from, long to) {
+        RoundStats stats = new RoundStats();
+        MatchRunner runner = new MatchRunner();
+        for (long i = from; i < to; i++) {
+            long roundSeed = MatchRunner.mix(seed + 0x9E3779B97F4A7C15L * (i + 1));
+            Bot a = factoryA.create("A", MatchRunner.mix(roundSeed ^ 1));
+            Bot b = factoryB.create("B", MatchRunner.mix(roundSeed ^ 2));
+            ScopaGame game = ScopaGame.twoPlayer(a, b);
+            for (Bot bot : new Bot[] {a, b}) {
+                if (bot instanceof GameListener) {
+                    game.addListener((GameListener) bot);
+                }
+            }
+            game.startNewRound(roundSeed, (int) (i & 1));
+            runner.playOut(game);
+            game.finalizeRound();
+            ScopaRules.Score score = game.calculateScore();
+            Player p1 = game.getPlayer1();
+            Player p2 = game.getPlayer2();
+            stats.record(score.getPlayer1Points(), score.getPlayer2Points(), p1.getScopaCount(), p2.getScopaCount());
+        }
+        return stats;
+    }
+
+    /** The job as one line of text, the form the coordinator sends it in. */
+    String toLine() {
+        return botA + " " + botB + " " + seed;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code line} does not describe a job
+     */
+    static SimulationJob parse(String line) {
+        String[] f = line.trim().split(" ");
+        if (f.length != 3) {
+            throw new IllegalArgumentException("Expected <botA> <botB> <seed>: " + line);
+        }
+        return new SimulationJob(f[0], f[1], Long.parseLong(f[2]));
+    }
+
+    @Override
+    public String toString() {
+        return botA + " vs " + botB + " (seed " + seed + ")";
+    }
+}
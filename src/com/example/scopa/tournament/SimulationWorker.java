@@ -0,0 +1,52 @@
+package com.example.scopa.tournament;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Worker process for {@link SimulationCoordinator}: connects, plays the ranges it is sent and
+ * reports each range's totals, until told to quit or disconnected.
+ *
+ * Usage: {@code SimulationWorker <host> <port>}
+ */
+public final class SimulationWorker {
+
+    private SimulationWorker() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SimulationWorker <host> <port>");
+            System.exit(2);
+        }
+        run(args[0], Integer.parseInt(args[1]));
+    }
+
+    static void run(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            out.write("HELLO " + ProcessHandle.current().pid() + "\n");
+            out.flush();
+            SimulationJob job = null;
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.startsWith("JOB ")) {
+                    job = SimulationJob.parse(line.substring(4));
+                } else if (line.startsWith("RANGE ") && job != null) {
+                    String[] f = line.split(" ");
+                    RoundStats stats = job.play(Long.parseLong(f[2]), Long.parseLong(f[3]));
+                    out.write("DONE " + f[1] + " " + stats.toLine() + "\n");
+                    out.flush();
+                } else if (line.equals("QUIT")) {
+                    return;
+                } else {
+                    throw new IOException("Unexpected command: " + line);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.scopa.tournament;
+
+import com.example.scopa.ai.MonteCarloBot;
+import com.example.scopa.player.Bot;
+import com.example.scopa.player.GreedyBot;
+import com.example.scopa.player.RandomBot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bot-vs-bot tournament: schedules pairings, plays the matches in parallel and rates the entrants.
+ *
+ * Every pairing is played as mirrored pairs of matches: the same deal seed twice with the seats
+ * swapped, so luck of the deal cancels out within the pair. Matches run on a work-stealing
+ * {@link ForkJoinPool}; results are fed to {@link Ratings} in schedule order as they complete, so
+ * ratings do not depend on the thread count or on which match happens to finish first.
+ *
+ * Round robin plays every pair of entrants. Swiss plays a fixed number of rounds, each pairing
+ * entrants with similar match points (then rating) who have not met yet; with an odd field the
+ * lowest unpaired entrant sits the round out.
+ */
+public final class Tournament {
+    public enum Pairing { ROUND_ROBIN, SWISS }
+
+    public static final int DEFAULT_TARGET = 11;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final ThreadLocal<MatchRunner> RUNNER = ThreadLocal.withInitial(MatchRunner::new);
+
+    private final List<Entrant> entrants;
+    private final Pairing pairing;
+    private final int mirroredPairs;
+    private final int swissRounds;
+    private final int threads;
+    private final long seed;
+    private final int target;
+
+    private int fixtureCount;
+
+    /**
+     * @param mirroredPairs mirrored match pairs per pairing, so two entrants meet 2 * mirroredPairs times
+     * @param swissRounds   rounds to play with {@link Pairing#SWISS}; ignored for round robin
+     */
+    public Tournament(List<Entrant> entrants, Pairing pairing, int mirroredPairs, int swissRounds,
+                      int threads, long seed) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        }
+        this.entrants = List.copyOf(entrants);
+        this.pairing = pairing;
+        this.mirroredPairs = mirroredPairs;
+        this.swissRounds = swissRounds;
+        this.threads = threads;
+        this.seed = seed;
+        this.target = DEFAULT_TARGET;
+    }
+
+    public Report run() throws InterruptedException {
+        Ratings ratings = new Ratings(entrants.size());
+        List<MatchResult> results = new ArrayList<>();
+        LongAdder cpuNanos = new LongAdder();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            if (pairing == Pairing.ROUND_ROBIN) {
+                List<int[]> fixtures = new ArrayList<>();
+                for (int i = 0; i < entrants.size(); i++) {
+                    for (int j = i + 1; j < entrants.size(); j++) {
+                        fixtures.add(new int[] {i, j});
+                    }
+                }
+                playFixtures(fixtures, pool, ratings, results, cpuNanos);
+            } else {
+                Set<Long> met = new HashSet<>();
+                for (int round = 0; round < swissRounds; round++) {
+                    List<int[]> fixtures = swissPairings(ratings, met);
+                    if (fixtures.isEmpty()) {
+                        break;
+                    }
+                    playFixtures(fixtures, pool, ratings, results, cpuNanos);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Report(entrants, ratings, results, System.nanoTime() - start, cpuNanos.sum(), threads);
+    }
+
+    private void playFixtures(List<int[]> fixtures, ForkJoinPool pool, Ratings ratings,
+                              List<MatchResult> results, LongAdder cpuNanos) throws InterruptedException {
+        Sequencer sequencer = new Sequencer(fixtures.size() * mirroredPairs * 2, ratings, results);
+        List<Future<?>> futures = new ArrayList<>();
+        int index = 0;
+        for (int[] fixture : fixtures) {
+            long fixtureSeed = MatchRunner.mix(seed + 0x632BE59BD9B4E019L * ++fixtureCount);
+            for (int k = 0; k < mirroredPairs; k++) {
+                long dealSeed = MatchRunner.mix(fixtureSeed + k);
+                int a = fixture[0];
+                int b = fixture[1];
+                int first = index++;
+                int second = index++;
+                futures.add(pool.submit(() -> sequencer.accept(first, play(a, b, dealSeed, cpuNanos))));
+                futures.add(pool.submit(() -> sequencer.accept(second, play(b, a, dealSeed, cpuNanos))));
+            }
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Match failed", e.getCause());
+            }
+        }
+    }
+
+    private MatchResult play(int first, int second, long dealSeed, LongAdder cpuNanos) {
+        long cpuStart = threadCpuTime();
+        Bot a = entrants.get(first).getFactory().create(entrants.get(first).getName(), MatchRunner.mix(dealSeed ^ first));
+        Bot b = entrants.get(second).getFactory().create(entrants.get(second).getName(), MatchRunner.mix(dealSeed ^ second));
+        int[] points = RUNNER.get().play(a, b, dealSeed, target);
+        cpuNanos.add(threadCpuTime() - cpuStart);
+        return new MatchResult(first, second, points[0], points[1], points[2]);
+    }
+
+    private static long threadCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Pair entrants by match points then rating, skipping opponents already met where possible.
+     */
+    private List<int[]> swissPairings(Ratings ratings, Set<Long> met) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingDouble(i -> -ratings.score(i))
+            .thenComparingDouble(i -> -ratings.rating(i))
+            .thenComparingInt(i -> i));
+        List<int[]> fixtures = new ArrayList<>();
+        boolean[] paired = new boolean[entrants.size()];
+        for (int x = 0; x < order.size(); x++) {
+            int a = order.get(x);
+            if (paired[a]) {
+                continue;
+            }
+            int fallback = -1;
+            int opponent = -1;
+            for (int y = x + 1; y < order.size(); y++) {
+                int b = order.get(y);
+                if (paired[b]) {
+                    continue;
+                }
+                if (fallback < 0) {
+                    fallback = b;
+                }
+                if (!met.contains(key(a, b))) {
+                    opponent = b;
+                    break;
+                }
+            }
+            if (opponent < 0) {
+                opponent = fallback;
+            }
+            if (opponent >= 0) {
+                paired[a] = true;
+                paired[opponent] = true;
+                met.add(key(a, opponent));
+                fixtures.add(new int[] {a, opponent});
+            }
+        }
+        return fixtures;
+    }
+
+    private static long key(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    /**
+     * Applies results to the ratings in schedule order, whatever order the matches finish in.
+     */
+    private static final class Sequencer {
+        private final MatchResult[] pending;
+        private final Ratings ratings;
+        private final List<MatchResult> results;
+        private int next;
+
+        Sequencer(int size, Ratings ratings, List<MatchResult> results) {
+            this.pending = new MatchResult[size];
+            this.ratings = ratings;
+            this.results = results;
+        }
+
+        synchronized void accept(int index, MatchResult result) {
+            pending[index] = result;
+            while (next < pending.length && pending[next] != null) {
+                MatchResult r = pending[next];
+                pending[next++] = null;
+                ratings.record(r.getFirst(), r.getSecond(), r.firstScore());
+                results.add(r);
+            }
+        }
+    }
+
+    /**
+     * Final standings plus throughput figures.
+     */
+    public static final class Report {
+        private final List<Entrant> entrants;
+        private final Ratings ratings;
+        private final List<MatchResult> results;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final int threads;
+
+        Report(List<Entrant> entrants, Ratings ratings, List<MatchResult> results,
+               long wallNanos, long cpuNanos, int threads) {
+            this.entrants = entrants;
+            this.ratings = ratings;
+            this.results = List.copyOf(results);
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.threads = threads;
+        }
+
+        public Ratings getRatings() {
+            return ratings;
+        }
+
+        /** All matches in schedule order. */
+        public List<MatchResult> getResults() {
+            return results;
+        }
+
+        public int roundsPlayed() {
+            int rounds = 0;
+            for (MatchResult r : results) {
+                rounds += r.getRounds();
+            }
+            return rounds;
+        }
+
+        public double matchesPerSecond() {
+            return results.size() / (wallNanos / 1e9);
+        }
+
+        /** Single-round games (deals) per second of wall-clock time. */
+        public double gamesPerSecond() {
+            return roundsPlayed() / (wallNanos / 1e9);
+        }
+
+        /**
+         * Fraction of the pool's threads kept busy playing, from per-thread CPU time. 0 if the JVM does
+         * not support thread CPU time.
+         */
+        public double cpuUtilisation() {
+            return cpuNanos / ((double) wallNanos * threads);
+        }
+
+        @Override
+        public String toString() {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < entrants.size(); i++) {
+                order.add(i);
+            }
+            order.sort(Comparator.comparingDouble(i -> -ratings.rating(i)));
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-16s %7s %7s %6s %8s %6s%n", "Entrant", "Glicko", "+/-95%", "Elo", "Score", "Games"));
+            for (int i : order) {
+                sb.append(String.format("%-16s %7.0f %7.0f %6.0f %8.1f %6d%n", entrants.get(i).getName(),
+                    ratings.rating(i), ratings.interval(i), ratings.elo(i), ratings.score(i), ratings.games(i)));
+            }
+            sb.append(String.format("%d matches, %d games in %.2fs: %.0f games/s, %.1f matches/s, CPU %.0f%% of %d threads",
+                results.size(), roundsPlayed(), wallNanos / 1e9, gamesPerSecond(), matchesPerSecond(),
+                cpuUtilisation() * 100, threads));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Usage: {@code Tournament [round-robin|swiss] [mirroredPairs] [threads] [seed]}
+     */
+    public static void main(String[] args) throws Exception {
+        Pairing pairing = args.length > 0 && args[0].equalsIgnoreCase("swiss") ? Pairing.SWISS : Pairing.ROUND_ROBIN;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        // Two copies of the baseline policies: equal strategies should end up with overlapping intervals.
+        List<Entrant> entrants = List.of(
+            new Entrant("MonteCarlo", (name, s) -> new MonteCarloBot(name, s, 50)),
+            new Entrant("Greedy", (name, s) -> new GreedyBot(name)),
+            new Entrant("Greedy-2", (name, s) -> new GreedyBot(name)),
+            new Entrant("Random", RandomBot::new),
+            new Entrant("Random-2", RandomBot::new));
+        Tournament t = new Tournament(entrants, pairing, pairs, entrants.size() - 1, threads, seed);
+        System.out.println(t.run());
+    }
+}
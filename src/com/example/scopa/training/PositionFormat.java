@@ -0,0 +1,59 @@
+package com.example.scopa.training;
+
+/**
+ * Layout of the self-play position files written by {@link PositionWriter} and read by
+ * {@link PositionReader}.
+ *
+ * A file is a 16-byte header followed by blocks. All numbers are little-endian.
+ * <pre>
+ * header: int magic "SCPD", short version, short flags (bit 0: blocks are deflated), int block rows, int 0
+ * block:  int rows, int stored bytes, then the payload (deflated if the flag is set)
+ * payload: one column after another, each holding {@code rows} values:
+ *          hand 0, hand 1, table, captured 0, captured 1   (long card masks, bit i = Card.of(i))
+ *          deck size, turn, scopas 0, scopas 1, points 0, points 1   (one byte each)
+ * </pre>
+ * {@code turn} is the seat to move. {@code points} are the round points each seat finally scored,
+ * scopas included, so every row of a round carries that round's outcome.
+ */
+public final class PositionFormat {
+    static final int MAGIC = 0x44504353; // "SCPD" read little-endian
+    static final short VERSION = 1;
+    static final short FLAG_DEFLATE = 1;
+    static final int HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 8;
+    /**
+     * Positions in one round: every card not dealt to the table is played once. Blocks are cut between
+     * rounds, so a block holds fewer than its nominal size plus this many rows.
+     */
+    static final int MAX_ROUND_ROWS = 40;
+
+    static final int HAND_0 = 0;
+    static final int HAND_1 = 1;
+    static final int TABLE = 2;
+    static final int CAPTURED_0 = 3;
+    static final int CAPTURED_1 = 4;
+    static final int MASK_COLUMNS = 5;
+
+    static final int DECK_SIZE = 0;
+    static final int TURN = 1;
+    static final int SCOPAS_0 = 2;
+    static final int SCOPAS_1 = 3;
+    static final int POINTS_0 = 4;
+    static final int POINTS_1 = 5;
+    static final int BYTE_COLUMNS = 6;
+
+    /** Uncompressed bytes per row. */
+    public static final int ROW_BYTES = MASK_COLUMNS * Long.BYTES + BYTE_COLUMNS;
+
+    private PositionFormat() {}
+
+    /** Offset of mask column {@code column} in a payload of {@code rows} rows. */
+    static int maskColumn(int column, int rows) {
+        return column * rows * Long.BYTES;
+    }
+
+    /** Offset of byte column {@code column} in a payload of {@code rows} rows. */
+    static int byteColumn(int column, int rows) {
+        return MASK_COLUMNS * rows * Long.BYTES + column * rows;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.scopa.training;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Cursor over a {@link PositionFormat} file.
+ *
+ * Blocks are memory-mapped one at a time, and the accessors read the current row straight from the
+ * columns with absolute gets, so iterating creates no objects. Deflated blocks are inflated into one
+ * reusable direct buffer. Not thread-safe; open one reader per thread to scan in parallel.
+ * <pre>
+ * try (PositionReader in = PositionReader.open(path)) {
+ *     while (in.next()) {
+ *         train(in.hand(in.turn()), in.table(), in.outcome());
+ *     }
+ * }
+ * </pre>
+ */
+public final class PositionReader implements Closeable {
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final Inflater inflater;
+    private final ByteBuffer inflated;
+    private final long size;
+    private long nextBlock = PositionFormat.HEADER_BYTES;
+    private ByteBuffer block;
+    private int rows;
+    private int row;
+
+    private PositionReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, PositionFormat.HEADER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != PositionFormat.MAGIC || header.getShort(4) != PositionFormat.VERSION) {
+            throw new IOException("Not a position file");
+        }
+        this.compressed = (header.getShort(6) & PositionFormat.FLAG_DEFLATE) != 0;
+        int blockRows = header.getInt(8);
+        this.inflater = compressed ? new Inflater() : null;
+        this.inflated = compressed
+            ? ByteBuffer.allocateDirect((blockRows + PositionFormat.MAX_ROUND_ROWS) * PositionFormat.ROW_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+            : null;
+    }
+
+    public static PositionReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PositionReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Move to the next row.
+     * @return false at the end of the file
+     */
+    public boolean next() throws IOException {
+        if (++row < rows) {
+            return true;
+        }
+        while (nextBlock < size) {
+            loadBlock();
+            if (rows > 0) {
+                row = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void loadBlock() throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, nextBlock, PositionFormat.BLOCK_HEADER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        rows = header.getInt(0);
+        int stored = header.getInt(4);
+        ByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, nextBlock + PositionFormat.BLOCK_HEADER_BYTES,
+            stored).order(ByteOrder.LITTLE_ENDIAN);
+        nextBlock += PositionFormat.BLOCK_HEADER_BYTES + stored;
+        if (!compressed) {
+            block = payload;
+            return;
+        }
+        inflater.reset();
+        inflater.setInput(payload);
+        inflated.clear();
+        try {
+            while (!inflater.finished()) {
+                if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || !inflated.hasRemaining())) {
+                    throw new IOException("Corrupt block at " + (nextBlock - stored));
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block at " + (nextBlock - stored), e);
+        }
+        block = inflated;
+    }
+
+    private long mask(int column) {
+        return block.getLong(PositionFormat.maskColumn(column, rows) + row * Long.BYTES);
+    }
+
+    private int value(int column) {
+        return block.get(PositionFormat.byteColumn(column, rows) + row);
+    }
+
+    public long hand(int seat) {
+        return mask(seat == 0 ? PositionFormat.HAND_0 : PositionFormat.HAND_1);
+    }
+
+    public long table() {
+        return mask(PositionFormat.TABLE);
+    }
+
+    public long captured(int seat) {
+        return mask(seat == 0 ? PositionFormat.CAPTURED_0 : PositionFormat.CAPTURED_1);
+    }
+
+    public int deckSize() {
+        return value(PositionFormat.DECK_SIZE);
+    }
+
+    /** Seat to move. */
+    public int turn() {
+        return value(PositionFormat.TURN);
+    }
+
+    public int scopas(int seat) {
+        return value(seat == 0 ? PositionFormat.SCOPAS_0 : PositionFormat.SCOPAS_1);
+    }
+
+    /** Points {@code seat} scored in this position's round. */
+    public int points(int seat) {
+        return value(seat == 0 ? PositionFormat.POINTS_0 : PositionFormat.POINTS_1);
+    }
+
+    /** Round point difference from the point of view of the seat to move: the usual training target. */
+    public int outcome() {
+        int diff = points(0) - points(1);
+        return turn() == 0 ? diff : -diff;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.scopa.training;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * Streams self-play positions to a file in the columnar {@link PositionFormat}.
+ *
+ * Positions are added as a round is played and take that round's outcome when it ends, so the
+ * writer buffers them column by column in primitive arrays. Full blocks are written out through a
+ * {@link FileChannel} in one bulk copy per column, optionally deflated at {@link Deflater#BEST_SPEED}.
+ * Blocks are only cut between rounds. Nothing is allocated per position. Not thread-safe.
+ */
+public final class PositionWriter implements Closeable {
+    /** Rows per block by default, a few MB uncompressed. */
+    public static final int DEFAULT_BLOCK_ROWS = 1 << 16;
+
+    private final FileChannel channel;
+    private final boolean compress;
+    private final int blockRows;
+    private final long[][] masks;
+    private final byte[][] bytes;
+    private final ByteBuffer raw;
+    private final Deflater deflater;
+    private ByteBuffer packed;
+    private int rows;
+    private int roundStart;
+    private long rowsWritten;
+    private long bytesWritten;
+
+    public PositionWriter(Path file, boolean compress) throws IOException {
+        this(file, compress, DEFAULT_BLOCK_ROWS);
+    }
+
+    public PositionWriter(Path file, boolean compress, int blockRows) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("Invalid block size: " + blockRows);
+        }
+        this.compress = compress;
+        this.blockRows = blockRows;
+        int capacity = blockRows + PositionFormat.MAX_ROUND_ROWS;
+        this.masks = new long[PositionFormat.MASK_COLUMNS][capacity];
+        this.bytes = new byte[PositionFormat.BYTE_COLUMNS][capacity];
+        this.raw = ByteBuffer.allocateDirect(capacity * PositionFormat.ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.packed = compress ? ByteBuffer.allocateDirect(raw.capacity() + 1024) : null;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(PositionFormat.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(PositionFormat.MAGIC)
+            .putShort(PositionFormat.VERSION)
+            .putShort(compress ? PositionFormat.FLAG_DEFLATE : 0)
+            .putInt(blockRows)
+            .putInt(0)
+            .flip();
+        write(header);
+    }
+
+    /**
+     * Record {@code s} as a position of the round in progress. Its outcome is filled in by
+     * {@link #endRound(SimState)}.
+     */
+    public void add(SimState s) {
+        if (rows - roundStart >= PositionFormat.MAX_ROUND_ROWS) {
+            throw new IllegalStateException("Round has more than " + PositionFormat.MAX_ROUND_ROWS
+                + " positions; missing endRound?");
+        }
+        int r = rows++;
+        masks[PositionFormat.HAND_0][r] = s.hand(0);
+        masks[PositionFormat.HAND_1][r] = s.hand(1);
+        masks[PositionFormat.TABLE][r] = s.table();
+        masks[PositionFormat.CAPTURED_0][r] = s.captured(0);
+        masks[PositionFormat.CAPTURED_1][r] = s.captured(1);
+        bytes[PositionFormat.DECK_SIZE][r] = (byte) s.deckSize();
+        bytes[PositionFormat.TURN][r] = (byte) s.current();
+        bytes[PositionFormat.SCOPAS_0][r] = (byte) s.scopas(0);
+        bytes[PositionFormat.SCOPAS_1][r] = (byte) s.scopas(1);
+    }
+
+    /**
+     * Close the round: every position added since the last call is labelled with the points
+     * {@code finished} (a finished and scored round) gives each seat.
+     */
+    public void endRound(SimState finished) throws IOException {
+        int packedPoints = ScoringKernel.points(finished.captured(0), finished.captured(1));
+        byte p0 = (byte) ((packedPoints & 0xFFFF) + finished.scopas(0));
+        byte p1 = (byte) ((packedPoints >>> 16) + finished.scopas(1));
+        for (int r = roundStart; r < rows; r++) {
+            bytes[PositionFormat.POINTS_0][r] = p0;
+            bytes[PositionFormat.POINTS_1][r] = p1;
+        }
+        roundStart = rows;
+        if (rows >= blockRows) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        raw.clear();
+        for (long[] column : masks) {
+            raw.asLongBuffer().put(column, 0, rows);
+            raw.position(raw.position() + rows * Long.BYTES);
+        }
+        for (byte[] column : bytes) {
+            raw.put(column, 0, rows);
+        }
+        raw.flip();
+        ByteBuffer payload = compress ? deflate(raw) : raw;
+
+        ByteBuffer header = ByteBuffer.allocate(PositionFormat.BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(rows).putInt(payload.remaining()).flip();
+        write(header);
+        write(payload);
+        rowsWritten += rows;
+        rows = 0;
+        roundStart = 0;
+    }
+
+    private ByteBuffer deflate(ByteBuffer input) {
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        packed.clear();
+        while (!deflater.finished()) {
+            if (!packed.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(packed.capacity() * 2);
+                packed.flip();
+                larger.put(packed);
+                packed = larger;
+            }
+            deflater.deflate(packed);
+        }
+        return packed.flip();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    /** Rows in blocks already written; rows still buffered are not counted. */
+    public long rowsWritten() {
+        return rowsWritten;
+    }
+
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Write out all finished rounds. Positions of a round without {@link #endRound} are discarded.
+     */
+    @Override
+    public void close() throws IOException {
+        rows = roundStart;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.scopa.training;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generates training positions by self-play on {@link SimState} and streams them to a
+ * {@link PositionWriter}. Both seats play the rollout policy used by the Monte Carlo search: a random
+ * capture when there is one, otherwise a random drop. Every position before each move is recorded.
+ *
+ * Usage: {@code SelfPlayExporter <file> [rounds] [raw|deflate] [seed]}. After writing, the file is
+ * scanned once with a {@link PositionReader} and both rates are reported.
+ */
+public final class SelfPlayExporter {
+    private final ScopaGame dealer = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+    private final int[] moves = new int[64];
+    private long rng;
+
+    public SelfPlayExporter(long seed) {
+        this.rng = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    /**
+     * Play {@code rounds} rounds, alternating the lead, and record their positions.
+     */
+    public void play(long rounds, PositionWriter out) throws IOException {
+        for (long r = 0; r < rounds; r++) {
+            dealer.startNewRound(rng + r, (int) (r & 1));
+            SimState s = SimState.of(dealer);
+            while (!s.isRoundOver()) {
+                out.add(s);
+                s.play(choose(s));
+            }
+            s.finish();
+            out.endRound(s);
+        }
+    }
+
+    private int choose(SimState s) {
+        int n = s.legalMoves(moves);
+        int captures = 0;
+        for (int i = 0; i < n; i++) {
+            if (Move.isCapture(moves[i])) {
+                moves[captures++] = moves[i];
+            }
+        }
+        return moves[nextInt(captures > 0 ? captures : n)];
+    }
+
+    private int nextInt(int bound) {
+        rng ^= rng >>> 12;
+        rng ^= rng << 25;
+        rng ^= rng >>> 27;
+        return (int) ((((rng * 0x2545F4914F6CDD1DL) >>> 33) * bound) >>> 31);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: SelfPlayExporter <file> [rounds] [raw|deflate] [seed]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        long rounds = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        boolean deflate = args.length > 2 && args[2].equalsIgnoreCase("deflate");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        long start = System.nanoTime();
+        PositionWriter out = new PositionWriter(file, deflate);
+        try {
+            new SelfPlayExporter(seed).play(rounds, out);
+        } finally {
+            out.close();
+        }
+        long rows = out.rowsWritten();
+        long bytes = out.bytesWritten();
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d positions from %,d rounds: %,d bytes (%.1f per row) in %.2f s, %.0f rows/s%n",
+            rows, rounds, bytes, bytes / (double) rows, writeSeconds, rows / writeSeconds);
+
+        start = System.nanoTime();
+        long scanned = 0;
+        long checksum = 0;
+        try (PositionReader in = PositionReader.open(file)) {
+            while (in.next()) {
+                checksum += in.hand(in.turn()) ^ in.table() + in.outcome();
+                scanned++;
+            }
+        }
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Read %,d positions in %.2f s: %.0f MB/s of row data, %.0f MB/s from disk (checksum %d)%n",
+            scanned, readSeconds, scanned * PositionFormat.ROW_BYTES / readSeconds / 1e6,
+            bytes / readSeconds / 1e6, checksum);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.scopa.variant;
+
+/**
+ * Rule sets served by {@link VariantState}. Each constant is plain data: the deal, when a scopa
+ * counts, which extra captures exist and which bonuses are scored. {@link VariantRules} compiles it
+ * into lookup tables once, when the enum is initialised, so the engine never branches on the
+ * variant while playing.
+ *
+ * <ul>
+ *   <li>{@link #SCOPA}: the game {@link com.example.scopa.game.ScopaGame} plays.</li>
+ *   <li>{@link #SCOPONE}: four players in fixed partnerships (0 and 2 against 1 and 3), nine
+ *       cards each and four on the table, no redeal; only the last play of the round cannot score
+ *       a scopa.</li>
+ *   <li>{@link #SCOPA_D_ASSI}: an Ace takes the whole table unless an Ace is already on it, in
+ *       which case it takes that Ace as usual. A sweep by Ace is not a scopa.</li>
+ *   <li>{@link #CIRULLA}: besides the usual captures, a card may take any cards that add up with
+ *       it to 15. Piccola (Ace, Two and Three of Coins, plus one for each of Four, Five and Six
+ *       in sequence) scores 3 to 6 points and Grande (Jack, Knight and King of Coins) scores 5.</li>
+ * </ul>
+ */
+public enum Variant {
+    SCOPA(2, 3, 4, 6, false, false, false),
+    SCOPONE(4, 9, 4, 1, false, false, false),
+    SCOPA_D_ASSI(2, 3, 4, 6, true, false, false),
+    CIRULLA(2, 3, 4, 6, false, true, true);
+
+    final int players;
+    final int handSize;
+    final int initialTable;
+    /**
+     * Cards still to be played (deck and hands) after a move for it to score a scopa. Six keeps
+     * plain Scopa's rule of no scopa once the deck is empty; one only rules out the last play.
+     */
+    final int scopaMinRemaining;
+    final boolean aceSweeps;
+    final boolean fifteens;
+    final boolean coinBonuses;
+
+    private final VariantRules rules;
+
+    Variant(int players, int handSize, int initialTable, int scopaMinRemaining,
+            boolean aceSweeps, boolean fifteens, boolean coinBonuses) {
+        this.players = players;
+        this.handSize = handSize;
+        this.initialTable = initialTable;
+        this.scopaMinRemaining = scopaMinRemaining;
+        this.aceSweeps = aceSweeps;
+        this.fifteens = fifteens;
+        this.coinBonuses = coinBonuses;
+        this.rules = new VariantRules(this);
+    }
+
+    public int players() {
+        return players;
+    }
+
+    public int handSize() {
+        return handSize;
+    }
+
+    VariantRules rules() {
+        return rules;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code name} names no variant
+     */
+    public static Variant parse(String name) {
+        return valueOf(name.trim().toUpperCase().replace('\'', '_').replace(' ', '_').replace('-', '_'));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.scopa.variant;
+
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Variant} compiled into the tables {@link VariantState} plays from.
+ *
+ * Captures are described by value, not by card. A count vector packs how many cards of each value
+ * 1-10 a set holds into one nibble per value (value v at bits 4(v-1)..4(v-1)+3). For every played
+ * value the variant lists capture patterns, each a count vector, in the order options are offered.
+ * A pattern is legal when the table's counts cover it and do not cover its blocker; blockers carry
+ * the precedence rules, such as a single card of equal value ruling out sums. A pattern is then
+ * expanded into every choice of suits for its cards. The sweep, taking the whole table, is offered
+ * before the patterns and follows the same pattern and blocker test.
+ *
+ * Covering is one subtraction: counts never exceed 4, so with bit 3 of each nibble set, no nibble of
+ * {@code (counts | GUARD) - pattern} borrows from the next and bit 3 survives exactly where the
+ * count is large enough.
+ *
+ * Scoring adds {@link #coinBonus}, indexed by the Coins of a side's pile, to the usual points.
+ */
+final class VariantRules {
+    static final int VALUES = 10;
+    static final long GUARD = 0x88888_88888L;
+    /** A blocker no table can cover (it needs five Aces). */
+    static final long NEVER = 5;
+
+    /** Count vector of a 10-card suit slice of a card mask. */
+    private static final long[] SLICE_COUNTS = new long[1 << VALUES];
+    /** Bits 0, 10, 20 and 30 of a card mask from a 4-bit set of suits. */
+    static final long[] SUIT_SPREAD = new long[16];
+    /** For a set of suits and a count k, every k-subset of it, ascending. */
+    static final int[][][] CHOOSE = new int[16][5][];
+
+    static {
+        for (int m = 0; m < SLICE_COUNTS.length; m++) {
+            for (int v = 1; v <= VALUES; v++) {
+                if ((m >>> (v - 1) & 1) != 0) {
+                    SLICE_COUNTS[m] += 1L << 4 * (v - 1);
+                }
+            }
+        }
+        for (int s = 0; s < 16; s++) {
+            for (int suit = 0; suit < 4; suit++) {
+                if ((s >>> suit & 1) != 0) {
+                    SUIT_SPREAD[s] |= 1L << suit * VALUES;
+                }
+            }
+            for (int k = 0; k <= 4; k++) {
+                List<Integer> subsets = new ArrayList<>();
+                for (int sub = 0; sub < 16; sub++) {
+                    if ((sub & ~s) == 0 && Integer.bitCount(sub) == k) {
+                        subsets.add(sub);
+                    }
+                }
+                CHOOSE[s][k] = subsets.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    final int players;
+    final int handSize;
+    final int initialTable;
+    final int scopaMinRemaining;
+
+    /** Capture patterns and their blockers, by played value (index 0 unused). */
+    final long[][] patterns = new long[VALUES + 1][];
+    final long[][] blockers = new long[VALUES + 1][];
+    /**
+     * The sweep as a pattern and blocker per played value: the pattern is 0 (always covered) for a
+     * value that sweeps and {@link #NEVER} otherwise. A sweep never scores a scopa.
+     */
+    final long[] sweepPattern = new long[VALUES + 1];
+    final long[] sweepBlocker = new long[VALUES + 1];
+    /** Bonus points for a pile by its Coins (bit r set when the Coins card of rank ordinal r is in it). */
+    final int[] coinBonus = new int[1 << VALUES];
+
+    VariantRules(Variant v) {
+        this.players = v.players;
+        this.handSize = v.handSize;
+        this.initialTable = v.initialTable;
+        this.scopaMinRemaining = v.scopaMinRemaining;
+
+        for (int value = 1; value <= VALUES; value++) {
+            List<long[]> rows = new ArrayList<>();
+            long single = 1L << 4 * (value - 1);
+            rows.add(new long[] {single, NEVER});
+            for (long sum : partitions(value, 2)) {
+                rows.add(new long[] {sum, single});
+            }
+            if (v.fifteens) {
+                for (long sum : partitions(15 - value, 1)) {
+                    rows.add(new long[] {sum, NEVER});
+                }
+            }
+            patterns[value] = rows.stream().mapToLong(r -> r[0]).toArray();
+            blockers[value] = rows.stream().mapToLong(r -> r[1]).toArray();
+            sweepPattern[value] = NEVER;
+            sweepBlocker[value] = NEVER;
+        }
+        if (v.aceSweeps) {
+            sweepPattern[1] = 0;
+            sweepBlocker[1] = 1L;
+        }
+
+        if (v.coinBonuses) {
+            for (int coins = 0; coins < coinBonus.length; coins++) {
+                coinBonus[coins] = piccola(coins) + grande(coins);
+            }
+        }
+    }
+
+    /** Count vector of the cards in {@code cards}. */
+    static long counts(long cards) {
+        int mask = (1 << VALUES) - 1;
+        return SLICE_COUNTS[(int) cards & mask]
+            + SLICE_COUNTS[(int) (cards >>> VALUES) & mask]
+            + SLICE_COUNTS[(int) (cards >>> 2 * VALUES) & mask]
+            + SLICE_COUNTS[(int) (cards >>> 3 * VALUES) & mask];
+    }
+
+    /** Whether a table with count vector {@code counts} holds at least the cards of {@code pattern}. */
+    static boolean covers(long counts, long pattern) {
+        return (((counts | GUARD) - pattern) & GUARD) == GUARD;
+    }
+
+    /** The suits holding cards of {@code value} in {@code cards}, as a 4-bit set. */
+    static int suits(long cards, int value) {
+        long m = cards >>> (value - 1) & SUIT_SPREAD[15];
+        return (int) (m | m >>> 9 | m >>> 18 | m >>> 27) & 0xF;
+    }
+
+    /**
+     * Count vectors of every multiset of values 1-10, at most four of each, with at least
+     * {@code minParts} cards adding up to {@code sum}, in ascending order of their sorted values.
+     */
+    static List<Long> partitions(int sum, int minParts) {
+        List<Long> out = new ArrayList<>();
+        partitions(sum, 1, 0, 0L, minParts, out);
+        return out;
+    }
+
+    private static void partitions(int left, int from, int parts, long counts, int minParts, List<Long> out) {
+        if (left == 0) {
+            if (parts >= minParts) {
+                out.add(counts);
+            }
+            return;
+        }
+        for (int v = from; v <= Math.min(left, VALUES); v++) {
+            long next = counts + (1L << 4 * (v - 1));
+            if ((next >>> 4 * (v - 1) & 0xF) <= 4) {
+                partitions(left - v, v, parts + 1, next, minParts, out);
+            }
+        }
+    }
+
+    private static int piccola(int coins) {
+        int points = 0;
+        if ((coins & 0b111) == 0b111) {
+            points = 3;
+            for (int r = 3; r < 6 && (coins >>> r & 1) != 0; r++) {
+                points++;
+            }
+        }
+        return points;
+    }
+
+    private static int grande(int coins) {
+        int courts = 1 << Rank.EIGHT.ordinal() | 1 << Rank.NINE.ordinal() | 1 << Rank.TEN.ordinal();
+        return (coins & courts) == courts ? 5 : 0;
+    }
+
+    /** Bits of the Coins cards in a card mask, by rank ordinal. */
+    static int coins(long cards) {
+        return (int) (cards >>> Suit.COINS.ordinal() * VALUES) & (1 << VALUES) - 1;
+    }
+}
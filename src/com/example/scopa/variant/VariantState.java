@@ -0,0 +1,302 @@
+package com.example.scopa.variant;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Deck;
+import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One round of any {@link Variant}, in the style of {@link com.example.scopa.ai.SimState}: hands,
+ * table and piles are card masks, the deck is a byte array, and playing a move allocates nothing.
+ *
+ * Everything variant-specific comes from the variant's {@link VariantRules} tables: the number of
+ * players and the deal, the capture patterns for each played value, when a scopa counts and the
+ * bonus points. The code path for a move is the same for every variant.
+ *
+ * Players sit 0 to {@code players - 1} in turn order. Piles, scopas and points belong to sides:
+ * player p plays for side {@code p % 2}, so with two players a side is a player and in Scopone
+ * partners sit opposite. Moves use the packed encoding of {@link Move}: hand positions count cards
+ * in index order and capture options follow {@link VariantRules} (for plain Scopa the same options
+ * as {@link ScopaRules#captureMasks}, possibly listed in another order).
+ *
+ * Not thread-safe; keep one instance per thread and {@link #copyFrom} into it.
+ */
+public final class VariantState {
+    private final Variant variant;
+    private final VariantRules rules;
+    private final int players;
+
+    final long[] hand = new long[4];
+    final long[] pile = new long[2];
+    final int[] scopas = new int[2];
+    long table;
+    /** Remaining deck, bottom first; the top card is {@code deck[deckSize - 1]}. */
+    final byte[] deck = new byte[Card.DECK_SIZE];
+    int deckSize;
+    /** Cards still to be played: the deck and every hand. */
+    int remaining;
+    int current;
+    int lastCapturer = -1;
+
+    /** Capture options as card masks, filled by {@link #captureOptions}. */
+    private long[] options = new long[32];
+    private boolean sweepOffered;
+
+    public VariantState(Variant variant) {
+        this.variant = variant;
+        this.rules = variant.rules();
+        this.players = rules.players;
+    }
+
+    /**
+     * Start a round with the deck {@code new Deck(seed)} deals, led by {@code firstPlayer}. Hands are
+     * dealt in turn order from the leader, then the table, as {@link com.example.scopa.game.ScopaGame}
+     * deals; for {@link Variant#SCOPA} the two give the same round.
+     */
+    public void deal(long seed, int firstPlayer) {
+        if (firstPlayer < 0 || firstPlayer >= players) {
+            throw new IllegalArgumentException("Invalid first player: " + firstPlayer);
+        }
+        List<Card> cards = new Deck(seed).getCards();
+        for (int i = 0; i < cards.size(); i++) {
+            deck[i] = (byte) cards.get(i).index();
+        }
+        deckSize = cards.size();
+        remaining = deckSize;
+        for (int p = 0; p < hand.length; p++) {
+            hand[p] = 0;
+        }
+        pile[0] = pile[1] = 0;
+        scopas[0] = scopas[1] = 0;
+        table = 0;
+        current = firstPlayer;
+        lastCapturer = -1;
+
+        dealHands();
+        for (int i = 0; i < rules.initialTable; i++) {
+            table |= 1L << deck[--deckSize];
+            remaining--;
+        }
+    }
+
+    public void copyFrom(VariantState o) {
+        if (o.variant != variant) {
+            throw new IllegalArgumentException("Cannot copy a " + o.variant + " round into " + variant);
+        }
+        System.arraycopy(o.hand, 0, hand, 0, hand.length);
+        pile[0] = o.pile[0];
+        pile[1] = o.pile[1];
+        scopas[0] = o.scopas[0];
+        scopas[1] = o.scopas[1];
+        table = o.table;
+        System.arraycopy(o.deck, 0, deck, 0, o.deckSize);
+        deckSize = o.deckSize;
+        remaining = o.remaining;
+        current = o.current;
+        lastCapturer = o.lastCapturer;
+    }
+
+    public VariantState copy() {
+        VariantState s = new VariantState(variant);
+        s.copyFrom(this);
+        return s;
+    }
+
+    public Variant variant() {
+        return variant;
+    }
+
+    /** The side {@code player} plays for. */
+    public static int side(int player) {
+        return player & 1;
+    }
+
+    public long hand(int player) {
+        return hand[player];
+    }
+
+    public long pile(int side) {
+        return pile[side];
+    }
+
+    public int scopas(int side) {
+        return scopas[side];
+    }
+
+    public long table() {
+        return table;
+    }
+
+    public int deckSize() {
+        return deckSize;
+    }
+
+    public int current() {
+        return current;
+    }
+
+    /** @return the last player to capture, or -1 if nobody has this round */
+    public int lastCapturer() {
+        return lastCapturer;
+    }
+
+    public boolean isRoundOver() {
+        return remaining == 0;
+    }
+
+    /**
+     * Same contract as {@link com.example.scopa.game.ScopaGame#legalMoves(int[])}: every capture
+     * option of each card in hand, then dropping it. Only the first {@link Move#MAX_CAPTURE_OPTIONS}
+     * options of a card are listed; Scopone tables built up by aimless play can offer more.
+     */
+    public int legalMoves(int[] out) {
+        int n = 0;
+        int h = 0;
+        for (long m = hand[current]; m != 0; m &= m - 1, h++) {
+            int options = Math.min(captureOptions(Card.of(Long.numberOfTrailingZeros(m)).value()),
+                Move.MAX_CAPTURE_OPTIONS);
+            for (int c = 0; c <= options; c++) {
+                if (n < out.length) {
+                    out[n] = Move.of(h, c < options ? c : -1);
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Play a move; a capture index past the last option drops the card.
+     * @return false if the hand index is out of range
+     */
+    public boolean play(int move) {
+        long cards = hand[current];
+        int h = Move.handIndex(move);
+        if (h >= Long.bitCount(cards)) {
+            return false;
+        }
+        for (int i = 0; i < h; i++) {
+            cards &= cards - 1;
+        }
+        long bit = Long.lowestOneBit(cards);
+        int card = Long.numberOfTrailingZeros(bit);
+        hand[current] &= ~bit;
+        remaining--;
+
+        int count = captureOptions(Card.of(card).value());
+        int c = Move.captureIndex(move);
+        if (c >= 0 && c < count) {
+            long taken = options[c];
+            int side = side(current);
+            table &= ~taken;
+            pile[side] |= taken | bit;
+            lastCapturer = current;
+            boolean sweep = sweepOffered && c == 0;
+            if (table == 0 && remaining >= rules.scopaMinRemaining && !sweep) {
+                scopas[side]++;
+            }
+        } else {
+            table |= bit;
+        }
+
+        current = current + 1 == players ? 0 : current + 1;
+        if (remaining == deckSize && deckSize > 0) {
+            dealHands();
+        }
+        return true;
+    }
+
+    /** Deal a hand to every player, starting with the player to move. */
+    private void dealHands() {
+        for (int i = 0, p = current; i < players; i++, p = p + 1 == players ? 0 : p + 1) {
+            for (int k = 0; k < rules.handSize && deckSize > 0; k++) {
+                hand[p] |= 1L << deck[--deckSize];
+            }
+        }
+    }
+
+    /**
+     * Give the remaining table cards to the last capturer's side.
+     */
+    public void finish() {
+        if (table != 0 && lastCapturer >= 0) {
+            pile[side(lastCapturer)] |= table;
+            table = 0;
+        }
+    }
+
+    /**
+     * Round points for {@code side}: the usual categories, scopas and the variant's bonuses.
+     */
+    public int points(int side) {
+        int packed = ScoringKernel.points(pile[0], pile[1]);
+        int base = side == 0 ? packed & 0xFFFF : packed >>> 16;
+        return base + scopas[side] + rules.coinBonus[VariantRules.coins(pile[side])];
+    }
+
+    /** Side 0's points minus side 1's. */
+    public int pointDifference() {
+        return points(0) - points(1);
+    }
+
+    public ScopaRules.Score score() {
+        return new ScopaRules.Score(points(0), points(1));
+    }
+
+    /**
+     * Fill {@link #options} with the capture options of a card of {@code value} as card masks.
+     * @return the number of options
+     */
+    int captureOptions(int value) {
+        sweepOffered = false;
+        if (table == 0) {
+            return 0;
+        }
+        long counts = VariantRules.counts(table);
+        int n = 0;
+        if (VariantRules.covers(counts, rules.sweepPattern[value])
+                && !VariantRules.covers(counts, rules.sweepBlocker[value])) {
+            sweepOffered = true;
+            n = add(table, n);
+        }
+        long[] patterns = rules.patterns[value];
+        long[] blockers = rules.blockers[value];
+        for (int i = 0; i < patterns.length; i++) {
+            if (VariantRules.covers(counts, patterns[i]) && !VariantRules.covers(counts, blockers[i])) {
+                n = expand(patterns[i], 0, n);
+            }
+        }
+        return n;
+    }
+
+    long option(int i) {
+        return options[i];
+    }
+
+    /** Add every way of taking the cards of {@code pattern} from the table, on top of {@code taken}. */
+    private int expand(long pattern, long taken, int n) {
+        if (pattern == 0) {
+            return add(taken, n);
+        }
+        int shift = Long.numberOfTrailingZeros(pattern) & ~3;
+        int value = shift / 4 + 1;
+        int k = (int) (pattern >>> shift) & 0xF;
+        long rest = pattern & ~(0xFL << shift);
+        for (int suits : VariantRules.CHOOSE[VariantRules.suits(table, value)][k]) {
+            n = expand(rest, taken | VariantRules.SUIT_SPREAD[suits] << (value - 1), n);
+        }
+        return n;
+    }
+
+    private int add(long option, int n) {
+        if (n == options.length) {
+            options = Arrays.copyOf(options, 2 * n);
+        }
+        options[n] = option;
+        return n + 1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.Bot;
+import com.example.scopa.player.Player;
+import com.example.scopa.player.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `BeliefTracker`: the unseen set must always be exactly the
+ * opponent's hand plus the deck, and sampled hands must be consistent with it.
+ */
+public class BeliefTrackerTest {
+
+    @Test
+    public void tracksUnseenCardsThroughWholeRounds() {
+        RandomBot p1 = new RandomBot("P1", 1);
+        RandomBot p2 = new RandomBot("P2", 2);
+        ScopaGame game = ScopaGame.twoPlayer(p1, p2);
+        BeliefTracker[] trackers = {new BeliefTracker(0, 11), new BeliefTracker(1, 12)};
+        game.addListener(trackers[0]);
+        game.addListener(trackers[1]);
+        int[] moves = new int[256];
+
+        for (int round = 0; round < 50; round++) {
+            game.startNewRound(round, round % 2);
+            while (!game.isRoundOver()) {
+                for (int seat = 0; seat < 2; seat++) {
+                    check(game, trackers[seat], seat == 0 ? p1 : p2, seat == 0 ? p2 : p1);
+                }
+                int n = game.legalMoves(moves);
+                Bot current = (Bot) game.getCurrentPlayer();
+                assertTrue(game.playMove(current.chooseMove(game, moves, n)));
+            }
+            assertEquals(0, trackers[0].unseen(), "Every card has been seen by the end of the round");
+        }
+    }
+
+    private static void check(ScopaGame game, BeliefTracker tracker, Player me, Player opponent) {
+        long visible = game.getTable().getMask() | me.getHandMask()
+            | me.getCapturedMask() | opponent.getCapturedMask();
+        long all = (1L << Card.DECK_SIZE) - 1;
+        assertEquals(all & ~visible, tracker.unseen());
+        assertEquals(opponent.getHandMask(), tracker.unseen() & opponent.getHandMask());
+        assertEquals(me.getHandMask(), tracker.ownHand());
+        assertEquals(game.getTable().getMask(), tracker.table());
+        assertEquals(opponent.getHand().size(), tracker.opponentHandSize());
+        assertEquals(game.getDeck().size(), tracker.deckSize());
+
+        for (int i = 0; i < 20; i++) {
+            long hand = tracker.sampleOpponentHand();
+            assertEquals(tracker.opponentHandSize(), Long.bitCount(hand));
+            assertEquals(0, hand & ~tracker.unseen(), "Sampled cards must be unseen");
+        }
+    }
+
+    @Test
+    public void passedCaptureMakesCapturingCardsLessLikely() {
+        BeliefTracker tracker = new BeliefTracker(0, 5);
+        Card fiveOnTable = Card.of(4);       // Five of Coins
+        Card otherFive = Card.of(14);        // Five of Cups
+        Card king = Card.of(9);              // King of Coins
+        Card dropped = Card.of(10);          // Ace of Cups
+        tracker.roundStarted(null, 1L << fiveOnTable.index());
+        tracker.handDealt(null, 0, 0b111L << 20);
+        tracker.handDealt(null, 1, 0b111L << 30);  // three unknown cards for the opponent
+        double before = tracker.probability(otherFive);
+        assertEquals(before, tracker.probability(king), 1e-12);
+
+        tracker.cardPlayed(null, 1, dropped, 1L << fiveOnTable.index(), 0);
+        assertTrue(tracker.probability(otherFive) < tracker.probability(king),
+            "A five would have captured the five on the table");
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `DoubleDummyAnalyzer`: solved values must match a plain
+ * minimax near the end of a round, with one thread or several, and the
+ * points lost per move must account for the gap between optimal and
+ * actual play.
+ */
+public class DoubleDummyAnalyzerTest {
+
+    @Test
+    public void solveMatchesPlainMinimax() {
+        Random rnd = new Random(44);
+        try (DoubleDummyAnalyzer one = new DoubleDummyAnalyzer(1, 16);
+             DoubleDummyAnalyzer three = new DoubleDummyAnalyzer(3, 16)) {
+            for (int round = 0; round < 40; round++) {
+                SimState s = randomPosition(rnd, 7);
+                int expected = minimax(s);
+                DoubleDummyAnalyzer.Solution solution = one.solve(s);
+                assertEquals(expected, solution.value());
+                assertEquals(expected, three.solve(s).value());
+
+                SimState after = s.copy();
+                assertTrue(after.play(solution.bestMove()));
+                assertEquals(expected, -minimax(after));
+            }
+        }
+    }
+
+    @Test
+    public void pointsLostAddUpToTheGapFromOptimalPlay() {
+        Random rnd = new Random(7);
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(99, 1);
+        SimState start = SimState.of(game);
+        for (int ply = 0; ply < 20; ply++) {
+            start.play(legalMoves(start)[0]);
+        }
+        SimState s = start.copy();
+        int[] line = new int[0];
+        while (!s.isRoundOver()) {
+            int[] moves = legalMoves(s);
+            line = Arrays.copyOf(line, line.length + 1);
+            line[line.length - 1] = moves[rnd.nextInt(moves.length)];
+            s.play(line[line.length - 1]);
+        }
+        s.finish();
+
+        try (DoubleDummyAnalyzer analyzer = new DoubleDummyAnalyzer(2, 18)) {
+            DoubleDummyAnalyzer.Analysis a = analyzer.analyze(start, line);
+            assertEquals(s.pointDifference(), a.actualValue());
+            int gap = 0;
+            for (int i = 0; i < a.moveCount(); i++) {
+                assertTrue(a.pointsLost(i) >= 0, "Move " + i);
+                gap += a.seat(i) == 0 ? a.pointsLost(i) : -a.pointsLost(i);
+            }
+            assertEquals(a.optimalValue() - a.actualValue(), gap);
+            assertTrue(a.nodes() > 0);
+        }
+    }
+
+    private static SimState randomPosition(Random rnd, int pliesLeft) {
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(rnd.nextLong(), rnd.nextInt(2));
+        SimState s = SimState.of(game);
+        while (Long.bitCount(s.hand(0) | s.hand(1)) + s.deckSize() > pliesLeft) {
+            int[] moves = legalMoves(s);
+            s.play(moves[rnd.nextInt(moves.length)]);
+        }
+        return s;
+    }
+
+    /** Round points for the player to move minus the other's, under optimal play. */
+    private static int minimax(SimState s) {
+        if (s.isRoundOver()) {
+            SimState end = s.copy();
+            end.finish();
+            return s.current() == 0 ? end.pointDifference() : -end.pointDifference();
+        }
+        int best = Integer.MIN_VALUE;
+        for (int move : legalMoves(s)) {
+            SimState child = s.copy();
+            child.play(move);
+            best = Math.max(best, -minimax(child));
+        }
+        return best;
+    }
+
+    private static int[] legalMoves(SimState s) {
+        int[] moves = new int[s.legalMoves(new int[0])];
+        s.legalMoves(moves);
+        return moves;
+    }
+}
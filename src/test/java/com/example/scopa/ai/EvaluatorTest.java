@@ -0,0 +1,91 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `Evaluator` and `EvalWeights`: incremental updates must agree
+ * with recomputing from scratch, and weights files must round-trip.
+ */
+public class EvaluatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void incrementalUpdatesMatchFullRecomputation() {
+        EvalWeights weights = EvalWeights.defaults();
+        Evaluator incremental = new Evaluator(weights);
+        Evaluator full = new Evaluator(weights);
+        Random rnd = new Random(43);
+        int[] moves = new int[256];
+        for (int round = 0; round < 300; round++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(rnd.nextLong(), round % 2);
+            SimState s = SimState.of(game);
+            incremental.reset(s);
+            while (!s.isRoundOver()) {
+                int n = Math.min(s.legalMoves(moves), moves.length);
+                assertTrue(incremental.play(s, moves[rnd.nextInt(n)]));
+                full.reset(s);
+                assertEquals(full.evaluate(), incremental.evaluate());
+            }
+        }
+    }
+
+    @Test
+    public void updateFromAnotherLineRecomputes() {
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(17);
+        SimState root = SimState.of(game);
+        SimState deep = root.copy();
+        int[] moves = new int[256];
+        Evaluator eval = new Evaluator(EvalWeights.defaults());
+        eval.reset(deep);
+        while (deep.deckSize() > 0) {
+            deep.legalMoves(moves);
+            eval.play(deep, moves[0]);
+        }
+        eval.update(root);
+        Evaluator fresh = new Evaluator(EvalWeights.defaults());
+        fresh.reset(root);
+        assertEquals(fresh.evaluate(), eval.evaluate());
+    }
+
+    @Test
+    public void settebelloInPileIsWorthAboutAPoint() {
+        SimState s = new SimState();
+        Evaluator eval = new Evaluator(EvalWeights.defaults());
+        eval.reset(s);
+        int before = eval.evaluate();
+        s.captured[0] = 1L << Card.of(Suit.COINS, Rank.SEVEN).index();
+        s.captured[1] = 1L << Card.of(Suit.CUPS, Rank.TWO).index();
+        eval.update(s);
+        int gain = eval.evaluate() - before;
+        assertTrue(gain > Evaluator.SCALE / 2 && gain < 2 * Evaluator.SCALE, "Gain " + gain);
+        assertEquals(gain, -eval.evaluate(1) - before);
+    }
+
+    @Test
+    public void weightsRoundTripThroughAFile() throws IOException {
+        Path file = dir.resolve("weights.txt");
+        EvalWeights.defaults().write(file);
+        assertEquals(EvalWeights.defaults(), EvalWeights.load(file));
+
+        Files.writeString(file, "# no sections\nhand 1 2 3\n");
+        IOException e = assertThrows(IOException.class, () -> EvalWeights.load(file));
+        assertTrue(e.getMessage().contains("hand needs 40 values"), e.getMessage());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.rules.ScopaRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `OddsCalculator`: answers must equal a brute-force count over
+ * every opponent hand, whether enumerated sequentially or forked.
+ */
+public class OddsCalculatorTest {
+
+    @Test
+    public void matchesBruteForceOnRealDeals() {
+        OddsCalculator odds = new OddsCalculator();
+        for (long seed = 0; seed < 20; seed++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            BeliefTracker belief = new BeliefTracker(0, 1);
+            game.addListener(belief);
+            game.startNewRound(seed);
+            OddsCalculator.Position position = OddsCalculator.Position.of(belief);
+            List<Card> unseen = cards(position.getUnseen());
+            List<Card> table = cards(position.getTable());
+
+            assertEquals(bruteForce(unseen, hand -> sweeps(hand, table)), odds.sweepChance(position), 1e-12);
+            for (Card target : table) {
+                assertEquals(bruteForce(unseen, hand -> captures(hand, table, target)),
+                    odds.captureChance(position, target), 1e-12, "Capture odds for " + target);
+            }
+            Card settebello = Card.of(Suit.COINS, Rank.SEVEN);
+            if (unseen.contains(settebello)) {
+                double hold = 3.0 / unseen.size();
+                assertEquals(hold, odds.holdChance(position, settebello), 1e-12);
+                assertEquals(1 - hold, odds.deckChance(position, settebello), 1e-12);
+            } else {
+                assertEquals(0, odds.deckChance(position, settebello));
+            }
+        }
+    }
+
+    @Test
+    public void largeEnumerationsAreForkedAndExact() {
+        long all = (1L << Card.DECK_SIZE) - 1;
+        long table = 0b111;
+        OddsCalculator.Position position = new OddsCalculator.Position(all & ~table, table, 3);
+        assertTrue(OddsCalculator.binomial(37, 3) > OddsCalculator.SPLIT_THRESHOLD);
+        OddsCalculator odds = new OddsCalculator();
+        assertEquals(1.0, odds.probability(position, hand -> Long.bitCount(hand) == 3));
+        // The opponent holds none of the 7 coins cards left: C(30,3) / C(37,3).
+        long coins = all & ((1L << 10) - 1) & ~table;
+        double expected = OddsCalculator.binomial(30, 3) / (double) OddsCalculator.binomial(37, 3);
+        assertEquals(expected, odds.probability(position, hand -> (hand & coins) == 0), 1e-12);
+
+        // Swapping Cups and Clubs gives an equivalent position with the same answers.
+        int swap = 3 | 2 << 2 | 1 << 4;
+        long cupsTable = 1L << 12 | 1L << 15;
+        OddsCalculator.Position plain = new OddsCalculator.Position(all & ~cupsTable, cupsTable, 3);
+        OddsCalculator.Position swapped = new OddsCalculator.Position(SuitSymmetry.apply(all & ~cupsTable, swap),
+            SuitSymmetry.apply(cupsTable, swap), 3);
+        Card target = Card.of(12);
+        assertEquals(odds.captureChance(plain, target),
+            odds.captureChance(swapped, Card.of(SuitSymmetry.card(12, swap))), 1e-12);
+
+        double first = odds.sweepChance(position);
+        assertEquals(first, odds.sweepChance(new OddsCalculator.Position(all & ~table, table, 3)),
+            "Equal positions share memoized answers");
+    }
+
+    private interface HandTest {
+        boolean test(List<Card> hand);
+    }
+
+    private static double bruteForce(List<Card> unseen, HandTest test) {
+        int hits = 0;
+        int total = 0;
+        for (int i = 0; i < unseen.size(); i++) {
+            for (int j = i + 1; j < unseen.size(); j++) {
+                for (int k = j + 1; k < unseen.size(); k++) {
+                    total++;
+                    if (test.test(List.of(unseen.get(i), unseen.get(j), unseen.get(k)))) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits / (double) total;
+    }
+
+    private static boolean sweeps(List<Card> hand, List<Card> table) {
+        for (Card card : hand) {
+            for (List<Card> capture : ScopaRules.possibleCaptures(card, table)) {
+                if (capture.size() == table.size()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean captures(List<Card> hand, List<Card> table, Card target) {
+        for (Card card : hand) {
+            for (List<Card> capture : ScopaRules.possibleCaptures(card, table)) {
+                if (capture.contains(target)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Card> cards(long mask) {
+        List<Card> cards = new ArrayList<>();
+        for (long m = mask; m != 0; m &= m - 1) {
+            cards.add(Card.of(Long.numberOfTrailingZeros(m)));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.SuitSymmetry;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.rules.ScopaRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `SimState`: playing the same moves on the mask engine and on
+ * `ScopaGame` must give the same legal moves, positions and scores.
+ */
+public class SimStateTest {
+
+    @Test
+    public void mirrorsScopaGameMoveForMove() {
+        Random rnd = new Random(2024);
+        int[] gameMoves = new int[256];
+        int[] simMoves = new int[256];
+        for (int round = 0; round < 300; round++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(rnd.nextLong(), round % 2);
+            SimState sim = SimState.of(game);
+            while (!game.isRoundOver()) {
+                int n = game.legalMoves(gameMoves);
+                assertEquals(n, sim.legalMoves(simMoves));
+                assertArrayEquals(Arrays.copyOf(gameMoves, n), Arrays.copyOf(simMoves, n));
+                int move = gameMoves[rnd.nextInt(n)];
+                assertTrue(game.playMove(move));
+                assertTrue(sim.play(move));
+                assertSamePosition(SimState.of(game), sim);
+            }
+            assertTrue(sim.isRoundOver());
+            game.finalizeRound();
+            sim.finish();
+            assertSamePosition(SimState.of(game), sim);
+            ScopaRules.Score expected = game.calculateScore();
+            assertEquals(expected.getPlayer1Points() - expected.getPlayer2Points(), sim.pointDifference());
+        }
+    }
+
+    @Test
+    public void capsCaptureOptionsLikeScopaGame() {
+        HumanPlayer a = new HumanPlayer("A");
+        ScopaGame game = ScopaGame.twoPlayer(a, new HumanPlayer("B"));
+        game.startNewRound(5);
+        // Every Ace, Two, Three and Four on the table: a King has 952 ways to capture.
+        game.getTable().clearAll();
+        for (int suit = 0; suit < 4; suit++) {
+            for (int rank = 0; rank < 4; rank++) {
+                game.getTable().addToTable(Card.of(suit * 10 + rank));
+            }
+        }
+        a.clearHand();
+        a.giveCard(Card.of(9));
+        SimState sim = SimState.of(game);
+
+        int[] gameMoves = new int[512];
+        int[] simMoves = new int[512];
+        int n = game.legalMoves(gameMoves);
+        assertEquals(Move.MAX_CAPTURE_OPTIONS + 1, n);
+        assertEquals(n, sim.legalMoves(simMoves));
+        assertArrayEquals(Arrays.copyOf(gameMoves, n), Arrays.copyOf(simMoves, n));
+        assertEquals(n, Arrays.stream(simMoves, 0, n).distinct().count(), "No two options share an encoding");
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(9);
+        SimState original = SimState.of(game);
+        SimState copy = original.copy();
+        int[] moves = new int[64];
+        copy.legalMoves(moves);
+        copy.play(moves[0]);
+        assertSamePosition(SimState.of(game), original);
+        assertNotEquals(original.current(), copy.current());
+    }
+
+    @Test
+    public void canonicalHashIgnoresPlainSuitNames() {
+        int[] relabellings = {
+            1 | 2 << 2 | 3 << 4, 1 | 3 << 2 | 2 << 4, 2 | 1 << 2 | 3 << 4,
+            2 | 3 << 2 | 1 << 4, 3 | 1 << 2 | 2 << 4, 3 | 2 << 2 | 1 << 4,
+        };
+        Random rnd = new Random(41);
+        int[] moves = new int[64];
+        Set<Long> seen = new HashSet<>();
+        int positions = 0;
+        for (int round = 0; round < 20; round++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(rnd.nextLong(), round % 2);
+            SimState sim = SimState.of(game);
+            while (!sim.isRoundOver()) {
+                long hash = sim.canonicalHash();
+                for (int r : relabellings) {
+                    assertEquals(hash, relabel(sim, r).canonicalHash());
+                }
+                seen.add(hash);
+                positions++;
+                sim.play(moves[rnd.nextInt(sim.legalMoves(moves))]);
+            }
+        }
+        assertEquals(positions, seen.size(), "Different positions must hash apart");
+    }
+
+    private static SimState relabel(SimState s, int r) {
+        SimState out = s.copy();
+        for (int p = 0; p < 2; p++) {
+            out.hand[p] = SuitSymmetry.apply(s.hand[p], r);
+            out.captured[p] = SuitSymmetry.apply(s.captured[p], r);
+        }
+        out.table = SuitSymmetry.apply(s.table, r);
+        for (int i = 0; i < s.deckSize; i++) {
+            out.deck[i] = (byte) SuitSymmetry.card(s.deck[i], r);
+        }
+        return out;
+    }
+
+    private static void assertSamePosition(SimState expected, SimState actual) {
+        for (int p = 0; p < 2; p++) {
+            assertEquals(expected.hand(p), actual.hand(p), "hand " + p);
+            assertEquals(expected.captured(p), actual.captured(p), "captured " + p);
+            assertEquals(expected.scopas(p), actual.scopas(p), "scopas " + p);
+        }
+        assertEquals(expected.table(), actual.table(), "table");
+        assertEquals(expected.deckSize(), actual.deckSize(), "deck size");
+        for (int i = 0; i < expected.deckSize(); i++) {
+            assertEquals(expected.deckCard(i), actual.deckCard(i), "deck card " + i);
+        }
+        assertEquals(expected.current(), actual.current(), "current");
+        assertEquals(expected.lastCapturer(), actual.lastCapturer(), "last capturer");
+    }
+}
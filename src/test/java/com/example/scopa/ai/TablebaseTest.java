@@ -0,0 +1,152 @@
+package com.example.scopa.ai;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `EndgameSolver` and `Tablebase`: memoized values, shared
+ * across endgames with different capture piles, must equal a plain
+ * minimax, and a generated table must hold every endgame of its class
+ * whose primiera is settled, with the same values.
+ */
+public class TablebaseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void solverMatchesPlainMinimax() {
+        EndgameSolver solver = new EndgameSolver();
+        for (SimState endgame : endgames(300, 7)) {
+            assertEquals(minimax(endgame), solver.solve(endgame));
+        }
+    }
+
+    @Test
+    public void generatedTableHoldsEveryEndgameOfItsClass() throws IOException {
+        Tablebase.Builder memo = new Tablebase.Builder(1 << 23);
+        assertTrue(new TablebaseGenerator(2, 3).generate(memo));
+        Path file = dir.resolve("endgames.tb");
+        memo.write(file, 2, 3);
+
+        Random rnd = new Random(3);
+        int hits = 0;
+        try (Tablebase table = Tablebase.open(file)) {
+            assertEquals(memo.size(), table.entries());
+            EndgameSolver solver = new EndgameSolver(table);
+            for (SimState endgame : endgames(200, 11, true)) {
+                assertEquals(minimax(endgame), solver.solve(endgame));
+                SimState s = endgame.copy();
+                while (!s.isRoundOver()) {
+                    boolean inClass = Long.bitCount(s.hand(0)) <= 2 && Long.bitCount(s.hand(1)) <= 2
+                        && Long.bitCount(s.hand(0) | s.hand(1) | s.table()) <= 3;
+                    if (!inClass) {
+                        assertEquals(Tablebase.NOT_FOUND, table.probe(s));
+                    } else if (Tablebase.key(s) != Tablebase.NO_KEY) {
+                        assertEquals(minimax(s), table.probe(s));
+                        hits++;
+                    }
+                    s.play(capturing(legalMoves(s), rnd));
+                }
+            }
+        }
+        assertTrue(hits > 20, "Only " + hits + " endgames with a settled primiera");
+    }
+
+    @Test
+    public void searchValuesEndgameRootsExactly() throws IOException {
+        Path file = dir.resolve("empty.tb");
+        new Tablebase.Builder().write(file, 0, 0);
+        try (Tablebase table = Tablebase.open(file)) {
+            MonteCarloSearch search = new MonteCarloSearch(1, table);
+            for (SimState endgame : endgames(20, 13)) {
+                MonteCarloSearch.Result r = search.search(endgame, null, SearchBudget.iterations(100));
+                assertTrue(r.isExact());
+                for (int i = 0; i < r.moveCount(); i++) {
+                    SimState child = endgame.copy();
+                    child.play(r.move(i));
+                    int diff = minimax(child) + child.scopas(0) - child.scopas(1);
+                    assertEquals(endgame.current() == 0 ? diff : -diff, r.mean(i));
+                    assertEquals(0, r.halfWidth(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void midRoundPositionsAreNotFound() throws IOException {
+        Path file = dir.resolve("empty.tb");
+        new Tablebase.Builder().write(file, 0, 0);
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        game.startNewRound(5);
+        try (Tablebase table = Tablebase.open(file)) {
+            assertEquals(Tablebase.NOT_FOUND, table.probe(SimState.of(game)));
+            assertEquals(Tablebase.NOT_FOUND, table.probe(endgames(1, 5).get(0)));
+        }
+    }
+
+    private static List<SimState> endgames(int count, long seed) {
+        return endgames(count, seed, false);
+    }
+
+    /**
+     * @param capturing play a random capture whenever there is one, as rollouts do, so that piles
+     *                  grow like in real rounds
+     */
+    private static List<SimState> endgames(int count, long seed, boolean capturing) {
+        Random rnd = new Random(seed);
+        List<SimState> out = new ArrayList<>();
+        while (out.size() < count) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(rnd.nextLong(), rnd.nextInt(2));
+            SimState s = SimState.of(game);
+            while (s.deckSize() > 0 && !s.isRoundOver()) {
+                int[] moves = legalMoves(s);
+                s.play(capturing ? capturing(moves, rnd) : moves[rnd.nextInt(moves.length)]);
+            }
+            if (!s.isRoundOver()) {
+                out.add(s);
+            }
+        }
+        return out;
+    }
+
+    private static int minimax(SimState s) {
+        if (s.isRoundOver()) {
+            SimState end = s.copy();
+            end.finish();
+            return end.pointDifference();
+        }
+        int best = s.current() == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int move : legalMoves(s)) {
+            SimState child = s.copy();
+            child.play(move);
+            int value = minimax(child);
+            best = s.current() == 0 ? Math.max(best, value) : Math.min(best, value);
+        }
+        return best;
+    }
+
+    private static int capturing(int[] moves, Random rnd) {
+        int[] captures = Arrays.stream(moves).filter(Move::isCapture).toArray();
+        return captures.length > 0 ? captures[rnd.nextInt(captures.length)] : moves[rnd.nextInt(moves.length)];
+    }
+
+    private static int[] legalMoves(SimState s) {
+        int[] moves = new int[s.legalMoves(new int[0])];
+        s.legalMoves(moves);
+        return moves;
+    }
+}
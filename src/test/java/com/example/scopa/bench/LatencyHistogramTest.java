@@ -0,0 +1,42 @@
+package com.example.scopa.bench;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `LatencyHistogram` bucketing and percentile lookups.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverValuesWithSmallRelativeError() {
+        long previous = -1;
+        for (long micros = 0; micros < 5_000_000; micros = micros < 100 ? micros + 1 : micros * 11 / 10) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= micros, "Bucket upper bound must not be below the value");
+            assertTrue(upper - micros <= Math.max(1, micros / 30), "Relative error should stay near 3%");
+            assertTrue(bucket >= previous, "Buckets must be monotonic in the value");
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void percentilesFollowRecordedDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.recordNanos(i * 1000L);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1000, h.maxMicros());
+        assertEquals(500, h.percentileMicros(50), 500 / 30.0);
+        assertEquals(990, h.percentileMicros(99), 990 / 30.0);
+        assertEquals(1000, h.percentileMicros(100));
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(h);
+        assertEquals(h.count(), merged.count());
+        assertEquals(h.percentileMicros(90), merged.percentileMicros(90));
+    }
+}
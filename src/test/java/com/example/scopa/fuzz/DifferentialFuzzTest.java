@@ -0,0 +1,316 @@
+package com.example.scopa.fuzz;
+
+import com.example.scopa.game.Move;
+import com.example.scopa.model.Card;
+import com.example.scopa.rules.ScopaRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential fuzzing of the optimized engines in `Engines` against the
+ * list-based reference: random tables for captures, random piles for
+ * scoring, and whole seeded rounds played with random moves. Cases are
+ * spread over the common fork-join pool; the first divergence found is
+ * shrunk to a minimal case and reported with the seed that reproduces it.
+ *
+ * The default sweep is small enough for every build. `mvn test -Pfuzz`
+ * runs only this class, 100 times larger; `-Dscopa.fuzz.scale=N` and
+ * `-Dscopa.fuzz.seed=S` adjust size and seed.
+ */
+public class DifferentialFuzzTest {
+    private static final long SCALE = Long.getLong("scopa.fuzz.scale", 1);
+    private static final long SEED = Long.getLong("scopa.fuzz.seed", 0x5C0BAL);
+
+    @Test
+    public void capturesMatchPossibleCaptures() {
+        sweep("captures", 20_000 * SCALE, DifferentialFuzzTest::captureCase,
+            DifferentialFuzzTest::captureDivergence, DifferentialFuzzTest::smallerCaptureCases);
+    }
+
+    @Test
+    public void scoresMatchScoreRound() {
+        sweep("scoring", 20_000 * SCALE, DifferentialFuzzTest::scoreCase,
+            DifferentialFuzzTest::scoreDivergence, DifferentialFuzzTest::smallerScoreCases);
+    }
+
+    @Test
+    public void roundsMatchPlayCard() {
+        sweep("rounds", 500 * SCALE, DifferentialFuzzTest::gameCase,
+            DifferentialFuzzTest::gameDivergence, DifferentialFuzzTest::smallerGameCases);
+    }
+
+    @Test
+    public void shrinkerFindsAMinimalCase() {
+        // A made-up bug: any table holding two Kings diverges.
+        List<Card> table = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            table.add(Card.of(i * 4));
+        }
+        table.set(1, Card.of(9));
+        table.set(7, Card.of(19));
+        CaptureCase failing = new CaptureCase(Card.of(0), table);
+        Function<CaptureCase, String> twoKings = c ->
+            c.table().stream().filter(card -> card.value() == 10).count() >= 2 ? "two kings" : null;
+        CaptureCase minimal = Shrinker.shrink(failing, DifferentialFuzzTest::smallerCaptureCases, twoKings);
+        assertEquals(List.of(Card.of(9), Card.of(19)), minimal.table());
+    }
+
+    /**
+     * Check {@code cases} generated cases in parallel; on the first divergence, shrink it and fail.
+     */
+    private static <T> void sweep(String what, long cases, LongFunction<T> generate,
+                                  Function<T, String> divergence, Function<T, List<T>> smaller) {
+        int chunks = 4 * ForkJoinPool.commonPool().getParallelism() + 1;
+        AtomicLong found = new AtomicLong(-1);
+        LongStream.range(0, chunks).parallel().forEach(chunk -> {
+            for (long i = chunk; i < cases && found.get() < 0; i += chunks) {
+                if (divergence.apply(generate.apply(SEED + i)) != null) {
+                    found.compareAndSet(-1, i);
+                }
+            }
+        });
+        if (found.get() >= 0) {
+            long seed = SEED + found.get();
+            T failing = generate.apply(seed);
+            T minimal = Shrinker.shrink(failing, smaller, divergence);
+            fail(what + " diverged (case seed " + seed + "): " + divergence.apply(minimal)
+                + "\n  minimal case: " + minimal + "\n  found as: " + failing);
+        }
+    }
+
+    // Captures
+
+    record CaptureCase(Card played, List<Card> table) {}
+
+    private static CaptureCase captureCase(long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        // Half the tables use only low cards, where sums have the most combinations.
+        boolean lowOnly = rnd.nextBoolean();
+        int[] deck = shuffledDeck(rnd);
+        List<Card> table = new ArrayList<>();
+        Card played = Card.of(deck[0]);
+        int size = rnd.nextInt(11);
+        for (int i = 1; i < deck.length && table.size() < size; i++) {
+            Card c = Card.of(deck[i]);
+            if (!lowOnly || c.value() <= 5) {
+                table.add(c);
+            }
+        }
+        return new CaptureCase(played, table);
+    }
+
+    private static String captureDivergence(CaptureCase c) {
+        List<List<Card>> expected = Engines.REFERENCE_CAPTURES.possibleCaptures(c.played(), c.table());
+        for (Engines.Named<Engines.Captures> e : Engines.CAPTURES) {
+            try {
+                List<List<Card>> actual = e.engine().possibleCaptures(c.played(), c.table());
+                if (!expected.equals(actual)) {
+                    return e.name() + " gave " + actual + ", expected " + expected;
+                }
+            } catch (RuntimeException ex) {
+                return e.name() + " threw " + ex;
+            }
+        }
+        return null;
+    }
+
+    private static List<CaptureCase> smallerCaptureCases(CaptureCase c) {
+        List<CaptureCase> out = new ArrayList<>();
+        for (List<Card> table : smallerLists(c.table())) {
+            out.add(new CaptureCase(c.played(), table));
+        }
+        return out;
+    }
+
+    // Scoring
+
+    record ScoreCase(List<Card> p1, int p1Scopas, List<Card> p2, int p2Scopas) {}
+
+    private static ScoreCase scoreCase(long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<Card> p1 = new ArrayList<>();
+        List<Card> p2 = new ArrayList<>();
+        // Mostly whole decks split in two, sometimes partial piles with missing suits.
+        int unused = rnd.nextInt(4) == 0 ? rnd.nextInt(40) : 0;
+        for (int card : shuffledDeck(rnd)) {
+            int r = rnd.nextInt(Card.DECK_SIZE);
+            if (r < unused) {
+                continue;
+            }
+            (rnd.nextBoolean() ? p1 : p2).add(Card.of(card));
+        }
+        return new ScoreCase(p1, rnd.nextInt(4), p2, rnd.nextInt(4));
+    }
+
+    private static String scoreDivergence(ScoreCase c) {
+        ScopaRules.Score expected = Engines.REFERENCE_SCORING.score(c.p1(), c.p1Scopas(), c.p2(), c.p2Scopas());
+        for (Engines.Named<Engines.Scoring> e : Engines.SCORING) {
+            try {
+                ScopaRules.Score actual = e.engine().score(c.p1(), c.p1Scopas(), c.p2(), c.p2Scopas());
+                if (!sameScore(expected, actual)) {
+                    return e.name() + " gave " + actual + ", expected " + expected;
+                }
+            } catch (RuntimeException ex) {
+                return e.name() + " threw " + ex;
+            }
+        }
+        return null;
+    }
+
+    private static List<ScoreCase> smallerScoreCases(ScoreCase c) {
+        List<ScoreCase> out = new ArrayList<>();
+        if (c.p1Scopas() > 0 || c.p2Scopas() > 0) {
+            out.add(new ScoreCase(c.p1(), 0, c.p2(), 0));
+        }
+        for (List<Card> p1 : smallerLists(c.p1())) {
+            out.add(new ScoreCase(p1, c.p1Scopas(), c.p2(), c.p2Scopas()));
+        }
+        for (List<Card> p2 : smallerLists(c.p2())) {
+            out.add(new ScoreCase(c.p1(), c.p1Scopas(), p2, c.p2Scopas()));
+        }
+        return out;
+    }
+
+    // Rounds
+
+    /** A seeded deal played by picking move {@code choices[ply] % legalMoves} at each ply. */
+    record GameCase(long seed, int firstPlayer, int[] choices) {
+        @Override
+        public String toString() {
+            return "GameCase[seed=" + seed + ", firstPlayer=" + firstPlayer + ", choices=" + Arrays.toString(choices) + "]";
+        }
+    }
+
+    private static GameCase gameCase(long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int[] choices = new int[Card.DECK_SIZE];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = rnd.nextInt(1 << 16);
+        }
+        return new GameCase(rnd.nextLong(), rnd.nextInt(2), choices);
+    }
+
+    private static String gameDivergence(GameCase c) {
+        Engines.Round ref = Engines.referenceRound();
+        List<Engines.Named<Engines.Round>> engines = Engines.rounds();
+        int[] expected = new int[256];
+        int[] actual = new int[256];
+        try {
+            ref.start(c.seed(), c.firstPlayer());
+            for (Engines.Named<Engines.Round> e : engines) {
+                e.engine().start(c.seed(), c.firstPlayer());
+            }
+            for (int ply = 0; ; ply++) {
+                String diff = compareStates(ref, engines, "ply " + ply);
+                if (diff != null) {
+                    return diff;
+                }
+                if (ref.isRoundOver()) {
+                    break;
+                }
+                int n = ref.legalMoves(expected);
+                for (Engines.Named<Engines.Round> e : engines) {
+                    int m = e.engine().legalMoves(actual);
+                    if (m != n || !Arrays.equals(expected, 0, Math.min(n, 256), actual, 0, Math.min(m, 256))) {
+                        return "ply " + ply + ": " + e.name() + " lists " + m + " moves, expected " + n;
+                    }
+                }
+                int move = expected[c.choices()[ply] % Math.min(n, 256)];
+                ref.play(move);
+                for (Engines.Named<Engines.Round> e : engines) {
+                    if (!e.engine().play(move)) {
+                        return "ply " + ply + ": " + e.name() + " rejected " + Move.toString(move);
+                    }
+                }
+            }
+            ref.finish();
+            for (Engines.Named<Engines.Round> e : engines) {
+                e.engine().finish();
+            }
+            String diff = compareStates(ref, engines, "after finish");
+            if (diff != null) {
+                return diff;
+            }
+            ScopaRules.Score score = ref.score();
+            for (Engines.Named<Engines.Round> e : engines) {
+                if (!sameScore(score, e.engine().score())) {
+                    return e.name() + " scored " + e.engine().score() + ", expected " + score;
+                }
+            }
+        } catch (RuntimeException ex) {
+            return "threw " + ex;
+        }
+        return null;
+    }
+
+    private static String compareStates(Engines.Round ref, List<Engines.Named<Engines.Round>> engines, String when) {
+        long[] expected = ref.state();
+        for (Engines.Named<Engines.Round> e : engines) {
+            long[] actual = e.engine().state();
+            if (!Arrays.equals(expected, actual)) {
+                return when + ": " + e.name() + " state " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected);
+            }
+        }
+        return null;
+    }
+
+    /** Replace one choice at a time by 0 (the first legal move), the simplest way to play. */
+    private static List<GameCase> smallerGameCases(GameCase c) {
+        List<GameCase> out = new ArrayList<>();
+        for (int i = 0; i < c.choices().length; i++) {
+            if (c.choices()[i] != 0) {
+                int[] choices = c.choices().clone();
+                choices[i] = 0;
+                out.add(new GameCase(c.seed(), c.firstPlayer(), choices));
+            }
+        }
+        return out;
+    }
+
+    // Helpers
+
+    private static int[] shuffledDeck(SplittableRandom rnd) {
+        int[] deck = new int[Card.DECK_SIZE];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = deck[i];
+            deck[i] = deck[j];
+            deck[j] = t;
+        }
+        return deck;
+    }
+
+    /** The list without its first or second half, then without each single element. */
+    private static List<List<Card>> smallerLists(List<Card> cards) {
+        List<List<Card>> out = new ArrayList<>();
+        int half = cards.size() / 2;
+        if (half > 0) {
+            out.add(List.copyOf(cards.subList(half, cards.size())));
+            out.add(List.copyOf(cards.subList(0, half)));
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            List<Card> without = new ArrayList<>(cards);
+            without.remove(i);
+            out.add(without);
+        }
+        return out;
+    }
+
+    private static boolean sameScore(ScopaRules.Score a, ScopaRules.Score b) {
+        return a.getPlayer1Points() == b.getPlayer1Points() && a.getPlayer2Points() == b.getPlayer2Points();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.scopa.fuzz;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.player.Player;
+import com.example.scopa.rules.CaptureCache;
+import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The engines compared by `DifferentialFuzzTest`. Each kind has one
+ * reference built on the list-based code (`ScopaRules.possibleCaptures`,
+ * `ScopaRules.scoreRound`, `ScopaGame.playCard`/`finalizeRound`) and a
+ * list of optimized engines that must agree with it. A new fast path gets
+ * fuzzed by adding it to the matching list.
+ */
+final class Engines {
+
+    private Engines() {}
+
+    interface Captures {
+        List<List<Card>> possibleCaptures(Card played, List<Card> table);
+    }
+
+    interface Scoring {
+        ScopaRules.Score score(List<Card> p1, int p1Scopas, List<Card> p2, int p2Scopas);
+    }
+
+    /**
+     * One round, driven by packed moves (see `Move`).
+     */
+    interface Round {
+        void start(long seed, int firstPlayer);
+
+        /** Same contract as `ScopaGame.legalMoves`. */
+        int legalMoves(int[] out);
+
+        boolean play(int move);
+
+        boolean isRoundOver();
+
+        void finish();
+
+        /** Hands, piles, table as masks, then scopas, player to move, last capturer and deck size. */
+        long[] state();
+
+        ScopaRules.Score score();
+    }
+
+    static final Captures REFERENCE_CAPTURES = ScopaRules::possibleCaptures;
+
+    static final Scoring REFERENCE_SCORING = ScopaRules::scoreRound;
+
+    /** Stateless or thread-safe, so shared by all fuzzing threads. */
+    static final List<Named<Captures>> CAPTURES = List.of(
+        new Named<>("CaptureCache", new CaptureCache(1 << 12, 8)::possibleCaptures),
+        new Named<>("ScopaRules.captureMasks", Engines::maskCaptures));
+
+    static final List<Named<Scoring>> SCORING = List.of(
+        new Named<>("ScoringKernel.score", (p1, s1, p2, s2) ->
+            ScoringKernel.score(ScoringKernel.mask(p1), s1, ScoringKernel.mask(p2), s2)),
+        new Named<>("ScoringKernel.scoreRounds", (p1, s1, p2, s2) -> {
+            int[] out1 = new int[1];
+            int[] out2 = new int[1];
+            ScoringKernel.scoreRounds(new long[] {ScoringKernel.mask(p1)}, new int[] {s1},
+                new long[] {ScoringKernel.mask(p2)}, new int[] {s2}, 0, 1, out1, out2);
+            return new ScopaRules.Score(out1[0], out2[0]);
+        }));
+
+    /** Rounds keep state: a fresh reference and set of engines per case. */
+    static Round referenceRound() {
+        return new ListRound();
+    }
+
+    static List<Named<Round>> rounds() {
+        return List.of(
+            new Named<>("ScopaGame.legalMoves", new GameMovesRound()),
+            new Named<>("SimState", new SimRound()));
+    }
+
+    record Named<T>(String name, T engine) {}
+
+    private static List<List<Card>> maskCaptures(Card played, List<Card> table) {
+        int[] values = new int[table.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = table.get(i).value();
+        }
+        long[] masks = new long[16];
+        int n = ScopaRules.captureMasks(played.value(), values, values.length, masks);
+        if (n > masks.length) {
+            masks = new long[n];
+            ScopaRules.captureMasks(played.value(), values, values.length, masks);
+        }
+        List<List<Card>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Card> option = new ArrayList<>();
+            for (long m = masks[i]; m != 0; m &= m - 1) {
+                option.add(table.get(Long.numberOfTrailingZeros(m)));
+            }
+            out.add(option);
+        }
+        return out;
+    }
+
+    /**
+     * `ScopaGame` played through `playCard`, with moves listed from
+     * `ScopaRules.possibleCaptures` and scored by `ScopaRules.scoreRound`.
+     */
+    private static class ListRound implements Round {
+        ScopaGame game;
+
+        @Override
+        public void start(long seed, int firstPlayer) {
+            game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(seed, firstPlayer);
+        }
+
+        @Override
+        public int legalMoves(int[] out) {
+            List<Card> hand = game.getCurrentPlayer().getHand();
+            List<Card> table = game.getTable().getOnTable();
+            int n = 0;
+            for (int h = 0; h < hand.size(); h++) {
+                int options = ScopaRules.possibleCaptures(hand.get(h), table).size();
+                for (int c = 0; c <= options; c++) {
+                    if (n < out.length) {
+                        out[n] = Move.of(h, c < options ? c : -1);
+                    }
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public boolean play(int move) {
+            return game.playCard(Move.handIndex(move), Move.captureIndex(move));
+        }
+
+        @Override
+        public boolean isRoundOver() {
+            return game.isRoundOver();
+        }
+
+        @Override
+        public void finish() {
+            game.finalizeRound();
+        }
+
+        @Override
+        public long[] state() {
+            Player p1 = game.getPlayer1();
+            Player p2 = game.getPlayer2();
+            Player last = game.getLastCapturePlayer();
+            return new long[] {
+                ScoringKernel.mask(p1.getHand()), ScoringKernel.mask(p2.getHand()),
+                ScoringKernel.mask(p1.getCapturedCards()), ScoringKernel.mask(p2.getCapturedCards()),
+                ScoringKernel.mask(game.getTable().getOnTable()),
+                p1.getScopaCount(), p2.getScopaCount(),
+                game.getCurrentPlayer() == p1 ? 0 : 1,
+                last == null ? -1 : last == p1 ? 0 : 1,
+                game.getDeck().size()};
+        }
+
+        @Override
+        public ScopaRules.Score score() {
+            return ScopaRules.scoreRound(game.getPlayer1().getCapturedCards(), game.getPlayer1().getScopaCount(),
+                game.getPlayer2().getCapturedCards(), game.getPlayer2().getScopaCount());
+        }
+    }
+
+    /** The same game with `ScopaGame`'s own mask-based move list and `playMove`. */
+    private static final class GameMovesRound extends ListRound {
+        @Override
+        public int legalMoves(int[] out) {
+            return game.legalMoves(out);
+        }
+
+        @Override
+        public boolean play(int move) {
+            return game.playMove(move);
+        }
+
+        @Override
+        public ScopaRules.Score score() {
+            return game.calculateScore();
+        }
+    }
+
+    private static final class SimRound implements Round {
+        private SimState s;
+
+        @Override
+        public void start(long seed, int firstPlayer) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(seed, firstPlayer);
+            s = SimState.of(game);
+        }
+
+        @Override
+        public int legalMoves(int[] out) {
+            return s.legalMoves(out);
+        }
+
+        @Override
+        public boolean play(int move) {
+            return s.play(move);
+        }
+
+        @Override
+        public boolean isRoundOver() {
+            return s.isRoundOver();
+        }
+
+        @Override
+        public void finish() {
+            s.finish();
+        }
+
+        @Override
+        public long[] state() {
+            return new long[] {
+                s.hand(0), s.hand(1), s.captured(0), s.captured(1), s.table(),
+                s.scopas(0), s.scopas(1), s.current(), s.lastCapturer(), s.deckSize()};
+        }
+
+        @Override
+        public ScopaRules.Score score() {
+            return s.score();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.scopa.fuzz;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Greedy test-case shrinking: keep replacing a failing case with the first
+ * smaller candidate that still fails, until no candidate does. Candidates
+ * should come simplest first (drop a whole half before a single element).
+ */
+final class Shrinker {
+    /** Bound on accepted steps, in case a candidate function does not converge. */
+    private static final int MAX_STEPS = 10_000;
+
+    private Shrinker() {}
+
+    /**
+     * @param failing    a case for which {@code divergence} is non-null
+     * @param candidates smaller variants of a case
+     * @param divergence description of how engines disagree on a case, or null
+     */
+    static <T> T shrink(T failing, Function<T, List<T>> candidates, Function<T, String> divergence) {
+        T current = failing;
+        for (int step = 0; step < MAX_STEPS; step++) {
+            T next = null;
+            for (T candidate : candidates.apply(current)) {
+                if (divergence.apply(candidate) != null) {
+                    next = candidate;
+                    break;
+                }
+            }
+            if (next == null) {
+                return current;
+            }
+            current = next;
+        }
+        return current;
+    }
+}
@@ -5,8 +5,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
 import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
 import com.example.scopa.model.Deck;
 import com.example.scopa.player.Player;
+import com.example.scopa.rules.ScopaRules;
+
+import java.util.List;
 
 /**
  * High-level tests for `ScopaGame` orchestration. These are intentionally
@@ -48,4 +52,153 @@ public class ScopaGameTest {
         // This is kept as a smoke check to ensure no exceptions occur when the state is present.
         assertDoesNotThrow(game::printState, "Printing state should not throw when a round is started");
     }
+
+    @Test
+    public void legalMoves_coverEveryCardAndCaptureOption() {
+        ScopaGame game = ScopaGame.twoPlayer(new TestPlayer("P1"), new TestPlayer("P2"));
+        game.startNewRound();
+        int[] moves = new int[64];
+
+        while (!game.isRoundOver()) {
+            List<Card> hand = game.getCurrentPlayer().getHand();
+            int expected = 0;
+            for (Card c : hand) {
+                expected += ScopaRules.possibleCaptures(c, game.getTable().getOnTable()).size() + 1;
+            }
+            int n = game.legalMoves(moves);
+            assertEquals(expected, n, "One move per capture option plus a drop for each card");
+
+            for (int i = 0; i < n; i++) {
+                int h = Move.handIndex(moves[i]);
+                int c = Move.captureIndex(moves[i]);
+                assertTrue(h >= 0 && h < hand.size());
+                assertTrue(c >= -1 && c < ScopaRules.possibleCaptures(hand.get(h), game.getTable().getOnTable()).size());
+            }
+
+            // Prefer the first capturing move so the round exercises captures as well as drops.
+            int chosen = moves[0];
+            for (int i = 0; i < n; i++) {
+                if (Move.isCapture(moves[i])) {
+                    chosen = moves[i];
+                    break;
+                }
+            }
+            assertTrue(game.playMove(chosen));
+        }
+    }
+
+    @Test
+    public void legalMoves_reportsTotalWhenBufferTooSmall() {
+        ScopaGame game = ScopaGame.twoPlayer(new TestPlayer("P1"), new TestPlayer("P2"));
+        game.startNewRound();
+        int[] all = new int[64];
+        int n = game.legalMoves(all);
+        int[] one = new int[1];
+        assertEquals(n, game.legalMoves(one));
+        assertEquals(all[0], one[0]);
+    }
+
+    @Test
+    public void legalMoves_capsCaptureOptionsTheEncodingCannotAddress() {
+        TestPlayer p1 = new TestPlayer("P1");
+        ScopaGame game = lowTable(p1);
+        int options = ScopaRules.possibleCaptures(p1.getHand().get(0), game.getTable().getOnTable()).size();
+        assertEquals(952, options, "Every subset of the low cards summing to ten");
+
+        int[] moves = new int[512];
+        int n = game.legalMoves(moves);
+        assertEquals(Move.MAX_CAPTURE_OPTIONS + 1, n, "Addressable captures plus the drop");
+        for (int i = 0; i < Move.MAX_CAPTURE_OPTIONS; i++) {
+            assertEquals(i, Move.captureIndex(moves[i]));
+        }
+        assertEquals(-1, Move.captureIndex(moves[n - 1]));
+        assertTrue(game.playMove(moves[Move.MAX_CAPTURE_OPTIONS - 1]));
+    }
+
+    @Test
+    public void move_rejectsIndexesPastItsBits() {
+        assertEquals(254, Move.captureIndex(Move.of(0, 254)));
+        assertEquals(255, Move.handIndex(Move.of(255, -1)));
+        assertThrows(IllegalArgumentException.class, () -> Move.of(0, Move.MAX_CAPTURE_OPTIONS));
+        assertThrows(IllegalArgumentException.class, () -> Move.of(256, 0));
+        assertThrows(IllegalArgumentException.class, () -> Move.of(0, -2));
+    }
+
+    /**
+     * A round whose table holds every Ace, Two, Three and Four, with a King as {@code p1}'s only card.
+     */
+    static ScopaGame lowTable(Player p1) {
+        ScopaGame game = ScopaGame.twoPlayer(p1, new TestPlayer("P2"));
+        game.startNewRound();
+        game.getTable().clearAll();
+        for (int suit = 0; suit < 4; suit++) {
+            for (int rank = 0; rank < 4; rank++) {
+                game.getTable().addToTable(Card.of(suit * 10 + rank));
+            }
+        }
+        p1.clearHand();
+        p1.giveCard(Card.of(9));
+        return game;
+    }
+
+    @Test
+    public void snapshot_matchesLiveStateAndAdvancesVersion() {
+        TestPlayer p1 = new TestPlayer("P1");
+        TestPlayer p2 = new TestPlayer("P2");
+        ScopaGame game = ScopaGame.twoPlayer(p1, p2);
+        game.startNewRound();
+
+        GameSnapshot before = game.snapshot();
+        assertEquals(game.getTable().getOnTable(), before.getTable());
+        assertEquals(p1.getHand(), before.getHand(0));
+        assertEquals(p2.getHand(), before.getHand(1));
+        assertEquals(30, before.getDeckSize());
+        assertEquals(0, before.getCurrentPlayer());
+
+        assertTrue(game.playCard(0, -1));
+        GameSnapshot after = game.snapshot();
+        assertTrue(after.getVersion() > before.getVersion(), "Every mutation publishes a newer version");
+        assertEquals(game.getTable().getOnTable(), after.getTable());
+        assertEquals(p1.getHand(), after.getHand(0));
+        assertEquals(1, after.getCurrentPlayer());
+        // The earlier snapshot is untouched by the move.
+        assertEquals(4, before.getTable().size());
+        assertEquals(3, before.getHand(0).size());
+        assertFalse(game.playCard(99, -1));
+        assertSame(after, game.snapshot(), "A rejected move publishes nothing");
+    }
+
+    @Test
+    public void snapshot_isSafeToReadWhileAnotherThreadPlays() throws Exception {
+        ScopaGame game = ScopaGame.twoPlayer(new TestPlayer("P1"), new TestPlayer("P2"));
+        game.startNewRound();
+        java.util.concurrent.atomic.AtomicBoolean done = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.atomic.AtomicReference<Throwable> failure = new java.util.concurrent.atomic.AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            long lastVersion = -1;
+            try {
+                while (!done.get()) {
+                    GameSnapshot s = game.snapshot();
+                    assertTrue(s.getVersion() >= lastVersion, "Versions never go backwards");
+                    lastVersion = s.getVersion();
+                    int cards = s.getTable().size() + s.getHand(0).size() + s.getHand(1).size()
+                        + s.getDeckSize() + s.getCapturedCount(0) + s.getCapturedCount(1);
+                    assertEquals(40, cards, "A snapshot always accounts for the whole deck");
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 200; round++) {
+            while (!game.isRoundOver()) {
+                assertTrue(game.playCard(0, 0) || game.playCard(0, -1));
+            }
+            game.startNewRound();
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
 }
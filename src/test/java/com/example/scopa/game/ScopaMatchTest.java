@@ -0,0 +1,63 @@
+package com.example.scopa.game;
+
+import com.example.scopa.model.Deck;
+import com.example.scopa.model.Table;
+import com.example.scopa.player.Bot;
+import com.example.scopa.player.GreedyBot;
+import com.example.scopa.player.RandomBot;
+import com.example.scopa.rules.ScopaRules;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `ScopaMatch`: totals carry across rounds, the lead alternates,
+ * and one set of game objects is reused for the whole match.
+ */
+public class ScopaMatchTest {
+
+    @Test
+    public void playsToTargetReusingGameObjects() {
+        GreedyBot p1 = new GreedyBot("P1");
+        RandomBot p2 = new RandomBot("P2", 3);
+        ScopaMatch match = new ScopaMatch(p1, p2, ScopaMatch.DEFAULT_TARGET, 99);
+        ScopaGame game = match.getGame();
+        Deck deck = game.getDeck();
+        Table table = game.getTable();
+        int[] moves = new int[256];
+
+        int p1Sum = 0;
+        int p2Sum = 0;
+        while (!match.isOver()) {
+            int leader = match.getLeader();
+            assertEquals(match.getRoundsPlayed() % 2, leader, "The lead alternates every round");
+            match.startRound();
+            assertSame(leader == 0 ? p1 : p2, game.getCurrentPlayer());
+            while (!game.isRoundOver()) {
+                int n = game.legalMoves(moves);
+                Bot current = (Bot) game.getCurrentPlayer();
+                assertTrue(game.playMove(current.chooseMove(game, moves, n)));
+            }
+            ScopaRules.Score round = match.finishRound();
+            p1Sum += round.getPlayer1Points();
+            p2Sum += round.getPlayer2Points();
+            assertSame(deck, game.getDeck());
+            assertSame(table, game.getTable());
+        }
+
+        assertEquals(p1Sum, match.getPlayer1Total());
+        assertEquals(p2Sum, match.getPlayer2Total());
+        assertTrue(Math.max(p1Sum, p2Sum) >= ScopaMatch.DEFAULT_TARGET);
+        assertNotEquals(p1Sum, p2Sum);
+        assertSame(p1Sum > p2Sum ? p1 : p2, match.getWinner());
+        assertThrows(IllegalStateException.class, match::startRound);
+    }
+
+    @Test
+    public void finishRoundRejectsUnfinishedRound() {
+        ScopaMatch match = new ScopaMatch(new GreedyBot("A"), new GreedyBot("B"));
+        match.startRound();
+        assertThrows(IllegalStateException.class, match::finishRound);
+        assertNull(match.getWinner());
+    }
+}
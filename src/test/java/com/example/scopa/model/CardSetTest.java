@@ -0,0 +1,57 @@
+package com.example.scopa.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `CardSet`, the bit-mask card collection behind `Table` and
+ * `Player`: membership, popcount sizes and the index-ordered list view.
+ */
+public class CardSetTest {
+
+    @Test
+    public void addRemoveAndContainsTrackTheMask() {
+        CardSet set = new CardSet();
+        Card sevenOfCoins = Card.of(Suit.COINS, Rank.SEVEN);
+        Card aceOfCups = new Card(Suit.CUPS, Rank.ACE);
+
+        assertTrue(set.add(sevenOfCoins));
+        assertFalse(set.add(Card.of(Suit.COINS, Rank.SEVEN)), "Equal cards share one bit");
+        assertTrue(set.add(aceOfCups));
+        assertEquals(2, set.size());
+        assertEquals((1L << sevenOfCoins.index()) | (1L << aceOfCups.index()), set.mask());
+        assertTrue(set.contains(new Card(Suit.CUPS, Rank.ACE)));
+
+        assertTrue(set.remove(aceOfCups));
+        assertFalse(set.remove(aceOfCups));
+        assertEquals(1, set.size());
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void listViewIsIndexOrderedAndFollowsChanges() {
+        CardSet set = new CardSet();
+        List<Card> view = set.asList();
+        List<Card> all = new ArrayList<>();
+        for (int i = Card.DECK_SIZE - 1; i >= 0; i--) {
+            all.add(Card.of(i));
+        }
+        set.addAll(all);
+        assertEquals(Card.DECK_SIZE, view.size());
+        for (int i = 0; i < view.size(); i++) {
+            assertEquals(i, view.get(i).index());
+            assertEquals(i, view.indexOf(view.get(i)));
+        }
+
+        set.removeAll(all.subList(1, Card.DECK_SIZE));
+        assertEquals(1, view.size());
+        assertSame(Card.of(39), view.get(0), "View is rebuilt after a change");
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(Card.of(0)));
+    }
+}
@@ -42,4 +42,12 @@ public class DeckTest {
         List<Card> none = deck.deal(3);
         assertEquals(0, none.size());
     }
+
+    @Test
+    public void seededDecksDealTheSameCards() {
+        Deck a = new Deck(42);
+        Deck b = new Deck(7);
+        b.reset(42);
+        assertEquals(a.deal(40), b.deal(40), "Equal seeds must give equal deals");
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.scopa.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `SuitSymmetry` and `Zobrist`: relabellings keep Coins fixed and
+ * can be undone, and every relabelling of a position has the same canonical
+ * form.
+ */
+public class SuitSymmetryTest {
+
+    /** All six relabellings of the plain suits. */
+    static final int[] ALL = {
+        1 | 2 << 2 | 3 << 4, 1 | 3 << 2 | 2 << 4, 2 | 1 << 2 | 3 << 4,
+        2 | 3 << 2 | 1 << 4, 3 | 1 << 2 | 2 << 4, 3 | 2 << 2 | 1 << 4,
+    };
+
+    @Test
+    public void relabellingsKeepCoinsAndCanBeUndone() {
+        assertEquals(SuitSymmetry.IDENTITY, ALL[0]);
+        Random rnd = new Random(5);
+        for (int trial = 0; trial < 1000; trial++) {
+            long mask = rnd.nextLong() & ((1L << Card.DECK_SIZE) - 1);
+            for (int r : ALL) {
+                long moved = SuitSymmetry.apply(mask, r);
+                assertEquals(Long.bitCount(mask), Long.bitCount(moved));
+                assertEquals(SuitSymmetry.slice(mask, 0), SuitSymmetry.slice(moved, 0), "Coins never move");
+                assertEquals(mask, SuitSymmetry.apply(moved, SuitSymmetry.inverse(r)));
+                int card = rnd.nextInt(Card.DECK_SIZE);
+                assertEquals(1L << SuitSymmetry.card(card, r), SuitSymmetry.apply(1L << card, r));
+            }
+        }
+    }
+
+    @Test
+    public void everyRelabellingHasTheSameCanonicalForm() {
+        Random rnd = new Random(6);
+        for (int trial = 0; trial < 1000; trial++) {
+            // Deal the deck into three disjoint locations.
+            long a = 0;
+            long b = 0;
+            for (int i = 0; i < Card.DECK_SIZE; i++) {
+                int where = rnd.nextInt(3);
+                if (where == 0) {
+                    a |= 1L << i;
+                } else if (where == 1) {
+                    b |= 1L << i;
+                }
+            }
+            long[] expected = null;
+            for (int r : ALL) {
+                long ra = SuitSymmetry.apply(a, r);
+                long rb = SuitSymmetry.apply(b, r);
+                int c = SuitSymmetry.canonical(ra, rb, 0, 0, 0, 0);
+                long[] form = {SuitSymmetry.apply(ra, c), SuitSymmetry.apply(rb, c)};
+                if (expected == null) {
+                    expected = form;
+                }
+                assertArrayEquals(expected, form);
+                assertEquals(Zobrist.mask(0, expected[0]) ^ Zobrist.mask(1, expected[1]),
+                    Zobrist.mask(0, form[0]) ^ Zobrist.mask(1, form[1]));
+            }
+        }
+    }
+
+    @Test
+    public void zobristMaskHashIsIncremental() {
+        long mask = 0b1011_0000_0000_0110_1L;
+        int card = 20;
+        assertEquals(Zobrist.mask(2, mask) ^ Zobrist.card(2, card), Zobrist.mask(2, mask | 1L << card));
+        assertNotEquals(Zobrist.mask(1, mask), Zobrist.mask(2, mask), "Slots have independent keys");
+    }
+}
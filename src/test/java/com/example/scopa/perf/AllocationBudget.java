@@ -0,0 +1,157 @@
+package com.example.scopa.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks a hot path against the per-operation budgets checked in as {@code budgets.properties} next to
+ * this class: {@code <name>.bytes} for bytes allocated by the calling thread (from
+ * {@code com.sun.management.ThreadMXBean}) and {@code <name>.nanos} for wall-clock time.
+ *
+ * Each check warms the operation up, then takes the best of several timed trials so that GC pauses
+ * and other noise only ever make a trial look slower. Allocation may exceed its budget by
+ * {@code scopa.perf.allocTolerance} (default 0.10) plus one byte, and time by a factor of
+ * {@code scopa.perf.timeFactor} (default 3). {@code -Dscopa.perf.report=true} prints every
+ * measurement in the file's format, for updating budgets after an intended change.
+ *
+ * Time budgets are figures from one machine, so every trial is paired with a fixed baseline loop run
+ * in the same JVM, and a time budget grows by however much slower that loop is here than its own
+ * budget {@code baseline.nanos}. A time overrun is measured again, up to three times in all, before it
+ * fails the build, so that a burst of load on a shared machine does not. {@code -Dscopa.perf.skipTime=true}
+ * turns time overruns into printed warnings, for CI machines too noisy even for that.
+ */
+public final class AllocationBudget {
+    private static final double ALLOC_TOLERANCE = Double.parseDouble(System.getProperty("scopa.perf.allocTolerance", "0.10"));
+    private static final double TIME_FACTOR = Double.parseDouble(System.getProperty("scopa.perf.timeFactor", "3"));
+    private static final boolean REPORT = Boolean.getBoolean("scopa.perf.report");
+    private static final boolean SKIP_TIME = Boolean.getBoolean("scopa.perf.skipTime");
+    private static final long WARMUP_NANOS = 200_000_000L;
+    private static final int TRIALS = 5;
+    private static final int TIME_ATTEMPTS = 3;
+    private static final int BASELINE_OPS = 50_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Properties BUDGETS = load();
+
+    /** Results of every operation end up here so the JIT cannot drop the work. */
+    private static volatile long sink;
+
+    /**
+     * Operations {@code from .. from + count - 1} of a hot path. The loop lives in the caller so each
+     * hot path gets its own call sites: a loop here would see every test's lambda, stop inlining
+     * them, and change what escape analysis can remove. The result must depend on all the work.
+     */
+    @FunctionalInterface
+    public interface Ops {
+        long run(int from, int count);
+    }
+
+    private AllocationBudget() {}
+
+    /**
+     * Measure {@code ops} for operations 0, 1, 2, ... and fail if bytes per operation exceed the budget
+     * for {@code name}, or nanoseconds per operation exceed it after scaling by the baseline loop.
+     *
+     * @param opsPerTrial operations per timed trial; enough for a trial to last a few milliseconds
+     */
+    public static void check(String name, int opsPerTrial, Ops ops) {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "Thread allocation counters unavailable");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        String bytesBudget = BUDGETS.getProperty(name + ".bytes");
+        String nanosBudget = BUDGETS.getProperty(name + ".nanos");
+        double baselineBudget = Double.parseDouble(BUDGETS.getProperty("baseline.nanos"));
+
+        long acc = 0;
+        int i = 0;
+        for (long end = System.nanoTime() + WARMUP_NANOS; System.nanoTime() < end; ) {
+            acc += ops.run(i, 256);
+            i += 256;
+            acc += baseline(256);
+        }
+
+        double bytes = Double.MAX_VALUE;
+        double nanos = Double.MAX_VALUE;
+        double baseline = Double.MAX_VALUE;
+        double maxNanos = 0;
+        for (int attempt = 0; attempt < TIME_ATTEMPTS && (attempt == 0 || nanos > maxNanos); attempt++) {
+            for (int t = 0; t < TRIALS; t++) {
+                long allocBefore = THREADS.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                acc += ops.run(i, opsPerTrial);
+                i += opsPerTrial;
+                long elapsed = System.nanoTime() - start;
+                long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocBefore;
+                bytes = Math.min(bytes, (double) allocated / opsPerTrial);
+                nanos = Math.min(nanos, (double) elapsed / opsPerTrial);
+
+                start = System.nanoTime();
+                acc += baseline(BASELINE_OPS);
+                baseline = Math.min(baseline, (double) (System.nanoTime() - start) / BASELINE_OPS);
+            }
+            if (nanosBudget != null) {
+                maxNanos = Double.parseDouble(nanosBudget) * TIME_FACTOR * Math.max(1, baseline / baselineBudget);
+            }
+        }
+        sink = acc;
+
+        String measured = String.format("%s.bytes=%.1f%n%s.nanos=%.0f", name, bytes, name, nanos);
+        if (REPORT) {
+            System.out.println(measured);
+            System.out.printf("# baseline.nanos=%.1f during %s%n", baseline, name);
+        }
+        assertNotNull(bytesBudget, "No budget for " + name + "; measured:\n" + measured);
+        assertNotNull(nanosBudget, "No budget for " + name + "; measured:\n" + measured);
+
+        double maxBytes = Double.parseDouble(bytesBudget) * (1 + ALLOC_TOLERANCE) + 1;
+        assertTrue(bytes <= maxBytes, String.format(
+            "%s allocates %.1f bytes/op, budget %s (limit %.1f)", name, bytes, bytesBudget, maxBytes));
+        String slow = String.format("%s takes %.0f ns/op, budget %s (limit %.0f with the baseline at %.1f ns/op, budget %s)",
+            name, nanos, nanosBudget, maxNanos, baseline, BUDGETS.getProperty("baseline.nanos"));
+        if (!SKIP_TIME) {
+            assertTrue(nanos <= maxNanos, slow);
+        } else if (nanos > maxNanos) {
+            System.out.println("WARNING: " + slow);
+        }
+    }
+
+    /**
+     * The yardstick for time budgets: a fixed mix of arithmetic, array reads and small allocations, the
+     * same kinds of work as the hot paths, so that it slows down with them on a slower or busier machine.
+     */
+    private static long baseline(int count) {
+        long x = 0x9E3779B97F4A7C15L;
+        long acc = 0;
+        for (int k = 0; k < count; k++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            int[] a = new int[4 + (int) (x & 7)];
+            for (int j = 0; j < a.length; j++) {
+                a[j] = (int) (x >>> (j * 3));
+                acc += a[j] & 0xFF;
+            }
+            acc += a[(int) (x >>> 60) % a.length];
+        }
+        return acc;
+    }
+
+    private static Properties load() {
+        Properties budgets = new Properties();
+        try (InputStream in = AllocationBudget.class.getResourceAsStream("budgets.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("budgets.properties missing from test resources");
+            }
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read budgets.properties", e);
+        }
+        return budgets;
+    }
+}
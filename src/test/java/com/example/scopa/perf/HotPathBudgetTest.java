@@ -0,0 +1,139 @@
+package com.example.scopa.perf;
+
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Deck;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.rules.CaptureCache;
+import com.example.scopa.rules.ScopaRules;
+import com.example.scopa.rules.ScoringKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation and latency budgets for the hot paths (see `AllocationBudget`). Inputs are built from
+ * seeded decks up front so every run measures the same work. After an intended change, run with
+ * {@code -Dscopa.perf.report=true} and update {@code budgets.properties} in the same commit.
+ */
+public class HotPathBudgetTest {
+    private static final int CASES = 64;
+
+    private static final Card[] PLAYED = new Card[CASES];
+    private static final List<List<Card>> TABLES = new ArrayList<>();
+    private static final int[][] TABLE_VALUES = new int[CASES][];
+    private static final List<List<Card>> PILES = new ArrayList<>();
+    private static final long[] PILE_MASKS = new long[2 * CASES];
+
+    static {
+        for (int c = 0; c < CASES; c++) {
+            Deck deck = new Deck(c);
+            PLAYED[c] = deck.draw();
+            List<Card> table = deck.deal(4 + c % 5);
+            TABLES.add(table);
+            TABLE_VALUES[c] = table.stream().mapToInt(Card::value).toArray();
+
+            // The rest of the deck split between the players, as at the end of a round
+            List<Card> p1 = new ArrayList<>();
+            List<Card> p2 = new ArrayList<>();
+            for (Card card : deck.getCards()) {
+                (card.index() * 31 % 7 < 3 + c % 2 ? p1 : p2).add(card);
+            }
+            PILES.add(p1);
+            PILES.add(p2);
+            PILE_MASKS[2 * c] = ScoringKernel.mask(p1);
+            PILE_MASKS[2 * c + 1] = ScoringKernel.mask(p2);
+        }
+    }
+
+    @Test
+    public void possibleCaptures() {
+        AllocationBudget.check("possibleCaptures", 20_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                acc += ScopaRules.possibleCaptures(PLAYED[i % CASES], TABLES.get(i % CASES)).size();
+            }
+            return acc;
+        });
+    }
+
+    @Test
+    public void cachedCaptures() {
+        CaptureCache cache = new CaptureCache(1 << 10, 1);
+        AllocationBudget.check("captureCache", 50_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                acc += cache.possibleCaptures(PLAYED[i % CASES], TABLES.get(i % CASES)).size();
+            }
+            return acc;
+        });
+    }
+
+    @Test
+    public void captureMasks() {
+        long[] out = new long[64];
+        AllocationBudget.check("captureMasks", 100_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                int[] values = TABLE_VALUES[i % CASES];
+                acc += ScopaRules.captureMasks(PLAYED[i % CASES].value(), values, values.length, out) + out[0];
+            }
+            return acc;
+        });
+    }
+
+    /** One operation is a whole seeded round: deal, 36 calls to playCard, and finalizeRound. */
+    @Test
+    public void playCardRound() {
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        AllocationBudget.check("playCard.round", 500, (from, count) -> {
+            for (int i = from; i < from + count; i++) {
+                game.startNewRound(i % CASES);
+                while (!game.isRoundOver()) {
+                    game.playCard(0, 0);
+                }
+                game.finalizeRound();
+            }
+            return game.snapshot().getVersion();
+        });
+    }
+
+    @Test
+    public void scoreRound() {
+        AllocationBudget.check("scoreRound", 5_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                int c = i % CASES;
+                acc += ScopaRules.scoreRound(PILES.get(2 * c), c % 3, PILES.get(2 * c + 1), 0).getPlayer1Points();
+            }
+            return acc;
+        });
+    }
+
+    @Test
+    public void scoringKernel() {
+        AllocationBudget.check("scoringKernel", 100_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                int c = i % CASES;
+                acc += ScoringKernel.points(PILE_MASKS[2 * c], PILE_MASKS[2 * c + 1]);
+            }
+            return acc;
+        });
+    }
+
+    /** One operation is a seeded reset followed by the opening deal of 3 + 3 + 4 cards. */
+    @Test
+    public void deckResetAndDeal() {
+        Deck deck = new Deck(0);
+        AllocationBudget.check("deck.resetDeal", 20_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                deck.reset(i);
+                acc += deck.deal(3).size() + deck.deal(3).size() + deck.deal(4).get(0).index();
+            }
+            return acc;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.scopa.rules;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `CaptureCache`: cached answers must be indistinguishable from
+ * `ScopaRules.possibleCaptures`, including option order, and the size bound
+ * and counters must behave as documented.
+ */
+public class CaptureCacheTest {
+
+    @Test
+    public void matchesPossibleCapturesOnRandomTables() {
+        CaptureCache cache = new CaptureCache(1024, 4);
+        Random rnd = new Random(42);
+        List<Card> deck = new ArrayList<>();
+        for (Suit s : Suit.values()) {
+            for (Rank r : Rank.values()) {
+                deck.add(new Card(s, r));
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            Collections.shuffle(deck, rnd);
+            List<Card> table = deck.subList(1, 1 + rnd.nextInt(9));
+            Card played = deck.get(0);
+            // Ask twice so both the miss and the hit path are compared.
+            assertEquals(ScopaRules.possibleCaptures(played, table), cache.possibleCaptures(played, table));
+            assertEquals(ScopaRules.possibleCaptures(played, table), cache.possibleCaptures(played, table));
+        }
+        assertTrue(cache.hits() > 0, "Repeated lookups should hit");
+    }
+
+    @Test
+    public void permutedTablesShareOneEntry() {
+        CaptureCache cache = new CaptureCache(16, 1);
+        Card played = new Card(Suit.CUPS, Rank.SEVEN);
+        Card three = new Card(Suit.COINS, Rank.THREE);
+        Card four = new Card(Suit.SWORDS, Rank.FOUR);
+        Card two = new Card(Suit.CLUBS, Rank.TWO);
+        Card five = new Card(Suit.CUPS, Rank.FIVE);
+
+        List<List<Card>> a = cache.possibleCaptures(played, Arrays.asList(three, four, two, five));
+        List<List<Card>> b = cache.possibleCaptures(played, Arrays.asList(five, two, four, three));
+
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.size());
+        assertEquals(ScopaRules.possibleCaptures(played, Arrays.asList(three, four, two, five)), a);
+        assertEquals(ScopaRules.possibleCaptures(played, Arrays.asList(five, two, four, three)), b);
+    }
+
+    @Test
+    public void sizeIsBoundedAndEvictionsCounted() {
+        CaptureCache cache = new CaptureCache(8, 1);
+        Card table = new Card(Suit.COINS, Rank.ACE);
+        for (Rank r : Rank.values()) {
+            cache.possibleCaptures(new Card(Suit.CUPS, r), List.of(table));
+        }
+        assertEquals(8, cache.size());
+        assertEquals(Rank.values().length - 8, cache.evictions());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hits() + cache.misses() + cache.evictions());
+    }
+}
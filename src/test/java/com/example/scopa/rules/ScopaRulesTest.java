@@ -1,8 +1,11 @@
 package com.example.scopa.rules;
 
+import com.example.scopa.game.ScopaGame;
 import com.example.scopa.model.Card;
 import com.example.scopa.model.Rank;
 import com.example.scopa.model.Suit;
+import com.example.scopa.player.HumanPlayer;
+import com.example.scopa.player.Player;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -72,10 +75,40 @@ public class ScopaRulesTest {
     }
 
     @Test
-    public void whoTakesLast(){
-        boolean p1_takes = ;
-        
+    public void whoTakesLast() {
+        // Play a full round taking the first capture option whenever there is one, and remember
+        // who captured last: finalizeRound must hand them whatever is left on the table.
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("P1"), new HumanPlayer("P2"));
+        game.startNewRound();
+        Player lastCapturer = null;
+        while (!game.isRoundOver()) {
+            Player current = game.getCurrentPlayer();
+            Card card = current.getHand().get(0);
+            boolean captures = !ScopaRules.possibleCaptures(card, game.getTable().getOnTable()).isEmpty();
+            assertTrue(game.playCard(0, captures ? 0 : -1));
+            if (captures) {
+                lastCapturer = current;
+            }
+        }
+
+        int remaining = game.getTable().getOnTable().size();
+        if (lastCapturer == null) {
+            game.finalizeRound();
+            assertEquals(remaining, game.getTable().getOnTable().size(), "Nobody captured: table is left as is");
+            return;
+        }
 
+        boolean p1Takes = lastCapturer == game.getPlayer1();
+        Player other = p1Takes ? game.getPlayer2() : game.getPlayer1();
+        int lastBefore = lastCapturer.getCapturedCards().size();
+        int otherBefore = other.getCapturedCards().size();
+        game.finalizeRound();
 
+        assertTrue(game.getTable().isEmpty(), "Remaining cards leave the table");
+        assertEquals(lastBefore + remaining, lastCapturer.getCapturedCards().size(),
+            "Last capturer takes the remaining table cards");
+        assertEquals(otherBefore, other.getCapturedCards().size());
+        assertEquals(40, game.getPlayer1().getCapturedCards().size() + game.getPlayer2().getCapturedCards().size(),
+            "Every card ends up in a capture pile");
     }
 }
@@ -0,0 +1,77 @@
+package com.example.scopa.rules;
+
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `ScoringKernel`: mask-based scoring must award exactly the points
+ * `ScopaRules.scoreRound` does, one round at a time and in batches.
+ */
+public class ScoringKernelTest {
+
+    @Test
+    public void matchesScoreRoundOnRandomSplits() {
+        Random rnd = new Random(7);
+        int rounds = 5000;
+        long[] p1 = new long[rounds];
+        long[] p2 = new long[rounds];
+        int[] s1 = new int[rounds];
+        int[] s2 = new int[rounds];
+        int[] expected1 = new int[rounds];
+        int[] expected2 = new int[rounds];
+
+        List<Card> deck = new ArrayList<>();
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            deck.add(Card.of(i));
+        }
+        for (int i = 0; i < rounds; i++) {
+            Collections.shuffle(deck, rnd);
+            // Not every card has to be captured, and piles may be lopsided.
+            int split = rnd.nextInt(Card.DECK_SIZE + 1);
+            int end = split + rnd.nextInt(Card.DECK_SIZE - split + 1);
+            List<Card> a = deck.subList(0, split);
+            List<Card> b = deck.subList(split, end);
+            p1[i] = ScoringKernel.mask(a);
+            p2[i] = ScoringKernel.mask(b);
+            s1[i] = rnd.nextInt(3);
+            s2[i] = rnd.nextInt(3);
+
+            ScopaRules.Score reference = ScopaRules.scoreRound(a, s1[i], b, s2[i]);
+            ScopaRules.Score kernel = ScoringKernel.score(p1[i], s1[i], p2[i], s2[i]);
+            assertEquals(reference.getPlayer1Points(), kernel.getPlayer1Points(), a + " vs " + b);
+            assertEquals(reference.getPlayer2Points(), kernel.getPlayer2Points(), a + " vs " + b);
+            expected1[i] = reference.getPlayer1Points();
+            expected2[i] = reference.getPlayer2Points();
+        }
+
+        int[] out1 = new int[rounds];
+        int[] out2 = new int[rounds];
+        ScoringKernel.scoreRounds(p1, s1, p2, s2, 0, rounds, out1, out2);
+        assertArrayEquals(expected1, out1);
+        assertArrayEquals(expected2, out2);
+    }
+
+    @Test
+    public void primieraNeedsEverySuit() {
+        long sevens = 0;
+        for (Suit s : Suit.values()) {
+            sevens |= 1L << Card.of(s, Rank.SEVEN).index();
+        }
+        assertEquals(84, ScoringKernel.primiera(sevens));
+        long withAces = sevens;
+        for (Suit s : Suit.values()) {
+            withAces |= 1L << Card.of(s, Rank.ACE).index();
+        }
+        assertEquals(84, ScoringKernel.primiera(withAces), "Only the best card of each suit counts");
+        assertEquals(-1, ScoringKernel.primiera(sevens & ~(1L << Card.of(Suit.CLUBS, Rank.SEVEN).index())));
+    }
+}
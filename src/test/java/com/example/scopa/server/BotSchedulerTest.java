@@ -0,0 +1,94 @@
+package com.example.scopa.server;
+
+import com.example.scopa.ai.BeliefTracker;
+import com.example.scopa.ai.MonteCarloSearch;
+import com.example.scopa.ai.SearchBudget;
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `BotScheduler`: every requested move is answered with a legal
+ * move, budgets shrink when moves queue up, and hints keep to their share.
+ */
+public class BotSchedulerTest {
+
+    @Test
+    public void budgetShrinksWithBacklog() {
+        BotScheduler scheduler = new BotScheduler(2, 500, 100, 1000);
+        try {
+            SearchBudget idle = scheduler.budgetFor(0, Long.MAX_VALUE);
+            SearchBudget busy = scheduler.budgetFor(6, Long.MAX_VALUE);
+            SearchBudget swamped = scheduler.budgetFor(10_000, Long.MAX_VALUE);
+            assertEquals(1000, idle.getMaxIterations());
+            assertEquals(250, busy.getMaxIterations(), "2 threads with 6 waiting: a quarter of the budget");
+            assertTrue(busy.getCpuNanos() < idle.getCpuNanos());
+            assertEquals(BotScheduler.MIN_ITERATIONS, swamped.getMaxIterations());
+            assertEquals(2, scheduler.degradedMoves());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void burstOfMovesIsAnsweredLegallyWithDegradedBudgets() {
+        BotScheduler scheduler = new BotScheduler(1, 2000, 50, 400);
+        try {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            BeliefTracker belief = new BeliefTracker(0, 1);
+            game.addListener(belief);
+            game.startNewRound(77);
+            SimState root = SimState.of(game);
+            int[] legal = new int[64];
+            int n = game.legalMoves(legal);
+
+            List<CompletableFuture<Integer>> moves = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                moves.add(scheduler.think(root, belief.copy()));
+            }
+            for (CompletableFuture<Integer> move : moves) {
+                int m = move.join();
+                assertTrue(Arrays.stream(legal, 0, n).anyMatch(x -> x == m), "Bot move must be legal");
+            }
+            assertEquals(20, scheduler.movesPlayed());
+            assertTrue(scheduler.degradedMoves() > 0, "Queued moves must get reduced budgets");
+            assertTrue(scheduler.meanIterations() < 400);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void hintsTakeAtMostHalfThePoolAndAreRefusedWhenItIsBusy() {
+        BotScheduler scheduler = new BotScheduler(4);
+        try {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            BeliefTracker belief = new BeliefTracker(0, 1);
+            game.addListener(belief);
+            game.startNewRound(5);
+            SimState root = SimState.of(game);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            CompletableFuture<MonteCarloSearch.Result> first = scheduler.evaluate(root, belief, -1, deadline);
+            assertNotNull(first);
+            assertNull(scheduler.evaluate(root, belief, -1, deadline), "Both hint slots of four threads are taken");
+            assertTrue(first.join().iterations() > 0);
+
+            CompletableFuture<MonteCarloSearch.Result> next = scheduler.evaluate(root, belief, -1,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20));
+            assertNotNull(next, "Slots are free again once a hint is answered");
+            next.join();
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
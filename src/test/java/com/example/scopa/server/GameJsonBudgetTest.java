@@ -0,0 +1,40 @@
+package com.example.scopa.server;
+
+import com.example.scopa.game.GameSnapshot;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.perf.AllocationBudget;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation and latency budget for state serialization, the JSON sent to
+ * every participant after each move (see `AllocationBudget`). It lives in
+ * this package because `GameJson` is package-private.
+ */
+public class GameJsonBudgetTest {
+
+    @Test
+    public void stateSerialization() {
+        // Snapshots from every point of a few seeded rounds
+        List<GameSnapshot> snapshots = new ArrayList<>();
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("Alice"), new HumanPlayer("Bob"));
+        for (long seed = 0; seed < 4; seed++) {
+            game.startNewRound(seed);
+            snapshots.add(game.snapshot());
+            while (!game.isRoundOver()) {
+                game.playCard(0, 0);
+                snapshots.add(game.snapshot());
+            }
+        }
+        AllocationBudget.check("gameJson.state", 20_000, (from, count) -> {
+            long acc = 0;
+            for (int i = from; i < from + count; i++) {
+                acc += GameJson.state(snapshots.get(i % snapshots.size())).length();
+            }
+            return acc;
+        });
+    }
+}
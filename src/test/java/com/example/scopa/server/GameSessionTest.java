@@ -0,0 +1,400 @@
+package com.example.scopa.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `GameSession`: commands from several connections are applied one
+ * at a time through the mailbox, turn order is enforced per seat, and state
+ * changes are pushed to the other participants. Idle sessions hibernate
+ * to disk and resume where they were on their next command.
+ */
+public class GameSessionTest {
+
+    private final SessionRegistry registry = new SessionRegistry(4);
+
+    @AfterEach
+    public void shutdown() {
+        registry.shutdown();
+    }
+
+    @Test
+    public void sharedGame_enforcesSeatsAndFansOutState() throws Exception {
+        ByteArrayOutputStream hostOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream guestOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream watcherOut = new ByteArrayOutputStream();
+        Connection host = new Connection("host", hostOut);
+        Connection guest = new Connection("guest", guestOut);
+        Connection watcher = new Connection("watcher", watcherOut);
+
+        GameSession session = registry.create(true);
+        assertTrue(session.submit(() -> session.open(host)).join().contains("\"seat\":0"));
+        assertTrue(session.submit(() -> session.join(guest)).join().contains("\"seat\":1"));
+        assertTrue(session.submit(() -> session.watch(watcher)).join().startsWith("{\"status\":\"ok\""));
+        assertTrue(session.submit(() -> session.join(watcher)).join().contains("is full"));
+
+        // Seat 1 may not move first.
+        assertTrue(session.submit(() -> session.handle(guest, "PLAY", "0 -1")).join().encode().contains("Not your turn"));
+
+        int plays = 0;
+        String finalState;
+        Connection[] seats = {host, guest};
+        while (true) {
+            Connection mover = seats[plays % 2];
+            String reply = session.submit(() -> session.handle(mover, "PLAY", "0 0")).join().encode();
+            assertTrue(reply.startsWith("{\"status\":\"ok\""), reply);
+            plays++;
+            if (reply.contains("\"roundOver\":true")) {
+                finalState = reply;
+                break;
+            }
+        }
+        // Fan-out is asynchronous; wait until the last state has been handed out. The guest made the
+        // last move, so the host and the watcher are pushed it.
+        String lastFrame = GameJson.event("state", finalState);
+        while (session.subscribers().offeredFrames() == 0
+                || !lastLine(watcherOut).equals(lastFrame) || !lastLine(hostOut).equals(lastFrame)) {
+            Thread.sleep(5);
+        }
+        assertEquals(36, plays, "Both players play all 36 cards not dealt to the table");
+
+        for (Connection c : List.of(host, guest, watcher)) {
+            c.close();
+            c.awaitClosed(1000);
+        }
+        int watched = countEvents(watcherOut, "state");
+        assertTrue(watched >= 1 && watched <= plays, "Spectator may skip superseded states but never gets extra ones");
+        int hostPushed = countEvents(hostOut, "state");
+        int guestPushed = countEvents(guestOut, "state");
+        assertTrue(hostPushed >= 1 && hostPushed <= plays, "Host is pushed states caused by the guest");
+        assertTrue(guestPushed >= 1 && guestPushed <= plays, "Guest is pushed states caused by the host");
+        assertEquals(1, countEvents(hostOut, "joined"));
+    }
+
+    @Test
+    public void readOnlyQueries_areAnsweredWhileTheActorIsBusy() {
+        GameSession session = registry.create(false);
+        Connection owner = new Connection("owner", new ByteArrayOutputStream());
+        session.submit(() -> session.open(owner)).join();
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = session.submit(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        CompletableFuture<Reply> play = session.submit(() -> session.handle(owner, "PLAY", "0 0"));
+
+        String state = session.query("STATE", null);
+        assertEquals(GameJson.state(session.snapshot()), state);
+        assertTrue(state.contains("\"deckSize\":30"), "STATE reflects the last published state, not queued moves");
+        assertTrue(session.query("CAPTURES", "0").startsWith("{\"status\":\"ok\",\"captures\":"));
+        assertEquals(null, session.query("PLAY", "0 0"), "Mutating commands must go through the mailbox");
+        assertFalse(play.isDone());
+
+        release.countDown();
+        assertTrue(busy.join());
+        assertEquals(session.query("STATE", null), play.join().encode());
+    }
+
+    @Test
+    public void botGame_botAnswersEveryMoveThroughPushes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Connection human = new Connection("human", out);
+        GameSession session = registry.createBotGame();
+        assertTrue(session.submit(() -> session.open(human)).join().startsWith("{\"status\":\"ok\""));
+
+        int plays = 0;
+        while (!session.snapshot().isRoundOver()) {
+            if (session.snapshot().getCurrentPlayer() != 0) {
+                Thread.sleep(1);
+                continue;
+            }
+            String reply = session.submit(() -> session.handle(human, "PLAY", "0 0")).join().encode();
+            assertTrue(reply.startsWith("{\"status\":\"ok\""), reply);
+            plays++;
+        }
+        assertEquals(18, plays, "The human plays half of the 36 cards not dealt to the table");
+        human.close();
+        human.awaitClosed(1000);
+        assertTrue(countEvents(out, "state") >= 1, "Bot moves are pushed to the human");
+    }
+
+    @Test
+    public void botGame_playsOnWhenItsSearchKeepsFailing() throws Exception {
+        BotScheduler bots = new BotScheduler(1);
+        bots.shutdown();
+        SessionRegistry broken = new SessionRegistry(2, bots);
+        try {
+            Connection human = new Connection("human", new ByteArrayOutputStream());
+            GameSession session = broken.createBotGame();
+            session.submit(() -> session.open(human)).join();
+            session.submit(() -> session.handle(human, "PLAY", "0 -1")).join();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (session.snapshot().getCurrentPlayer() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, session.snapshot().getCurrentPlayer(), "The bot falls back to a legal move");
+            assertEquals(4, session.snapshot().getHand(0).size() + session.snapshot().getHand(1).size());
+            String reply = session.submit(() -> session.handle(human, "PLAY", "0 -1")).join().encode();
+            assertTrue(reply.startsWith("{\"status\":\"ok\""), "The mailbox keeps draining: " + reply);
+        } finally {
+            broken.shutdown();
+        }
+    }
+
+    @Test
+    public void hint_ratesEveryOptionWithinTheDeadline() {
+        GameSession session = registry.create(true);
+        Connection host = new Connection("host", new ByteArrayOutputStream());
+        Connection guest = new Connection("guest", new ByteArrayOutputStream());
+        session.submit(() -> session.open(host)).join();
+        session.submit(() -> session.join(guest)).join();
+
+        long start = System.nanoTime();
+        String all = session.submit(() -> session.hint(host, "* 200")).thenCompose(h -> h).join();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(all.startsWith("{\"status\":\"ok\",\"samples\":"), all);
+        for (int handIndex = 0; handIndex < 3; handIndex++) {
+            assertTrue(all.contains("\"handIndex\":" + handIndex + ","), "Every hand card is rated: " + all);
+        }
+        assertTrue(all.contains("\"best\":"));
+        assertTrue(millis < 1500, "Hint must stop near its 200 ms deadline, took " + millis + " ms");
+
+        String one = session.submit(() -> session.hint(host, "1 50")).thenCompose(h -> h).join();
+        assertFalse(one.contains("\"handIndex\":0,") || one.contains("\"handIndex\":2,"), one);
+        assertTrue(one.contains("\"handIndex\":1,"), one);
+
+        assertTrue(session.submit(() -> session.hint(guest, "0")).thenCompose(h -> h).join().contains("Not your turn"));
+        assertTrue(session.submit(() -> session.hint(host, "3")).thenCompose(h -> h).join().contains("Invalid hand index"));
+        assertTrue(session.submit(() -> session.hint(host, "0 99999")).thenCompose(h -> h).join().contains("Deadline"));
+    }
+
+    @Test
+    public void hibernatedSession_resumesWhereItStopped(@TempDir Path dir) throws Exception {
+        SessionStore store = new SessionStore(dir);
+        SessionRegistry hibernating = new SessionRegistry(2, new BotScheduler(1), store, 60_000);
+        try {
+            GameSession session = hibernating.create(true);
+            Connection host = new Connection("host", new ByteArrayOutputStream());
+            Connection guest = new Connection("guest", new ByteArrayOutputStream());
+            session.submit(() -> session.open(host)).join();
+            session.submit(() -> session.join(guest)).join();
+            Connection[] seats = {host, guest};
+            for (int i = 0; i < 7; i++) {
+                Connection mover = seats[i % 2];
+                session.submit(() -> session.handle(mover, "PLAY", "0 0")).join();
+            }
+            String before = session.query("STATE", null);
+
+            assertFalse(session.submit(() -> session.hibernate(TimeUnit.MINUTES.toNanos(1))).join(),
+                "A session used just now stays awake");
+            assertTrue(session.submit(() -> session.hibernate(0)).join());
+            assertTrue(session.isHibernated());
+            assertTrue(store.contains(session.getId()));
+            assertEquals(0, hibernating.awake());
+            assertEquals(before, session.query("STATE", null), "Queries are answered without waking the game");
+
+            String score = session.submit(() -> session.handle(guest, "SCORE", null)).join().encode();
+            assertTrue(score.startsWith("{\"status\":\"ok\""), score);
+            assertFalse(session.isHibernated());
+            assertFalse(store.contains(session.getId()), "The file is removed once the game is back");
+            assertEquals(before, session.query("STATE", null), "Replay restores the exact position");
+            assertEquals(1, store.restores());
+
+            int plays = 7;
+            String reply;
+            do {
+                Connection mover = seats[plays % 2];
+                reply = session.submit(() -> session.handle(mover, "PLAY", "0 0")).join().encode();
+                assertTrue(reply.startsWith("{\"status\":\"ok\""), reply);
+                plays++;
+                if (plays == 20) {
+                    assertTrue(session.submit(() -> session.hibernate(0)).join());
+                }
+            } while (!reply.contains("\"roundOver\":true"));
+            assertEquals(36, plays);
+            assertEquals(2, store.restores());
+
+            session.submit(() -> session.hibernate(0)).join();
+            session.submit(() -> session.leave(host)).join();
+            assertTrue(session.submit(() -> session.leave(guest)).join());
+            hibernating.remove(session);
+            assertFalse(store.contains(session.getId()), "An ended session leaves no file behind");
+        } finally {
+            hibernating.shutdown();
+        }
+    }
+
+    @Test
+    public void idleSessions_hibernateAndBotGamesContinueAfterwards(@TempDir Path dir) throws Exception {
+        SessionStore store = new SessionStore(dir);
+        SessionRegistry hibernating = new SessionRegistry(2, new BotScheduler(1), store, 50);
+        try {
+            Connection human = new Connection("human", new ByteArrayOutputStream());
+            GameSession session = hibernating.createBotGame();
+            session.submit(() -> session.open(human)).join();
+
+            int plays = 0;
+            while (!session.snapshot().isRoundOver()) {
+                if (session.snapshot().getCurrentPlayer() != 0) {
+                    Thread.sleep(1);
+                    continue;
+                }
+                if (plays % 6 == 0) {
+                    // Leave the session alone until the sweeper puts it to sleep.
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (!session.isHibernated()) {
+                        assertTrue(System.nanoTime() < deadline, "Idle session was not hibernated");
+                        Thread.sleep(10);
+                    }
+                }
+                String reply = session.submit(() -> session.handle(human, "PLAY", "0 0")).join().encode();
+                assertTrue(reply.startsWith("{\"status\":\"ok\""), reply);
+                plays++;
+            }
+            assertEquals(18, plays);
+            assertTrue(store.restores() >= 3);
+            assertTrue(store.maxRestoreNanos() > 0);
+        } finally {
+            hibernating.shutdown();
+        }
+    }
+
+    @Test
+    public void mailbox_runsOneCommandAtATimeInOrder() {
+        GameSession session = registry.create(true);
+        AtomicInteger active = new AtomicInteger();
+        List<Integer> seen = new ArrayList<>();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            final int n = i;
+            results.add(session.submit(() -> {
+                boolean alone = active.incrementAndGet() == 1;
+                seen.add(n);
+                active.decrementAndGet();
+                return alone;
+            }));
+        }
+        for (CompletableFuture<Boolean> r : results) {
+            assertTrue(r.join(), "No two commands of one session may run concurrently");
+        }
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i, seen.get(i), "Commands must be applied in submission order");
+        }
+    }
+
+    @Test
+    public void slowSubscriber_isCoalescedOrDisconnectedWithoutBlockingPublisher() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingStream coalescingOut = new BlockingStream(release);
+        BlockingStream disconnectingOut = new BlockingStream(release);
+        Connection coalescing = new Connection("slow-coalesce", coalescingOut, 4, Connection.Overflow.COALESCE);
+        Connection disconnecting = new Connection("slow-drop", disconnectingOut, 4, Connection.Overflow.DISCONNECT);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            coalescing.push("{\"frame\":" + i + "}");
+            disconnecting.push("{\"frame\":" + i + "}");
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "push must never wait for the socket");
+        assertTrue(disconnecting.isClosed(), "Backlogged DISCONNECT subscriber is cut off");
+        assertTrue(coalescing.coalescedFrames() > 900, "Backlogged COALESCE subscriber skips intermediate frames");
+
+        release.countDown();
+        coalescing.close();
+        coalescing.awaitClosed(1000);
+        assertEquals("{\"frame\":999}", lastLine(coalescingOut), "The newest frame is always delivered");
+    }
+
+    @Test
+    public void concurrentPushesStayWithinBoundAndSeatEventsAreNeverCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingStream hostOut = new BlockingStream(release);
+        Connection host = new Connection("host", hostOut, 4, Connection.Overflow.COALESCE);
+        GameSession session = registry.create(true);
+        session.submit(() -> session.open(host)).join();
+
+        // Two publishers at once, as when the client watches a second game.
+        Thread[] pushers = new Thread[2];
+        for (int t = 0; t < pushers.length; t++) {
+            int from = t;
+            pushers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    host.push("{\"frame\":" + from + "}");
+                }
+            });
+            pushers[t].start();
+        }
+        for (Thread t : pushers) {
+            t.join();
+        }
+        session.submit(() -> session.join(new Connection("guest", new ByteArrayOutputStream()))).join();
+        host.push("{\"frame\":\"last\"}");
+
+        release.countDown();
+        host.close();
+        host.awaitClosed(1000);
+        List<String> lines = Arrays.asList(hostOut.toString(StandardCharsets.UTF_8).split("\n"));
+        long frames = lines.stream().filter(l -> l.startsWith("{\"frame\"")).count();
+        assertEquals(2001, frames + host.coalescedFrames(), "Every push is either written or coalesced");
+        assertTrue(host.coalescedFrames() > 0, "Backlogged pushes from both threads are coalesced");
+        assertEquals(1, countEvents(hostOut, "joined"), "A backlogged player still learns about the guest");
+        assertTrue(lines.contains("{\"frame\":\"last\"}"), "The newest frame is always delivered");
+    }
+
+    /**
+     * Output stream whose writes block until released, standing in for a client that stopped reading.
+     */
+    private static final class BlockingStream extends ByteArrayOutputStream {
+        private final CountDownLatch release;
+
+        BlockingStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    private static String lastLine(ByteArrayOutputStream out) {
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        return lines[lines.length - 1];
+    }
+
+    private static int countEvents(ByteArrayOutputStream out, String event) {
+        int count = 0;
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (line.startsWith("{\"event\":\"" + event + "\"")) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.scopa.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `HttpGateway`: a whole round over HTTP, ETag handling on STATE,
+ * keep-alive across 304 replies, status codes for bad requests, and
+ * discarding abandoned games.
+ */
+public class HttpGatewayTest {
+    private static final Pattern GAME_ID = Pattern.compile("\"gameId\":\"([0-9a-f]+)\"");
+
+    static {
+        // As GameServer does; without it each round trip waits for a delayed ACK.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final SessionRegistry registry = new SessionRegistry(2);
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private HttpGateway gateway;
+
+    @BeforeEach
+    public void start() throws Exception {
+        gateway = new HttpGateway(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+        gateway.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        gateway.stop();
+        registry.shutdown();
+    }
+
+    @Test
+    public void playsARoundAndAnswersUnchangedPollsWith304() throws Exception {
+        HttpResponse<String> created = send("POST", "/games");
+        assertEquals(201, created.statusCode());
+        Matcher m = GAME_ID.matcher(created.body());
+        assertTrue(m.find(), created.body());
+        String game = "/games/" + m.group(1);
+        assertEquals(game, created.headers().firstValue("Location").orElse(null));
+        assertEquals(1, registry.size());
+
+        HttpResponse<String> state = send("GET", game);
+        assertEquals(200, state.statusCode());
+        assertTrue(state.body().contains("\"deckSize\":30"), state.body());
+        String etag = state.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> unchanged = send("GET", game, "If-None-Match", etag);
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+        assertEquals(etag, unchanged.headers().firstValue("ETag").orElse(null));
+        assertEquals(200, send("GET", game, "If-None-Match", "\"0\"").statusCode());
+        assertEquals(1, gateway.notModifiedReplies());
+
+        assertTrue(send("GET", game + "/captures?hand=0").body().startsWith("{\"status\":\"ok\",\"captures\":"));
+        int plays = 0;
+        String reply;
+        do {
+            HttpResponse<String> played = send("POST", game + "/play?hand=0&capture=0");
+            assertEquals(200, played.statusCode(), played.body());
+            reply = played.body();
+            plays++;
+        } while (!reply.contains("\"roundOver\":true"));
+        assertEquals(36, plays);
+        assertEquals(reply, send("GET", game).body(), "STATE matches the last PLAY reply");
+        assertEquals(200, send("GET", game, "If-None-Match", etag).statusCode(), "The old ETag is stale");
+
+        assertEquals(200, send("POST", game + "/finalize").statusCode());
+        assertTrue(send("GET", game + "/score").body().contains("\"player1Score\""));
+
+        assertEquals(200, send("DELETE", game).statusCode());
+        assertEquals(0, registry.size(), "Deleting the game discards the session");
+        assertEquals(404, send("GET", game).statusCode());
+    }
+
+    @Test
+    public void notModifiedRepliesKeepTheConnectionOpen() throws Exception {
+        String game = "/games/" + matchId(send("POST", "/games").body());
+        String etag = send("GET", game).headers().firstValue("ETag").orElseThrow();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), gateway.port())) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            for (int i = 0; i < 3; i++) {
+                out.write(("GET " + game + " HTTP/1.1\r\nHost: localhost\r\nIf-None-Match: " + etag + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                assertEquals("HTTP/1.1 304 Not Modified", in.readLine(), "Request " + i + " on one connection");
+                String header;
+                while ((header = in.readLine()) != null && !header.isEmpty()) {
+                    assertFalse(header.toLowerCase().startsWith("connection: close"), header);
+                }
+            }
+        }
+        assertEquals(3, gateway.notModifiedReplies());
+    }
+
+    @Test
+    public void rejectsBadRequestsWithMatchingStatus() throws Exception {
+        String game = "/games/" + matchId(send("POST", "/games?bot=true").body());
+        assertEquals(405, send("GET", "/games").statusCode());
+        assertEquals(405, send("GET", game + "/play?hand=0").statusCode());
+        assertEquals(404, send("GET", "/games/0123456789abcdef01234567").statusCode());
+        assertEquals(404, send("GET", game + "/shuffle").statusCode());
+
+        HttpResponse<String> bad = send("POST", game + "/play?hand=7");
+        assertEquals(400, bad.statusCode());
+        assertTrue(bad.body().contains("Invalid play"), bad.body());
+        assertEquals(400, send("POST", game + "/play").statusCode(), "PLAY needs a hand index");
+        assertEquals(400, send("POST", game + "/finalize").statusCode(), "The round is not over");
+    }
+
+    @Test
+    public void abandonedGamesAreDiscarded() throws Exception {
+        gateway.stop();
+        gateway = new HttpGateway(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4, 200);
+        gateway.start();
+        String game = "/games/" + matchId(send("POST", "/games?bot=true").body());
+        assertEquals(1, gateway.size());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((gateway.size() > 0 || registry.size() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, gateway.size(), "A game nobody requests is dropped");
+        assertEquals(0, registry.size(), "and so is its session");
+        assertEquals(404, send("GET", game).statusCode());
+    }
+
+    @Test
+    public void ifNoneMatchAcceptsListsWeakTagsAndWildcards() {
+        assertTrue(HttpGateway.matches("\"4\"", "\"4\""));
+        assertTrue(HttpGateway.matches("\"3\", W/\"4\"", "\"4\""));
+        assertTrue(HttpGateway.matches("*", "\"4\""));
+        assertFalse(HttpGateway.matches("\"41\"", "\"4\""));
+        assertFalse(HttpGateway.matches(null, "\"4\""));
+    }
+
+    private static String matchId(String body) {
+        Matcher m = GAME_ID.matcher(body);
+        assertTrue(m.find(), body);
+        return m.group(1);
+    }
+
+    private HttpResponse<String> send(String method, String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + gateway.port() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody());
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
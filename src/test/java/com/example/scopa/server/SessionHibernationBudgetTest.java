@@ -0,0 +1,46 @@
+package com.example.scopa.server;
+
+import com.example.scopa.perf.AllocationBudget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation and latency budget for putting a session to sleep and bringing it back
+ * mid-round (see `AllocationBudget`): writing its move log, dropping the game, then
+ * reading the log and replaying 20 moves into a new game with fresh belief trackers.
+ */
+public class SessionHibernationBudgetTest {
+
+    @Test
+    public void hibernateAndWake(@TempDir Path dir) throws Exception {
+        SessionStore store = new SessionStore(dir);
+        GameSession session = new GameSession("budget", true, Runnable::run, Runnable::run, null, store);
+        Connection host = new Connection("host", new ByteArrayOutputStream());
+        Connection guest = new Connection("guest", new ByteArrayOutputStream());
+        session.open(host);
+        session.join(guest);
+        Connection[] seats = {host, guest};
+        for (int i = 0; i < 20; i++) {
+            assertTrue(session.handle(seats[i % 2], "PLAY", "0 0").encode().startsWith("{\"status\":\"ok\""));
+        }
+        long version = session.snapshot().getVersion();
+
+        AllocationBudget.check("session.hibernateWake", 200, (from, count) -> {
+            long acc = 0;
+            for (int i = 0; i < count; i++) {
+                if (!session.hibernate(0)) {
+                    throw new AssertionError("Session did not hibernate");
+                }
+                session.wake();
+                acc += session.snapshot().getVersion();
+            }
+            return acc;
+        });
+        assertEquals(version, session.snapshot().getVersion());
+    }
+}
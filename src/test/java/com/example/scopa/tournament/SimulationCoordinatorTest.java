@@ -0,0 +1,79 @@
+package com.example.scopa.tournament;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `SimulationCoordinator` with real worker JVMs on this machine:
+ * results match a single-process run whatever the number of workers, and
+ * the range of a worker that disconnects mid-range is played by another.
+ */
+public class SimulationCoordinatorTest {
+    private static final SimulationJob JOB = new SimulationJob("greedy", "random", 42);
+    private static final long ROUNDS = 1_000;
+
+    @Test
+    public void rangesAddUpToTheWholeJob() {
+        RoundStats whole = JOB.play(0, ROUNDS);
+        RoundStats parts = new RoundStats();
+        for (long from = 0; from < ROUNDS; from += 300) {
+            parts.add(JOB.play(from, Math.min(from + 300, ROUNDS)));
+        }
+        assertEquals(whole, parts);
+        assertEquals(ROUNDS, whole.rounds());
+        assertTrue(whole.meanDifference() > 0, "Greedy should beat random: " + whole);
+        assertEquals(whole, RoundStats.parse(whole.toLine()));
+    }
+
+    @Test
+    public void resultsDoNotDependOnWorkerCount() throws Exception {
+        RoundStats expected = JOB.play(0, ROUNDS);
+        for (int workers : new int[] {1, 3}) {
+            try (SimulationCoordinator c = new SimulationCoordinator(50, 60_000)) {
+                for (int i = 0; i < workers; i++) {
+                    c.launchWorker();
+                }
+                assertEquals(expected, c.run(JOB, ROUNDS), workers + " workers");
+                assertEquals(0, c.redispatched());
+            }
+        }
+    }
+
+    @Test
+    public void rangeOfADisconnectedWorkerIsRedispatched() throws Exception {
+        RoundStats expected = JOB.play(0, ROUNDS);
+        try (SimulationCoordinator c = new SimulationCoordinator(100, 60_000)) {
+            // A worker that takes one range and then drops the connection without answering
+            try (Socket fake = new Socket(InetAddress.getLoopbackAddress(), c.port())) {
+                Writer out = new OutputStreamWriter(fake.getOutputStream(), StandardCharsets.UTF_8);
+                BufferedReader in = new BufferedReader(new InputStreamReader(fake.getInputStream(), StandardCharsets.UTF_8));
+                out.write("HELLO 0\n");
+                out.flush();
+                CompletableFuture<RoundStats> result = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return c.run(JOB, ROUNDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                assertTrue(in.readLine().startsWith("JOB "));
+                assertTrue(in.readLine().startsWith("RANGE "));
+                c.launchWorker();
+                fake.shutdownOutput();
+                assertEquals(expected, result.get(60, TimeUnit.SECONDS));
+            }
+            assertEquals(1, c.redispatched());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.scopa.tournament;
+
+import com.example.scopa.player.GreedyBot;
+import com.example.scopa.player.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `Tournament`: mirrored matches, deterministic results whatever
+ * the thread count, and ratings that separate a stronger policy.
+ */
+public class TournamentTest {
+
+    private static final List<Entrant> FIELD = List.of(
+        new Entrant("Greedy", (name, seed) -> new GreedyBot(name)),
+        new Entrant("Random", RandomBot::new),
+        new Entrant("Random-2", RandomBot::new));
+
+    @Test
+    public void roundRobin_isDeterministicAcrossThreadCounts() throws Exception {
+        Tournament.Report single = new Tournament(FIELD, Tournament.Pairing.ROUND_ROBIN, 10, 0, 1, 5).run();
+        Tournament.Report parallel = new Tournament(FIELD, Tournament.Pairing.ROUND_ROBIN, 10, 0, 3, 5).run();
+
+        assertEquals(3 * 10 * 2, single.getResults().size(), "Each of 3 pairings plays 10 mirrored pairs");
+        assertEquals(single.getResults().toString(), parallel.getResults().toString());
+        for (int i = 0; i < FIELD.size(); i++) {
+            assertEquals(single.getRatings().rating(i), parallel.getRatings().rating(i));
+            assertEquals(40, single.getRatings().games(i));
+        }
+        for (MatchResult r : single.getResults()) {
+            assertTrue(Math.max(r.getFirstPoints(), r.getSecondPoints()) >= Tournament.DEFAULT_TARGET, r.toString());
+            assertNotEquals(r.getFirstPoints(), r.getSecondPoints(), r.toString());
+        }
+        // Mirrored pairs: the second match swaps the seats of the first.
+        MatchResult a = single.getResults().get(0);
+        MatchResult b = single.getResults().get(1);
+        assertEquals(a.getFirst(), b.getSecond());
+        assertEquals(a.getSecond(), b.getFirst());
+    }
+
+    @Test
+    public void ratingsSeparateStrongerPolicy() throws Exception {
+        Tournament.Report report = new Tournament(FIELD, Tournament.Pairing.ROUND_ROBIN, 25, 0, 2, 11).run();
+        Ratings r = report.getRatings();
+        assertTrue(r.rating(0) - r.interval(0) > r.rating(1) + r.interval(1),
+            "Greedy should beat random play with non-overlapping intervals:\n" + report);
+        assertTrue(report.gamesPerSecond() > 0);
+    }
+
+    @Test
+    public void swiss_pairsEveryoneEachRoundWithoutRematches() throws Exception {
+        List<Entrant> field = List.of(
+            new Entrant("A", RandomBot::new), new Entrant("B", RandomBot::new),
+            new Entrant("C", RandomBot::new), new Entrant("D", RandomBot::new));
+        Tournament.Report report = new Tournament(field, Tournament.Pairing.SWISS, 2, 3, 2, 3).run();
+
+        assertEquals(3 * 2 * 2 * 2, report.getResults().size(), "3 rounds x 2 pairings x 2 mirrored pairs x 2");
+        Set<String> pairings = new HashSet<>();
+        for (MatchResult m : report.getResults()) {
+            pairings.add(Math.min(m.getFirst(), m.getSecond()) + "-" + Math.max(m.getFirst(), m.getSecond()));
+        }
+        assertEquals(6, pairings.size(), "Three Swiss rounds over four entrants cover every pairing once");
+    }
+}
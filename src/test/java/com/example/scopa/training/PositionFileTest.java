@@ -0,0 +1,97 @@
+package com.example.scopa.training;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `PositionWriter` and `PositionReader`: every recorded position
+ * reads back column for column, with its round's outcome, across many blocks
+ * and with or without compression.
+ */
+public class PositionFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void rawFileRoundTrips() throws IOException {
+        roundTrip(dir.resolve("raw.bin"), false);
+    }
+
+    @Test
+    public void deflatedFileRoundTripsAndIsSmaller() throws IOException {
+        Path raw = roundTrip(dir.resolve("raw.bin"), false);
+        Path packed = roundTrip(dir.resolve("packed.bin"), true);
+        assertTrue(packed.toFile().length() * 2 < raw.toFile().length(), "Deflate should at least halve the file");
+    }
+
+    @Test
+    public void unfinishedRoundIsDiscardedOnClose() throws IOException {
+        Path file = dir.resolve("partial.bin");
+        ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+        try (PositionWriter out = new PositionWriter(file, false, 8)) {
+            game.startNewRound(3);
+            out.add(SimState.of(game));
+        }
+        try (PositionReader in = PositionReader.open(file)) {
+            assertFalse(in.next());
+        }
+    }
+
+    private Path roundTrip(Path file, boolean compress) throws IOException {
+        // Small blocks so that rounds straddle the nominal block size.
+        List<SimState> positions = new ArrayList<>();
+        List<int[]> outcomes = new ArrayList<>();
+        try (PositionWriter out = new PositionWriter(file, compress, 50)) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            int[] moves = new int[64];
+            for (int round = 0; round < 30; round++) {
+                game.startNewRound(round, round % 2);
+                SimState s = SimState.of(game);
+                int first = positions.size();
+                while (!s.isRoundOver()) {
+                    out.add(s);
+                    positions.add(s.copy());
+                    int n = s.legalMoves(moves);
+                    s.play(moves[(round + positions.size()) % n]);
+                }
+                s.finish();
+                out.endRound(s);
+                int[] points = {s.score().getPlayer1Points(), s.score().getPlayer2Points()};
+                for (int i = first; i < positions.size(); i++) {
+                    outcomes.add(points);
+                }
+            }
+        }
+
+        try (PositionReader in = PositionReader.open(file)) {
+            for (int i = 0; i < positions.size(); i++) {
+                assertTrue(in.next(), "Row " + i + " missing");
+                SimState s = positions.get(i);
+                for (int seat = 0; seat < 2; seat++) {
+                    assertEquals(s.hand(seat), in.hand(seat));
+                    assertEquals(s.captured(seat), in.captured(seat));
+                    assertEquals(s.scopas(seat), in.scopas(seat));
+                    assertEquals(outcomes.get(i)[seat], in.points(seat));
+                }
+                assertEquals(s.table(), in.table());
+                assertEquals(s.deckSize(), in.deckSize());
+                assertEquals(s.current(), in.turn());
+                int diff = outcomes.get(i)[0] - outcomes.get(i)[1];
+                assertEquals(s.current() == 0 ? diff : -diff, in.outcome());
+            }
+            assertFalse(in.next());
+        }
+        return file;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.scopa.variant;
+
+import com.example.scopa.ai.SimState;
+import com.example.scopa.game.Move;
+import com.example.scopa.game.ScopaGame;
+import com.example.scopa.model.Card;
+import com.example.scopa.model.Rank;
+import com.example.scopa.model.Suit;
+import com.example.scopa.player.HumanPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for `VariantState` and the tables `VariantRules` compiles: plain
+ * Scopa against `SimState` move by move, capture options of every variant
+ * against a brute-force reading of its rules, and the rules specific to
+ * Scopone, Scopa d'Assi and Cirulla.
+ */
+public class VariantStateTest {
+
+    @Test
+    public void scopaPlaysLikeSimState() {
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (long seed = 0; seed < 200; seed++) {
+            ScopaGame game = ScopaGame.twoPlayer(new HumanPlayer("A"), new HumanPlayer("B"));
+            game.startNewRound(seed, (int) seed & 1);
+            SimState sim = SimState.of(game);
+            VariantState v = new VariantState(Variant.SCOPA);
+            v.deal(seed, (int) seed & 1);
+
+            while (!sim.isRoundOver()) {
+                assertEquals(state(sim), state(v), "seed " + seed);
+                // Same successors, whatever order the options are listed in
+                Map<List<Long>, Integer> variantMoves = new HashMap<>();
+                for (int move : legalMoves(v)) {
+                    VariantState next = v.copy();
+                    next.play(move);
+                    variantMoves.put(state(next), move);
+                }
+                int[] simMoves = legalMoves(sim);
+                Set<List<Long>> simStates = new HashSet<>();
+                for (int move : simMoves) {
+                    SimState next = sim.copy();
+                    next.play(move);
+                    simStates.add(state(next));
+                }
+                assertEquals(simStates, variantMoves.keySet(), "seed " + seed);
+
+                sim.play(simMoves[rnd.nextInt(simMoves.length)]);
+                v.play(variantMoves.get(state(sim)));
+            }
+            sim.finish();
+            v.finish();
+            assertTrue(v.isRoundOver());
+            assertEquals(state(sim), state(v));
+            assertEquals(sim.pointDifference(), v.pointDifference());
+        }
+    }
+
+    @Test
+    public void captureOptionsFollowEachVariantsRules() {
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (Variant variant : Variant.values()) {
+            VariantState s = new VariantState(variant);
+            for (int i = 0; i < 3000; i++) {
+                s.table = randomTable(rnd, rnd.nextInt(11));
+                for (int value = 1; value <= 10; value++) {
+                    int n = s.captureOptions(value);
+                    Set<Long> options = new HashSet<>();
+                    for (int k = 0; k < n; k++) {
+                        options.add(s.option(k));
+                    }
+                    assertEquals(n, options.size(), "options must be distinct");
+                    assertEquals(bruteForce(variant, value, s.table), options,
+                        variant + " value " + value + " table " + Long.toBinaryString(s.table));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void aceSweepsTheTableWithoutScopa() {
+        VariantState s = new VariantState(Variant.SCOPA_D_ASSI);
+        s.deal(1, 0);
+        s.hand[0] = bit(Suit.CUPS, Rank.ACE);
+        s.table = bit(Suit.COINS, Rank.SEVEN) | bit(Suit.SWORDS, Rank.TEN);
+        int[] moves = legalMoves(s);
+        assertEquals(2, moves.length, "the sweep, or dropping the Ace");
+        s.play(moves[0]);
+        assertEquals(0, s.table);
+        assertEquals(bit(Suit.CUPS, Rank.ACE) | bit(Suit.COINS, Rank.SEVEN) | bit(Suit.SWORDS, Rank.TEN), s.pile[0]);
+        assertEquals(0, s.scopas[0]);
+
+        // An Ace on the table blocks the sweep; the Ace takes the Ace, which clears the table: a scopa
+        s.deal(1, 0);
+        s.hand[0] = bit(Suit.CUPS, Rank.ACE);
+        s.table = bit(Suit.CLUBS, Rank.ACE);
+        s.play(legalMoves(s)[0]);
+        assertEquals(1, s.scopas[0]);
+
+        s.table = bit(Suit.CLUBS, Rank.ACE) | bit(Suit.SWORDS, Rank.TEN);
+        assertEquals(1, s.captureOptions(1));
+        assertEquals(bit(Suit.CLUBS, Rank.ACE), s.option(0));
+    }
+
+    @Test
+    public void cirullaCapturesFifteens() {
+        VariantState s = new VariantState(Variant.CIRULLA);
+        s.table = bit(Suit.CUPS, Rank.FIVE) | bit(Suit.SWORDS, Rank.THREE) | bit(Suit.CLUBS, Rank.TWO);
+        // A Five takes the Five, or the Three and Two (sum 5), or all three (5 + 3 + 2 + 5 = 15)
+        Set<Long> options = new HashSet<>();
+        for (int k = 0, n = s.captureOptions(5); k < n; k++) {
+            options.add(s.option(k));
+        }
+        assertEquals(Set.of(bit(Suit.CUPS, Rank.FIVE), s.table), options);
+        VariantState plain = new VariantState(Variant.SCOPA);
+        plain.table = s.table;
+        assertEquals(1, plain.captureOptions(5));
+    }
+
+    @Test
+    public void cirullaScoresPiccolaAndGrande() {
+        VariantRules rules = Variant.CIRULLA.rules();
+        assertEquals(0, rules.coinBonus[0b11]);
+        assertEquals(3, rules.coinBonus[0b111]);
+        assertEquals(4, rules.coinBonus[0b1111]);
+        assertEquals(6, rules.coinBonus[0b111111]);
+        assertEquals(4, rules.coinBonus[0b1101111], "the sequence stops at the first missing card");
+        assertEquals(5, rules.coinBonus[0b1110000000]);
+        assertEquals(11, rules.coinBonus[0b1110111111]);
+        assertEquals(0, Variant.SCOPA.rules().coinBonus[0b1110111111]);
+
+        VariantState s = new VariantState(Variant.CIRULLA);
+        s.pile[0] = bit(Suit.COINS, Rank.ACE) | bit(Suit.COINS, Rank.TWO) | bit(Suit.COINS, Rank.THREE);
+        VariantState plain = new VariantState(Variant.SCOPA);
+        plain.pile[0] = s.pile[0];
+        assertEquals(plain.points(0) + 3, s.points(0));
+    }
+
+    @Test
+    public void scoponeDealsEverythingAndScoresBySide() {
+        SplittableRandom rnd = new SplittableRandom(3);
+        for (long seed = 0; seed < 100; seed++) {
+            VariantState s = new VariantState(Variant.SCOPONE);
+            s.deal(seed, (int) seed & 3);
+            assertEquals(0, s.deckSize());
+            for (int p = 0; p < 4; p++) {
+                assertEquals(9, Long.bitCount(s.hand(p)));
+            }
+            assertEquals(4, Long.bitCount(s.table()));
+
+            int plays = 0;
+            int lastScopas = 0;
+            while (!s.isRoundOver()) {
+                assertEquals((seed + plays) & 3, s.current(), "turns rotate through four seats");
+                int[] moves = legalMoves(s);
+                lastScopas = s.scopas(0) + s.scopas(1);
+                s.play(moves[rnd.nextInt(moves.length)]);
+                plays++;
+            }
+            assertEquals(36, plays);
+            assertEquals(lastScopas, s.scopas(0) + s.scopas(1), "the last play never scores a scopa");
+            s.finish();
+            assertEquals((1L << Card.DECK_SIZE) - 1, s.pile(0) | s.pile(1));
+            assertEquals(0, s.pile(0) & s.pile(1));
+        }
+
+        // Partners share a pile: player 2 captures for side 0
+        VariantState s = new VariantState(Variant.SCOPONE);
+        s.deal(5, 2);
+        s.hand[2] = bit(Suit.CUPS, Rank.SEVEN) | bit(Suit.SWORDS, Rank.FOUR);
+        s.table = bit(Suit.COINS, Rank.SEVEN);
+        s.play(Move.of(0, 0));
+        assertEquals(bit(Suit.CUPS, Rank.SEVEN) | bit(Suit.COINS, Rank.SEVEN), s.pile(0));
+        assertEquals(1, s.scopas(0), "a scopa with cards still to play");
+        assertEquals(2, s.lastCapturer());
+        assertEquals(3, s.current());
+    }
+
+    @Test
+    public void parseAcceptsCommonSpellings() {
+        assertEquals(Variant.SCOPA_D_ASSI, Variant.parse("scopa d'assi"));
+        assertEquals(Variant.SCOPONE, Variant.parse("Scopone"));
+        assertThrows(IllegalArgumentException.class, () -> Variant.parse("briscola"));
+    }
+
+    /** Every capture the rules allow, found by trying every subset of the table. */
+    private static Set<Long> bruteForce(Variant variant, int value, long table) {
+        Set<Long> out = new HashSet<>();
+        if (table == 0) {
+            return out;
+        }
+        boolean aceOnTable = false;
+        boolean equalOnTable = false;
+        for (long m = table; m != 0; m &= m - 1) {
+            int v = Card.of(Long.numberOfTrailingZeros(m)).value();
+            aceOnTable |= v == 1;
+            equalOnTable |= v == value;
+        }
+        if (variant.aceSweeps && value == 1 && !aceOnTable) {
+            out.add(table);
+        }
+        int[] cards = new int[Long.bitCount(table)];
+        for (int i = 0, k = 0; i < Card.DECK_SIZE; i++) {
+            if ((table >>> i & 1) != 0) {
+                cards[k++] = i;
+            }
+        }
+        for (int subset = 1; subset < 1 << cards.length; subset++) {
+            long taken = 0;
+            int sum = 0;
+            for (int i = 0; i < cards.length; i++) {
+                if ((subset >>> i & 1) != 0) {
+                    taken |= 1L << cards[i];
+                    sum += Card.of(cards[i]).value();
+                }
+            }
+            boolean single = Integer.bitCount(subset) == 1;
+            if (sum == value && (single || !equalOnTable)) {
+                out.add(taken);
+            }
+            if (variant.fifteens && sum + value == 15) {
+                out.add(taken);
+            }
+        }
+        return out;
+    }
+
+    private static long randomTable(SplittableRandom rnd, int size) {
+        long table = 0;
+        while (Long.bitCount(table) < size) {
+            // Low cards half the time, where sums have the most combinations
+            int card = rnd.nextBoolean() ? rnd.nextInt(Card.DECK_SIZE) : rnd.nextInt(4) * 10 + rnd.nextInt(5);
+            table |= 1L << card;
+        }
+        return table;
+    }
+
+    private static long bit(Suit suit, Rank rank) {
+        return 1L << Card.of(suit, rank).index();
+    }
+
+    private static List<Long> state(SimState s) {
+        return Arrays.asList(s.hand(0), s.hand(1), s.captured(0), s.captured(1), s.table(),
+            (long) s.scopas(0), (long) s.scopas(1), (long) s.current(), (long) s.lastCapturer(), (long) s.deckSize());
+    }
+
+    private static List<Long> state(VariantState s) {
+        return Arrays.asList(s.hand(0), s.hand(1), s.pile(0), s.pile(1), s.table(),
+            (long) s.scopas(0), (long) s.scopas(1), (long) s.current(), (long) s.lastCapturer(), (long) s.deckSize());
+    }
+
+    private static int[] legalMoves(SimState s) {
+        int[] moves = new int[64];
+        int n = s.legalMoves(moves);
+        if (n > moves.length) {
+            moves = new int[n];
+            s.legalMoves(moves);
+        }
+        return Arrays.copyOf(moves, n);
+    }
+
+    private static int[] legalMoves(VariantState s) {
+        int[] moves = new int[64];
+        int n = s.legalMoves(moves);
+        if (n > moves.length) {
+            moves = new int[n];
+            s.legalMoves(moves);
+        }
+        return Arrays.copyOf(moves, n);
+    }
+}